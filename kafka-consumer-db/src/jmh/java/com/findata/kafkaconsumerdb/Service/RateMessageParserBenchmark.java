@@ -0,0 +1,95 @@
+package com.findata.kafkaconsumerdb.Service;
+
+import com.findata.kafkaconsumerdb.Entity.RateRecord;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kur mesajı ayrıştırma yollarının JMH karşılaştırması.
+ * <p>
+ * {@code gsonTree} eski dinleyicinin yolunu (String + Gson {@code JsonObject} ağacı +
+ * {@code new BigDecimal(double)} + iki kez {@code Instant.now()}) taklit eder;
+ * {@code streamingJson} ve {@code streamingPipe} aynı içerikteki JSON ve pipe mesajlarını
+ * {@link RateMessageParser} ile baytlardan ayrıştırır.
+ * </p>
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec
+ * </pre>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RateMessageParserBenchmark {
+
+    private static final int MESSAGE_COUNT = 64;
+
+    private final RateMessageParser parser = new RateMessageParser();
+
+    private byte[][] jsonMessages;
+    private byte[][] pipeMessages;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        jsonMessages = new byte[MESSAGE_COUNT][];
+        pipeMessages = new byte[MESSAGE_COUNT][];
+        for (int i = 0; i < MESSAGE_COUNT; i++) {
+            double bid = 34.1 + i * 0.00013;
+            double ask = 34.2 + i * 0.00017;
+            String timestamp = Instant.parse("2025-04-25T10:15:30.123Z").plusMillis(i * 250L).toString();
+            jsonMessages[i] = String.format(Locale.US, "{\"name\":\"PF1_USDTRY\",\"bid\":%.5f,\"ask\":%.5f,\"timestamp\":\"%s\"}",
+                    bid, ask, timestamp).getBytes(StandardCharsets.UTF_8);
+            pipeMessages[i] = String.format(Locale.US, "PF1_USDTRY|%.5f|%.5f|%s", bid, ask, timestamp)
+                    .getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    @Benchmark
+    public RateRecord gsonTree() {
+        JsonObject jsonObject = JsonParser.parseString(new String(next(jsonMessages), StandardCharsets.UTF_8)).getAsJsonObject();
+        RateRecord rateRecord = new RateRecord();
+        rateRecord.setRateName(jsonObject.get("name").getAsString());
+        rateRecord.setBid(new BigDecimal(jsonObject.get("bid").getAsDouble()));
+        rateRecord.setAsk(new BigDecimal(jsonObject.get("ask").getAsDouble()));
+        rateRecord.setRateUpdatetime(Instant.now());
+        rateRecord.setDbUpdatetime(Instant.now());
+        return rateRecord;
+    }
+
+    @Benchmark
+    public RateRecord streamingJson() {
+        return parser.parse(next(jsonMessages));
+    }
+
+    @Benchmark
+    public RateRecord streamingPipe() {
+        return parser.parse(next(pipeMessages));
+    }
+
+    private byte[] next(byte[][] messages) {
+        index = (index + 1) & (MESSAGE_COUNT - 1);
+        return messages[index];
+    }
+}
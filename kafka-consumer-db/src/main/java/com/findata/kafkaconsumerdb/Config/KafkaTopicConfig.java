@@ -0,0 +1,88 @@
+package com.findata.kafkaconsumerdb.Config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaAdmin;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tüketilen Kafka topic'lerinin partition sayılarını tanımlayan konfigürasyon sınıfı.
+ * <p>
+ * Spring'in {@code KafkaAdmin} bileşeni başlangıçta bu topic'leri oluşturur; topic zaten varsa
+ * ve daha az partition'a sahipse partition sayısını artırır. Dinleyicilerin concurrency değeri
+ * aynı ayarlardan okunur; böylece her partition kendi consumer thread'inde işlenir ve yazma
+ * hızı partition sayısıyla ölçeklenir.
+ * </p>
+ * <p>
+ * Her topic'in yeniden deneme ve dead letter topic'leri de ({@link RateRetryProperties}) aynı
+ * partition sayısıyla oluşturulur.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @since 2025-04-25
+ */
+@Configuration
+public class KafkaTopicConfig {
+
+    @Value("${kafka.topic.raw-rates}")
+    private String rawRatesTopic;
+
+    @Value("${kafka.topic.calculated-rates}")
+    private String calculatedRatesTopic;
+
+    @Value("${kafka.topic.raw-rates-partitions}")
+    private int rawRatesPartitions;
+
+    @Value("${kafka.topic.calculated-rates-partitions}")
+    private int calculatedRatesPartitions;
+
+    @Autowired
+    private RateRetryProperties rateRetryProperties;
+
+    /**
+     * Ham kurların topic tanımı.
+     *
+     * @return raw-rates topic'i
+     */
+    @Bean
+    public NewTopic rawRatesTopic() {
+        return TopicBuilder.name(rawRatesTopic).partitions(rawRatesPartitions).replicas(1).build();
+    }
+
+    /**
+     * Hesaplanmış kurların topic tanımı.
+     *
+     * @return calculated-rates topic'i
+     */
+    @Bean
+    public NewTopic calculatedRatesTopic() {
+        return TopicBuilder.name(calculatedRatesTopic).partitions(calculatedRatesPartitions).replicas(1).build();
+    }
+
+    /**
+     * Her iki topic'in yeniden deneme ve dead letter topic tanımları.
+     *
+     * @return Yeniden deneme ve DLT topic'leri
+     */
+    @Bean
+    public KafkaAdmin.NewTopics retryTopics() {
+        List<NewTopic> topics = new ArrayList<>();
+        addRetryTopics(topics, rawRatesTopic, rawRatesPartitions);
+        addRetryTopics(topics, calculatedRatesTopic, calculatedRatesPartitions);
+        return new KafkaAdmin.NewTopics(topics.toArray(new NewTopic[0]));
+    }
+
+    private void addRetryTopics(List<NewTopic> topics, String topic, int partitions) {
+        for (int level = 0; level < rateRetryProperties.getDelays().size(); level++) {
+            topics.add(TopicBuilder.name(rateRetryProperties.retryTopic(topic, level)).partitions(partitions).replicas(1).build());
+        }
+        topics.add(TopicBuilder.name(rateRetryProperties.deadLetterTopic(topic)).partitions(partitions).replicas(1).build());
+    }
+}
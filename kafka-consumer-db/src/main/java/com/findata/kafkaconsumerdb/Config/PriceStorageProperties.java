@@ -0,0 +1,101 @@
+package com.findata.kafkaconsumerdb.Config;
+
+import com.findata.kafkaconsumerdb.Entity.FixedPointPrice;
+import jakarta.annotation.PostConstruct;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Fiyat sütunlarının ({@code tbl_rates} ve {@code tbl_latest_rates} tablolarındaki {@code bid}/{@code ask})
+ * veritabanında nasıl saklanacağını belirleyen ayarlar.
+ * <p>
+ * {@code rates.storage.price-format} iki değer alır:
+ * </p>
+ * <ul>
+ *   <li>{@code numeric} (varsayılan) - {@code numeric(19, 8)} sütunları</li>
+ *   <li>{@code fixed} - 1e-8 birim cinsinden {@code bigint} sütunları; sütunlar başlangıçta
+ *       {@code schema-fixed.sql} ile dönüştürülür</li>
+ * </ul>
+ * <p>
+ * Uygulama içinde fiyatlar her iki biçimde de ölçeklenmiş {@code long} olarak tutulur
+ * ({@link FixedPointPrice}); bu sınıf yalnızca JDBC sınırındaki dönüşümü yapar.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @since 2025-04-25
+ */
+@Configuration
+@ConfigurationProperties(prefix = "rates.storage")
+public class PriceStorageProperties {
+
+    /** Fiyat sütunlarının biçimi: "numeric" veya "fixed" */
+    private String priceFormat = "numeric";
+
+    /**
+     * Ayarın geçerli olduğunu doğrular.
+     */
+    @PostConstruct
+    public void validate() {
+        if (!"numeric".equals(priceFormat) && !"fixed".equals(priceFormat)) {
+            throw new IllegalStateException("rates.storage.price-format 'numeric' veya 'fixed' olmalı: " + priceFormat);
+        }
+    }
+
+    /**
+     * Fiyat sütunlarının {@code bigint} olup olmadığını döndürür.
+     *
+     * @return {@code fixed} biçimindeyse true
+     */
+    public boolean isFixedPoint() {
+        return "fixed".equals(priceFormat);
+    }
+
+    /**
+     * Ölçeklenmiş fiyatı JDBC parametresine çevirir.
+     *
+     * @param units 1e-8 birim cinsinden fiyat
+     * @return {@code fixed} biçiminde {@link Long}, aksi halde 8 ondalık basamaklı {@link BigDecimal}
+     */
+    public Object toColumn(long units) {
+        return isFixedPoint() ? (Object) units : FixedPointPrice.toBigDecimal(units);
+    }
+
+    /**
+     * Bir fiyat sütununu ölçeklenmiş değer olarak okur.
+     *
+     * @param resultSet Sorgu sonucu
+     * @param column Sütun adı
+     * @return 1e-8 birim cinsinden fiyat
+     * @throws SQLException Sütun okunamazsa
+     */
+    public long readUnits(ResultSet resultSet, String column) throws SQLException {
+        if (isFixedPoint()) {
+            return resultSet.getLong(column);
+        }
+        BigDecimal value = resultSet.getBigDecimal(column);
+        return FixedPointPrice.toUnits(value);
+    }
+
+    /**
+     * Fiyat sütunlarından oluşan bir SQL ifadesini 1e-8 birim cinsine çeviren ifadeyi döndürür.
+     *
+     * @param expression Fiyat sütunlarından oluşan ifade (örn. {@code "bid + ask"})
+     * @return Birim cinsinden ifade
+     */
+    public String unitsExpression(String expression) {
+        return isFixedPoint() ? "(" + expression + ")" : "((" + expression + ") * " + FixedPointPrice.UNITS_PER_ONE + ")";
+    }
+
+    public String getPriceFormat() {
+        return priceFormat;
+    }
+
+    public void setPriceFormat(String priceFormat) {
+        this.priceFormat = priceFormat;
+    }
+}
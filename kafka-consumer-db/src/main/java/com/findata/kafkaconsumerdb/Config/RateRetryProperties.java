@@ -0,0 +1,83 @@
+package com.findata.kafkaconsumerdb.Config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Yazılamayan kur kayıtlarının yeniden deneme ve dead letter topic (DLT) ayarları.
+ * <p>
+ * Bir topic'in (örn. {@code raw-rates}) yeniden deneme topic'leri {@code raw-rates-retry-0},
+ * {@code raw-rates-retry-1}, ..., dead letter topic'i ise {@code raw-rates-dlt} olarak adlandırılır.
+ * {@code rates.retry.delays} listesinin n. elemanı, n. yeniden deneme topic'indeki kayıtların
+ * ne kadar sonra işleneceğini belirler; liste tükenince kayıt DLT'ye gönderilir.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @since 2025-04-25
+ */
+@Configuration
+@ConfigurationProperties(prefix = "rates.retry")
+public class RateRetryProperties {
+
+    /** Yeniden deneme topic'lerinin bekleme süreleri, seviye sırasıyla */
+    private List<Duration> delays = new ArrayList<>(List.of(Duration.ofSeconds(5), Duration.ofMinutes(1), Duration.ofMinutes(10)));
+
+    /** Geçici hatalarda batch yeniden deneme topic'ine gönderilmeden önce yerinde kaç kez denenir */
+    private int inlineAttempts = 3;
+
+    /**
+     * Yeniden deneme/dead letter topic'ine gönderimin en uzun süresi; consumer thread'leri bu kadar
+     * bloklanabileceğinden {@code max.poll.interval.ms} değerinden (varsayılan 5 dakika) kısa olmalıdır
+     */
+    private Duration maxSendTime = Duration.ofMinutes(2);
+
+    /**
+     * Bir topic'in verilen seviyedeki yeniden deneme topic'inin adını döndürür.
+     *
+     * @param topic Asıl topic
+     * @param level Yeniden deneme seviyesi (0'dan başlar)
+     * @return Yeniden deneme topic'i
+     */
+    public String retryTopic(String topic, int level) {
+        return topic + "-retry-" + level;
+    }
+
+    /**
+     * Bir topic'in dead letter topic'inin adını döndürür.
+     *
+     * @param topic Asıl topic
+     * @return Dead letter topic'i
+     */
+    public String deadLetterTopic(String topic) {
+        return topic + "-dlt";
+    }
+
+    public List<Duration> getDelays() {
+        return delays;
+    }
+
+    public void setDelays(List<Duration> delays) {
+        this.delays = delays;
+    }
+
+    public int getInlineAttempts() {
+        return inlineAttempts;
+    }
+
+    public void setInlineAttempts(int inlineAttempts) {
+        this.inlineAttempts = inlineAttempts;
+    }
+
+    public Duration getMaxSendTime() {
+        return maxSendTime;
+    }
+
+    public void setMaxSendTime(Duration maxSendTime) {
+        this.maxSendTime = maxSendTime;
+    }
+}
@@ -0,0 +1,55 @@
+package com.findata.kafkaconsumerdb.Config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code tbl_rates_seq} sequence'ini tablodaki mevcut id'lerin üzerine taşıyan bileşen.
+ * <p>
+ * {@code tbl_rates} tablosu önceden IDENTITY kolonu ile oluşturulmuş olabilir. Hibernate
+ * sequence'i sıfırdan oluşturduğunda yeni id'ler eski kayıtlarla çakışır. Bu bileşen,
+ * {@link EntityManagerFactory} hazır olduktan (yani şema güncellendikten) sonra ve Kafka
+ * dinleyicileri başlamadan önce sequence'i en büyük id'nin bir blok ötesine ayarlar.
+ * Sequence zaten ilerideyse geri alınmaz.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @since 2025-04-25
+ */
+@Component
+public class RateSequenceInitializer {
+    private final Logger logger = LoggerFactory.getLogger(RateSequenceInitializer.class);
+
+    /** Entity'deki {@code allocationSize} ile aynı olmalıdır */
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory; // şema güncellemesinin bu bileşenden önce bitmesi için
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Sequence'i mevcut id'lerin üzerine hizalar.
+     */
+    @PostConstruct
+    public void alignSequence() {
+        try {
+            Long value = jdbcTemplate.queryForObject(
+                    "SELECT setval('tbl_rates_seq', GREATEST("
+                            + "COALESCE((SELECT MAX(id) FROM tbl_rates), 0) + ?, "
+                            + "(SELECT last_value FROM tbl_rates_seq)))",
+                    Long.class, ALLOCATION_SIZE);
+            logger.info("tbl_rates_seq sequence değeri {} olarak hizalandı", value);
+        } catch (DataAccessException dataAccessException) {
+            logger.warn("tbl_rates_seq sequence hizalanamadı: {}", dataAccessException.getMessage());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.findata.kafkaconsumerdb.Config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Kafka topic'lerinden gelen kur kayıtlarının hangi yazıcıyla veritabanına yazılacağını
+ * belirleyen ayarlar.
+ * <p>
+ * {@code rates.writer.default-writer} tüm topic'ler için varsayılan yazıcıyı,
+ * {@code rates.writer.topics.<topic>} ise topic bazında seçimi belirler. Geçerli değerler
+ * "jpa" (Hibernate batch insert) ve "copy" (PostgreSQL binary COPY)'dir.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @since 2025-04-25
+ */
+@Configuration
+@ConfigurationProperties(prefix = "rates.writer")
+public class RateWriterProperties {
+
+    /** Topic için ayrıca belirtilmemişse kullanılan yazıcı */
+    private String defaultWriter = "jpa";
+
+    /** Topic adı -> yazıcı adı */
+    private Map<String, String> topics = new HashMap<>();
+
+    /**
+     * Verilen topic için kullanılacak yazıcının adını döndürür.
+     *
+     * @param topic Kafka topic adı
+     * @return Yazıcı adı
+     */
+    public String writerFor(String topic) {
+        return topics.getOrDefault(topic, defaultWriter);
+    }
+
+    public String getDefaultWriter() {
+        return defaultWriter;
+    }
+
+    public void setDefaultWriter(String defaultWriter) {
+        this.defaultWriter = defaultWriter;
+    }
+
+    public Map<String, String> getTopics() {
+        return topics;
+    }
+
+    public void setTopics(Map<String, String> topics) {
+        this.topics = topics;
+    }
+}
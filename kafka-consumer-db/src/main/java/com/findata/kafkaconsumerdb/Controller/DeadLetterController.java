@@ -0,0 +1,50 @@
+package com.findata.kafkaconsumerdb.Controller;
+
+import com.findata.kafkaconsumerdb.Service.DeadLetterReplayer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.kafka.KafkaException;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Dead letter topic'lerinin yönetimi için REST API kontrolcüsü.
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @see DeadLetterReplayer
+ */
+@RestController
+@RequestMapping("/api/dlt")
+public class DeadLetterController {
+
+    /** Tek istekte geri gönderilebilecek en fazla kayıt */
+    private static final int MAX_REPLAY_SIZE = 10_000;
+
+    @Autowired
+    private DeadLetterReplayer deadLetterReplayer;
+
+    /**
+     * Bir topic'in dead letter topic'indeki kayıtları asıl topic'e geri gönderen endpoint.
+     *
+     * @param topic Asıl topic (örn. {@code raw-rates})
+     * @param limit En fazla geri gönderilecek kayıt sayısı (varsayılan 100, en fazla 10000)
+     * @return Geri gönderim sonucu, topic bilinmiyorsa 400, kayıtlar gönderilemezse 503 hatası
+     */
+    @PostMapping("/replay")
+    public ResponseEntity<DeadLetterReplayer.ReplayResult> replay(@RequestParam String topic,
+                                                                  @RequestParam(defaultValue = "100") int limit) {
+        int max = Math.max(1, Math.min(limit, MAX_REPLAY_SIZE));
+        try {
+            return ResponseEntity.ok(deadLetterReplayer.replay(topic, max));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (KafkaException e) {
+            // DLT offset'leri commit edilmedi; istek daha sonra tekrarlanabilir
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+}
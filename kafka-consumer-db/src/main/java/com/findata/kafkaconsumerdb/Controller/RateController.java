@@ -1,12 +1,26 @@
 package com.findata.kafkaconsumerdb.Controller;
 
+import com.findata.kafkaconsumerdb.Entity.LatestRate;
 import com.findata.kafkaconsumerdb.Entity.RateRecord;
+import com.findata.kafkaconsumerdb.Repository.LatestRateRepository;
 import com.findata.kafkaconsumerdb.Repository.RateRepository;
+import com.findata.kafkaconsumerdb.Service.Candle;
+import com.findata.kafkaconsumerdb.Service.CandleAggregator;
+import com.findata.kafkaconsumerdb.Service.LatestRateCache;
+import com.findata.kafkaconsumerdb.Service.RateArchiveService;
+import com.findata.kafkaconsumerdb.Service.RateHistoryService;
+import com.findata.kafkaconsumerdb.Service.RateWindowStore;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -21,34 +35,97 @@ import java.util.List;
  * @version 1.0
  * @see RateRecord
  * @see RateRepository
+ * @see LatestRateRepository
+ * @see LatestRateCache
+ * @see RateHistoryService
+ * @see CandleAggregator
+ * @see RateWindowStore
+ * @see RateArchiveService
  */
 
 @RestController
 @RequestMapping("/api/rates")
 public class RateController {
 
+    /** Geçmiş endpoint'inin tek istekte döndürebileceği en fazla kayıt */
+    private static final int MAX_HISTORY_SIZE = 10_000;
+
     @Autowired
     private RateRepository repository;
 
+    @Autowired
+    private LatestRateRepository latestRateRepository;
+
+    @Autowired
+    private LatestRateCache latestRateCache;
+
+    @Autowired
+    private RateHistoryService rateHistoryService;
+
+    @Autowired
+    private CandleAggregator candleAggregator;
+
+    @Autowired
+    private RateWindowStore rateWindowStore;
+
+    @Autowired
+    private RateArchiveService rateArchiveService;
+
     /**
-     * Tüm kur kayıtlarını getiren endpoint.
+     * Kur kayıtlarını sayfa sayfa getiren endpoint.
      * <p>
-     * Veritabanında bulunan tüm kur kayıtlarını döndürür. Bu endpoint, genel bir bakış
-     * veya tüm kur verilerinin alınması gerektiğinde kullanılır.
+     * Kayıtlar id sırasıyla, keyset sayfalama ile döner: ilk sayfa {@code afterId} olmadan,
+     * sonraki sayfalar önceki yanıtın {@code nextAfterId} değeriyle istenir. Tablonun boyutundan
+     * bağımsız olarak her istek en fazla bir sayfa kaydı belleğe alır.
      * </p>
      * 
-     * @return Tüm kur kayıtlarının listesi
+     * @param name Kur adı filtresi (opsiyonel)
+     * @param afterId Bu id'den sonraki kayıtlar (opsiyonel)
+     * @param from Bu andan itibaren (dahil) güncellenen kayıtlar, ISO-8601 (opsiyonel)
+     * @param to Bu andan önce güncellenen kayıtlar, ISO-8601 (opsiyonel)
+     * @param limit Sayfa boyutu (varsayılan 500, en fazla 5000)
+     * @return Sayfadaki kayıtlar ve sonraki sayfanın başlangıcı
      */
 
     @GetMapping
-    public List<RateRecord> getAllRates() {
-        return repository.findAll();
+    public RatePage getRates(@RequestParam(required = false) String name,
+                             @RequestParam(required = false) Long afterId,
+                             @RequestParam(required = false) Instant from,
+                             @RequestParam(required = false) Instant to,
+                             @RequestParam(defaultValue = "500") int limit) {
+        List<RateRecord> items = rateHistoryService.findPage(name, afterId, from, to, limit);
+        boolean full = items.size() == Math.max(1, Math.min(limit, RateHistoryService.MAX_PAGE_SIZE));
+        Long nextAfterId = full ? items.get(items.size() - 1).getId() : null;
+        return new RatePage(items, nextAfterId);
+    }
+
+    /**
+     * Filtreye uyan tüm kur kayıtlarını NDJSON (satır başına bir JSON nesnesi) olarak akıtan endpoint.
+     * <p>
+     * Kayıtlar veritabanından sınırlı boyutlu parçalar halinde okunup okundukça yazılır; bellek
+     * kullanımı sonuç boyutundan bağımsızdır.
+     * </p>
+     *
+     * @param name Kur adı filtresi (opsiyonel)
+     * @param from Bu andan itibaren (dahil) güncellenen kayıtlar, ISO-8601 (opsiyonel)
+     * @param to Bu andan önce güncellenen kayıtlar, ISO-8601 (opsiyonel)
+     * @return Kayıt akışı
+     */
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamRates(@RequestParam(required = false) String name,
+                                                             @RequestParam(required = false) Instant from,
+                                                             @RequestParam(required = false) Instant to) {
+        StreamingResponseBody body = out -> rateHistoryService.stream(name, from, to, out);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
     }
 
     /**
      * Belirli bir kur adına göre en son kaydı getiren endpoint.
      * <p>
      * URL'de belirtilen kur adına göre en son güncellenen kaydı döndürür.
+     * Değer, consumer'ın her commit'ten sonra güncellediği {@link LatestRateCache}'ten okunur;
+     * kur önbellekte yoksa (örn. soğuk başlangıç) {@code tbl_latest_rates} tablosundan primary key ile
+     * okunup önbelleğe eklenir.
      * Eğer belirtilen kur adı için kayıt bulunamazsa 404 hatası döner.
      * </p>
      * 
@@ -56,12 +133,133 @@ public class RateController {
      * @return İlgili kurun en son kaydı veya 404 hatası
      */
     @GetMapping("/{rateName}")
-    public ResponseEntity<RateRecord> getLatestRateByName(@PathVariable String rateName) {
-        RateRecord record = repository.findTopByRateNameOrderByRateUpdatetimeDesc(rateName);
-        if (record != null) {
-            return ResponseEntity.ok(record);
-        } else {
-            return ResponseEntity.notFound().build();
+    public ResponseEntity<LatestRate> getLatestRateByName(@PathVariable String rateName) {
+        LatestRate cached = latestRateCache.get(rateName);
+        if (cached != null) {
+            return ResponseEntity.ok(cached);
         }
+        return latestRateRepository.findById(rateName)
+                .map(latestRate -> {
+                    latestRateCache.update(latestRate);
+                    return ResponseEntity.ok(latestRate);
+                })
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Bir kurun OHLC mumlarını getiren endpoint.
+     * <p>
+     * Mumlar consumer tarafından artımlı olarak oluşturulur ve {@code tbl_candles} tablosundan
+     * (hâlâ açık olan son mum bellekten) okunur; ham tick tablosu sorgulanmaz. Aralık kurun
+     * {@link RateWindowStore} penceresine sığıyorsa mumlar doğrudan penceredeki tick'lerden hesaplanır.
+     * </p>
+     *
+     * @param rateName Kur adı
+     * @param interval Mum aralığı, örn. "1s", "1m", "1h" (yapılandırılmış aralıklardan biri)
+     * @param from Başlangıç, ISO-8601 (opsiyonel, varsayılan: bitişten 1000 aralık önce)
+     * @param to Bitiş (hariç), ISO-8601 (opsiyonel, varsayılan: şimdi)
+     * @return Mumlar veya aralık geçersizse 400 hatası
+     */
+    @GetMapping("/{rateName}/candles")
+    public ResponseEntity<List<Candle>> getCandles(@PathVariable String rateName,
+                                                   @RequestParam(defaultValue = "1m") String interval,
+                                                   @RequestParam(required = false) Instant from,
+                                                   @RequestParam(required = false) Instant to) {
+        int intervalSeconds;
+        try {
+            intervalSeconds = CandleAggregator.parseInterval(interval);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!candleAggregator.isIntervalSupported(intervalSeconds)) {
+            return ResponseEntity.badRequest().build();
+        }
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.minusSeconds(intervalSeconds * 1000L);
+        List<Candle> windowCandles = rateWindowStore.findCandles(rateName, intervalSeconds, start, end);
+        if (windowCandles != null) {
+            return ResponseEntity.ok(windowCandles);
+        }
+        return ResponseEntity.ok(candleAggregator.findCandles(rateName, intervalSeconds, start, end));
+    }
+
+    /**
+     * Bir kurun iki an arasındaki geçmişini getiren endpoint.
+     * <p>
+     * {@code points} verilirse aralığın tamamı sunucuda LTTB (Largest-Triangle-Three-Buckets) ile
+     * en fazla bu kadar noktaya seyreltilir ve yalnızca grafikte görsel olarak anlamlı tick'ler
+     * döner; bu durumda {@code limit} kullanılmaz.
+     * </p>
+     * <p>
+     * Aralık kurun son dakikalarını tutan {@link RateWindowStore} penceresine sığıyorsa yanıt
+     * veritabanına gidilmeden bellekten verilir. Aralığın saklama süresi dolup arşivlenmiş kısmı
+     * {@link RateArchiveService} dosyalarından, kalanı veritabanından okunur; seyreltmede noktalar
+     * iki kısma süreleriyle orantılı dağıtılır.
+     * </p>
+     *
+     * @param rateName Kur adı
+     * @param from Başlangıç (dahil), ISO-8601
+     * @param to Bitiş (hariç), ISO-8601 (opsiyonel, varsayılan: şimdi)
+     * @param limit En fazla dönecek kayıt sayısı (varsayılan 1000, en fazla 10000)
+     * @param points Seyreltilmiş nokta sayısı (opsiyonel, 3 ile 10000 arası)
+     * @return Zaman sırasına göre kayıtlar veya parametreler geçersizse 400 hatası
+     */
+    @GetMapping("/{rateName}/history")
+    public ResponseEntity<List<RateRecord>> getHistory(@PathVariable String rateName,
+                                                       @RequestParam Instant from,
+                                                       @RequestParam(required = false) Instant to,
+                                                       @RequestParam(defaultValue = "1000") int limit,
+                                                       @RequestParam(required = false) Integer points) {
+        Instant end = to != null ? to : Instant.now();
+        if (!from.isBefore(end)) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (points != null) {
+            if (points < 3 || points > RateHistoryService.MAX_CHART_POINTS) {
+                return ResponseEntity.badRequest().build();
+            }
+            List<RateRecord> windowPoints = rateWindowStore.downsample(rateName, from, end, points);
+            if (windowPoints != null) {
+                return ResponseEntity.ok(windowPoints);
+            }
+            Instant archivedUntil = rateArchiveService.getArchivedUntil();
+            if (archivedUntil != null && from.isBefore(archivedUntil)) {
+                return ResponseEntity.ok(archivedPoints(rateName, from, end, points, archivedUntil));
+            }
+            return ResponseEntity.ok(rateHistoryService.downsample(rateName, from, end, points));
+        }
+        int max = Math.max(1, Math.min(limit, MAX_HISTORY_SIZE));
+        List<RateRecord> windowHistory = rateWindowStore.findHistory(rateName, from, end, max);
+        if (windowHistory != null) {
+            return ResponseEntity.ok(windowHistory);
+        }
+        Instant archivedUntil = rateArchiveService.getArchivedUntil();
+        if (archivedUntil != null && from.isBefore(archivedUntil)) {
+            List<RateRecord> history = rateArchiveService.findHistory(rateName, from, min(end, archivedUntil), max);
+            if (history.size() < max && end.isAfter(archivedUntil)) {
+                history.addAll(repository.findHistory(rateName, archivedUntil, end, Limit.of(max - history.size())));
+            }
+            return ResponseEntity.ok(history);
+        }
+        return ResponseEntity.ok(repository.findHistory(rateName, from, end, Limit.of(max)));
+    }
+
+    /**
+     * Arşiv sınırından önce başlayan bir aralığı seyreltir; aralık sınırı aşıyorsa noktalar arşivlenmiş
+     * ve veritabanındaki kısımlara süreleriyle orantılı dağıtılır.
+     */
+    private List<RateRecord> archivedPoints(String rateName, Instant from, Instant end, int points, Instant archivedUntil) {
+        if (!end.isAfter(archivedUntil)) {
+            return rateArchiveService.downsample(rateName, from, end, points);
+        }
+        double archivedShare = Duration.between(from, archivedUntil).toMillis() / (double) Duration.between(from, end).toMillis();
+        int archivedPoints = Math.max(3, (int) Math.round(points * archivedShare));
+        List<RateRecord> result = new ArrayList<>(rateArchiveService.downsample(rateName, from, archivedUntil, archivedPoints));
+        result.addAll(rateHistoryService.downsample(rateName, archivedUntil, end, Math.max(3, points - archivedPoints)));
+        return result;
+    }
+
+    private static Instant min(Instant first, Instant second) {
+        return first.isBefore(second) ? first : second;
     }
 } 
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.findata.kafkaconsumerdb.Controller;
+
+import com.findata.kafkaconsumerdb.Entity.RateRecord;
+
+import java.util.List;
+
+/**
+ * Sayfalı kur geçmişi yanıtı.
+ * <p>
+ * Sonraki sayfa, aynı filtrelerle {@code afterId=nextAfterId} gönderilerek istenir;
+ * {@code nextAfterId} null ise son sayfaya ulaşılmıştır.
+ * </p>
+ *
+ * @param items Sayfadaki kayıtlar (id sırasıyla)
+ * @param nextAfterId Sonraki sayfa için kullanılacak id veya son sayfada null
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ */
+public record RatePage(List<RateRecord> items, Long nextAfterId) {
+}
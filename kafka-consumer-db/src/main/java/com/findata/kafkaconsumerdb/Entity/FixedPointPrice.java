@@ -0,0 +1,54 @@
+package com.findata.kafkaconsumerdb.Entity;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fiyatların ölçeklenmiş tamsayı (1e-8 birim) gösterimi için yardımcı metotlar.
+ * <p>
+ * {@code 34.12345678} değeri {@code 3412345678L} olarak tutulur. Ölçek, eski {@code numeric(19, 8)}
+ * sütunlarıyla aynıdır; böylece iki gösterim arasındaki dönüşüm kayıpsızdır ve REST API'nin
+ * döndürdüğü {@link BigDecimal} değerleri (8 ondalık basamak) değişmez.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @see PriceConverter
+ */
+public final class FixedPointPrice {
+
+    /** Ondalık basamak sayısı */
+    public static final int SCALE = 8;
+
+    /** 1 fiyat biriminin karşılığı olan ölçeklenmiş değer */
+    public static final long UNITS_PER_ONE = 100_000_000L;
+
+    private FixedPointPrice() {
+    }
+
+    /**
+     * Ondalık değeri ölçeklenmiş tamsayıya çevirir. 8'den fazla ondalık basamak, {@code numeric(19, 8)}
+     * sütununun yaptığı gibi yarım yukarı yuvarlanır.
+     *
+     * @param value Ondalık değer
+     * @return 1e-8 birim cinsinden değer
+     * @throws IllegalArgumentException Değer {@code long} aralığına sığmıyorsa
+     */
+    public static long toUnits(BigDecimal value) {
+        try {
+            return value.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        } catch (ArithmeticException arithmeticException) {
+            throw new IllegalArgumentException("Fiyat aralık dışında: " + value, arithmeticException);
+        }
+    }
+
+    /**
+     * Ölçeklenmiş tamsayıyı 8 ondalık basamaklı {@link BigDecimal}'e çevirir.
+     *
+     * @param units 1e-8 birim cinsinden değer
+     * @return Ondalık değer
+     */
+    public static BigDecimal toBigDecimal(long units) {
+        return BigDecimal.valueOf(units, SCALE);
+    }
+}
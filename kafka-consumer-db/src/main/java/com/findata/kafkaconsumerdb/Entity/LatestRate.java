@@ -0,0 +1,144 @@
+package com.findata.kafkaconsumerdb.Entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Her kurun en son değerini tutan entity sınıfı.
+ * <p>
+ * {@code tbl_latest_rates} tablosunda kur adı başına tek satır bulunur. Satırlar, geçmiş kayıtlar
+ * ({@link RateRecord}) ile aynı transaction içinde {@code INSERT ... ON CONFLICT (rate_name) DO UPDATE}
+ * ile güncellenir; böylece "bir kurun en son değeri" sorgusu tüm geçmişi taramak yerine
+ * primary key üzerinden tek satır okumaya dönüşür.
+ * </p>
+ * <p>
+ * Fiyatlar {@link RateRecord}'daki gibi ölçeklenmiş {@code long} (1e-8 birim) olarak tutulur.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @see RateRecord
+ */
+@Entity
+@Table(name = "tbl_latest_rates")
+public class LatestRate {
+
+    /**
+     * Döviz kuru çiftinin adı (primary key).
+     */
+    @Id
+    @Column(name = "rate_name", length = 20)
+    private String rateName;
+
+    /**
+     * Döviz kurunun son alış (bid) değeri.
+     */
+    @Convert(converter = PriceConverter.class)
+    @Column(name = "bid", precision = 19, scale = 8, nullable = false)
+    private long bid;
+
+    /**
+     * Döviz kurunun son satış (ask) değeri.
+     */
+    @Convert(converter = PriceConverter.class)
+    @Column(name = "ask", precision = 19, scale = 8, nullable = false)
+    private long ask;
+
+    /**
+     * Son değerin kaynaktaki zaman damgası.
+     */
+    @Column(name = "rate_updatetime", nullable = false)
+    private Instant rateUpdatetime;
+
+    /**
+     * Satırın DB'de güncellendiği zaman damgası.
+     */
+    @Column(name = "db_updatetime", nullable = false)
+    private Instant dbUpdatetime;
+
+    /**
+     * Varsayılan yapıcı metot.
+     */
+    public LatestRate() {
+    }
+
+    /**
+     * Parametreli yapıcı metot.
+     *
+     * @param rateName Kur çiftinin adı
+     * @param bid Alış değeri (1e-8 birim)
+     * @param ask Satış değeri (1e-8 birim)
+     * @param rateUpdatetime Zaman damgası
+     * @param dbUpdatetime Güncelleme anının zaman damgası
+     */
+    public LatestRate(String rateName, long bid, long ask, Instant rateUpdatetime, Instant dbUpdatetime) {
+        this.rateName = rateName;
+        this.bid = bid;
+        this.ask = ask;
+        this.rateUpdatetime = rateUpdatetime;
+        this.dbUpdatetime = dbUpdatetime;
+    }
+
+    public String getRateName() {
+        return rateName;
+    }
+
+    public void setRateName(String rateName) {
+        this.rateName = rateName;
+    }
+
+    public BigDecimal getBid() {
+        return FixedPointPrice.toBigDecimal(bid);
+    }
+
+    public void setBid(BigDecimal bid) {
+        this.bid = FixedPointPrice.toUnits(bid);
+    }
+
+    @JsonIgnore
+    public long getBidUnits() {
+        return bid;
+    }
+
+    public BigDecimal getAsk() {
+        return FixedPointPrice.toBigDecimal(ask);
+    }
+
+    public void setAsk(BigDecimal ask) {
+        this.ask = FixedPointPrice.toUnits(ask);
+    }
+
+    @JsonIgnore
+    public long getAskUnits() {
+        return ask;
+    }
+
+    public Instant getRateUpdatetime() {
+        return rateUpdatetime;
+    }
+
+    public void setRateUpdatetime(Instant rateUpdatetime) {
+        this.rateUpdatetime = rateUpdatetime;
+    }
+
+    public Instant getDbUpdatetime() {
+        return dbUpdatetime;
+    }
+
+    public void setDbUpdatetime(Instant dbUpdatetime) {
+        this.dbUpdatetime = dbUpdatetime;
+    }
+
+    @Override
+    public String toString() {
+        return "LatestRate{" +
+                "rateName='" + rateName + '\'' +
+                ", bid=" + getBid() +
+                ", ask=" + getAsk() +
+                ", rateUpdatetime=" + rateUpdatetime +
+                ", dbUpdatetime=" + dbUpdatetime +
+                '}';
+    }
+}
@@ -0,0 +1,52 @@
+package com.findata.kafkaconsumerdb.Entity;
+
+import com.findata.kafkaconsumerdb.Config.PriceStorageProperties;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+
+/**
+ * Ölçeklenmiş ({@code long}, 1e-8 birim) fiyat alanlarını veritabanı sütununa çeviren JPA converter'ı.
+ * <p>
+ * Sütun biçimi {@link PriceStorageProperties} ile belirlenir. {@code numeric} biçiminde değer
+ * 8 ondalık basamaklı {@link BigDecimal} olarak, {@code fixed} biçiminde ise ölçeklenmiş tamsayı
+ * (ölçeği 0 olan {@link BigDecimal}) olarak bağlanır; PostgreSQL bunu {@code bigint} sütununa
+ * atama dönüşümüyle yazar. Okumada her iki sütun tipi de {@code getBigDecimal} ile okunabilir.
+ * </p>
+ * <p>
+ * Hibernate converter'ı Spring bean container'ı üzerinden oluşturur; ayarlar enjekte edilmemişse
+ * (örn. Spring dışı testlerde) {@code numeric} biçimi varsayılır.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @see FixedPointPrice
+ */
+@Converter
+public class PriceConverter implements AttributeConverter<Long, BigDecimal> {
+
+    @Autowired(required = false)
+    private PriceStorageProperties priceStorageProperties;
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Long units) {
+        if (units == null) {
+            return null;
+        }
+        return isFixedPoint() ? BigDecimal.valueOf(units) : FixedPointPrice.toBigDecimal(units);
+    }
+
+    @Override
+    public Long convertToEntityAttribute(BigDecimal value) {
+        if (value == null) {
+            return null;
+        }
+        return isFixedPoint() ? value.longValueExact() : FixedPointPrice.toUnits(value);
+    }
+
+    private boolean isFixedPoint() {
+        return priceStorageProperties != null && priceStorageProperties.isFixedPoint();
+    }
+}
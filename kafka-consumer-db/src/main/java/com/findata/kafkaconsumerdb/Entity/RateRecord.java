@@ -1,7 +1,8 @@
 package com.findata.kafkaconsumerdb.Entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*; // JPA anotasyonları için
-import java.math.BigDecimal; // Para birimleri için BigDecimal daha uygundur
+import java.math.BigDecimal; // API'de fiyatlar 8 ondalık basamaklı BigDecimal olarak döner
 import java.time.Instant;    // Zaman damgası için Instant (UTC)
 import java.sql.Timestamp;
 
@@ -12,6 +13,17 @@ import java.sql.Timestamp;
  * tablosuna kaydedilir. Her kayıt, belirli bir zaman noktasında bir döviz kuru çiftinin 
  * alış ve satış değerlerini içerir.
  * </p>
+ * <p>
+ * Fiyatlar bellekte ölçeklenmiş {@code long} (1e-8 birim, bkz. {@link FixedPointPrice}) olarak
+ * tutulur; {@link #getBid()}/{@link #getAsk()} API için {@link BigDecimal} döndürür. Sütun tipi
+ * ({@code numeric} veya {@code bigint}) {@link PriceConverter} tarafından ayarlara göre seçilir.
+ * </p>
+ * <p>
+ * Doğal anahtar {@code (rate_name, rate_updatetime)} ikilisidir ve veritabanında benzersizdir.
+ * Kayıtlar Hibernate ile değil, sütunları adlarıyla bağlayan {@link com.findata.kafkaconsumerdb.Service.RateRecordWriter}
+ * uygulamalarıyla {@code ON CONFLICT DO NOTHING} kullanılarak eklenir: yeniden okunan (replay) bir mesaj
+ * hata vermeden atlanır, geçmiş tablosunda tekrar eden satır oluşmaz. Entity okuma sorguları için kullanılır.
+ * </p>
  * 
  * @author Finans Veri Projesi Team
  * @version 1.0
@@ -22,10 +34,11 @@ public class RateRecord {
 
     /**
      * Kaydın benzersiz tanımlayıcısı (primary key).
-     * Otomatik olarak oluşturulur.
+     * {@code tbl_rates_seq} sequence'inden, 50'lik bloklar halinde (pooled optimizer) otomatik olarak oluşturulur.
      */
     @Id // Bu alanın primary key olduğunu belirtir
-    @GeneratedValue(strategy = GenerationType.IDENTITY) // ID'nin otomatik artan olacağını belirtir (PostgreSQL için IDENTITY uygundur)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tbl_rates_seq") // IDENTITY, Hibernate'in insert batching'ini engeller
+    @SequenceGenerator(name = "tbl_rates_seq", sequenceName = "tbl_rates_seq", allocationSize = 50) // pooled optimizer: 50 id için tek nextval
     private Long id; // Primary key (Long veya Integer olabilir)
 
     /**
@@ -35,16 +48,18 @@ public class RateRecord {
     private String rateName; // PF1_USDTRY veya USDTRY gibi
 
     /**
-     * Döviz kurunun alış (bid) değeri.
+     * Döviz kurunun alış (bid) değeri, 1e-8 birim cinsinden.
      */
-    @Column(name = "bid", precision = 19, scale = 8, nullable = false) // Decimal tipi için hassasiyet ve ölçek
-    private BigDecimal bid;
+    @Convert(converter = PriceConverter.class)
+    @Column(name = "bid", precision = 19, scale = 8, nullable = false) // numeric biçiminde hassasiyet ve ölçek
+    private long bid;
 
     /**
-     * Döviz kurunun satış (ask) değeri.
+     * Döviz kurunun satış (ask) değeri, 1e-8 birim cinsinden.
      */
-    @Column(name = "ask", precision = 19, scale = 8, nullable = false) // Decimal tipi için hassasiyet ve ölçek
-    private BigDecimal ask;
+    @Convert(converter = PriceConverter.class)
+    @Column(name = "ask", precision = 19, scale = 8, nullable = false) // numeric biçiminde hassasiyet ve ölçek
+    private long ask;
 
     /**
      * Kur verisinin zaman damgası.
@@ -69,12 +84,12 @@ public class RateRecord {
      * Parametreli yapıcı metot.
      * 
      * @param rateName Kur çiftinin adı
-     * @param bid Alış değeri
-     * @param ask Satış değeri
+     * @param bid Alış değeri (1e-8 birim)
+     * @param ask Satış değeri (1e-8 birim)
      * @param rateUpdatetime Zaman damgası
      * @param dbUpdatetime Kayıt/güncelleme anının zaman damgası
      */
-    public RateRecord(String rateName, BigDecimal bid, BigDecimal ask, Instant rateUpdatetime, Instant dbUpdatetime) {
+    public RateRecord(String rateName, long bid, long ask, Instant rateUpdatetime, Instant dbUpdatetime) {
         this.rateName = rateName;
         this.bid = bid;
         this.ask = ask;
@@ -126,7 +141,7 @@ public class RateRecord {
      * @return Alış değeri
      */
     public BigDecimal getBid() {
-        return bid;
+        return FixedPointPrice.toBigDecimal(bid);
     }
 
     /**
@@ -135,6 +150,25 @@ public class RateRecord {
      * @param bid Ayarlanacak alış değeri
      */
     public void setBid(BigDecimal bid) {
+        this.bid = FixedPointPrice.toUnits(bid);
+    }
+
+    /**
+     * Alış değerini 1e-8 birim cinsinden döndürür.
+     *
+     * @return Ölçeklenmiş alış değeri
+     */
+    @JsonIgnore
+    public long getBidUnits() {
+        return bid;
+    }
+
+    /**
+     * Alış değerini 1e-8 birim cinsinden ayarlar.
+     *
+     * @param bid Ölçeklenmiş alış değeri
+     */
+    public void setBidUnits(long bid) {
         this.bid = bid;
     }
 
@@ -144,7 +178,7 @@ public class RateRecord {
      * @return Satış değeri
      */
     public BigDecimal getAsk() {
-        return ask;
+        return FixedPointPrice.toBigDecimal(ask);
     }
 
     /**
@@ -153,6 +187,25 @@ public class RateRecord {
      * @param ask Ayarlanacak satış değeri
      */
     public void setAsk(BigDecimal ask) {
+        this.ask = FixedPointPrice.toUnits(ask);
+    }
+
+    /**
+     * Satış değerini 1e-8 birim cinsinden döndürür.
+     *
+     * @return Ölçeklenmiş satış değeri
+     */
+    @JsonIgnore
+    public long getAskUnits() {
+        return ask;
+    }
+
+    /**
+     * Satış değerini 1e-8 birim cinsinden ayarlar.
+     *
+     * @param ask Ölçeklenmiş satış değeri
+     */
+    public void setAskUnits(long ask) {
         this.ask = ask;
     }
 
@@ -192,8 +245,8 @@ public class RateRecord {
         return "RateRecord{" +
                 "id=" + id +
                 ", rateName='" + rateName + '\'' +
-                ", bid=" + bid +
-                ", ask=" + ask +
+                ", bid=" + getBid() +
+                ", ask=" + getAsk() +
                 ", rateUpdatetime=" + rateUpdatetime +
                 ", dbUpdatetime=" + dbUpdatetime +
                 '}';
@@ -2,6 +2,7 @@ package com.findata.kafkaconsumerdb;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Kafka Consumer DB uygulamasının ana sınıfı.
@@ -16,6 +17,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * @since 2025-04-25
  */
 @SpringBootApplication
+@EnableScheduling // tbl_rates partition bakımı için
 public class KafkaConsumerDbApplication {
 
     /**
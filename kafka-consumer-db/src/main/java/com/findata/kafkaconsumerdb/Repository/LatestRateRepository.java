@@ -0,0 +1,18 @@
+package com.findata.kafkaconsumerdb.Repository;
+
+import com.findata.kafkaconsumerdb.Entity.LatestRate;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Kurların en son değerleri için veri erişim katmanı.
+ * <p>
+ * {@link LatestRate} satırları kur adıyla (primary key) okunur. Satırlar bu repository üzerinden
+ * değil, {@code LatestRateUpdater} tarafından toplu upsert ile yazılır.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @see LatestRate
+ */
+public interface LatestRateRepository extends JpaRepository<LatestRate, String> {
+}
@@ -1,9 +1,15 @@
 package com.findata.kafkaconsumerdb.Repository;
 
 import com.findata.kafkaconsumerdb.Entity.RateRecord;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.List;
+
 /**
  * RateRecord varlıkları için veritabanı erişim katmanı.
  * <p>
@@ -30,4 +36,23 @@ public interface RateRepository extends JpaRepository<RateRecord, Long> {
      * @return En son kaydedilen RateRecord nesnesi veya ilgili kur adı bulunamazsa null
      */
     RateRecord findTopByRateNameOrderByRateUpdatetimeDesc(String rateName);
+
+    /**
+     * Bir kurun verilen zaman aralığındaki kayıtlarını zaman sırasıyla bulur.
+     * <p>
+     * Zaman koşulu partition budaması ile yalnızca ilgili günlerin partition'larını okutur;
+     * partition içinde {@code rate_updatetime} üzerindeki BRIN index'i ve kur adı koşulu
+     * kullanılır (bkz. {@code schema.sql}).
+     * </p>
+     *
+     * @param rateName Sorgulanacak kur adı
+     * @param from Başlangıç (dahil)
+     * @param to Bitiş (hariç)
+     * @param limit En fazla dönecek kayıt sayısı
+     * @return Zaman sırasına göre kayıtlar
+     */
+    @Query("SELECT r FROM RateRecord r WHERE r.rateName = :rateName "
+            + "AND r.rateUpdatetime >= :from AND r.rateUpdatetime < :to ORDER BY r.rateUpdatetime")
+    List<RateRecord> findHistory(@Param("rateName") String rateName, @Param("from") Instant from,
+                                 @Param("to") Instant to, Limit limit);
 } 
\ No newline at end of file
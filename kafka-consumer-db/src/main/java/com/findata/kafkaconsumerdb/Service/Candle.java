@@ -0,0 +1,32 @@
+package com.findata.kafkaconsumerdb.Service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Bir kurun belirli bir zaman aralığındaki alış/satış OHLC (açılış, en yüksek, en düşük, kapanış) mumu.
+ *
+ * @param rateName Kur adı
+ * @param intervalSeconds Mum aralığı (saniye)
+ * @param bucketStart Aralığın başlangıcı (UTC, aralık uzunluğuna hizalı)
+ * @param openBid Açılış alış değeri
+ * @param highBid En yüksek alış değeri
+ * @param lowBid En düşük alış değeri
+ * @param closeBid Kapanış alış değeri
+ * @param openAsk Açılış satış değeri
+ * @param highAsk En yüksek satış değeri
+ * @param lowAsk En düşük satış değeri
+ * @param closeAsk Kapanış satış değeri
+ * @param tickCount Mumdaki tick sayısı
+ * @param openTime İlk tick'in zaman damgası
+ * @param closeTime Son tick'in zaman damgası
+ * @param closed Aralık kapandıysa true; hâlâ tick alan mum için false
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @see CandleAggregator
+ */
+public record Candle(String rateName, int intervalSeconds, Instant bucketStart,
+                     BigDecimal openBid, BigDecimal highBid, BigDecimal lowBid, BigDecimal closeBid,
+                     BigDecimal openAsk, BigDecimal highAsk, BigDecimal lowAsk, BigDecimal closeAsk,
+                     long tickCount, Instant openTime, Instant closeTime, boolean closed) {
+}
@@ -0,0 +1,335 @@
+package com.findata.kafkaconsumerdb.Service;
+
+import com.findata.kafkaconsumerdb.Entity.FixedPointPrice;
+import com.findata.kafkaconsumerdb.Entity.RateRecord;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Gelen tick'lerden kur ve aralık başına OHLC mumlarını bellekte artımlı olarak oluşturan servis.
+ * <p>
+ * Dinleyici her batch commit edildikten sonra yalnızca veritabanına gerçekten eklenen kayıtları
+ * ({@link RateRecordWriter#writeBatch} sonucu) {@link #onRecords} ile iletir; yeniden okunan ve
+ * {@code ON CONFLICT} ile atlanan tick'ler mumlara ikinci kez girmez. Her kur ve yapılandırılmış her
+ * aralık ({@code rates.candles.intervals}, örn. {@code 1s,1m,1h}) için tek bir açık mum tutulur;
+ * tick yeni bir aralığa düştüğünde açık mum kapanır ve yazma kuyruğuna alınır.
+ * Tick gelmeyen kurların mumları, aralık bitiminden {@code close-grace-ms} sonra zamanlayıcı
+ * tarafından kapatılır. Kapanmış bir aralığa geç gelen tick tek tick'lik bir mum olarak yazma kuyruğuna
+ * alınır ve upsert ile o aralığın mumuyla birleştirilir; böylece sonuç, aralığın mumunun tick geldiğinde
+ * hâlâ bellekte olup olmamasına bağlı değildir.
+ * </p>
+ * <p>
+ * Kapanan mumlar {@code flush-interval-ms} aralıklarla tek bir JDBC batch'i ile {@code tbl_candles}
+ * tablosuna yazılır. Yazma bir upsert'tür: aynı aralık için (örn. yeniden başlatma sonrası) ikinci
+ * bir mum gelirse açılış/kapanış zamanlarına göre birleştirilir ve tick sayıları toplanır. Her batch
+ * tek transaction'da yazılır; başarısız bir batch yeniden denendiğinde bir kısmı iki kez toplanmaz.
+ * Uygulama kapanırken açık mumlar da yazılır. Mum okumaları ({@link #findCandles}) ham tick tablosuna hiç dokunmaz.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @see Candle
+ */
+@Service
+public class CandleAggregator {
+    private final Logger logger = LoggerFactory.getLogger(CandleAggregator.class);
+
+    private static final String UPSERT_SQL = "INSERT INTO tbl_candles (rate_name, interval_seconds, bucket_start, "
+            + "open_bid, high_bid, low_bid, close_bid, open_ask, high_ask, low_ask, close_ask, tick_count, open_time, close_time) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT (rate_name, interval_seconds, bucket_start) DO UPDATE SET "
+            + "open_bid = CASE WHEN EXCLUDED.open_time < tbl_candles.open_time THEN EXCLUDED.open_bid ELSE tbl_candles.open_bid END, "
+            + "open_ask = CASE WHEN EXCLUDED.open_time < tbl_candles.open_time THEN EXCLUDED.open_ask ELSE tbl_candles.open_ask END, "
+            + "close_bid = CASE WHEN EXCLUDED.close_time > tbl_candles.close_time THEN EXCLUDED.close_bid ELSE tbl_candles.close_bid END, "
+            + "close_ask = CASE WHEN EXCLUDED.close_time > tbl_candles.close_time THEN EXCLUDED.close_ask ELSE tbl_candles.close_ask END, "
+            + "high_bid = GREATEST(tbl_candles.high_bid, EXCLUDED.high_bid), low_bid = LEAST(tbl_candles.low_bid, EXCLUDED.low_bid), "
+            + "high_ask = GREATEST(tbl_candles.high_ask, EXCLUDED.high_ask), low_ask = LEAST(tbl_candles.low_ask, EXCLUDED.low_ask), "
+            + "tick_count = tbl_candles.tick_count + EXCLUDED.tick_count, "
+            + "open_time = LEAST(tbl_candles.open_time, EXCLUDED.open_time), close_time = GREATEST(tbl_candles.close_time, EXCLUDED.close_time)";
+
+    private static final String SELECT_SQL = "SELECT rate_name, interval_seconds, bucket_start, open_bid, high_bid, low_bid, close_bid, "
+            + "open_ask, high_ask, low_ask, close_ask, tick_count, open_time, close_time FROM tbl_candles "
+            + "WHERE rate_name = ? AND interval_seconds = ? AND bucket_start >= ? AND bucket_start < ? ORDER BY bucket_start";
+
+    /** Tek seferde yazılan en fazla mum sayısı */
+    private static final int MAX_FLUSH_BATCH = 5_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /** Mum aralıkları, örn. "1s,1m,1h" */
+    @Value("${rates.candles.intervals:1s,1m,1h}")
+    private List<String> intervalNames;
+
+    /** Tick almayan açık mumların aralık bitiminden ne kadar sonra kapatılacağı */
+    @Value("${rates.candles.close-grace-ms:2000}")
+    private long closeGraceMillis;
+
+    /** Aralık uzunlukları (saniye), küçükten büyüğe */
+    private int[] intervals;
+
+    /** (kur, aralık) -> açık mum */
+    private final ConcurrentMap<CandleKey, CandleBuilder> openCandles = new ConcurrentHashMap<>();
+
+    /** Yazılmayı bekleyen kapanmış mumlar */
+    private final Queue<Candle> closedCandles = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Yapılandırılmış aralıkları çözümler.
+     *
+     * @throws IllegalStateException Bir aralık tam saniye değilse veya bir günü aşıyorsa
+     */
+    @PostConstruct
+    public void init() {
+        intervals = intervalNames.stream().mapToInt(CandleAggregator::parseInterval).distinct().sorted().toArray();
+        logger.info("Mum aralıkları (saniye): {}", Arrays.toString(intervals));
+    }
+
+    /**
+     * Commit edilmiş kayıtları açık mumlara işler.
+     *
+     * @param records Veritabanına eklenen kur kayıtları; tekrar eden (atlanan) kayıtlar verilmemeli
+     */
+    public void onRecords(List<RateRecord> records) {
+        for (RateRecord rateRecord : records) {
+            long epochSecond = rateRecord.getRateUpdatetime().getEpochSecond();
+            for (int interval : intervals) {
+                long bucket = Math.floorDiv(epochSecond, interval) * interval;
+                openCandles.compute(new CandleKey(rateRecord.getRateName(), interval), (key, candle) -> {
+                    if (candle == null) {
+                        return new CandleBuilder(key, bucket, rateRecord);
+                    }
+                    if (bucket == candle.bucket) {
+                        candle.add(rateRecord);
+                        return candle;
+                    }
+                    if (bucket > candle.bucket) {
+                        closedCandles.add(candle.build(true));
+                        return new CandleBuilder(key, bucket, rateRecord);
+                    }
+                    // Kapanmış bir aralığa geç gelen tick: upsert, aralığın yazılmış veya yazılacak mumuyla birleştirir
+                    closedCandles.add(new CandleBuilder(key, bucket, rateRecord).build(true));
+                    return candle;
+                });
+            }
+        }
+    }
+
+    /**
+     * Süresi dolan açık mumları kapatır ve kapanmış mumları veritabanına yazar.
+     */
+    @Scheduled(fixedDelayString = "${rates.candles.flush-interval-ms:1000}")
+    public void flush() {
+        long nowMillis = System.currentTimeMillis();
+        for (CandleKey key : openCandles.keySet()) {
+            openCandles.computeIfPresent(key, (k, candle) -> {
+                long endMillis = (candle.bucket + k.intervalSeconds()) * 1000L;
+                if (endMillis + closeGraceMillis <= nowMillis) {
+                    closedCandles.add(candle.build(true));
+                    return null;
+                }
+                return candle;
+            });
+        }
+        writeClosed();
+    }
+
+    /**
+     * Kapanırken açık mumları da yazar; yeniden başlatma sonrası aynı aralığın mumu upsert ile birleştirilir.
+     */
+    @PreDestroy
+    public void shutdown() {
+        for (CandleKey key : openCandles.keySet()) {
+            CandleBuilder candle = openCandles.remove(key);
+            if (candle != null) {
+                closedCandles.add(candle.build(true));
+            }
+        }
+        writeClosed();
+    }
+
+    /**
+     * Bir kurun verilen aralıktaki mumlarını döndürür. Kapanmış mumlar {@code tbl_candles} tablosundan,
+     * hâlâ açık olan mum bellekten okunur.
+     *
+     * @param rateName Kur adı
+     * @param intervalSeconds Mum aralığı (saniye); yapılandırılmış aralıklardan biri olmalı
+     * @param from Başlangıç (dahil)
+     * @param to Bitiş (hariç)
+     * @return Aralık başlangıcına göre sıralı mumlar
+     */
+    public List<Candle> findCandles(String rateName, int intervalSeconds, Instant from, Instant to) {
+        List<Candle> candles = new ArrayList<>(jdbcTemplate.query(SELECT_SQL, (resultSet, rowNum) -> new Candle(
+                resultSet.getString("rate_name"), resultSet.getInt("interval_seconds"),
+                resultSet.getTimestamp("bucket_start").toInstant(),
+                resultSet.getBigDecimal("open_bid"), resultSet.getBigDecimal("high_bid"),
+                resultSet.getBigDecimal("low_bid"), resultSet.getBigDecimal("close_bid"),
+                resultSet.getBigDecimal("open_ask"), resultSet.getBigDecimal("high_ask"),
+                resultSet.getBigDecimal("low_ask"), resultSet.getBigDecimal("close_ask"),
+                resultSet.getLong("tick_count"), resultSet.getTimestamp("open_time").toInstant(),
+                resultSet.getTimestamp("close_time").toInstant(), true),
+                rateName, intervalSeconds, Timestamp.from(from), Timestamp.from(to)));
+
+        // Henüz yazılmamış kapanmış mumlar ve açık mum bellekten eklenir
+        List<Candle> pending = new ArrayList<>();
+        for (Candle candle : closedCandles) {
+            if (candle.rateName().equals(rateName) && candle.intervalSeconds() == intervalSeconds) {
+                pending.add(candle);
+            }
+        }
+        CandleBuilder open = openCandles.get(new CandleKey(rateName, intervalSeconds));
+        if (open != null) {
+            pending.add(open.build(false));
+        }
+        for (Candle candle : pending) {
+            if (!candle.bucketStart().isBefore(from) && candle.bucketStart().isBefore(to)
+                    && candles.stream().noneMatch(existing -> existing.bucketStart().equals(candle.bucketStart()))) {
+                candles.add(candle);
+            }
+        }
+        candles.sort(Comparator.comparing(Candle::bucketStart));
+        return candles;
+    }
+
+    /**
+     * Verilen aralığın yapılandırılmış olup olmadığını döndürür.
+     *
+     * @param intervalSeconds Mum aralığı (saniye)
+     * @return Aralık için mum oluşturuluyorsa true
+     */
+    public boolean isIntervalSupported(int intervalSeconds) {
+        for (int interval : intervals) {
+            if (interval == intervalSeconds) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * "1s", "1m", "1h" gibi bir aralık ifadesini saniyeye çevirir.
+     *
+     * @param name Aralık ifadesi
+     * @return Aralık (saniye)
+     * @throws IllegalArgumentException İfade geçersizse, tam saniye değilse veya bir günü aşıyorsa
+     */
+    public static int parseInterval(String name) {
+        long millis = DurationStyle.detectAndParse(name.trim()).toMillis();
+        if (millis <= 0 || millis % 1000 != 0 || millis > 86_400_000L) {
+            throw new IllegalArgumentException("Geçersiz mum aralığı: " + name);
+        }
+        return (int) (millis / 1000);
+    }
+
+    private void writeClosed() {
+        while (!closedCandles.isEmpty()) {
+            List<Candle> batch = new ArrayList<>();
+            List<Object[]> batchArgs = new ArrayList<>();
+            Candle candle;
+            while (batch.size() < MAX_FLUSH_BATCH && (candle = closedCandles.peek()) != null) {
+                batch.add(candle);
+                batchArgs.add(new Object[]{candle.rateName(), candle.intervalSeconds(), Timestamp.from(candle.bucketStart()),
+                        candle.openBid(), candle.highBid(), candle.lowBid(), candle.closeBid(),
+                        candle.openAsk(), candle.highAsk(), candle.lowAsk(), candle.closeAsk(),
+                        candle.tickCount(), Timestamp.from(candle.openTime()), Timestamp.from(candle.closeTime())});
+                closedCandles.poll();
+            }
+            try {
+                // Upsert toplayıcıdır: batch'in bir kısmı yazılıp kuyruğa geri alınırsa o mumlar iki kez sayılır
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT_SQL, batchArgs));
+                logger.debug("{} mum tbl_candles tablosuna yazıldı", batch.size());
+            } catch (DataAccessException | TransactionException writeException) {
+                // Mumlar bir sonraki denemede yazılmak üzere kuyruğa geri alınır
+                closedCandles.addAll(batch);
+                logger.error("Mumlar veritabanına yazılamadı ({} mum), tekrar denenecek: {}", batch.size(),
+                        writeException.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Açık mumların anahtarı.
+     */
+    private record CandleKey(String rateName, int intervalSeconds) {
+    }
+
+    /**
+     * Açık bir mumun değiştirilebilir durumu. {@link ConcurrentMap#compute} içinde güncellenir;
+     * okuyucular nesne üzerinde senkronize olur.
+     */
+    private static final class CandleBuilder {
+        private final CandleKey key;
+        private final long bucket;
+        // Fiyatlar 1e-8 birim cinsinden; mum oluşturulurken BigDecimal'e çevrilir
+        private long openBid, highBid, lowBid, closeBid;
+        private long openAsk, highAsk, lowAsk, closeAsk;
+        private Instant openTime, closeTime;
+        private long tickCount;
+
+        CandleBuilder(CandleKey key, long bucket, RateRecord first) {
+            this.key = key;
+            this.bucket = bucket;
+            this.openBid = highBid = lowBid = closeBid = first.getBidUnits();
+            this.openAsk = highAsk = lowAsk = closeAsk = first.getAskUnits();
+            this.openTime = closeTime = first.getRateUpdatetime();
+            this.tickCount = 1;
+        }
+
+        synchronized void add(RateRecord rateRecord) {
+            long bid = rateRecord.getBidUnits();
+            long ask = rateRecord.getAskUnits();
+            Instant time = rateRecord.getRateUpdatetime();
+            highBid = Math.max(highBid, bid);
+            lowBid = Math.min(lowBid, bid);
+            highAsk = Math.max(highAsk, ask);
+            lowAsk = Math.min(lowAsk, ask);
+            if (time.isBefore(openTime)) {
+                openTime = time;
+                openBid = bid;
+                openAsk = ask;
+            }
+            if (!time.isBefore(closeTime)) {
+                closeTime = time;
+                closeBid = bid;
+                closeAsk = ask;
+            }
+            tickCount++;
+        }
+
+        synchronized Candle build(boolean closed) {
+            return new Candle(key.rateName(), key.intervalSeconds(), Instant.ofEpochSecond(bucket),
+                    FixedPointPrice.toBigDecimal(openBid), FixedPointPrice.toBigDecimal(highBid),
+                    FixedPointPrice.toBigDecimal(lowBid), FixedPointPrice.toBigDecimal(closeBid),
+                    FixedPointPrice.toBigDecimal(openAsk), FixedPointPrice.toBigDecimal(highAsk),
+                    FixedPointPrice.toBigDecimal(lowAsk), FixedPointPrice.toBigDecimal(closeAsk),
+                    tickCount, openTime, closeTime, closed);
+        }
+    }
+}
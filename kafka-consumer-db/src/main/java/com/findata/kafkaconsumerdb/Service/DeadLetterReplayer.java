@@ -0,0 +1,145 @@
+package com.findata.kafkaconsumerdb.Service;
+
+import com.findata.kafkaconsumerdb.Config.RateRetryProperties;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dead letter topic'lerindeki kayıtları asıl topic'lerine geri gönderen servis.
+ * <p>
+ * Hatanın nedeni giderildikten sonra (örneğin şema düzeltildikten veya ayrıştırıcı güncellendikten
+ * sonra) çağrılır. DLT, ayrı bir consumer grubuyla ({@code rate-db-dlt-replay}) kaldığı yerden okunur;
+ * kayıtlar anahtar ve değerleri değiştirilmeden, {@code rates-*} hata başlıkları çıkarılarak asıl
+ * topic'e gönderilir ve gönderim onaylandıktan sonra DLT offset'leri commit edilir. Geri gönderilen
+ * kayıtlar ana dinleyici tarafından normal akışta işlenir; yine başarısız olurlarsa tekrar DLT'ye düşer.
+ * </p>
+ * <p>
+ * Aynı anda tek bir geri gönderim çalışır.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @see RateFailureHandler
+ */
+@Service
+public class DeadLetterReplayer {
+    private final Logger logger = LoggerFactory.getLogger(DeadLetterReplayer.class);
+
+    /** DLT okuma ilerlemesinin saklandığı consumer grubu */
+    private static final String REPLAY_GROUP_ID = "rate-db-dlt-replay";
+
+    /** Hata başlıklarının ortak öneki */
+    private static final String FAILURE_HEADER_PREFIX = "rates-";
+
+    /** Tek poll'un en uzun süresi */
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+
+    /** Bu kadar art arda boş poll'dan sonra DLT'nin sonuna gelindiği kabul edilir */
+    private static final int MAX_EMPTY_POLLS = 3;
+
+    @Autowired
+    private ConsumerFactory<?, ?> consumerFactory;
+
+    @Autowired
+    private RateRetryProperties rateRetryProperties;
+
+    @Autowired
+    private RateFailureHandler rateFailureHandler;
+
+    @Value("${kafka.topic.raw-rates}")
+    private String rawRatesTopic;
+
+    @Value("${kafka.topic.calculated-rates}")
+    private String calculatedRatesTopic;
+
+    /**
+     * Geri gönderim sonucu.
+     *
+     * @param deadLetterTopic Okunan dead letter topic'i
+     * @param targetTopic Kayıtların gönderildiği asıl topic
+     * @param replayed Geri gönderilen kayıt sayısı
+     */
+    public record ReplayResult(String deadLetterTopic, String targetTopic, int replayed) {
+    }
+
+    /**
+     * Bir topic'in DLT'sindeki en fazla {@code limit} kaydı asıl topic'e geri gönderir.
+     *
+     * @param topic Asıl topic ({@code kafka.topic.*} değerlerinden biri)
+     * @param limit En fazla geri gönderilecek kayıt sayısı
+     * @return Geri gönderim sonucu
+     * @throws IllegalArgumentException Topic bilinmiyorsa
+     * @throws InterruptedException Gönderim beklenirken kesilirse
+     */
+    public synchronized ReplayResult replay(String topic, int limit) throws InterruptedException {
+        if (!topic.equals(rawRatesTopic) && !topic.equals(calculatedRatesTopic)) {
+            throw new IllegalArgumentException("Bilinmeyen topic: " + topic);
+        }
+        String deadLetterTopic = rateRetryProperties.deadLetterTopic(topic);
+
+        Map<String, Object> configs = new HashMap<>(consumerFactory.getConfigurationProperties());
+        configs.put(ConsumerConfig.GROUP_ID_CONFIG, REPLAY_GROUP_ID);
+        configs.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        configs.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        configs.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, limit);
+
+        try (KafkaConsumer<String, byte[]> consumer = new KafkaConsumer<>(configs, new StringDeserializer(), new ByteArrayDeserializer())) {
+            List<TopicPartition> partitions = new ArrayList<>();
+            for (PartitionInfo partitionInfo : consumer.partitionsFor(deadLetterTopic)) {
+                partitions.add(new TopicPartition(deadLetterTopic, partitionInfo.partition()));
+            }
+            consumer.assign(partitions);
+
+            List<ProducerRecord<String, byte[]>> outgoing = new ArrayList<>();
+            Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+            int emptyPolls = 0;
+            while (outgoing.size() < limit && emptyPolls < MAX_EMPTY_POLLS) {
+                ConsumerRecords<String, byte[]> records = consumer.poll(POLL_TIMEOUT);
+                emptyPolls = records.isEmpty() ? emptyPolls + 1 : 0;
+                for (ConsumerRecord<String, byte[]> consumerRecord : records) {
+                    if (outgoing.size() == limit) {
+                        break;
+                    }
+                    ProducerRecord<String, byte[]> producerRecord = new ProducerRecord<>(topic, consumerRecord.key(), consumerRecord.value());
+                    for (Header header : consumerRecord.headers()) {
+                        if (!header.key().startsWith(FAILURE_HEADER_PREFIX)) {
+                            producerRecord.headers().add(header);
+                        }
+                    }
+                    outgoing.add(producerRecord);
+                    offsets.put(new TopicPartition(consumerRecord.topic(), consumerRecord.partition()),
+                            new OffsetAndMetadata(consumerRecord.offset() + 1));
+                }
+            }
+
+            if (!outgoing.isEmpty()) {
+                rateFailureHandler.sendAll(outgoing);
+                consumer.commitSync(offsets);
+                rateFailureHandler.recordReplayed(outgoing.size());
+            }
+            logger.info("{} topic'inden {} kayıt {} topic'ine geri gönderildi", deadLetterTopic, outgoing.size(), topic);
+            return new ReplayResult(deadLetterTopic, topic, outgoing.size());
+        }
+    }
+}
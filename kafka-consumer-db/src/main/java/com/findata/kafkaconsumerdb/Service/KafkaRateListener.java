@@ -1,116 +1,193 @@
 package com.findata.kafkaconsumerdb.Service;
 
+import com.findata.kafkaconsumerdb.Config.RateWriterProperties;
 import com.findata.kafkaconsumerdb.Entity.RateRecord;
-import com.findata.kafkaconsumerdb.Repository.RateRecordRepository;
-import com.google.gson.JsonSyntaxException;
 
-import java.math.BigDecimal;
-import java.sql.Timestamp;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import jakarta.annotation.PostConstruct;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.dao.DataAccessException;
+import org.springframework.kafka.KafkaException;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
-import java.time.Instant;
 
 /**
  * Kafka'dan gelen kur verilerini dinleyen ve veritabanına kaydeden servis sınıfı.
  * <p>
- * Bu sınıf, belirtilen Kafka topic'inden kur verilerini dinler, gelen JSON formatındaki
- * mesajları ayrıştırır ve {@link RateRecord} nesnelerine dönüştürüp veritabanına kaydeder.
- * Hata durumlarını uygun şekilde log'lar ve yönetir.
+ * Bu sınıf, ana uygulamanın ürettiği {@code raw-rates} ve {@code calculated-rates} topic'lerini
+ * ayrı dinleyicilerle dinler ve {@link RateRecord} nesnelerini veritabanına kaydeder.
+ * {@code SYMBOL|BID|ASK|TIMESTAMP} formatındaki mesajlar poll sırasında {@link RateRecordDeserializer}
+ * tarafından ham baytlardan ayrıştırılır; dinleyiciye hazır kayıtlar gelir. Hata durumlarını
+ * uygun şekilde log'lar ve yönetir.
+ * </p>
+ * <p>
+ * Her dinleyicinin concurrency değeri topic'in partition sayısına eşittir
+ * ({@code kafka.topic.*-partitions}); böylece her partition kendi consumer thread'inde, sırası
+ * korunarak işlenir ve veritabanına yazma partition sayısıyla paralel ölçeklenir.
+ * </p>
+ * <p>
+ * Dinleyici batch modunda çalışır: her poll'da gelen kayıtlar birlikte ayrıştırılır ve
+ * topic için seçilen {@link RateRecordWriter} ile (varsayılan olarak {@link RateBatchWriter},
+ * istenirse {@link RateCopyWriter}) yazılmak üzere {@link RateWriteQueue}'ya bırakılır; poll thread'i
+ * veritabanını beklemez. Batch'ler yazıcı thread'lerinde tek transaction içinde yazılır ve offset'ler
+ * manuel olarak, yalnızca yazma commit edildikten sonra onaylanır. Yazma başarısız olursa batch
+ * yeniden denenir, kuyruk dolarsa consumer'lar duraklatılır; hiçbir kayıt kaybolmaz.
+ * </p>
+ * <p>
+ * Ayrıştırılamayan mesajlar ham baytlarıyla, batch kuyruğa alınmadan önce dead letter topic'ine
+ * gönderilir; yazılamayan batch'ler ise {@link RateFailureHandler} ile yeniden deneme topic'lerine
+ * aktarılır. Hiçbir durumda ana partition bir hatalı mesaj yüzünden beklemez.
  * </p>
  * 
  * @author Finans Veri Projesi Team
  * @version 1.0
  * @see RateRecord
- * @see RateRecordRepository
+ * @see RateRecordDeserializer
+ * @see RateRecordWriter
+ * @see RateWriterProperties
+ * @see RateWriteQueue
+ * @see RateFailureHandler
  */
 @Component
 public class KafkaRateListener {
     private final Logger logger = LoggerFactory.getLogger(KafkaRateListener.class);
     
     @Autowired
-    private RateRecordRepository rateRecordRepository;
-    
+    private List<RateRecordWriter> rateRecordWriters;
+
+    @Autowired
+    private RateWriterProperties rateWriterProperties;
+
+    @Autowired
+    private RateWriteQueue rateWriteQueue;
+
+    @Autowired
+    private RateFailureHandler rateFailureHandler;
+
+    @Autowired
+    private RateMetrics rateMetrics;
+
+    /** Ayrıştırılamayan mesajlar DLT'ye gönderilemediğinde batch'in yeniden alınmasından önceki bekleme */
+    private static final Duration PARSE_FAILURE_RETRY_DELAY = Duration.ofSeconds(10);
+
+    /** Yazıcı adı -> yazıcı */
+    private final Map<String, RateRecordWriter> writersByName = new HashMap<>();
+
     /**
-     * Kafka'dan gelen mesajları işleyen metot.
-     * <p>
-     * Bu metot, "findata" topic'inden gelen JSON formatındaki mesajları dinler ve işler.
-     * Mesajı ayrıştırır, geçerli bir {@link RateRecord} nesnesine dönüştürür ve veritabanına kaydeder.
-     * </p>
-     * 
-     * @param message Kafka'dan alınan JSON formatındaki mesaj
+     * Yazıcıları adlarına göre indeksler ve ayarlarda geçen yazıcı adlarını doğrular.
+     *
+     * @throws IllegalStateException Ayarlarda bilinmeyen bir yazıcı adı varsa
      */
-    @KafkaListener(topics = "findata", groupId = "group_id" )
-    public void consume(String message) {
-        logger.info("kafka message -> {}", message);
-        RateRecord rateRecord = parseMessage(message);
-        
-        if (rateRecord != null) {
-            try {
-                rateRecordRepository.save(rateRecord);
-            } catch (DataAccessException dataAccessException) {
-                logger.error("Veritabanına kayıt sırasında hata oluştu", dataAccessException);
-            } catch (Exception e) {
-                logger.error("Beklenmeyen bir hata oluştu", e);
+    @PostConstruct
+    public void initWriters() {
+        for (RateRecordWriter writer : rateRecordWriters) {
+            writersByName.put(writer.getName(), writer);
+        }
+        List<String> configured = new ArrayList<>(rateWriterProperties.getTopics().values());
+        configured.add(rateWriterProperties.getDefaultWriter());
+        for (String name : configured) {
+            if (!writersByName.containsKey(name)) {
+                throw new IllegalStateException("Bilinmeyen kur yazıcısı: " + name + " (geçerli değerler: " + writersByName.keySet() + ")");
             }
         }
+        logger.info("Kur yazıcıları: varsayılan={}, topic bazında={}",
+                rateWriterProperties.getDefaultWriter(), rateWriterProperties.getTopics());
+    }
+
+    /**
+     * Bir topic için ayarlarda seçilen yazıcıyı döndürür.
+     *
+     * @param topic Asıl topic (örn. {@code raw-rates})
+     * @return Topic'in yazıcısı
+     */
+    public RateRecordWriter writerFor(String topic) {
+        return writersByName.get(rateWriterProperties.writerFor(topic));
     }
     
     /**
-     * JSON formatındaki mesajı ayrıştıran ve {@link RateRecord} nesnesine dönüştüren metot.
-     * <p>
-     * Bu metot, gelen JSON mesajını ayrıştırır ve gerekli alanları RateRecord nesnesine atar.
-     * JSON ayrıştırma hatalarını ve diğer olası hataları yakalar ve uygun şekilde log'lar.
-     * </p>
-     * 
-     * @param message Ayrıştırılacak JSON formatındaki mesaj
-     * @return Oluşturulan RateRecord nesnesi veya hata durumunda null
+     * Ham kurları ({@code raw-rates}) bir poll'luk batch'ler halinde işleyen dinleyici.
+     *
+     * @param records Kafka'dan tek poll ile alınan mesajlar
+     * @param acknowledgment Offset onayı için kullanılan nesne
      */
-    private RateRecord parseMessage(String message) {
-        try {
-            JsonObject jsonObject = JsonParser.parseString(message).getAsJsonObject();
-
-            RateRecord rateRecord = new RateRecord();
-            rateRecord.setRateName(jsonObject.get("name").getAsString()); // name yerine rateName kullanın.
-            rateRecord.setBid(new BigDecimal(jsonObject.get("bid").getAsDouble())); // bid için BigDecimal dönüşümü
-            rateRecord.setAsk(new BigDecimal(jsonObject.get("ask").getAsDouble())); // ask için BigDecimal dönüşümü
-            rateRecord.setRateUpdatetime(Instant.now()); // Veritabanına kaydedilecek zaman
-            rateRecord.setDbUpdatetime(Instant.now()); // dbUpdatetime da aynı şekilde ayarlanmalı
-
-            return rateRecord;
-        } catch (JsonSyntaxException jsonSyntaxException) {
-            logger.error("JSON ayrıştırma hatası: {}", jsonSyntaxException.getMessage());
-        } catch (NullPointerException nullPointerException) {
-            logger.error("JSON'da eksik alan bulunuyor: {}", nullPointerException.getMessage());
-        } catch (Exception e) {
-            logger.error("Mesaj ayrıştırma sırasında beklenmeyen hata: {}", e.getMessage());
-        }
-
-        return null;
+    @KafkaListener(id = "raw-rates-listener", idIsGroup = false, topics = "${kafka.topic.raw-rates}",
+            concurrency = "${kafka.topic.raw-rates-partitions}", batch = "true")
+    public void consumeRawRates(List<ConsumerRecord<String, RateRecord>> records, Acknowledgment acknowledgment) {
+        processBatch(records, acknowledgment);
     }
 
+    /**
+     * Hesaplanmış kurları ({@code calculated-rates}) bir poll'luk batch'ler halinde işleyen dinleyici.
+     *
+     * @param records Kafka'dan tek poll ile alınan mesajlar
+     * @param acknowledgment Offset onayı için kullanılan nesne
+     */
+    @KafkaListener(id = "calculated-rates-listener", idIsGroup = false, topics = "${kafka.topic.calculated-rates}",
+            concurrency = "${kafka.topic.calculated-rates-partitions}", batch = "true")
+    public void consumeCalculatedRates(List<ConsumerRecord<String, RateRecord>> records, Acknowledgment acknowledgment) {
+        processBatch(records, acknowledgment);
+    }
 
     /**
-     * Bir dizeden tarih/zaman değeri ayrıştıran yardımcı metot.
+     * Bir poll ile gelen mesajları işleyen metot.
      * <p>
-     * "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'" formatında verilen bir tarih/zaman dizesini
-     * {@link Date} nesnesine dönüştürür.
+     * Kayıtlar, topic için seçilen yazıcıyla birlikte yazma kuyruğuna bırakılır;
+     * ayrıştırılamayan mesajlar (değeri null olan kayıtlar) önce dead letter topic'ine gönderilir.
+     * Bir container yalnızca tek bir topic'e abone olduğundan batch'teki tüm kayıtlar aynı topic'e
+     * aittir. Offset'ler yazıcı thread'i kaydı tamamladıktan sonra onaylanır. Ayrıştırılamayan mesajlar
+     * dead letter topic'ine gönderilemezse batch kuyruğa alınmaz ve {@link Acknowledgment#nack(int, Duration)}
+     * ile bir süre sonra yeniden alınır.
      * </p>
-     * 
-     * @param dateString Ayrıştırılacak tarih/zaman dizesi
-     * @return Ayrıştırılan Date nesnesi
-     * @throws ParseException Tarih/zaman dizesi geçerli formatta değilse
+     *
+     * @param records Kafka'dan tek poll ile alınan mesajlar
+     * @param acknowledgment Offset onayı için kullanılan nesne
      */
-    private Date parseTimestamp(String dateString) throws ParseException {
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
-        return dateFormat.parse(dateString);
+    private void processBatch(List<ConsumerRecord<String, RateRecord>> records, Acknowledgment acknowledgment) {
+        if (records.isEmpty()) {
+            return;
+        }
+        String topic = records.get(0).topic();
+        rateMetrics.recordConsumed(records);
+        List<RateRecord> rateRecords = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, RateRecord> consumerRecord : records) {
+            RateRecord rateRecord = consumerRecord.value();
+            if (rateRecord != null) {
+                if (rateRecord.getRateUpdatetime() == null) {
+                    // Zaman damgası olmayan JSON mesajları: yeniden okumada da aynı kalan üretim zamanı kullanılır
+                    rateRecord.setRateUpdatetime(Instant.ofEpochMilli(consumerRecord.timestamp()));
+                }
+                rateRecords.add(rateRecord);
+            }
+        }
+
+        // Boş batch'ler de kuyruktan geçer: onayları, aynı consumer'ın önceki batch'lerinden önce commit edilmemeli
+        RateRecordWriter writer = writerFor(topic);
+        try {
+            if (rateRecords.size() < records.size()) {
+                try {
+                    rateFailureHandler.publishParseFailures(records);
+                } catch (KafkaException sendException) {
+                    logger.error("{} topic'inden gelen ayrıştırılamayan mesajlar dead letter topic'ine gönderilemedi, batch {} sn sonra yeniden alınacak",
+                            topic, PARSE_FAILURE_RETRY_DELAY.toSeconds(), sendException);
+                    acknowledgment.nack(0, PARSE_FAILURE_RETRY_DELAY);
+                    return;
+                }
+            }
+            rateWriteQueue.submit(topic, writer, rateRecords, acknowledgment);
+        } catch (InterruptedException e) {
+            // Kapanış sırasında: offset'ler onaylanmaz, kayıtlar yeniden başlatmada tekrar okunur
+            Thread.currentThread().interrupt();
+            logger.warn("{} topic'inden {} kayıt kuyruğa alınamadan dinleyici durduruldu", topic, rateRecords.size());
+            return;
+        }
+        logger.debug("{} topic'inden {} mesaj alındı, {} kur kaydı yazma kuyruğuna alındı", topic, records.size(), rateRecords.size());
     }
 }
\ No newline at end of file
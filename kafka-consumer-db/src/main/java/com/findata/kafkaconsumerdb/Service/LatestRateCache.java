@@ -0,0 +1,98 @@
+package com.findata.kafkaconsumerdb.Service;
+
+import com.findata.kafkaconsumerdb.Entity.LatestRate;
+import com.findata.kafkaconsumerdb.Repository.LatestRateRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Kurların en son değerlerini süreç içinde tutan önbellek.
+ * <p>
+ * Uygulama başlarken {@code tbl_latest_rates} tablosundan doldurulur; sonrasında her batch
+ * transaction'ı commit edildiğinde {@link LatestRateUpdater} tarafından güncellenir. Böylece
+ * REST API'nin "en son değer" sorguları veritabanına gitmeden, kilitsiz bir map okumasıyla
+ * karşılanır. Bir değer yalnızca mevcut değerden eski değilse yazılır.
+ * </p>
+ * <p>
+ * Önbellek yalnızca bu sürecin tükettiği partition'ları görür. Birden fazla consumer örneği
+ * çalışıyorsa diğer örneklerin yazdığı kurlar önbellekte bulunmayabilir veya geride kalabilir;
+ * bulunmayan kurlar için veritabanına düşülür ({@link #get} null döner).
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @see LatestRateUpdater
+ * @see LatestRate
+ */
+@Component
+public class LatestRateCache {
+    private final Logger logger = LoggerFactory.getLogger(LatestRateCache.class);
+
+    /** Kur adı -> en son değer */
+    private final ConcurrentMap<String, LatestRate> latestRates = new ConcurrentHashMap<>();
+
+    @Autowired
+    private LatestRateRepository latestRateRepository;
+
+    /**
+     * Önbelleği veritabanındaki son değerlerle doldurur. Veritabanına ulaşılamazsa önbellek boş
+     * başlar ve değerler ilk batch'lerle veya okuma sırasında veritabanından doldurulur.
+     */
+    @PostConstruct
+    public void warm() {
+        try {
+            List<LatestRate> rates = latestRateRepository.findAll();
+            rates.forEach(this::update);
+            logger.info("En son kur önbelleği {} kur ile dolduruldu", rates.size());
+        } catch (DataAccessException dataAccessException) {
+            logger.warn("En son kur önbelleği doldurulamadı, soğuk başlanıyor: {}", dataAccessException.getMessage());
+        }
+    }
+
+    /**
+     * Bir kurun en son değerini döndürür.
+     *
+     * @param rateName Kur adı
+     * @return En son değer veya önbellekte yoksa null
+     */
+    public LatestRate get(String rateName) {
+        return latestRates.get(rateName);
+    }
+
+    /**
+     * Önbellekteki tüm son değerleri döndürür.
+     *
+     * @return Son değerlerin canlı görünümü
+     */
+    public Collection<LatestRate> getAll() {
+        return latestRates.values();
+    }
+
+    /**
+     * Bir kurun değerini, mevcut değerden eski değilse günceller.
+     *
+     * @param latestRate Yeni değer
+     */
+    public void update(LatestRate latestRate) {
+        latestRates.merge(latestRate.getRateName(), latestRate,
+                (current, candidate) -> candidate.getRateUpdatetime().isBefore(current.getRateUpdatetime()) ? current : candidate);
+    }
+
+    /**
+     * Birden fazla kurun değerini günceller.
+     *
+     * @param rates Yeni değerler
+     */
+    public void updateAll(List<LatestRate> rates) {
+        rates.forEach(this::update);
+    }
+}
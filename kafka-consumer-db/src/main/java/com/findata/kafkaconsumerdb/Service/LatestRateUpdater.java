@@ -0,0 +1,94 @@
+package com.findata.kafkaconsumerdb.Service;
+
+import com.findata.kafkaconsumerdb.Config.PriceStorageProperties;
+import com.findata.kafkaconsumerdb.Entity.LatestRate;
+import com.findata.kafkaconsumerdb.Entity.RateRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * {@code tbl_latest_rates} tablosunu geçmiş kayıtlarla aynı transaction içinde güncelleyen servis.
+ * <p>
+ * Batch'teki kayıtlar önce kur adı başına en yeni kayda indirgenir, ardından tek bir JDBC batch'i
+ * ile {@code INSERT ... ON CONFLICT (rate_name) DO UPDATE} yapılır. Güncelleme yalnızca gelen
+ * değer tablodakinden eski değilse uygulanır; yeniden denenen veya geç gelen bir batch son değeri
+ * geriye almaz. Satırlar kur adına göre sıralı güncellendiğinden paralel consumer thread'leri
+ * arasında kilit sırası tutarlıdır.
+ * </p>
+ * <p>
+ * Transaction commit edildikten sonra aynı değerler {@link LatestRateCache}'e de yazılır; geri
+ * alınan bir batch önbelleğe yansımaz.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @see LatestRate
+ * @see RateRecordWriter
+ */
+@Service
+public class LatestRateUpdater {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO tbl_latest_rates (rate_name, bid, ask, rate_updatetime, db_updatetime) VALUES (?, ?, ?, ?, ?) "
+                    + "ON CONFLICT (rate_name) DO UPDATE SET bid = EXCLUDED.bid, ask = EXCLUDED.ask, "
+                    + "rate_updatetime = EXCLUDED.rate_updatetime, db_updatetime = EXCLUDED.db_updatetime "
+                    + "WHERE tbl_latest_rates.rate_updatetime <= EXCLUDED.rate_updatetime";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LatestRateCache latestRateCache;
+
+    @Autowired
+    private PriceStorageProperties priceStorageProperties;
+
+    /**
+     * Batch'teki her kurun en yeni değerini {@code tbl_latest_rates} tablosuna yazar. Çağıranın
+     * transaction'ı içinde çalışır.
+     *
+     * @param records Geçmiş tablosuna yazılan kur kayıtları
+     * @return Kur adı başına en yeni değerler
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<LatestRate> upsert(List<RateRecord> records) {
+        Map<String, RateRecord> latestByName = new TreeMap<>();
+        for (RateRecord rateRecord : records) {
+            latestByName.merge(rateRecord.getRateName(), rateRecord,
+                    (current, candidate) -> candidate.getRateUpdatetime().isBefore(current.getRateUpdatetime()) ? current : candidate);
+        }
+        Instant now = Instant.now();
+        List<LatestRate> latestRates = new ArrayList<>(latestByName.size());
+        List<Object[]> batchArgs = new ArrayList<>(latestByName.size());
+        for (RateRecord rateRecord : latestByName.values()) {
+            Instant dbUpdatetime = rateRecord.getDbUpdatetime() != null ? rateRecord.getDbUpdatetime() : now;
+            latestRates.add(new LatestRate(rateRecord.getRateName(), rateRecord.getBidUnits(), rateRecord.getAskUnits(),
+                    rateRecord.getRateUpdatetime(), dbUpdatetime));
+            batchArgs.add(new Object[]{rateRecord.getRateName(), priceStorageProperties.toColumn(rateRecord.getBidUnits()),
+                    priceStorageProperties.toColumn(rateRecord.getAskUnits()),
+                    Timestamp.from(rateRecord.getRateUpdatetime()), Timestamp.from(dbUpdatetime)});
+        }
+        if (!batchArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, batchArgs);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    latestRateCache.updateAll(latestRates);
+                }
+            });
+        }
+        return latestRates;
+    }
+}
@@ -0,0 +1,132 @@
+package com.findata.kafkaconsumerdb.Service;
+
+import com.findata.kafkaconsumerdb.Entity.RateRecord;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Zaman sırasıyla gelen tick'leri Largest-Triangle-Three-Buckets (LTTB) ile tek geçişte seyrelten sınıf.
+ * <p>
+ * Zaman aralığı eşit genişlikte kovalara bölünür. İlk ve son tick her zaman seçilir; aradaki her
+ * kovadan, önceki seçilen nokta ve bir sonraki dolu kovanın ortalaması ile en büyük üçgeni
+ * oluşturan tick seçilir. Kova ortalamaları önceden (veritabanında {@code GROUP BY} ile)
+ * hesaplandığından tick'ler bir kez okunur ve yalnızca seçilen noktalar ile kova başına tek bir
+ * aday bellekte tutulur; bellek kullanımı tick sayısından bağımsız, kova sayısıyla orantılıdır.
+ * </p>
+ * <p>
+ * Sınıf thread-safe değildir; her sorgu için yeni bir örnek oluşturulur.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @see RateHistoryService#downsample
+ */
+public class LttbDownsampler {
+
+    /** Her kova için bir sonraki dolu kovanın (yoksa son tick'in) ortalama zamanı */
+    private final double[] nextAverageX;
+
+    /** Her kova için bir sonraki dolu kovanın (yoksa son tick'in) ortalama değeri */
+    private final double[] nextAverageY;
+
+    /** Seçilen tick'ler */
+    private final List<RateRecord> selected;
+
+    /** Önceki seçilen noktanın zamanı */
+    private double anchorX;
+
+    /** Önceki seçilen noktanın değeri */
+    private double anchorY;
+
+    /** İşlenmekte olan kova; henüz tick gelmediyse -1 */
+    private int currentBucket = -1;
+
+    /** İşlenmekte olan kovanın en büyük üçgeni oluşturan tick'i */
+    private RateRecord candidate;
+
+    private double candidateX;
+
+    private double candidateY;
+
+    private double candidateArea;
+
+    /**
+     * Yeni bir seyreltici oluşturur.
+     *
+     * @param counts Kova başına tick sayısı (1'den başlayan indeksler; 0. eleman kullanılmaz)
+     * @param averageX Kova başına ortalama zaman
+     * @param averageY Kova başına ortalama değer
+     * @param lastX Son tick'in zamanı
+     * @param lastY Son tick'in değeri
+     */
+    public LttbDownsampler(long[] counts, double[] averageX, double[] averageY, double lastX, double lastY) {
+        int buckets = counts.length;
+        this.nextAverageX = new double[buckets];
+        this.nextAverageY = new double[buckets];
+        double nextX = lastX;
+        double nextY = lastY;
+        for (int bucket = buckets - 1; bucket >= 0; bucket--) {
+            nextAverageX[bucket] = nextX;
+            nextAverageY[bucket] = nextY;
+            if (counts[bucket] > 0) {
+                nextX = averageX[bucket];
+                nextY = averageY[bucket];
+            }
+        }
+        this.selected = new ArrayList<>(buckets + 1);
+    }
+
+    /**
+     * Bir tick'i işler. İlk çağrıdaki tick doğrudan seçilir.
+     *
+     * @param bucket Tick'in kovası (1'den başlar)
+     * @param x Tick'in zamanı
+     * @param y Tick'in değeri
+     * @param rateRecord Tick
+     */
+    public void add(int bucket, double x, double y, RateRecord rateRecord) {
+        if (selected.isEmpty()) {
+            select(x, y, rateRecord);
+            return;
+        }
+        if (bucket != currentBucket) {
+            closeBucket();
+            currentBucket = bucket;
+        }
+        double nextX = nextAverageX[bucket];
+        double nextY = nextAverageY[bucket];
+        double area = Math.abs((anchorX - nextX) * (y - anchorY) - (anchorX - x) * (nextY - anchorY));
+        if (candidate == null || area > candidateArea) {
+            candidate = rateRecord;
+            candidateX = x;
+            candidateY = y;
+            candidateArea = area;
+        }
+    }
+
+    /**
+     * Son kovayı kapatır ve son tick'i ekleyerek seçilen tick'leri döndürür.
+     *
+     * @param last Aralığın son tick'i
+     * @return Zaman sırasıyla seçilen tick'ler
+     */
+    public List<RateRecord> finish(RateRecord last) {
+        closeBucket();
+        selected.add(last);
+        return selected;
+    }
+
+    private void closeBucket() {
+        if (candidate != null) {
+            select(candidateX, candidateY, candidate);
+            candidate = null;
+        }
+    }
+
+    private void select(double x, double y, RateRecord rateRecord) {
+        selected.add(rateRecord);
+        anchorX = x;
+        anchorY = y;
+    }
+}
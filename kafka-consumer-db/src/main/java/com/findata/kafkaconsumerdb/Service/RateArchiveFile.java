@@ -0,0 +1,505 @@
+package com.findata.kafkaconsumerdb.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Bir kurun bir günlük tick'lerini tutan sıkıştırılmış, sütunlu arşiv dosyasının biçimi.
+ * <p>
+ * Her sütun ayrı bir bit akışı olarak kodlanır: zaman damgası (epoch mikrosaniye), id ve yazılma
+ * gecikmesi (yazılma anı - zaman damgası) delta-of-delta ile; alış ve satış (1e-8 birim) önceki
+ * değerle XOR'lanarak (Gorilla). Düzenli aralıklarla gelen tick'lerin zaman damgaları birkaç bit,
+ * az değişen fiyatlar çoğunlukla 1-20 bit yer kaplar; satır başına 8 baytlık beş sütun yerine tick
+ * başına tipik olarak birkaç bayt yazılır.
+ * </p>
+ * <p>
+ * Dosya düzeni: sihirli sayı ({@code RTA1}), kur adı, gün, tick sayısı, ilk/son zaman damgası,
+ * sütun başına bit uzunluğu ve ardından sütunların baytları. Tick'ler zaman damgasına göre kesin
+ * artan sırada yazılır. Okuma dosyayı belleğe eşler ve sütunları birlikte, sırayla çözer; başlıktaki
+ * zaman aralığı sorguyla kesişmeyen dosyalar hiç çözülmez.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @see RateArchiveService
+ */
+public final class RateArchiveFile {
+
+    /** Arşiv dosyalarının uzantısı */
+    public static final String EXTENSION = ".rta";
+
+    private static final int MAGIC = 0x52544131; // "RTA1"
+
+    private static final int COLUMN_COUNT = 5;
+
+    private RateArchiveFile() {
+    }
+
+    /**
+     * Tick'leri sütunlara kodlayıp tek bir arşiv dosyası yazan sınıf. Thread-safe değildir.
+     */
+    public static class Writer {
+        private final String rateName;
+        private final LocalDate day;
+        private final DeltaOfDeltaEncoder times = new DeltaOfDeltaEncoder();
+        private final DeltaOfDeltaEncoder ids = new DeltaOfDeltaEncoder();
+        private final XorEncoder bids = new XorEncoder();
+        private final XorEncoder asks = new XorEncoder();
+        private final DeltaOfDeltaEncoder delays = new DeltaOfDeltaEncoder();
+        private int count;
+        private long firstTime;
+        private long lastTime;
+
+        /**
+         * Boş bir dosya yazıcısı oluşturur.
+         *
+         * @param rateName Kur adı
+         * @param day Tick'lerin günü (UTC)
+         */
+        public Writer(String rateName, LocalDate day) {
+            this.rateName = rateName;
+            this.day = day;
+        }
+
+        /**
+         * Bir tick ekler.
+         *
+         * @param timeMicros Kaynak zaman damgası (epoch mikrosaniye); öncekinden büyük olmalı
+         * @param id Veritabanı id'si
+         * @param bid Alış (1e-8 birim)
+         * @param ask Satış (1e-8 birim)
+         * @param dbTimeMicros Veritabanına yazılma anı (epoch mikrosaniye)
+         * @throws IllegalArgumentException Zaman damgası öncekinden büyük değilse
+         */
+        public void add(long timeMicros, long id, long bid, long ask, long dbTimeMicros) {
+            if (count > 0 && timeMicros <= lastTime) {
+                throw new IllegalArgumentException("Tick'ler zaman sırasıyla eklenmeli: " + timeMicros + " <= " + lastTime);
+            }
+            if (count == 0) {
+                firstTime = timeMicros;
+            }
+            lastTime = timeMicros;
+            times.add(timeMicros);
+            ids.add(id);
+            bids.add(bid);
+            asks.add(ask);
+            delays.add(dbTimeMicros - timeMicros);
+            count++;
+        }
+
+        /**
+         * Eklenen tick sayısını döndürür.
+         *
+         * @return Tick sayısı
+         */
+        public int size() {
+            return count;
+        }
+
+        /**
+         * Dosyayı önce geçici bir dosyaya yazar, diske aktarır ve ardından atomik olarak hedefin
+         * yerine taşır; yarım yazılmış bir dosya hiçbir zaman okunmaz.
+         *
+         * @param path Hedef dosya
+         * @return Yazılan bayt sayısı
+         * @throws IOException Dosya yazılamazsa
+         */
+        public long writeTo(Path path) throws IOException {
+            BitWriter[] columns = {times.bits, ids.bits, bids.bits, asks.bits, delays.bits};
+            byte[] name = rateName.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer header = ByteBuffer.allocate(4 + 2 + name.length + 8 + 4 + 8 + 8 + 1 + COLUMN_COUNT * 8);
+            header.putInt(MAGIC).putShort((short) name.length).put(name).putLong(day.toEpochDay()).putInt(count)
+                    .putLong(firstTime).putLong(lastTime).put((byte) COLUMN_COUNT);
+            for (BitWriter column : columns) {
+                header.putLong(column.bitLength());
+            }
+
+            Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+            long written = header.position();
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                OutputStream out = Channels.newOutputStream(channel);
+                out.write(header.array(), 0, header.position());
+                for (BitWriter column : columns) {
+                    written += column.writeTo(out);
+                }
+                out.flush();
+                channel.force(true);
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return written;
+        }
+    }
+
+    /**
+     * Bir arşiv dosyasını okuyan sınıf. Her {@link #scan} çağrısı dosyayı baştan çözer; örnekler
+     * thread'ler arasında paylaşılabilir.
+     */
+    public static class Reader {
+        private final MappedByteBuffer buffer;
+        private final String rateName;
+        private final LocalDate day;
+        private final int count;
+        private final long firstTime;
+        private final long lastTime;
+        private final long[] columnOffsets = new long[COLUMN_COUNT];
+
+        private Reader(MappedByteBuffer buffer) throws IOException {
+            this.buffer = buffer;
+            ByteBuffer header = buffer.duplicate();
+            if (header.remaining() < 4 || header.getInt() != MAGIC) {
+                throw new IOException("Arşiv dosyası değil");
+            }
+            byte[] name = new byte[header.getShort() & 0xFFFF];
+            header.get(name);
+            this.rateName = new String(name, StandardCharsets.UTF_8);
+            this.day = LocalDate.ofEpochDay(header.getLong());
+            this.count = header.getInt();
+            this.firstTime = header.getLong();
+            this.lastTime = header.getLong();
+            if (header.get() != COLUMN_COUNT) {
+                throw new IOException("Desteklenmeyen sütun sayısı");
+            }
+            long[] bitLengths = new long[COLUMN_COUNT];
+            for (int column = 0; column < COLUMN_COUNT; column++) {
+                bitLengths[column] = header.getLong();
+            }
+            long offset = header.position();
+            for (int column = 0; column < COLUMN_COUNT; column++) {
+                columnOffsets[column] = offset;
+                offset += (bitLengths[column] + 7) / 8;
+            }
+            if (offset != buffer.capacity()) {
+                throw new IOException("Arşiv dosyasının boyutu hatalı: " + buffer.capacity() + " bayt, beklenen " + offset);
+            }
+        }
+
+        /**
+         * Bir arşiv dosyasını belleğe eşleyerek açar.
+         *
+         * @param path Dosya
+         * @return Okuyucu
+         * @throws IOException Dosya okunamazsa veya geçerli bir arşiv dosyası değilse
+         */
+        public static Reader open(Path path) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                return new Reader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            } catch (RuntimeException e) {
+                throw new IOException(path + " okunamadı", e);
+            }
+        }
+
+        /**
+         * {@code [fromMicros, toMicros)} aralığındaki tick'leri zaman sırasıyla ziyaret eder.
+         *
+         * @param fromMicros Başlangıç (dahil)
+         * @param toMicros Bitiş (hariç)
+         * @param limit En fazla ziyaret edilecek tick sayısı
+         * @param visitor Tick'leri işleyen geri çağrı
+         * @return Ziyaret edilen tick sayısı
+         */
+        public int scan(long fromMicros, long toMicros, int limit, TickRingBuffer.TickVisitor visitor) {
+            if (count == 0 || lastTime < fromMicros || firstTime >= toMicros || limit <= 0) {
+                return 0;
+            }
+            DeltaOfDeltaDecoder times = new DeltaOfDeltaDecoder(column(0));
+            DeltaOfDeltaDecoder ids = new DeltaOfDeltaDecoder(column(1));
+            XorDecoder bids = new XorDecoder(column(2));
+            XorDecoder asks = new XorDecoder(column(3));
+            DeltaOfDeltaDecoder delays = new DeltaOfDeltaDecoder(column(4));
+            int visited = 0;
+            for (int i = 0; i < count && visited < limit; i++) {
+                long time = times.next();
+                long id = ids.next();
+                long bid = bids.next();
+                long ask = asks.next();
+                long delay = delays.next();
+                if (time >= toMicros) {
+                    break;
+                }
+                if (time >= fromMicros) {
+                    visitor.visit(time, id, bid, ask, time + delay);
+                    visited++;
+                }
+            }
+            return visited;
+        }
+
+        /**
+         * Dosyadaki kurun adını döndürür.
+         *
+         * @return Kur adı
+         */
+        public String getRateName() {
+            return rateName;
+        }
+
+        /**
+         * Dosyadaki tick'lerin gününü döndürür.
+         *
+         * @return Gün (UTC)
+         */
+        public LocalDate getDay() {
+            return day;
+        }
+
+        /**
+         * Dosyadaki tick sayısını döndürür.
+         *
+         * @return Tick sayısı
+         */
+        public int size() {
+            return count;
+        }
+
+        /**
+         * Dosyanın boyutunu döndürür.
+         *
+         * @return Bayt sayısı
+         */
+        public long byteSize() {
+            return buffer.capacity();
+        }
+
+        private BitReader column(int column) {
+            int end = column + 1 < COLUMN_COUNT ? (int) columnOffsets[column + 1] : buffer.capacity();
+            return new BitReader(buffer.duplicate().position((int) columnOffsets[column]).limit(end).slice());
+        }
+    }
+
+    /**
+     * Değerleri bir önceki farka göre farkın farkı olarak kodlar. İlk değer 64 bit yazılır;
+     * sonrakiler zigzag kodlanmış farkın büyüklüğüne göre ön ekli kovalara yazılır.
+     */
+    private static class DeltaOfDeltaEncoder {
+        private final BitWriter bits = new BitWriter();
+        private boolean first = true;
+        private long previous;
+        private long previousDelta;
+
+        void add(long value) {
+            if (first) {
+                bits.write(value, 64);
+                first = false;
+            } else {
+                long delta = value - previous;
+                long zigzag = zigzag(delta - previousDelta);
+                if (zigzag == 0) {
+                    bits.write(0b0, 1);
+                } else if (zigzag >>> 7 == 0) {
+                    bits.write(0b10, 2);
+                    bits.write(zigzag, 7);
+                } else if (zigzag >>> 12 == 0) {
+                    bits.write(0b110, 3);
+                    bits.write(zigzag, 12);
+                } else if (zigzag >>> 20 == 0) {
+                    bits.write(0b1110, 4);
+                    bits.write(zigzag, 20);
+                } else if (zigzag >>> 32 == 0) {
+                    bits.write(0b11110, 5);
+                    bits.write(zigzag, 32);
+                } else {
+                    bits.write(0b11111, 5);
+                    bits.write(zigzag, 64);
+                }
+                previousDelta = delta;
+            }
+            previous = value;
+        }
+
+        private static long zigzag(long value) {
+            return (value << 1) ^ (value >> 63);
+        }
+    }
+
+    private static class DeltaOfDeltaDecoder {
+        private final BitReader bits;
+        private boolean first = true;
+        private long previous;
+        private long previousDelta;
+
+        DeltaOfDeltaDecoder(BitReader bits) {
+            this.bits = bits;
+        }
+
+        long next() {
+            if (first) {
+                first = false;
+                previous = bits.read(64);
+                return previous;
+            }
+            long zigzag;
+            if (bits.read(1) == 0) {
+                zigzag = 0;
+            } else if (bits.read(1) == 0) {
+                zigzag = bits.read(7);
+            } else if (bits.read(1) == 0) {
+                zigzag = bits.read(12);
+            } else if (bits.read(1) == 0) {
+                zigzag = bits.read(20);
+            } else if (bits.read(1) == 0) {
+                zigzag = bits.read(32);
+            } else {
+                zigzag = bits.read(64);
+            }
+            previousDelta += (zigzag >>> 1) ^ -(zigzag & 1);
+            previous += previousDelta;
+            return previous;
+        }
+    }
+
+    /**
+     * Değerleri bir öncekiyle XOR'layarak kodlar (Gorilla): aynı değer tek bit, anlamlı bitleri bir
+     * önceki pencereye sığan fark 2 bit + anlamlı bitler, diğerleri 2 + 6 + 6 bit + anlamlı bitler.
+     */
+    private static class XorEncoder {
+        private final BitWriter bits = new BitWriter();
+        private boolean first = true;
+        private long previous;
+        private int previousLeading = -1;
+        private int previousTrailing;
+
+        void add(long value) {
+            if (first) {
+                bits.write(value, 64);
+                first = false;
+                previous = value;
+                return;
+            }
+            long xor = value ^ previous;
+            previous = value;
+            if (xor == 0) {
+                bits.write(0b0, 1);
+                return;
+            }
+            int leading = Long.numberOfLeadingZeros(xor);
+            int trailing = Long.numberOfTrailingZeros(xor);
+            if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+                bits.write(0b10, 2);
+                bits.write(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+            } else {
+                int meaningful = 64 - leading - trailing;
+                bits.write(0b11, 2);
+                bits.write(leading, 6);
+                bits.write(meaningful - 1, 6);
+                bits.write(xor >>> trailing, meaningful);
+                previousLeading = leading;
+                previousTrailing = trailing;
+            }
+        }
+    }
+
+    private static class XorDecoder {
+        private final BitReader bits;
+        private boolean first = true;
+        private long previous;
+        private int previousLeading;
+        private int previousTrailing;
+
+        XorDecoder(BitReader bits) {
+            this.bits = bits;
+        }
+
+        long next() {
+            if (first) {
+                first = false;
+                previous = bits.read(64);
+                return previous;
+            }
+            if (bits.read(1) == 0) {
+                return previous;
+            }
+            if (bits.read(1) == 1) {
+                previousLeading = (int) bits.read(6);
+                int meaningful = (int) bits.read(6) + 1;
+                previousTrailing = 64 - previousLeading - meaningful;
+            }
+            long xor = bits.read(64 - previousLeading - previousTrailing) << previousTrailing;
+            previous ^= xor;
+            return previous;
+        }
+    }
+
+    /**
+     * Bitleri en anlamlı bitten başlayarak büyüyen bir bayt dizisine yazar.
+     */
+    private static class BitWriter {
+        private byte[] bytes = new byte[256];
+        private int byteCount;
+        private long pending;
+        private int pendingBits;
+
+        void write(long value, int bitCount) {
+            if (bitCount > 32) {
+                write(value >>> 32, bitCount - 32);
+                write(value, 32);
+                return;
+            }
+            pending = (pending << bitCount) | (value & ((1L << bitCount) - 1));
+            pendingBits += bitCount;
+            while (pendingBits >= 8) {
+                pendingBits -= 8;
+                if (byteCount == bytes.length) {
+                    bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                }
+                bytes[byteCount++] = (byte) (pending >>> pendingBits);
+            }
+            pending &= (1L << pendingBits) - 1;
+        }
+
+        long bitLength() {
+            return byteCount * 8L + pendingBits;
+        }
+
+        int writeTo(OutputStream out) throws IOException {
+            out.write(bytes, 0, byteCount);
+            if (pendingBits > 0) {
+                out.write((int) (pending << (8 - pendingBits)));
+                return byteCount + 1;
+            }
+            return byteCount;
+        }
+    }
+
+    /**
+     * {@link BitWriter} ile yazılmış bitleri okur.
+     */
+    private static class BitReader {
+        private final ByteBuffer buffer;
+        private long cache;
+        private int cacheBits;
+
+        BitReader(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        long read(int bitCount) {
+            if (bitCount > 32) {
+                long high = read(bitCount - 32);
+                return (high << 32) | read(32);
+            }
+            if (cacheBits < bitCount) {
+                while (cacheBits <= 56 && buffer.hasRemaining()) {
+                    cache = (cache << 8) | (buffer.get() & 0xFF);
+                    cacheBits += 8;
+                }
+                if (cacheBits < bitCount) {
+                    throw new IllegalStateException("Arşiv sütunu beklenenden kısa");
+                }
+            }
+            cacheBits -= bitCount;
+            return (cache >>> cacheBits) & ((1L << bitCount) - 1);
+        }
+    }
+}
@@ -0,0 +1,470 @@
+package com.findata.kafkaconsumerdb.Service;
+
+import com.findata.kafkaconsumerdb.Config.PriceStorageProperties;
+import com.findata.kafkaconsumerdb.Entity.RateRecord;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Saklama süresi dolan günlerin tick'lerini yerel, sıkıştırılmış sütunlu dosyalara arşivleyen ve
+ * arşivlenmiş aralıkları geri okuyan servis.
+ * <p>
+ * {@code rates.partition.retention-action=archive} ile {@link RatePartitionMaintenance} süresi dolan
+ * her günü eskiden yeniye {@link #archiveDay} ile arşivler: günün satırları (günlük partition ve
+ * varsayılan partition, eski tablodan eklenen partition) kur ve zaman sırasıyla cursor üzerinden okunur, her kur için
+ * {@code <rates.archive.directory>/<yyyy-MM-dd>/<kur>.rta} dosyası ({@link RateArchiveFile}) yazılır,
+ * gün dizinine {@value #COMPLETE_MARKER} işareti konur ve ardından aynı transaction içinde günlük partition
+ * silinir (eski tablonun partition'ından yalnızca günün satırları silinir). Dışa aktarım süresince günün partition'ı ve varsayılan partition yazmaya kilitlenir; bu
+ * sırada gelen geç kayıtlar kaybolmaz. Arşivlenmiş bir güne sonradan düşen kayıtlar bir sonraki bakımda
+ * mevcut dosyalarla birleştirilir.
+ * </p>
+ * <p>
+ * Günler, hangi partition'da oldukları fark etmeksizin eskiden yeniye ve arada boşluk bırakmadan
+ * arşivlendiğinden arşiv, son arşivlenen günün sonuna ({@link #getArchivedUntil()}) kadar olan tüm
+ * aralığın tek kaynağıdır. Geçmiş endpoint'i bu sınırdan önceki kısmı arşivden, sonrasını
+ * veritabanından okur.
+ * </p>
+ * <p>
+ * Metrikler: {@code rates.archive.disk.bytes} ve {@code rates.archive.files} (arşivin diskte kapladığı
+ * yer), {@code rates.archive.export} ve {@code rates.archive.exported.records} (dışa aktarım),
+ * {@code rates.archive.scan}, {@code rates.archive.scanned.records} ve {@code rates.archive.scanned.bytes}
+ * (okuma hızı: saniyede okunan kayıt = kayıt sayacının artışı / tarama süresinin artışı).
+ * </p>
+ * <p>
+ * Arşiv yereldir; birden fazla consumer örneği çalışıyorsa dizin örnekler arasında paylaşılan bir
+ * birimde olmalıdır.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @see RateArchiveFile
+ * @see RatePartitionMaintenance
+ */
+@Service
+public class RateArchiveService {
+    private final Logger logger = LoggerFactory.getLogger(RateArchiveService.class);
+
+    /** Tüm kurları yazılmış gün dizinlerine konan işaret dosyası */
+    private static final String COMPLETE_MARKER = "_COMPLETE";
+
+    private static final String EXPORT_SQL = "SELECT id, rate_name, bid, ask, rate_updatetime, db_updatetime FROM tbl_rates "
+            + "WHERE rate_updatetime >= ? AND rate_updatetime < ? ORDER BY rate_name, rate_updatetime, id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PriceStorageProperties priceStorageProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /** Arşiv dosyalarının kök dizini */
+    @Value("${rates.archive.directory:archive}")
+    private String directoryName;
+
+    /** Dışa aktarımda sunucudan tek seferde alınan satır sayısı */
+    @Value("${rates.history.stream-fetch-size:1000}")
+    private int streamFetchSize;
+
+    private Path directory;
+
+    /** Bu andan önceki tüm tick'ler arşivdedir; henüz gün arşivlenmediyse null */
+    private volatile Instant archivedUntil;
+
+    private final AtomicLong diskBytes = new AtomicLong();
+
+    private final AtomicLong fileCount = new AtomicLong();
+
+    private Timer exportTimer;
+
+    private Counter exportedRecords;
+
+    private Timer scanTimer;
+
+    private Counter scannedRecords;
+
+    private Counter scannedBytes;
+
+    /**
+     * Arşiv dizinini hazırlar, arşivlenmiş günleri ve diskte kaplanan yeri hesaplar.
+     *
+     * @throws IOException Dizin oluşturulamaz veya okunamazsa
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        directory = Paths.get(directoryName).toAbsolutePath();
+        Files.createDirectories(directory);
+        LocalDate lastDay = null;
+        try (DirectoryStream<Path> days = Files.newDirectoryStream(directory, Files::isDirectory)) {
+            for (Path dayDirectory : days) {
+                LocalDate day;
+                try {
+                    day = LocalDate.parse(dayDirectory.getFileName().toString());
+                } catch (DateTimeParseException e) {
+                    continue;
+                }
+                if (Files.exists(dayDirectory.resolve(COMPLETE_MARKER)) && (lastDay == null || day.isAfter(lastDay))) {
+                    lastDay = day;
+                }
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(dayDirectory, "*" + RateArchiveFile.EXTENSION)) {
+                    for (Path file : files) {
+                        diskBytes.addAndGet(Files.size(file));
+                        fileCount.incrementAndGet();
+                    }
+                }
+            }
+        }
+        if (lastDay != null) {
+            archivedUntil = startOf(lastDay.plusDays(1));
+        }
+
+        Gauge.builder("rates.archive.disk.bytes", diskBytes, AtomicLong::get).baseUnit("bytes")
+                .description("Tick arşivinin diskte kapladığı yer").register(meterRegistry);
+        Gauge.builder("rates.archive.files", fileCount, AtomicLong::get)
+                .description("Tick arşivindeki dosya sayısı").register(meterRegistry);
+        exportTimer = Timer.builder("rates.archive.export").description("Bir günün arşivlenme süresi").register(meterRegistry);
+        exportedRecords = Counter.builder("rates.archive.exported.records")
+                .description("Arşive aktarılan kayıt sayısı").register(meterRegistry);
+        scanTimer = Timer.builder("rates.archive.scan").description("Arşivden okuma süresi").register(meterRegistry);
+        scannedRecords = Counter.builder("rates.archive.scanned.records")
+                .description("Arşivden okunan kayıt sayısı").register(meterRegistry);
+        scannedBytes = Counter.builder("rates.archive.scanned.bytes").baseUnit("bytes")
+                .description("Okunan arşiv dosyalarının boyutu").register(meterRegistry);
+        logger.info("Tick arşivi: {} ({} dosya, {} bayt), arşivlenmiş son gün: {}", directory, fileCount.get(), diskBytes.get(),
+                lastDay != null ? lastDay : "yok");
+    }
+
+    /**
+     * Bir UTC gününün tüm tick'lerini arşive yazar ve veritabanından kaldırır. Gün zaten arşivlenmişse
+     * veritabanında kalan kayıtlar mevcut dosyalarla birleştirilir.
+     *
+     * @param day Arşivlenecek gün (UTC)
+     * @param partition Günün partition'ı: günlük partition silinir, {@code tbl_rates_legacy} ise yalnızca
+     *                  günün satırları silinir; yalnızca varsayılan partition'da kayıt varsa null
+     * @return Arşive aktarılan kayıt sayısı
+     * @throws org.springframework.dao.DataAccessException Veritabanı hatasında; transaction geri alınır
+     * @throws UncheckedIOException Dosyalar yazılamazsa; transaction geri alınır
+     */
+    public long archiveDay(LocalDate day, String partition) {
+        Timestamp start = Timestamp.from(startOf(day));
+        Timestamp end = Timestamp.from(startOf(day.plusDays(1)));
+        Path dayDirectory = directory.resolve(day.toString());
+        long startNanos = System.nanoTime();
+        boolean legacy = RatePartitionMaintenance.LEGACY_PARTITION.equals(partition);
+
+        JdbcTemplate cursorTemplate = new JdbcTemplate(dataSource);
+        cursorTemplate.setFetchSize(streamFetchSize);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        DayExport export = transactionTemplate.execute(status -> {
+            Long tableBytes = null;
+            if (partition != null) {
+                jdbcTemplate.execute("LOCK TABLE " + partition + " IN EXCLUSIVE MODE");
+                if (!legacy) {
+                    tableBytes = jdbcTemplate.queryForObject("SELECT pg_total_relation_size(?::regclass)", Long.class, partition);
+                }
+            }
+            jdbcTemplate.execute("LOCK TABLE tbl_rates_default IN EXCLUSIVE MODE");
+            try {
+                Files.createDirectories(dayDirectory);
+                DayExport dayExport = new DayExport(day, dayDirectory, tableBytes);
+                cursorTemplate.query(EXPORT_SQL, (RowCallbackHandler) dayExport::add, start, end);
+                dayExport.finishSymbol();
+                Files.writeString(dayDirectory.resolve(COMPLETE_MARKER), dayExport.records + "\n");
+                if (legacy) {
+                    jdbcTemplate.update("DELETE FROM " + partition + " WHERE rate_updatetime >= ? AND rate_updatetime < ?", start, end);
+                } else if (partition != null) {
+                    jdbcTemplate.execute("DROP TABLE " + partition);
+                }
+                jdbcTemplate.update("DELETE FROM tbl_rates_default WHERE rate_updatetime >= ? AND rate_updatetime < ?", start, end);
+                return dayExport;
+            } catch (IOException e) {
+                throw new UncheckedIOException(day + " günü arşivlenemedi", e);
+            }
+        });
+
+        Instant dayEnd = startOf(day.plusDays(1));
+        if (archivedUntil == null || dayEnd.isAfter(archivedUntil)) {
+            archivedUntil = dayEnd;
+        }
+        exportTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        exportedRecords.increment(export.records);
+        logger.info("{} günü arşivlendi: {} kur, {} kayıt aktarıldı; dosyalarda {} kayıt, {} bayt ({} bayt/kayıt){}", day,
+                export.symbols, export.records, export.ticks, export.bytes,
+                export.ticks > 0 ? String.format(Locale.ROOT, "%.1f", export.bytes / (double) export.ticks) : "-",
+                export.tableBytes != null ? ", tabloda " + export.tableBytes + " bayt" : "");
+        return export.records;
+    }
+
+    /**
+     * Arşivin kapsadığı aralığın sonunu döndürür.
+     *
+     * @return Bu andan önceki tüm tick'ler arşivdedir; henüz gün arşivlenmediyse null
+     */
+    public Instant getArchivedUntil() {
+        return archivedUntil;
+    }
+
+    /**
+     * Bir kurun iki an arasındaki arşivlenmiş tick'lerini döndürür.
+     *
+     * @param rateName Kur adı
+     * @param from Başlangıç (dahil)
+     * @param to Bitiş (hariç); {@link #getArchivedUntil()} değerini aşmamalı
+     * @param limit En fazla dönecek kayıt sayısı
+     * @return Zaman sırasına göre kayıtlar
+     */
+    public List<RateRecord> findHistory(String rateName, Instant from, Instant to, int limit) {
+        List<RateRecord> result = new ArrayList<>();
+        scan(rateName, from, to, limit, (time, id, bid, ask, dbTime) -> result.add(toRecord(rateName, time, id, bid, ask, dbTime)));
+        return result;
+    }
+
+    /**
+     * Bir kurun arşivlenmiş tick'lerini LTTB ile en fazla {@code points} noktaya seyreltir; kovalar
+     * {@link RateHistoryService#downsample} ile aynı şekilde hesaplanır. Dosyalar iki kez okunur: önce
+     * kova ortalamaları, sonra seçilecek tick'ler için; tick'ler belleğe alınmaz.
+     *
+     * @param rateName Kur adı
+     * @param from Başlangıç (dahil)
+     * @param to Bitiş (hariç); {@code from}'dan sonra olmalı ve {@link #getArchivedUntil()} değerini aşmamalı
+     * @param points İstenen nokta sayısı (3 ile {@link RateHistoryService#MAX_CHART_POINTS} arasına sıkıştırılır)
+     * @return Zaman sırasıyla seçilen tick'ler
+     */
+    public List<RateRecord> downsample(String rateName, Instant from, Instant to, int points) {
+        int target = Math.max(3, Math.min(points, RateHistoryService.MAX_CHART_POINTS));
+        int bucketCount = target - 2;
+        double low = epochSeconds(from);
+        double width = epochSeconds(to) - low;
+        long[] counts = new long[bucketCount + 1];
+        double[] averageX = new double[bucketCount + 1];
+        double[] averageY = new double[bucketCount + 1];
+        long[] last = new long[5];
+        int total = scan(rateName, from, to, Integer.MAX_VALUE, (time, id, bid, ask, dbTime) -> {
+            double x = time / 1_000_000.0;
+            int bucket = bucket(x, low, width, bucketCount);
+            counts[bucket]++;
+            averageX[bucket] += (x - averageX[bucket]) / counts[bucket];
+            averageY[bucket] += ((bid + (double) ask) / 2 - averageY[bucket]) / counts[bucket];
+            last[0] = time;
+            last[1] = id;
+            last[2] = bid;
+            last[3] = ask;
+            last[4] = dbTime;
+        });
+        if (total <= target) {
+            return findHistory(rateName, from, to, target);
+        }
+
+        RateRecord lastRecord = toRecord(rateName, last[0], last[1], last[2], last[3], last[4]);
+        LttbDownsampler downsampler = new LttbDownsampler(counts, averageX, averageY,
+                last[0] / 1_000_000.0, (last[2] + (double) last[3]) / 2);
+        scan(rateName, from, to, total - 1, (time, id, bid, ask, dbTime) -> {
+            double x = time / 1_000_000.0;
+            downsampler.add(bucket(x, low, width, bucketCount), x, (bid + (double) ask) / 2,
+                    toRecord(rateName, time, id, bid, ask, dbTime));
+        });
+        return downsampler.finish(lastRecord);
+    }
+
+    /**
+     * Bir kurun aralığa düşen günlük dosyalarını sırayla okur.
+     *
+     * @return Ziyaret edilen tick sayısı
+     */
+    private int scan(String rateName, Instant from, Instant to, int limit, TickRingBuffer.TickVisitor visitor) {
+        long startNanos = System.nanoTime();
+        long fromMicros = toMicros(from);
+        long toMicros = toMicros(to);
+        LocalDate lastDay = LocalDate.ofInstant(to.minusNanos(1), ZoneOffset.UTC);
+        String fileName = fileName(rateName);
+        int visited = 0;
+        long bytes = 0;
+        try {
+            for (LocalDate day = LocalDate.ofInstant(from, ZoneOffset.UTC); !day.isAfter(lastDay) && visited < limit; day = day.plusDays(1)) {
+                Path file = directory.resolve(day.toString()).resolve(fileName);
+                if (!Files.exists(file)) {
+                    continue;
+                }
+                RateArchiveFile.Reader reader = RateArchiveFile.Reader.open(file);
+                visited += reader.scan(fromMicros, toMicros, limit - visited, visitor);
+                bytes += reader.byteSize();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            scanTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            scannedRecords.increment(visited);
+            scannedBytes.increment(bytes);
+        }
+        return visited;
+    }
+
+    /**
+     * Tek bir günün dışa aktarım durumu. Satırlar kur ve zaman sırasıyla gelir; her kurun satırları
+     * bitince dosyası yazılır.
+     */
+    private class DayExport {
+        private final LocalDate day;
+        private final Path dayDirectory;
+        private final Long tableBytes;
+        private RateArchiveFile.Writer writer;
+        private String currentName;
+        private Path file;
+        private long previousSize;
+        private long lastTime;
+        /** Gün daha önce arşivlendiyse kurun mevcut dosyasındaki tick'ler */
+        private final List<long[]> existing = new ArrayList<>();
+        private int existingIndex;
+        private int symbols;
+        /** Veritabanından aktarılan kayıt sayısı */
+        private long records;
+        /** Yazılan dosyalardaki toplam kayıt sayısı (birleştirilen mevcut kayıtlar dahil) */
+        private long ticks;
+        private long bytes;
+
+        DayExport(LocalDate day, Path dayDirectory, Long tableBytes) {
+            this.day = day;
+            this.dayDirectory = dayDirectory;
+            this.tableBytes = tableBytes;
+        }
+
+        void add(ResultSet resultSet) throws SQLException {
+            String rateName = resultSet.getString("rate_name");
+            try {
+                if (writer == null || !rateName.equals(currentName)) {
+                    finishSymbol();
+                    startSymbol(rateName);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            long time = toMicros(resultSet.getObject("rate_updatetime", OffsetDateTime.class).toInstant());
+            while (existingIndex < existing.size() && existing.get(existingIndex)[0] < time) {
+                append(existing.get(existingIndex++));
+            }
+            if (existingIndex < existing.size() && existing.get(existingIndex)[0] == time) {
+                return; // zaten arşivde
+            }
+            if (append(new long[]{time, resultSet.getLong("id"), priceStorageProperties.readUnits(resultSet, "bid"),
+                    priceStorageProperties.readUnits(resultSet, "ask"),
+                    toMicros(resultSet.getObject("db_updatetime", OffsetDateTime.class).toInstant())})) {
+                records++;
+            }
+        }
+
+        void finishSymbol() throws IOException {
+            if (writer == null) {
+                return;
+            }
+            while (existingIndex < existing.size()) {
+                append(existing.get(existingIndex++));
+            }
+            long size = writer.writeTo(file);
+            ticks += writer.size();
+            diskBytes.addAndGet(size - Math.max(previousSize, 0));
+            if (previousSize < 0) {
+                fileCount.incrementAndGet();
+            }
+            bytes += size;
+            symbols++;
+            writer = null;
+        }
+
+        private void startSymbol(String rateName) throws IOException {
+            writer = new RateArchiveFile.Writer(rateName, day);
+            currentName = rateName;
+            file = dayDirectory.resolve(fileName(rateName));
+            lastTime = Long.MIN_VALUE;
+            existing.clear();
+            existingIndex = 0;
+            previousSize = -1;
+            if (Files.exists(file)) {
+                RateArchiveFile.Reader reader = RateArchiveFile.Reader.open(file);
+                previousSize = reader.byteSize();
+                reader.scan(Long.MIN_VALUE, Long.MAX_VALUE, Integer.MAX_VALUE,
+                        (time, id, bid, ask, dbTime) -> existing.add(new long[]{time, id, bid, ask, dbTime}));
+            }
+        }
+
+        private boolean append(long[] tick) {
+            if (tick[0] <= lastTime) {
+                return false; // aynı zaman damgalı ikinci kayıt; doğal anahtar tekil olduğundan beklenmez
+            }
+            writer.add(tick[0], tick[1], tick[2], tick[3], tick[4]);
+            lastTime = tick[0];
+            return true;
+        }
+    }
+
+    private static String fileName(String rateName) {
+        return URLEncoder.encode(rateName, StandardCharsets.UTF_8) + RateArchiveFile.EXTENSION;
+    }
+
+    private static int bucket(double x, double low, double width, int bucketCount) {
+        return Math.max(1, Math.min((int) ((x - low) / width * bucketCount) + 1, bucketCount));
+    }
+
+    private static RateRecord toRecord(String rateName, long time, long id, long bid, long ask, long dbTime) {
+        RateRecord rateRecord = new RateRecord(rateName, bid, ask, toInstant(time), toInstant(dbTime));
+        rateRecord.setId(id);
+        return rateRecord;
+    }
+
+    private static Instant startOf(LocalDate day) {
+        return day.atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    private static long toMicros(Instant instant) {
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L), (instant.getNano() + 500) / 1000);
+    }
+
+    private static Instant toInstant(long micros) {
+        return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1000L);
+    }
+
+    private static double epochSeconds(Instant instant) {
+        return instant.getEpochSecond() + instant.getNano() / 1_000_000_000.0;
+    }
+}
@@ -0,0 +1,127 @@
+package com.findata.kafkaconsumerdb.Service;
+
+import com.findata.kafkaconsumerdb.Config.PriceStorageProperties;
+import com.findata.kafkaconsumerdb.Entity.RateRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Bir Kafka poll'undan gelen kur kayıtlarını tek bir transaction içinde yazan servis.
+ * <p>
+ * Kayıtlar en fazla {@value #ROWS_PER_STATEMENT} satırlık çok satırlı
+ * {@code INSERT ... VALUES (...), (...) ON CONFLICT DO NOTHING RETURNING id} ifadeleriyle yazılır;
+ * sütunlar ifadede adlarıyla ve açıkça bağlanır. Id'ler {@link RateCopyWriter} ile aynı sequence'ten
+ * ve aynı pooled mantıkla önceden alınır. Metot döndüğünde transaction commit edilmiştir; çağıran
+ * taraf Kafka offset'lerini ancak bundan sonra commit etmelidir. Aynı transaction içinde
+ * {@link LatestRateUpdater} ile {@code tbl_latest_rates} de güncellenir.
+ * </p>
+ * <p>
+ * Doğal anahtarı {@code (rate_name, rate_updatetime)} zaten bulunan kayıtlar (rebalance veya yeniden
+ * başlatma sonrası tekrar okunanlar) sessizce atlanır; {@code RETURNING} ile yalnızca gerçekten
+ * eklenen kayıtlar döndürülür. Yazıcı, ayarlarla uyumluluk için eski adıyla ({@code jpa}) seçilir.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @see KafkaRateListener
+ * @see RateCopyWriter
+ * @see RateRecord
+ */
+@Service
+public class RateBatchWriter implements RateRecordWriter {
+    private final Logger logger = LoggerFactory.getLogger(RateBatchWriter.class);
+
+    /** Tek bir INSERT ifadesindeki en fazla satır (PostgreSQL'in 32767 parametre sınırının altında) */
+    static final int ROWS_PER_STATEMENT = 1000;
+
+    private static final String INSERT_SQL = "INSERT INTO tbl_rates (id, rate_name, bid, ask, rate_updatetime, db_updatetime) VALUES ";
+
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?)";
+
+    private static final String ON_CONFLICT_SQL = " ON CONFLICT DO NOTHING RETURNING id";
+
+    /** Tam dolu ifadeler için önceden oluşturulan SQL */
+    private static final String FULL_STATEMENT_SQL = insertSql(ROWS_PER_STATEMENT);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LatestRateUpdater latestRateUpdater;
+
+    @Autowired
+    private PriceStorageProperties priceStorageProperties;
+
+    @Override
+    public String getName() {
+        return "jpa";
+    }
+
+    /**
+     * Kayıtları tek transaction içinde veritabanına yazar.
+     * <p>
+     * Herhangi bir kayıt yazılamazsa transaction geri alınır ve istisna çağırana iletilir;
+     * böylece batch'in tamamı yeniden denenebilir.
+     * </p>
+     *
+     * @param records Yazılacak kur kayıtları
+     * @return Gerçekten eklenen kayıtlar
+     */
+    @Override
+    @Transactional
+    public List<RateRecord> writeBatch(List<RateRecord> records) {
+        if (records.isEmpty()) {
+            return List.of();
+        }
+        long[] ids = RateCopyWriter.allocateIds(jdbcTemplate, records.size());
+        // Sütun mikrosaniye hassasiyetindedir; kayıttaki değer veritabanındakiyle aynı olsun diye kesilir
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        Set<Long> insertedIds = new HashSet<>();
+        for (int from = 0; from < records.size(); from += ROWS_PER_STATEMENT) {
+            int to = Math.min(from + ROWS_PER_STATEMENT, records.size());
+            Object[] args = new Object[(to - from) * 6];
+            int index = 0;
+            for (int i = from; i < to; i++) {
+                RateRecord rateRecord = records.get(i);
+                rateRecord.setId(ids[i]);
+                rateRecord.setDbUpdatetime(now);
+                args[index++] = ids[i];
+                args[index++] = rateRecord.getRateName();
+                args[index++] = priceStorageProperties.toColumn(rateRecord.getBidUnits());
+                args[index++] = priceStorageProperties.toColumn(rateRecord.getAskUnits());
+                args[index++] = Timestamp.from(rateRecord.getRateUpdatetime());
+                args[index++] = Timestamp.from(now);
+            }
+            String sql = to - from == ROWS_PER_STATEMENT ? FULL_STATEMENT_SQL : insertSql(to - from);
+            insertedIds.addAll(jdbcTemplate.queryForList(sql, Long.class, args));
+        }
+        latestRateUpdater.upsert(records);
+        List<RateRecord> inserted = RateCopyWriter.insertedRecords(records, insertedIds);
+        logger.debug("{} kur kaydı tek batch olarak veritabanına yazıldı, {} tekrar eden kayıt atlandı",
+                inserted.size(), records.size() - inserted.size());
+        return inserted;
+    }
+
+    private static String insertSql(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT_SQL.length() + rows * (ROW_PLACEHOLDERS.length() + 2) + ON_CONFLICT_SQL.length());
+        sql.append(INSERT_SQL);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW_PLACEHOLDERS);
+        }
+        return sql.append(ON_CONFLICT_SQL).toString();
+    }
+}
@@ -0,0 +1,179 @@
+package com.findata.kafkaconsumerdb.Service;
+
+import com.findata.kafkaconsumerdb.Entity.FixedPointPrice;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * {@code tbl_rates} satırlarını PostgreSQL {@code COPY ... FROM STDIN (FORMAT binary)} formatında
+ * kodlayan yardımcı sınıf.
+ * <p>
+ * Akışın başına imza ve başlık, her satır için alan sayısı ve uzunluk önekli alanlar,
+ * sonuna da bitiş işareti yazılır. Alanlar tablodaki sütun sırasıyla kodlanır:
+ * {@code id bigint, rate_name varchar, bid numeric, ask numeric, rate_updatetime timestamptz,
+ * db_updatetime timestamptz}. Fiyat sütunları {@code bigint} (sabit noktalı biçim) ise fiyatlar
+ * 1e-8 birim cinsinden {@code int8} olarak yazılır. Metin formatından farklı olarak sayılar ve
+ * zaman damgaları sunucuda tekrar ayrıştırılmaz.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @see RateCopyWriter
+ */
+public class RateCopyEncoder {
+
+    /** Kodlanan satırların yazılacağı COPY komutu */
+    public static final String COPY_SQL =
+            "COPY tbl_rates (id, rate_name, bid, ask, rate_updatetime, db_updatetime) FROM STDIN (FORMAT binary)";
+
+    /** Binary COPY imzası */
+    private static final byte[] SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+
+    /** Satır başına alan sayısı */
+    private static final short FIELD_COUNT = 6;
+
+    /** PostgreSQL zaman damgası başlangıcı (2000-01-01T00:00:00Z) ile Unix epoch arasındaki saniye farkı */
+    private static final long PG_EPOCH_OFFSET_SECONDS = 946_684_800L;
+
+    /** numeric işaret alanı değerleri */
+    private static final short NUMERIC_POS = 0x0000;
+    private static final short NUMERIC_NEG = 0x4000;
+
+    private final DataOutputStream out;
+
+    /** Fiyat sütunları bigint ise true */
+    private final boolean fixedPoint;
+
+    /**
+     * Verilen akışa, {@code numeric} fiyat sütunları için binary COPY başlığını yazar.
+     *
+     * @param out COPY verisinin yazılacağı akış (tamponlu olması önerilir)
+     * @throws IOException Akışa yazılamazsa
+     */
+    public RateCopyEncoder(OutputStream out) throws IOException {
+        this(out, false);
+    }
+
+    /**
+     * Verilen akışa binary COPY başlığını yazar.
+     *
+     * @param out COPY verisinin yazılacağı akış (tamponlu olması önerilir)
+     * @param fixedPoint Fiyat sütunları {@code bigint} ise true, {@code numeric} ise false
+     * @throws IOException Akışa yazılamazsa
+     */
+    public RateCopyEncoder(OutputStream out, boolean fixedPoint) throws IOException {
+        this.out = new DataOutputStream(out);
+        this.fixedPoint = fixedPoint;
+        this.out.write(SIGNATURE);
+        this.out.writeInt(0); // flags
+        this.out.writeInt(0); // header extension length
+    }
+
+    /**
+     * Bir satırı kodlar.
+     *
+     * @param id Satırın id'si
+     * @param rateName Kur adı
+     * @param bid Alış değeri (1e-8 birim)
+     * @param ask Satış değeri (1e-8 birim)
+     * @param rateUpdatetime Kurun zaman damgası
+     * @param dbUpdatetime Kaydın DB'ye yazılma zamanı
+     * @throws IOException Akışa yazılamazsa
+     */
+    public void writeRow(long id, String rateName, long bid, long ask,
+                         Instant rateUpdatetime, Instant dbUpdatetime) throws IOException {
+        out.writeShort(FIELD_COUNT);
+        out.writeInt(8);
+        out.writeLong(id);
+        byte[] name = rateName.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(name.length);
+        out.write(name);
+        writePrice(bid);
+        writePrice(ask);
+        writeTimestamp(rateUpdatetime);
+        writeTimestamp(dbUpdatetime);
+    }
+
+    /**
+     * Bitiş işaretini yazar ve akışı boşaltır. Alttaki akış kapatılmaz.
+     *
+     * @throws IOException Akışa yazılamazsa
+     */
+    public void finish() throws IOException {
+        out.writeShort(-1);
+        out.flush();
+    }
+
+    private void writePrice(long units) throws IOException {
+        if (fixedPoint) {
+            out.writeInt(8);
+            out.writeLong(units);
+        } else {
+            writeNumeric(units);
+        }
+    }
+
+    /**
+     * Zaman damgasını 2000-01-01'den itibaren mikrosaniye olarak yazar.
+     */
+    private void writeTimestamp(Instant instant) throws IOException {
+        long micros = (instant.getEpochSecond() - PG_EPOCH_OFFSET_SECONDS) * 1_000_000L + instant.getNano() / 1_000;
+        out.writeInt(8);
+        out.writeLong(micros);
+    }
+
+    /**
+     * 1e-8 birim cinsinden fiyatı PostgreSQL numeric ikili formatında yazar: 10000 tabanında
+     * basamaklar, ilk basamağın ağırlığı, işaret ve ondalık ölçek (8). Değer {@link java.math.BigDecimal}'e
+     * çevrilmeden doğrudan tamsayıdan kodlanır.
+     */
+    private void writeNumeric(long units) throws IOException {
+        // Long.MIN_VALUE'nun mutlak değeri (2^63) long'a sığmaz; Math.abs yine negatif döner, işaretsiz bölme doğru sonucu verir
+        long magnitude = Math.abs(units);
+        long integerPart = Long.divideUnsigned(magnitude, FixedPointPrice.UNITS_PER_ONE);
+        long fractionPart = Long.remainderUnsigned(magnitude, FixedPointPrice.UNITS_PER_ONE);
+
+        // Tam kısım en fazla 3 (long aralığı), kesir kısmı 2 basamak grubu tutar
+        short[] groups = new short[5];
+        int integerGroups = 0;
+        for (long rest = integerPart; rest > 0; rest /= 10_000) {
+            integerGroups++;
+        }
+        long rest = integerPart;
+        for (int i = integerGroups - 1; i >= 0; i--) {
+            groups[i] = (short) (rest % 10_000);
+            rest /= 10_000;
+        }
+        groups[integerGroups] = (short) (fractionPart / 10_000);
+        groups[integerGroups + 1] = (short) (fractionPart % 10_000);
+        int groupCount = integerGroups + 2;
+        int weight = integerGroups - 1;
+
+        int first = 0;
+        while (first < groupCount && groups[first] == 0) {
+            first++;
+            weight--;
+        }
+        int last = groupCount;
+        while (last > first && groups[last - 1] == 0) {
+            last--;
+        }
+        int ndigits = last - first;
+        if (ndigits == 0) {
+            weight = 0;
+        }
+
+        out.writeInt(8 + ndigits * 2);
+        out.writeShort(ndigits);
+        out.writeShort(weight);
+        out.writeShort(units < 0 ? NUMERIC_NEG : NUMERIC_POS);
+        out.writeShort(FixedPointPrice.SCALE);
+        for (int i = first; i < last; i++) {
+            out.writeShort(groups[i]);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.findata.kafkaconsumerdb.Service;
+
+import com.findata.kafkaconsumerdb.Config.PriceStorageProperties;
+import com.findata.kafkaconsumerdb.Entity.RateRecord;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Kur kayıtlarını PostgreSQL {@code COPY ... FROM STDIN (FORMAT binary)} ile yazan servis.
+ * <p>
+ * Geri doldurma (backfill) ve yoğun anlar için JPA batch insert'lerine alternatif yazıcıdır.
+ * Kayıtlar {@link RateCopyEncoder} ile ikili formata kodlanır ve pgjdbc'nin {@code CopyManager}
+ * API'si üzerinden tek bir COPY komutuyla sunucuya akıtılır. COPY, Spring'in yönettiği
+ * transaction'ın bağlantısı üzerinde çalışır; bu yüzden offset onayı JPA yazıcısındakiyle aynı
+ * şekilde transaction commit edildikten sonra yapılır. {@code tbl_latest_rates} de aynı transaction
+ * içinde {@link LatestRateUpdater} ile güncellenir.
+ * </p>
+ * <p>
+ * COPY {@code ON CONFLICT} desteklemediğinden satırlar önce oturuma özel, commit'te boşaltılan
+ * {@code tbl_rates_staging} geçici tablosuna kopyalanır, ardından tek bir
+ * {@code INSERT ... SELECT ... ON CONFLICT DO NOTHING RETURNING id} ile {@code tbl_rates}'e aktarılır;
+ * doğal anahtarı {@code (rate_name, rate_updatetime)} zaten bulunan (yeniden okunan) satırlar atlanır
+ * ve yalnızca gerçekten eklenen kayıtlar döndürülür.
+ * </p>
+ * <p>
+ * Id'ler Hibernate ile aynı {@code tbl_rates_seq} sequence'inden ve aynı pooled mantıkla alınır:
+ * her {@code nextval} değeri, kendisiyle biten {@value #ALLOCATION_SIZE} id'lik bir bloğu ayırır.
+ * Böylece iki yazıcı aynı tabloya çakışmadan yazabilir.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @see RateCopyEncoder
+ * @see RateBatchWriter
+ */
+@Service
+public class RateCopyWriter implements RateRecordWriter {
+    private final Logger logger = LoggerFactory.getLogger(RateCopyWriter.class);
+
+    /** Entity'deki {@code allocationSize} ile aynı olmalıdır */
+    static final int ALLOCATION_SIZE = 50;
+
+    /** COPY akışının tampon boyutu (bayt) */
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    /** Bağlantı başına bir kez oluşturulan, her commit'te boşaltılan ara tablo */
+    private static final String CREATE_STAGING_SQL =
+            "CREATE TEMP TABLE IF NOT EXISTS tbl_rates_staging (LIKE tbl_rates) ON COMMIT DELETE ROWS";
+
+    private static final String COPY_STAGING_SQL = RateCopyEncoder.COPY_SQL.replace("tbl_rates", "tbl_rates_staging");
+
+    private static final String MERGE_STAGING_SQL =
+            "INSERT INTO tbl_rates (id, rate_name, bid, ask, rate_updatetime, db_updatetime) "
+                    + "SELECT id, rate_name, bid, ask, rate_updatetime, db_updatetime FROM tbl_rates_staging "
+                    + "ON CONFLICT DO NOTHING RETURNING id";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LatestRateUpdater latestRateUpdater;
+
+    @Autowired
+    private PriceStorageProperties priceStorageProperties;
+
+    @Override
+    public String getName() {
+        return "copy";
+    }
+
+    /**
+     * Kayıtları tek transaction içinde tek bir COPY komutuyla veritabanına yazar.
+     *
+     * @param records Yazılacak kur kayıtları
+     * @return Gerçekten eklenen kayıtlar
+     */
+    @Override
+    @Transactional
+    public List<RateRecord> writeBatch(List<RateRecord> records) {
+        if (records.isEmpty()) {
+            return List.of();
+        }
+        long[] ids = allocateIds(jdbcTemplate, records.size());
+        // Sütun mikrosaniye hassasiyetindedir; kayıttaki değer veritabanındakiyle aynı olsun diye kesilir
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        jdbcTemplate.execute(CREATE_STAGING_SQL);
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            PGConnection pgConnection = connection.unwrap(PGConnection.class);
+            try (PGCopyOutputStream copyStream = new PGCopyOutputStream(pgConnection, COPY_STAGING_SQL, COPY_BUFFER_SIZE)) {
+                RateCopyEncoder encoder = new RateCopyEncoder(new BufferedOutputStream(copyStream, COPY_BUFFER_SIZE),
+                        priceStorageProperties.isFixedPoint());
+                for (int i = 0; i < records.size(); i++) {
+                    RateRecord rateRecord = records.get(i);
+                    rateRecord.setId(ids[i]);
+                    rateRecord.setDbUpdatetime(now);
+                    encoder.writeRow(ids[i], rateRecord.getRateName(), rateRecord.getBidUnits(), rateRecord.getAskUnits(),
+                            rateRecord.getRateUpdatetime(), now);
+                }
+                encoder.finish();
+            }
+        } catch (SQLException | IOException e) {
+            throw new DataAccessResourceFailureException("COPY ile kur kayıtları yazılamadı", e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+        List<RateRecord> inserted = insertedRecords(records, new HashSet<>(jdbcTemplate.queryForList(MERGE_STAGING_SQL, Long.class)));
+        latestRateUpdater.upsert(records);
+        logger.debug("{} kur kaydı COPY ile veritabanına yazıldı, {} tekrar eden kayıt atlandı",
+                inserted.size(), records.size() - inserted.size());
+        return inserted;
+    }
+
+    /**
+     * Sequence'ten pooled mantıkla yeterli sayıda id ayırır.
+     *
+     * @param jdbcTemplate Sequence'in okunacağı bağlantı
+     * @param count Gereken id sayısı
+     * @return Ayrılan id'ler
+     */
+    static long[] allocateIds(JdbcTemplate jdbcTemplate, int count) {
+        int blocks = (count + ALLOCATION_SIZE - 1) / ALLOCATION_SIZE;
+        List<Long> highValues = jdbcTemplate.queryForList(
+                "SELECT nextval('tbl_rates_seq') FROM generate_series(1, ?)", Long.class, blocks);
+        long[] ids = new long[count];
+        int index = 0;
+        for (Long high : highValues) {
+            for (long id = high - ALLOCATION_SIZE + 1; id <= high && index < count; id++) {
+                ids[index++] = id;
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Kayıtlardan id'si {@code RETURNING} ile dönenleri, batch sırasını koruyarak seçer.
+     *
+     * @param records Yazılan kayıtlar (id'leri atanmış)
+     * @param insertedIds Gerçekten eklenen satırların id'leri
+     * @return Eklenen kayıtlar
+     */
+    static List<RateRecord> insertedRecords(List<RateRecord> records, Set<Long> insertedIds) {
+        if (insertedIds.size() == records.size()) {
+            return records;
+        }
+        List<RateRecord> inserted = new ArrayList<>(insertedIds.size());
+        for (RateRecord rateRecord : records) {
+            if (insertedIds.contains(rateRecord.getId())) {
+                inserted.add(rateRecord);
+            }
+        }
+        return inserted;
+    }
+}
@@ -0,0 +1,449 @@
+package com.findata.kafkaconsumerdb.Service;
+
+import com.findata.kafkaconsumerdb.Config.RateRetryProperties;
+import com.findata.kafkaconsumerdb.Entity.RateRecord;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.RetriableException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.TransactionTimedOutException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * İşlenemeyen kur mesajlarını yeniden deneme ve dead letter topic'lerine yönlendiren servis.
+ * <p>
+ * Hatalar üç sınıfa ayrılır:
+ * </p>
+ * <ul>
+ *   <li>{@code parse} - mesaj ayrıştırılamadı; hiçbir zaman düzelmeyeceğinden ham baytları doğrudan
+ *       dead letter topic'ine (DLT) gönderilir</li>
+ *   <li>{@code db_transient} - veritabanına ulaşılamadı veya geçici bir hata oluştu (bağlantı, kilit,
+ *       deadlock, zaman aşımı, kaynak yetersizliği); batch'in tamamı bir sonraki yeniden deneme topic'ine
+ *       gönderilir. Sınıflandırma hata zincirindeki SQLState'e, yoksa Spring DAO, JDBC ve Kafka
+ *       istisna türlerine göre yapılır</li>
+ *   <li>{@code db_permanent} - veritabanı kaydı reddetti (kısıt ihlali, geçersiz değer); batch kayıt
+ *       kayıt yeniden yazılır, yalnızca reddedilen kayıtlar DLT'ye gönderilir</li>
+ * </ul>
+ * <p>
+ * Yeniden deneme topic'leri {@link RateRetryConsumer} tarafından, her seviyenin bekleme süresi
+ * dolduktan sonra işlenir; seviyeler tükenince kayıt DLT'ye düşer. Böylece ana partition bir
+ * hatalı mesaj veya batch yüzünden hiç beklemez. DLT kayıtları {@link DeadLetterReplayer} ile asıl
+ * topic'e geri gönderilebilir.
+ * </p>
+ * <p>
+ * Gönderilen her kayda asıl topic/partition/offset, hata sınıfı, hata mesajı, deneme seviyesi ve
+ * işlenme zamanı başlık olarak eklenir. Gönderim onaylanana kadar (Kafka erişilemezse artan bekleme
+ * süreleriyle, en fazla {@code rates.retry.max-send-time} boyunca) beklenir; asıl batch'in offset'leri
+ * ancak bundan sonra onaylanır. Süre dolarsa gönderim vazgeçilir ve çağıran taraf batch'i onaylamadan
+ * yeniden dener; böylece Kafka kesintisi consumer thread'ini poll aralığından uzun bloklamaz, kayıt da kaybolmaz.
+ * </p>
+ * <p>
+ * Metrikler: {@code rates.failures} ({@code class} etiketiyle hata sınıfı başına),
+ * {@code rates.retry.sent}, {@code rates.dlt.sent} ve {@code rates.dlt.replayed}.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @see RateRetryProperties
+ * @see RateRetryConsumer
+ * @see DeadLetterReplayer
+ */
+@Service
+public class RateFailureHandler {
+    private final Logger logger = LoggerFactory.getLogger(RateFailureHandler.class);
+
+    private static final LogAccessor LOG_ACCESSOR = new LogAccessor(RateFailureHandler.class);
+
+    /** Kaydın ilk geldiği topic */
+    public static final String HEADER_ORIGINAL_TOPIC = "rates-original-topic";
+
+    /** Kaydın ilk geldiği partition (ham kayıtlar için) */
+    public static final String HEADER_ORIGINAL_PARTITION = "rates-original-partition";
+
+    /** Kaydın ilk geldiği offset (ham kayıtlar için) */
+    public static final String HEADER_ORIGINAL_OFFSET = "rates-original-offset";
+
+    /** Hata sınıfı ({@link FailureClass#tag()}) */
+    public static final String HEADER_FAILURE_CLASS = "rates-failure-class";
+
+    /** Son hatanın mesajı */
+    public static final String HEADER_EXCEPTION_MESSAGE = "rates-exception-message";
+
+    /** Kaydın gönderildiği yeniden deneme seviyesi */
+    public static final String HEADER_RETRY_LEVEL = "rates-retry-level";
+
+    /** Kaydın en erken işlenebileceği an (epoch ms) */
+    public static final String HEADER_DUE_AT = "rates-due-at";
+
+    /** Başlıklara yazılan hata mesajlarının en fazla uzunluğu */
+    private static final int MAX_MESSAGE_LENGTH = 1000;
+
+    /** Hata zincirinde en fazla kaç istisnaya bakılır */
+    private static final int MAX_CAUSE_DEPTH = 16;
+
+    /**
+     * Hata sınıfları.
+     */
+    public enum FailureClass {
+        /** Mesaj ayrıştırılamadı */
+        PARSE("parse"),
+        /** Geçici veritabanı hatası */
+        DB_TRANSIENT("db_transient"),
+        /** Kalıcı veritabanı hatası */
+        DB_PERMANENT("db_permanent");
+
+        private final String tag;
+
+        FailureClass(String tag) {
+            this.tag = tag;
+        }
+
+        /**
+         * Metrik etiketlerinde ve başlıklarda kullanılan adı döndürür.
+         *
+         * @return Hata sınıfının adı
+         */
+        public String tag() {
+            return tag;
+        }
+    }
+
+    /**
+     * Hata işleyicisine devredilen bir batch'in sonucu.
+     * <p>
+     * {@code sent} false ise yönlendirilecek kayıtlar Kafka'ya gönderilemedi; {@code routed} boştur ve
+     * çağıran taraf batch'i onaylamadan yeniden denemelidir. {@code inserted} her durumda geçerlidir.
+     * </p>
+     *
+     * @param inserted Kayıt kayıt yazma sırasında veritabanına gerçekten eklenen kayıtlar
+     * @param routed Yeniden deneme topic'ine veya DLT'ye gönderilen kayıtlar
+     * @param sent Yönlendirilecek kayıtların tamamı gönderildiyse (veya gönderilecek kayıt yoksa) true
+     */
+    public record HandOff(List<RateRecord> inserted, List<RateRecord> routed, boolean sent) {
+    }
+
+    @Autowired
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    @Autowired
+    private RateRetryProperties rateRetryProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /** Gönderim başarısız olduktan sonraki ilk bekleme süresi (ms); her denemede ikiye katlanır */
+    @Value("${rates.write-queue.retry-backoff-ms:500}")
+    private long retryBackoffMs;
+
+    /** Gönderim denemeleri arasındaki en uzun bekleme süresi (ms); tek bir denemenin onay bekleme süresi de budur */
+    @Value("${rates.write-queue.max-retry-backoff-ms:30000}")
+    private long maxRetryBackoffMs;
+
+    private final Map<FailureClass, Counter> failureCounters = new EnumMap<>(FailureClass.class);
+
+    private Counter retrySentCounter;
+
+    private Counter deadLetterSentCounter;
+
+    private Counter deadLetterReplayedCounter;
+
+    /**
+     * Metrikleri kaydeder.
+     */
+    @PostConstruct
+    public void registerMetrics() {
+        for (FailureClass failureClass : FailureClass.values()) {
+            failureCounters.put(failureClass, Counter.builder("rates.failures").tag("class", failureClass.tag())
+                    .description("Sınıfına göre işlenemeyen kur kaydı sayısı").register(meterRegistry));
+        }
+        retrySentCounter = Counter.builder("rates.retry.sent")
+                .description("Yeniden deneme topic'lerine gönderilen kayıt sayısı").register(meterRegistry);
+        deadLetterSentCounter = Counter.builder("rates.dlt.sent")
+                .description("Dead letter topic'lerine gönderilen kayıt sayısı").register(meterRegistry);
+        deadLetterReplayedCounter = Counter.builder("rates.dlt.replayed")
+                .description("Dead letter topic'lerinden asıl topic'e geri gönderilen kayıt sayısı").register(meterRegistry);
+    }
+
+    /**
+     * Bir batch'teki ayrıştırılamamış mesajları ham baytlarıyla DLT'ye gönderir.
+     * Değeri null olmayan veya deserializer hatası taşımayan kayıtlar atlanır.
+     *
+     * @param records Kafka'dan tek poll ile alınan mesajlar
+     * @return DLT'ye gönderilen mesaj sayısı
+     * @throws InterruptedException Gönderim beklenirken kesilirse
+     * @throws KafkaException Mesajlar {@code rates.retry.max-send-time} içinde gönderilemezse
+     */
+    public int publishParseFailures(List<? extends ConsumerRecord<String, ?>> records) throws InterruptedException {
+        List<ProducerRecord<String, byte[]>> deadLetters = new ArrayList<>();
+        for (ConsumerRecord<String, ?> consumerRecord : records) {
+            if (consumerRecord.value() != null) {
+                continue;
+            }
+            DeserializationException exception = SerializationUtils.getExceptionFromHeader(consumerRecord,
+                    SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, LOG_ACCESSOR);
+            if (exception == null) {
+                continue;
+            }
+            ProducerRecord<String, byte[]> deadLetter = new ProducerRecord<>(
+                    rateRetryProperties.deadLetterTopic(consumerRecord.topic()), consumerRecord.key(), exception.getData());
+            Headers headers = deadLetter.headers();
+            addHeader(headers, HEADER_ORIGINAL_TOPIC, consumerRecord.topic());
+            addHeader(headers, HEADER_ORIGINAL_PARTITION, Integer.toString(consumerRecord.partition()));
+            addHeader(headers, HEADER_ORIGINAL_OFFSET, Long.toString(consumerRecord.offset()));
+            addFailureHeaders(headers, FailureClass.PARSE, exception);
+            deadLetters.add(deadLetter);
+        }
+        if (deadLetters.isEmpty()) {
+            return 0;
+        }
+        failureCounters.get(FailureClass.PARSE).increment(deadLetters.size());
+        sendAll(deadLetters);
+        deadLetterSentCounter.increment(deadLetters.size());
+        logger.warn("{} ayrıştırılamayan mesaj {} topic'ine gönderildi", deadLetters.size(), deadLetters.get(0).topic());
+        return deadLetters.size();
+    }
+
+    /**
+     * Yazılamayan bir batch'i hata sınıfına göre yeniden deneme topic'ine veya DLT'ye yönlendirir.
+     * <p>
+     * Geçici hatalarda batch'in tamamı {@code level} seviyesindeki yeniden deneme topic'ine (seviyeler
+     * tükendiyse DLT'ye) gönderilir. Kalıcı hatalarda kayıtlar tek tek yeniden yazılır; yazılabilenler
+     * eklenenler döndürülür, reddedilenler DLT'ye, bu sırada geçici bir hata alanlar yeniden deneme topic'ine
+     * gönderilir. Zaten veritabanında olduğu için atlanan kayıtlar iki listede de yer almaz. Yönlendirilecek
+     * kayıtlar {@code rates.retry.max-send-time} içinde gönderilemezse sonuç {@code sent=false} ile döner.
+     * </p>
+     *
+     * @param topic Kayıtların asıl topic'i
+     * @param level Kayıtların gönderileceği yeniden deneme seviyesi (0'dan başlar)
+     * @param writer Topic için seçilen yazıcı
+     * @param records Yazılamayan kayıtlar
+     * @param exception Yazma hatası
+     * @return Eklenen ve yönlendirilen kayıtlar
+     * @throws InterruptedException Gönderim beklenirken kesilirse
+     */
+    public HandOff handleWriteFailure(String topic, int level, RateRecordWriter writer, List<RateRecord> records,
+                                      RuntimeException exception) throws InterruptedException {
+        List<RateRecord> inserted = new ArrayList<>();
+        List<RateRecord> routed = new ArrayList<>();
+        List<ProducerRecord<String, byte[]>> outgoing = new ArrayList<>();
+        if (isTransient(exception)) {
+            failureCounters.get(FailureClass.DB_TRANSIENT).increment(records.size());
+            for (RateRecord rateRecord : records) {
+                outgoing.add(route(topic, level, rateRecord, FailureClass.DB_TRANSIENT, exception));
+            }
+            routed.addAll(records);
+        } else {
+            for (RateRecord rateRecord : records) {
+                try {
+                    inserted.addAll(writer.writeBatch(List.of(rateRecord)));
+                } catch (RuntimeException recordException) {
+                    FailureClass failureClass = isTransient(recordException) ? FailureClass.DB_TRANSIENT : FailureClass.DB_PERMANENT;
+                    failureCounters.get(failureClass).increment();
+                    outgoing.add(route(topic, level, rateRecord, failureClass, recordException));
+                    routed.add(rateRecord);
+                }
+            }
+        }
+        if (!outgoing.isEmpty()) {
+            try {
+                sendAll(outgoing);
+            } catch (KafkaException sendException) {
+                logger.error("{} topic'inden yazılamayan {} kayıt yeniden deneme/dead letter topic'ine aktarılamadı; batch onaylanmadan yeniden denenecek",
+                        topic, outgoing.size(), sendException);
+                return new HandOff(inserted, List.of(), false);
+            }
+            long deadLetters = outgoing.stream().filter(record -> record.topic().equals(rateRetryProperties.deadLetterTopic(topic))).count();
+            deadLetterSentCounter.increment(deadLetters);
+            retrySentCounter.increment(outgoing.size() - deadLetters);
+            logger.warn("{} topic'inden {} kayıt yazılamadı ({}): {} kayıt yeniden deneme topic'ine, {} kayıt dead letter topic'ine gönderildi",
+                    topic, outgoing.size(), exception.getClass().getSimpleName(), outgoing.size() - deadLetters, deadLetters);
+        }
+        return new HandOff(inserted, routed, true);
+    }
+
+    /**
+     * Bir hatanın geçici (yeniden denendiğinde düzelebilecek) olup olmadığını döndürür.
+     * <p>
+     * Hata zincirinde SQLState taşıyan bir {@link SQLException} varsa karar en içtekinin durum koduna
+     * göre verilir ({@link #isTransientSqlState}); böylece örneğin COPY yazıcısının her SQL hatasını
+     * sardığı {@link DataAccessResourceFailureException} içindeki kısıt ihlali kalıcı sayılır. Durum kodu
+     * yoksa zincirdeki Spring DAO/transaction, JDBC ({@link SQLTransientException},
+     * {@link SQLRecoverableException}) ve Kafka ({@link RetriableException}) istisna türlerine bakılır.
+     * </p>
+     *
+     * @param exception Yazma hatası
+     * @return Geçiciyse true
+     */
+    public boolean isTransient(RuntimeException exception) {
+        String sqlState = null;
+        boolean transientType = false;
+        Throwable cause = exception;
+        for (int depth = 0; cause != null && depth < MAX_CAUSE_DEPTH; depth++, cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && sqlException.getSQLState() != null) {
+                sqlState = sqlException.getSQLState();
+            }
+            transientType |= cause instanceof TransientDataAccessException
+                    || cause instanceof RecoverableDataAccessException
+                    || cause instanceof DataAccessResourceFailureException
+                    || cause instanceof CannotCreateTransactionException
+                    || cause instanceof TransactionTimedOutException
+                    || cause instanceof SQLTransientException
+                    || cause instanceof SQLRecoverableException
+                    || cause instanceof RetriableException;
+        }
+        return sqlState != null ? isTransientSqlState(sqlState) : transientType;
+    }
+
+    /**
+     * Bir PostgreSQL SQLState kodunun geçici bir hatayı gösterip göstermediğini döndürür: bağlantı
+     * hataları ({@code 08xxx}), serileştirme hatası ve deadlock ({@code 40001}, {@code 40P01}), kaynak
+     * yetersizliği ({@code 53xxx}), kilit alınamaması ({@code 55P03}), zaman aşımıyla iptal edilen sorgu
+     * ({@code 57014}) ve sunucunun kapanması/başlaması ({@code 57P01}-{@code 57P03}).
+     *
+     * @param sqlState SQLState kodu
+     * @return Geçiciyse true
+     */
+    static boolean isTransientSqlState(String sqlState) {
+        return sqlState.startsWith("08")
+                || sqlState.startsWith("53")
+                || sqlState.equals("40001")
+                || sqlState.equals("40P01")
+                || sqlState.equals("55P03")
+                || sqlState.equals("57014")
+                || sqlState.equals("57P01")
+                || sqlState.equals("57P02")
+                || sqlState.equals("57P03");
+    }
+
+    /**
+     * DLT'den geri gönderilen kayıtları metriklere ekler.
+     *
+     * @param count Geri gönderilen kayıt sayısı
+     */
+    public void recordReplayed(int count) {
+        deadLetterReplayedCounter.increment(count);
+    }
+
+    /**
+     * Kayıtları gönderir ve tamamı onaylanana kadar bekler; Kafka'ya ulaşılamazsa artan bekleme
+     * süreleriyle tüm kayıtları yeniden gönderir (aynı kayıt yeniden deneme topic'ine iki kez düşebilir).
+     * Toplam süre {@code rates.retry.max-send-time} ile sınırlıdır.
+     *
+     * @param records Gönderilecek kayıtlar
+     * @throws InterruptedException Gönderim beklenirken kesilirse
+     * @throws KafkaException Kayıtlar süre dolmadan gönderilemezse
+     */
+    public void sendAll(List<ProducerRecord<String, byte[]>> records) throws InterruptedException {
+        long deadline = System.nanoTime() + rateRetryProperties.getMaxSendTime().toNanos();
+        long backoff = retryBackoffMs;
+        for (int attempt = 1; ; attempt++) {
+            long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            List<CompletableFuture<?>> futures = new ArrayList<>(records.size());
+            Exception lastException;
+            try {
+                for (ProducerRecord<String, byte[]> record : records) {
+                    futures.add(kafkaTemplate.send(record));
+                }
+                CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                        .get(Math.max(1, Math.min(maxRetryBackoffMs, remainingMs)), TimeUnit.MILLISECONDS);
+                return;
+            } catch (ExecutionException | TimeoutException | RuntimeException sendException) {
+                lastException = sendException;
+            }
+            remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMs <= backoff) {
+                throw new KafkaException(records.size() + " kayıt " + records.get(0).topic() + " topic'ine "
+                        + attempt + " denemede gönderilemedi", lastException);
+            }
+            logger.error("{} kayıt {} topic'ine gönderilemedi (deneme {}), {} ms sonra yeniden denenecek",
+                    records.size(), records.get(0).topic(), attempt, backoff, lastException);
+            Thread.sleep(backoff);
+            backoff = Math.min(backoff * 2, maxRetryBackoffMs);
+        }
+    }
+
+    /**
+     * Kaydı yeniden deneme topic'i veya DLT için hazırlar.
+     */
+    private ProducerRecord<String, byte[]> route(String topic, int level, RateRecord rateRecord, FailureClass failureClass,
+                                                 RuntimeException exception) {
+        boolean retry = failureClass == FailureClass.DB_TRANSIENT && level < rateRetryProperties.getDelays().size();
+        String target = retry ? rateRetryProperties.retryTopic(topic, level) : rateRetryProperties.deadLetterTopic(topic);
+        ProducerRecord<String, byte[]> producerRecord = new ProducerRecord<>(target, rateRecord.getRateName(),
+                RateMessageParser.toPipeFormat(rateRecord));
+        Headers headers = producerRecord.headers();
+        addHeader(headers, HEADER_ORIGINAL_TOPIC, topic);
+        addFailureHeaders(headers, failureClass, exception);
+        if (retry) {
+            addHeader(headers, HEADER_RETRY_LEVEL, Integer.toString(level));
+            long dueAt = Instant.now().plus(rateRetryProperties.getDelays().get(level)).toEpochMilli();
+            headers.add(HEADER_DUE_AT, ByteBuffer.allocate(Long.BYTES).putLong(dueAt).array());
+        }
+        return producerRecord;
+    }
+
+    private static void addFailureHeaders(Headers headers, FailureClass failureClass, Exception exception) {
+        addHeader(headers, HEADER_FAILURE_CLASS, failureClass.tag());
+        String message = String.valueOf(exception.getMessage());
+        addHeader(headers, HEADER_EXCEPTION_MESSAGE, message.length() > MAX_MESSAGE_LENGTH ? message.substring(0, MAX_MESSAGE_LENGTH) : message);
+    }
+
+    private static void addHeader(Headers headers, String key, String value) {
+        headers.add(key, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Bir kaydın en erken işlenebileceği anı başlığından okur.
+     *
+     * @param headers Kaydın başlıkları
+     * @return Epoch ms; başlık yoksa 0
+     */
+    public static long dueAt(Headers headers) {
+        Header header = headers.lastHeader(HEADER_DUE_AT);
+        return header == null || header.value().length != Long.BYTES ? 0L : ByteBuffer.wrap(header.value()).getLong();
+    }
+
+    /**
+     * Bir başlığın değerini String olarak okur.
+     *
+     * @param headers Kaydın başlıkları
+     * @param key Başlık adı
+     * @return Başlığın değeri; yoksa null
+     */
+    public static String headerValue(Headers headers, String key) {
+        Header header = headers.lastHeader(key);
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+}
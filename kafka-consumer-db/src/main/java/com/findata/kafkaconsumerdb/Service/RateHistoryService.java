@@ -0,0 +1,251 @@
+package com.findata.kafkaconsumerdb.Service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.findata.kafkaconsumerdb.Config.PriceStorageProperties;
+import com.findata.kafkaconsumerdb.Entity.RateRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code tbl_rates} geçmişini sabit bellek kullanımıyla okuyan servis.
+ * <p>
+ * Sayfalı okuma keyset (id) tabanlıdır: her sayfa {@code id > afterId ORDER BY id LIMIT n} ile
+ * alınır ve partition'ların primary key index'lerinden okunur; {@code OFFSET} kullanılmadığı
+ * için derin sayfalar da ilk sayfa kadar ucuzdur. İsteğe bağlı {@code from}/{@code to}
+ * sınırları partition budamasıyla eski/yeni günleri hiç okumaz.
+ * </p>
+ * <p>
+ * Akış (NDJSON) okumada sorgu, sınırlı bir {@code fetchSize} ile salt okunur bir transaction
+ * içinde çalışır; PostgreSQL sürücüsü bu durumda sunucu tarafı cursor kullanır ve satırları
+ * parça parça getirir. Her satır okunduğu anda yazılır, hiçbir zaman tüm sonuç belleğe alınmaz.
+ * </p>
+ * <p>
+ * Grafik okumada ({@link #downsample}) bir kurun zaman aralığı aynı cursor ile okunur ve
+ * {@link LttbDownsampler} ile istenen nokta sayısına seyreltilir; yalnızca seçilen noktalar
+ * belleğe alınır ve döndürülür.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @see RateRecord
+ * @see LttbDownsampler
+ */
+@Service
+public class RateHistoryService {
+
+    /** Tek sayfada döndürülebilecek en fazla kayıt */
+    public static final int MAX_PAGE_SIZE = 5_000;
+
+    /** Seyreltilmiş geçmişte istenebilecek en fazla nokta */
+    public static final int MAX_CHART_POINTS = 10_000;
+
+    private static final String COLUMNS = "SELECT id, rate_name, bid, ask, rate_updatetime, db_updatetime FROM tbl_rates";
+
+    /** Tick'in LTTB kovası; parametreler: aralık başı, aralık sonu (epoch saniye), kova sayısı */
+    private static final String BUCKET = "width_bucket(extract(epoch FROM rate_updatetime), ?, ?, ?)";
+
+    private static final String NAME_AND_RANGE = " WHERE rate_name = ? AND rate_updatetime >= ? AND rate_updatetime < ?";
+
+    private final RowMapper<RateRecord> rowMapper = (resultSet, rowNum) -> mapRow(resultSet);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PriceStorageProperties priceStorageProperties;
+
+    /** Akış sorgularında sunucudan tek seferde alınan satır sayısı */
+    @Value("${rates.history.stream-fetch-size:1000}")
+    private int streamFetchSize;
+
+    /**
+     * Verilen id'den sonraki kayıtları id sırasıyla döndürür.
+     *
+     * @param rateName Kur adı filtresi; null ise tüm kurlar
+     * @param afterId Bu id'den büyük kayıtlar döner; null ise baştan başlanır
+     * @param from Bu andan önceki kayıtlar dönmez; null ise sınır yok
+     * @param to Bu andan sonraki (bu an dahil) kayıtlar dönmez; null ise sınır yok
+     * @param limit Sayfa boyutu (1 ile {@link #MAX_PAGE_SIZE} arasına sıkıştırılır)
+     * @return Sayfadaki kayıtlar
+     */
+    public List<RateRecord> findPage(String rateName, Long afterId, Instant from, Instant to, int limit) {
+        List<Object> args = new ArrayList<>();
+        String sql = COLUMNS + where(rateName, afterId, from, to, args) + " ORDER BY id LIMIT ?";
+        args.add(Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+        return jdbcTemplate.query(sql, rowMapper, args.toArray());
+    }
+
+    /**
+     * Filtreye uyan tüm kayıtları id sırasıyla, satır başına bir JSON nesnesi olarak (NDJSON) yazar.
+     *
+     * @param rateName Kur adı filtresi; null ise tüm kurlar
+     * @param from Bu andan önceki kayıtlar yazılmaz; null ise sınır yok
+     * @param to Bu andan sonraki (bu an dahil) kayıtlar yazılmaz; null ise sınır yok
+     * @param out Kayıtların yazılacağı akış
+     */
+    public void stream(String rateName, Instant from, Instant to, OutputStream out) {
+        List<Object> args = new ArrayList<>();
+        String sql = COLUMNS + where(rateName, null, from, to, args) + " ORDER BY id";
+
+        JdbcTemplate cursorTemplate = new JdbcTemplate(dataSource);
+        cursorTemplate.setFetchSize(streamFetchSize);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            long[] rows = {0};
+            transactionTemplate.executeWithoutResult(status ->
+                    cursorTemplate.query(sql, (RowCallbackHandler) resultSet -> {
+                        try {
+                            generator.writeObject(mapRow(resultSet));
+                            generator.writeRaw('\n');
+                            if (++rows[0] % streamFetchSize == 0) {
+                                generator.flush();
+                            }
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }, args.toArray()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Bir kurun zaman aralığındaki tick'lerini LTTB ile en fazla {@code points} noktaya seyreltir.
+     * <p>
+     * Önce kova başına tick sayısı ve ortalamalar tek bir gruplama sorgusuyla alınır; ardından
+     * tick'ler zaman sırasıyla cursor üzerinden bir kez okunur. Değer olarak alış ve satışın
+     * ortalaması (1e-8 birim cinsinden) kullanılır. Aralıktaki tick sayısı {@code points} değerini aşmıyorsa tüm tick'ler döner.
+     * </p>
+     *
+     * @param rateName Kur adı
+     * @param from Başlangıç (dahil)
+     * @param to Bitiş (hariç); {@code from}'dan sonra olmalıdır
+     * @param points İstenen nokta sayısı (3 ile {@link #MAX_CHART_POINTS} arasına sıkıştırılır)
+     * @return Zaman sırasıyla seçilen tick'ler
+     */
+    public List<RateRecord> downsample(String rateName, Instant from, Instant to, int points) {
+        int target = Math.max(3, Math.min(points, MAX_CHART_POINTS));
+        int bucketCount = target - 2;
+        double low = epochSeconds(from);
+        double high = epochSeconds(to);
+        Timestamp start = Timestamp.from(from);
+        Timestamp end = Timestamp.from(to);
+
+        long[] counts = new long[bucketCount + 1];
+        double[] averageX = new double[bucketCount + 1];
+        double[] averageY = new double[bucketCount + 1];
+        long[] total = {0};
+        jdbcTemplate.query("SELECT " + BUCKET + " AS bucket, count(*) AS ticks, avg(extract(epoch FROM rate_updatetime)) AS avg_x, "
+                        + "avg(" + priceStorageProperties.unitsExpression("bid + ask") + " / 2.0) AS avg_y FROM tbl_rates" + NAME_AND_RANGE + " GROUP BY 1",
+                (RowCallbackHandler) resultSet -> {
+                    int bucket = clampBucket(resultSet.getInt("bucket"), bucketCount);
+                    long ticks = resultSet.getLong("ticks");
+                    // Kayan nokta sınırında iki grup aynı kovaya düşerse ağırlıklı ortalama alınır
+                    long merged = counts[bucket] + ticks;
+                    averageX[bucket] = (averageX[bucket] * counts[bucket] + resultSet.getDouble("avg_x") * ticks) / merged;
+                    averageY[bucket] = (averageY[bucket] * counts[bucket] + resultSet.getDouble("avg_y") * ticks) / merged;
+                    counts[bucket] = merged;
+                    total[0] += ticks;
+                }, low, high, bucketCount, rateName, start, end);
+
+        if (total[0] <= target) {
+            return jdbcTemplate.query(COLUMNS + NAME_AND_RANGE + " ORDER BY rate_updatetime, id", rowMapper,
+                    rateName, start, end);
+        }
+
+        RateRecord last = jdbcTemplate.queryForObject(COLUMNS + NAME_AND_RANGE + " ORDER BY rate_updatetime DESC, id DESC LIMIT 1",
+                rowMapper, rateName, start, end);
+        LttbDownsampler downsampler = new LttbDownsampler(counts, averageX, averageY,
+                epochSeconds(last.getRateUpdatetime()), midValue(last));
+
+        JdbcTemplate cursorTemplate = new JdbcTemplate(dataSource);
+        cursorTemplate.setFetchSize(streamFetchSize);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        String sql = "SELECT id, rate_name, bid, ask, rate_updatetime, db_updatetime, " + BUCKET + " AS bucket FROM tbl_rates"
+                + NAME_AND_RANGE + " ORDER BY rate_updatetime, id";
+        transactionTemplate.executeWithoutResult(status ->
+                cursorTemplate.query(sql, (RowCallbackHandler) resultSet -> {
+                    if (resultSet.getLong("id") == last.getId()) {
+                        return;
+                    }
+                    RateRecord rateRecord = mapRow(resultSet);
+                    downsampler.add(clampBucket(resultSet.getInt("bucket"), bucketCount),
+                            epochSeconds(rateRecord.getRateUpdatetime()), midValue(rateRecord), rateRecord);
+                }, low, high, bucketCount, rateName, start, end));
+        return downsampler.finish(last);
+    }
+
+    private static int clampBucket(int bucket, int bucketCount) {
+        return Math.max(1, Math.min(bucket, bucketCount));
+    }
+
+    private static double epochSeconds(Instant instant) {
+        return instant.getEpochSecond() + instant.getNano() / 1_000_000_000.0;
+    }
+
+    private static double midValue(RateRecord rateRecord) {
+        return (rateRecord.getBidUnits() + (double) rateRecord.getAskUnits()) / 2;
+    }
+
+    private static String where(String rateName, Long afterId, Instant from, Instant to, List<Object> args) {
+        StringBuilder where = new StringBuilder(" WHERE true");
+        if (rateName != null) {
+            where.append(" AND rate_name = ?");
+            args.add(rateName);
+        }
+        if (afterId != null) {
+            where.append(" AND id > ?");
+            args.add(afterId);
+        }
+        if (from != null) {
+            where.append(" AND rate_updatetime >= ?");
+            args.add(Timestamp.from(from));
+        }
+        if (to != null) {
+            where.append(" AND rate_updatetime < ?");
+            args.add(Timestamp.from(to));
+        }
+        return where.toString();
+    }
+
+    private RateRecord mapRow(ResultSet resultSet) throws SQLException {
+        RateRecord rateRecord = new RateRecord(resultSet.getString("rate_name"), priceStorageProperties.readUnits(resultSet, "bid"),
+                priceStorageProperties.readUnits(resultSet, "ask"), resultSet.getObject("rate_updatetime", OffsetDateTime.class).toInstant(),
+                resultSet.getObject("db_updatetime", OffsetDateTime.class).toInstant());
+        rateRecord.setId(resultSet.getLong("id"));
+        return rateRecord;
+    }
+}
@@ -0,0 +1,351 @@
+package com.findata.kafkaconsumerdb.Service;
+
+import com.findata.kafkaconsumerdb.Entity.FixedPointPrice;
+import com.findata.kafkaconsumerdb.Entity.RateRecord;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Kafka'dan gelen kur mesajlarını doğrudan ham baytlar üzerinden ayrıştıran sınıf.
+ * <p>
+ * İki format desteklenir:
+ * </p>
+ * <ul>
+ *   <li>Ana uygulamanın {@code KafkaProducerServiceImpl} ile gönderdiği pipe formatı:
+ *       {@code SYMBOL|BID|ASK|TIMESTAMP} (örn: {@code PF1_USDTRY|34.12345|34.22345|2025-04-25T10:15:30.123Z})</li>
+ *   <li>Eski tek seviyeli JSON formatı: {@code {"name":"USDTRY","bid":34.1,"ask":34.2,"timestamp":"..."}};
+ *       {@code timestamp} yoksa zaman damgası boş bırakılır ve dinleyici Kafka kaydının zaman damgasını kullanır</li>
+ * </ul>
+ * <p>
+ * Mesaj önce String'e, JSON ise bir ağaca çevrilmez; alanlar bayt dizisi üzerinde tek geçişte
+ * bulunur. Fiyatlar metinden doğrudan 1e-8 birim cinsinden tamsayıya ({@link FixedPointPrice})
+ * birebir çevrilir; ne double'dan ne de {@link BigDecimal}'den geçilir. ISO-8601 zaman damgaları
+ * ({@link Instant#toString()} çıktısı) da doğrudan baytlardan çözülür; beklenmeyen bir yazım
+ * görülürse JDK ayrıştırıcısına düşülür.
+ * </p>
+ * <p>
+ * Sınıf durumsuzdur ve thread-safe'dir. Geçersiz mesajlarda {@link IllegalArgumentException}
+ * fırlatır.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @see RateRecordDeserializer
+ */
+public class RateMessageParser {
+
+    /** Pipe formatındaki alan ayracı */
+    private static final byte SEPARATOR = '|';
+
+    /** Ölçeklenmiş tamsayıya taşma olmadan sığan en fazla basamak sayısı */
+    private static final int MAX_FAST_DIGITS = 18;
+
+    /** 10'un kuvvetleri; ölçeği 8'e tamamlamak için */
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L};
+
+    private static final byte[] KEY_NAME = "name".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] KEY_RATE_NAME = "rateName".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] KEY_BID = "bid".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] KEY_ASK = "ask".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] KEY_TIMESTAMP = "timestamp".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Bir kur mesajını {@link RateRecord} nesnesine dönüştürür. Format ilk anlamlı bayttan anlaşılır.
+     *
+     * @param data Mesajın UTF-8 baytları
+     * @return Oluşturulan RateRecord nesnesi
+     * @throws IllegalArgumentException Mesaj geçersizse
+     */
+    public RateRecord parse(byte[] data) {
+        if (data == null || data.length == 0) {
+            throw new IllegalArgumentException("Boş kur mesajı");
+        }
+        int start = skipWhitespace(data, 0, data.length);
+        if (start < data.length && data[start] == '{') {
+            return parseJson(data, start, data.length);
+        }
+        return parsePipe(data, 0, data.length);
+    }
+
+    /**
+     * Bir kaydı {@link #parse} ile tekrar okunabilecek pipe formatına çevirir. Yeniden deneme ve
+     * dead letter topic'lerine gönderilen kayıtlar bu formatta yazılır.
+     *
+     * @param rateRecord Kur kaydı
+     * @return {@code SYMBOL|BID|ASK|TIMESTAMP} formatındaki mesajın UTF-8 baytları
+     */
+    public static byte[] toPipeFormat(RateRecord rateRecord) {
+        String message = rateRecord.getRateName() + '|' + rateRecord.getBid().toPlainString() + '|'
+                + rateRecord.getAsk().toPlainString() + '|' + rateRecord.getRateUpdatetime();
+        return message.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * {@code SYMBOL|BID|ASK|TIMESTAMP} formatındaki mesajı ayrıştırır.
+     */
+    private RateRecord parsePipe(byte[] data, int from, int to) {
+        int first = indexOf(data, SEPARATOR, from, to);
+        int second = first < 0 ? -1 : indexOf(data, SEPARATOR, first + 1, to);
+        int third = second < 0 ? -1 : indexOf(data, SEPARATOR, second + 1, to);
+        if (first <= from || third < 0 || indexOf(data, SEPARATOR, third + 1, to) >= 0) {
+            throw new IllegalArgumentException("Geçersiz kur mesajı formatı: " + text(data, from, to));
+        }
+        RateRecord rateRecord = new RateRecord();
+        rateRecord.setRateName(new String(data, from, first - from, StandardCharsets.UTF_8));
+        rateRecord.setBidUnits(parseUnits(data, first + 1, second));
+        rateRecord.setAskUnits(parseUnits(data, second + 1, third));
+        rateRecord.setRateUpdatetime(parseInstant(data, third + 1, trimEnd(data, third + 1, to)));
+        return rateRecord;
+    }
+
+    /**
+     * Tek seviyeli bir JSON nesnesini ağaç oluşturmadan ayrıştırır. Bilinmeyen alanlar atlanır;
+     * iç içe nesneler, diziler ve kaçış karakterli string'ler desteklenmez.
+     */
+    private RateRecord parseJson(byte[] data, int from, int to) {
+        RateRecord rateRecord = new RateRecord();
+        boolean hasBid = false;
+        boolean hasAsk = false;
+        int i = skipWhitespace(data, from + 1, to);
+        while (i < to && data[i] != '}') {
+            if (data[i] != '"') {
+                throw invalidJson(data, from, to);
+            }
+            int keyStart = i + 1;
+            int keyEnd = endOfString(data, keyStart, to);
+            i = skipWhitespace(data, keyEnd + 1, to);
+            if (i >= to || data[i] != ':') {
+                throw invalidJson(data, from, to);
+            }
+            i = skipWhitespace(data, i + 1, to);
+            if (i >= to) {
+                throw invalidJson(data, from, to);
+            }
+
+            int valueStart;
+            int valueEnd;
+            if (data[i] == '"') {
+                valueStart = i + 1;
+                valueEnd = endOfString(data, valueStart, to);
+                i = valueEnd + 1;
+            } else {
+                valueStart = i;
+                while (i < to && data[i] != ',' && data[i] != '}' && !isWhitespace(data[i])) {
+                    if (data[i] == '{' || data[i] == '[') {
+                        throw invalidJson(data, from, to);
+                    }
+                    i++;
+                }
+                valueEnd = i;
+            }
+
+            if (keyEquals(data, keyStart, keyEnd, KEY_NAME) || keyEquals(data, keyStart, keyEnd, KEY_RATE_NAME)) {
+                rateRecord.setRateName(new String(data, valueStart, valueEnd - valueStart, StandardCharsets.UTF_8));
+            } else if (keyEquals(data, keyStart, keyEnd, KEY_BID)) {
+                rateRecord.setBidUnits(parseUnits(data, valueStart, valueEnd));
+                hasBid = true;
+            } else if (keyEquals(data, keyStart, keyEnd, KEY_ASK)) {
+                rateRecord.setAskUnits(parseUnits(data, valueStart, valueEnd));
+                hasAsk = true;
+            } else if (keyEquals(data, keyStart, keyEnd, KEY_TIMESTAMP)) {
+                rateRecord.setRateUpdatetime(parseInstant(data, valueStart, valueEnd));
+            }
+
+            i = skipWhitespace(data, i, to);
+            if (i < to && data[i] == ',') {
+                i = skipWhitespace(data, i + 1, to);
+            } else if (i >= to || data[i] != '}') {
+                throw invalidJson(data, from, to);
+            }
+        }
+        if (i >= to) {
+            throw invalidJson(data, from, to);
+        }
+        if (rateRecord.getRateName() == null || !hasBid || !hasAsk) {
+            throw new IllegalArgumentException("JSON'da eksik alan bulunuyor: " + text(data, from, to));
+        }
+        return rateRecord;
+    }
+
+    /**
+     * Ondalık bir sayıyı 1e-8 birim cinsinden tamsayı olarak okur. Üslü yazım, 18'den fazla basamak
+     * veya 8'den fazla ondalık basamak görülürse {@link BigDecimal#BigDecimal(String)} üzerinden
+     * {@link FixedPointPrice#toUnits} kullanılır.
+     */
+    static long parseUnits(byte[] data, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (data[i] == '-' || data[i] == '+')) {
+            negative = data[i] == '-';
+            i++;
+        }
+        long unscaled = 0;
+        int scale = -1;
+        int digits = 0;
+        for (; i < to; i++) {
+            byte b = data[i];
+            if (b >= '0' && b <= '9') {
+                if (digits == MAX_FAST_DIGITS) {
+                    return slowDecimal(data, from, to);
+                }
+                unscaled = unscaled * 10 + (b - '0');
+                digits++;
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (b == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                return slowDecimal(data, from, to);
+            }
+        }
+        if (digits == 0) {
+            throw new IllegalArgumentException("Geçersiz fiyat: " + text(data, from, to));
+        }
+        scale = Math.max(scale, 0);
+        if (scale > FixedPointPrice.SCALE) {
+            return slowDecimal(data, from, to);
+        }
+        long units;
+        try {
+            units = Math.multiplyExact(unscaled, POWERS_OF_TEN[FixedPointPrice.SCALE - scale]);
+        } catch (ArithmeticException arithmeticException) {
+            throw new IllegalArgumentException("Fiyat aralık dışında: " + text(data, from, to), arithmeticException);
+        }
+        return negative ? -units : units;
+    }
+
+    private static long slowDecimal(byte[] data, int from, int to) {
+        try {
+            return FixedPointPrice.toUnits(new BigDecimal(text(data, from, to)));
+        } catch (NumberFormatException numberFormatException) {
+            throw new IllegalArgumentException("Geçersiz fiyat: " + text(data, from, to), numberFormatException);
+        }
+    }
+
+    /**
+     * {@code yyyy-MM-ddTHH:mm:ss[.f...]Z} biçimindeki UTC zaman damgasını okur; diğer ISO-8601
+     * biçimleri için {@link Instant#parse} kullanılır.
+     */
+    static Instant parseInstant(byte[] data, int from, int to) {
+        int length = to - from;
+        if (length >= 20 && data[to - 1] == 'Z' && data[from + 4] == '-' && data[from + 7] == '-'
+                && data[from + 10] == 'T' && data[from + 13] == ':' && data[from + 16] == ':') {
+            int year = digits(data, from, 4);
+            int month = digits(data, from + 5, 2);
+            int day = digits(data, from + 8, 2);
+            int hour = digits(data, from + 11, 2);
+            int minute = digits(data, from + 14, 2);
+            int second = digits(data, from + 17, 2);
+            int nanos = 0;
+            boolean valid = year >= 0 && month >= 1 && month <= 12 && day >= 1 && day <= 31
+                    && hour >= 0 && hour <= 23 && minute >= 0 && minute <= 59 && second >= 0 && second <= 59;
+            int fractionEnd = to - 1;
+            if (valid && fractionEnd > from + 19) {
+                int fractionDigits = fractionEnd - (from + 20);
+                valid = data[from + 19] == '.' && fractionDigits >= 1 && fractionDigits <= 9;
+                if (valid) {
+                    nanos = digits(data, from + 20, fractionDigits);
+                    valid = nanos >= 0;
+                    for (int k = fractionDigits; k < 9; k++) {
+                        nanos *= 10;
+                    }
+                }
+            }
+            if (valid) {
+                try {
+                    long epochDay = LocalDate.of(year, month, day).toEpochDay();
+                    return Instant.ofEpochSecond(epochDay * 86_400L + hour * 3_600L + minute * 60L + second, nanos);
+                } catch (DateTimeException dateTimeException) {
+                    throw new IllegalArgumentException("Geçersiz zaman damgası: " + text(data, from, to), dateTimeException);
+                }
+            }
+        }
+        try {
+            return Instant.parse(text(data, from, to));
+        } catch (DateTimeParseException dateTimeParseException) {
+            throw new IllegalArgumentException("Geçersiz zaman damgası: " + text(data, from, to), dateTimeParseException);
+        }
+    }
+
+    /**
+     * Sabit uzunluklu pozitif bir tamsayı okur.
+     *
+     * @return Değer veya rakam olmayan bir bayt varsa -1
+     */
+    private static int digits(byte[] data, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = data[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int indexOf(byte[] data, byte value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (data[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int endOfString(byte[] data, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (data[i] == '"') {
+                return i;
+            }
+            if (data[i] == '\\') {
+                throw new IllegalArgumentException("Kaçış karakterli JSON string'leri desteklenmiyor: " + text(data, 0, to));
+            }
+        }
+        throw new IllegalArgumentException("Kapanmamış JSON string'i: " + text(data, 0, to));
+    }
+
+    private static boolean keyEquals(byte[] data, int from, int to, byte[] key) {
+        if (to - from != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (data[from + i] != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+
+    private static int skipWhitespace(byte[] data, int from, int to) {
+        while (from < to && isWhitespace(data[from])) {
+            from++;
+        }
+        return from;
+    }
+
+    private static int trimEnd(byte[] data, int from, int to) {
+        while (to > from && isWhitespace(data[to - 1])) {
+            to--;
+        }
+        return to;
+    }
+
+    private static IllegalArgumentException invalidJson(byte[] data, int from, int to) {
+        return new IllegalArgumentException("Geçersiz JSON kur mesajı: " + text(data, from, to));
+    }
+
+    private static String text(byte[] data, int from, int to) {
+        return new String(data, from, to - from, StandardCharsets.UTF_8);
+    }
+}
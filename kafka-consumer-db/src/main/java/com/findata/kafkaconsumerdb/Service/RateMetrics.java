@@ -0,0 +1,118 @@
+package com.findata.kafkaconsumerdb.Service;
+
+import com.findata.kafkaconsumerdb.Entity.RateRecord;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consumer'ın akış, gecikme ve tazelik metriklerini toplayan servis.
+ * <p>
+ * Metrikler (Prometheus'ta nokta yerine alt çizgiyle, {@code /actuator/prometheus} altında):
+ * </p>
+ * <ul>
+ *   <li>{@code rates.consumed.records} ({@code topic}, {@code partition}) - Kafka'dan alınan mesaj
+ *       sayısı; {@code rate()} ile partition başına saniyedeki mesaj sayısı</li>
+ *   <li>{@code rates.write.batch.size} ({@code topic}) - veritabanına yazılan batch'lerin kayıt sayısı</li>
+ *   <li>{@code rates.write.latency} ({@code topic}, {@code writer}) - bir batch'in yazılma süresi (histogram)</li>
+ *   <li>{@code rates.written.records} ({@code symbol}) - kur başına yazılan kayıt sayısı</li>
+ *   <li>{@code rates.freshness} ({@code symbol}) - kaydın veritabanına yazıldığı an ile kaynaktaki
+ *       zaman damgası arasındaki fark (histogram)</li>
+ * </ul>
+ * <p>
+ * Partition başına consumer lag, Spring Boot'un Kafka istemci metrikleri olarak
+ * {@code kafka.consumer.fetch.manager.records.lag} ({@code topic}, {@code partition}) adıyla yayınlanır.
+ * Metreler etiket değeri başına bir kez oluşturulup önbelleğe alınır; sık çağrılan yolda kayıt
+ * aranmaz.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @see KafkaRateListener
+ * @see RateWriteQueue
+ */
+@Service
+public class RateMetrics {
+
+    /** Tazelik histogramının üst sınırı; daha eski kayıtlar (örn. geri doldurma) en üst kovaya düşer */
+    private static final Duration MAX_EXPECTED_FRESHNESS = Duration.ofMinutes(10);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<String, Counter> consumedCounters = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, DistributionSummary> batchSizeSummaries = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Timer> writeTimers = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Counter> writtenCounters = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Timer> freshnessTimers = new ConcurrentHashMap<>();
+
+    /**
+     * Bir poll ile alınan mesajları partition başına sayar.
+     *
+     * @param records Kafka'dan tek poll ile alınan mesajlar
+     */
+    public void recordConsumed(List<? extends ConsumerRecord<?, ?>> records) {
+        int start = 0;
+        while (start < records.size()) {
+            ConsumerRecord<?, ?> first = records.get(start);
+            int end = start + 1;
+            // Bir poll'un kayıtları partition partition gelir; ardışık aynı partition'lar tek seferde sayılır
+            while (end < records.size() && records.get(end).partition() == first.partition()
+                    && records.get(end).topic().equals(first.topic())) {
+                end++;
+            }
+            consumedCounter(first.topic(), first.partition()).increment(end - start);
+            start = end;
+        }
+    }
+
+    /**
+     * Veritabanına yazılmış bir batch'in metriklerini kaydeder.
+     *
+     * @param topic Kayıtların asıl topic'i
+     * @param writer Kullanılan yazıcının adı
+     * @param records Yazılan kayıtlar
+     * @param elapsedNanos Yazma süresi (ns)
+     */
+    public void recordWrite(String topic, String writer, List<RateRecord> records, long elapsedNanos) {
+        batchSizeSummaries.computeIfAbsent(topic, key -> DistributionSummary.builder("rates.write.batch.size")
+                .tag("topic", key).baseUnit("records").description("Veritabanına yazılan batch'lerin kayıt sayısı")
+                .publishPercentileHistogram().register(meterRegistry)).record(records.size());
+        writeTimers.computeIfAbsent(topic + '|' + writer, key -> Timer.builder("rates.write.latency")
+                .tag("topic", topic).tag("writer", writer).description("Bir batch'in veritabanına yazılma süresi")
+                .publishPercentileHistogram().register(meterRegistry)).record(elapsedNanos, TimeUnit.NANOSECONDS);
+        for (RateRecord rateRecord : records) {
+            String symbol = rateRecord.getRateName();
+            writtenCounters.computeIfAbsent(symbol, key -> Counter.builder("rates.written.records")
+                    .tag("symbol", key).description("Kur başına veritabanına yazılan kayıt sayısı")
+                    .register(meterRegistry)).increment();
+            if (rateRecord.getDbUpdatetime() != null && rateRecord.getRateUpdatetime() != null) {
+                Duration freshness = Duration.between(rateRecord.getRateUpdatetime(), rateRecord.getDbUpdatetime());
+                freshnessTimers.computeIfAbsent(symbol, key -> Timer.builder("rates.freshness")
+                        .tag("symbol", key).description("Kaynak zaman damgasından veritabanına yazılana kadar geçen süre")
+                        .publishPercentileHistogram().maximumExpectedValue(MAX_EXPECTED_FRESHNESS)
+                        .register(meterRegistry)).record(freshness.isNegative() ? Duration.ZERO : freshness);
+            }
+        }
+    }
+
+    private Counter consumedCounter(String topic, int partition) {
+        return consumedCounters.computeIfAbsent(topic + '-' + partition, key -> Counter.builder("rates.consumed.records")
+                .tag("topic", topic).tag("partition", Integer.toString(partition))
+                .description("Kafka'dan alınan kur mesajı sayısı").register(meterRegistry));
+    }
+}
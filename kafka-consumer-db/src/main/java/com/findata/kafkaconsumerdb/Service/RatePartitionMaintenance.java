@@ -0,0 +1,237 @@
+package com.findata.kafkaconsumerdb.Service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * {@code tbl_rates} tablosunun günlük partition'larını yöneten servis.
+ * <p>
+ * Tablo {@code schema.sql} ile {@code rate_updatetime} sütununa göre range partition'lı olarak
+ * oluşturulur. Bu servis her gün için {@code tbl_rates_pYYYYMMDD} adlı bir partition'ı
+ * (UTC gün sınırlarıyla) {@code rates.partition.precreate-days} gün önceden oluşturur; insert'ler
+ * böylece her zaman küçük, güncel bir partition'a gider. Saklama süresini
+ * ({@code rates.partition.retention-days}) aşan partition'lar ise tek bir DDL komutuyla silinir
+ * veya ({@code retention-action=detach}) arşivlemek üzere tablodan ayrılır; eski veriyi silmek
+ * satır satır {@code DELETE} ve ardından vacuum gerektirmez. {@code retention-action=archive} ile
+ * süresi dolan günler eskiden yeniye {@link RateArchiveService} ile sıkıştırılmış dosyalara aktarılır
+ * ve partition ancak aktarım başarılı olursa silinir; bir gün aktarılamazsa sonraki günlere geçilmez.
+ * Eski tablodan eklenen {@value #LEGACY_PARTITION} partition'ının günleri de aynı sırayla arşivlenip
+ * satırları silinir; partition boşalınca kaldırılır.
+ * </p>
+ * <p>
+ * Partition'lar uygulama başlarken, Kafka dinleyicileri kayıt yazmaya başlamadan önce oluşturulur.
+ * Aksi halde ilk kayıtlar varsayılan partition'a düşer ve aynı günün partition'ı oluşturulamaz.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @see RateBatchWriter
+ * @see RateArchiveService
+ */
+@Service
+public class RatePartitionMaintenance {
+    private final Logger logger = LoggerFactory.getLogger(RatePartitionMaintenance.class);
+
+    /** Günlük partition adlarındaki tarih biçimi */
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd", Locale.ROOT);
+
+    /** Günlük partition adlarının öneki */
+    private static final String PARTITION_PREFIX = "tbl_rates_p";
+
+    /** {@code schema.sql}'in eski bölünmemiş tabloyu MINVALUE'dan itibaren eklediği partition */
+    static final String LEGACY_PARTITION = "tbl_rates_legacy";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RateArchiveService rateArchiveService;
+
+    /** Bugünden itibaren önceden oluşturulacak gün sayısı */
+    @Value("${rates.partition.precreate-days:7}")
+    private int precreateDays;
+
+    /** Verilerin saklanacağı gün sayısı; 0 veya negatifse eski partition'lara dokunulmaz */
+    @Value("${rates.partition.retention-days:30}")
+    private int retentionDays;
+
+    /** Süresi dolan partition'a uygulanacak işlem: "drop", "detach" veya "archive" */
+    @Value("${rates.partition.retention-action:drop}")
+    private String retentionAction;
+
+    /**
+     * Uygulama başlarken partition'ları hazırlar.
+     */
+    @PostConstruct
+    public void init() {
+        if (!"drop".equals(retentionAction) && !"detach".equals(retentionAction) && !"archive".equals(retentionAction)) {
+            throw new IllegalStateException("Geçersiz rates.partition.retention-action: " + retentionAction + " (drop, detach veya archive olmalı)");
+        }
+        maintain();
+    }
+
+    /**
+     * Gelecek günlerin partition'larını oluşturur ve saklama süresi dolanları siler/ayırır/arşivler.
+     */
+    @Scheduled(fixedDelayString = "${rates.partition.maintenance-interval-ms:3600000}",
+            initialDelayString = "${rates.partition.maintenance-interval-ms:3600000}")
+    public void maintain() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        int created = 0;
+        for (int day = 0; day <= precreateDays; day++) {
+            if (createPartition(today.plusDays(day))) {
+                created++;
+            }
+        }
+        int removed = 0;
+        if (retentionDays > 0) {
+            removed = "archive".equals(retentionAction) ? archiveExpiredDays(today.minusDays(retentionDays))
+                    : removeExpiredPartitions(today.minusDays(retentionDays));
+        }
+        if (created > 0 || removed > 0) {
+            logger.info("tbl_rates partition bakımı: {} partition oluşturuldu, {} {}", created, removed,
+                    "drop".equals(retentionAction) ? "partition silindi" : "detach".equals(retentionAction) ? "partition ayrıldı" : "gün arşivlendi");
+        }
+    }
+
+    /**
+     * Verilen UTC günü için partition'ı yoksa oluşturur.
+     *
+     * @param day Partition'ın günü
+     * @return Partition yeni oluşturulduysa true
+     */
+    private boolean createPartition(LocalDate day) {
+        String name = PARTITION_PREFIX + PARTITION_SUFFIX.format(day);
+        if (jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name)) {
+            return false;
+        }
+        String sql = String.format("CREATE TABLE %s PARTITION OF tbl_rates FOR VALUES FROM ('%s 00:00:00+00') TO ('%s 00:00:00+00')",
+                name, day, day.plusDays(1));
+        try {
+            jdbcTemplate.execute(sql);
+            return true;
+        } catch (DataAccessException dataAccessException) {
+            // Aralık eski tablodan eklenen partition ile çakışıyorsa veya varsayılan partition'da o güne ait kayıt varsa
+            logger.error("{} partition'ı oluşturulamadı: {}", name, dataAccessException.getMostSpecificCause().getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Günü verilen sınırdan önce biten günlük partition'ları siler veya ayırır. Varsayılan partition'daki
+     * eski kayıtlar da silinir.
+     *
+     * @param cutoff Saklanacak ilk gün (UTC)
+     * @return Silinen/ayrılan partition sayısı
+     */
+    private int removeExpiredPartitions(LocalDate cutoff) {
+        List<String> partitions = listPartitions();
+        String cutoffName = PARTITION_PREFIX + PARTITION_SUFFIX.format(cutoff);
+        int removed = 0;
+        for (String partition : partitions) {
+            if (partition.compareTo(cutoffName) >= 0) {
+                break;
+            }
+            try {
+                if ("drop".equals(retentionAction)) {
+                    jdbcTemplate.execute("DROP TABLE " + partition);
+                } else {
+                    jdbcTemplate.execute("ALTER TABLE tbl_rates DETACH PARTITION " + partition);
+                }
+                removed++;
+            } catch (DataAccessException dataAccessException) {
+                logger.error("{} partition'ı kaldırılamadı: {}", partition, dataAccessException.getMostSpecificCause().getMessage());
+            }
+        }
+        int deleted = jdbcTemplate.update("DELETE FROM tbl_rates_default WHERE rate_updatetime < ?::timestamptz",
+                cutoff + " 00:00:00+00");
+        if (deleted > 0) {
+            logger.info("Varsayılan partition'dan saklama süresi dolmuş {} kayıt silindi", deleted);
+        }
+        return removed;
+    }
+
+    /**
+     * Günü verilen sınırdan önce olan günlük partition'ları, eski tablodan eklenen partition'ın ve
+     * varsayılan partition'ın eski günlerini eskiden yeniye arşivler. Bir gün arşivlenemezse arşivin
+     * kesintisiz kalması için sonraki günler bir sonraki bakıma bırakılır.
+     *
+     * @param cutoff Saklanacak ilk gün (UTC)
+     * @return Arşivlenen gün sayısı
+     */
+    private int archiveExpiredDays(LocalDate cutoff) {
+        TreeMap<LocalDate, String> days = new TreeMap<>();
+        for (String partition : listPartitions()) {
+            LocalDate day = LocalDate.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+            if (day.isBefore(cutoff)) {
+                days.put(day, partition);
+            }
+        }
+        boolean legacy = isLegacyAttached();
+        if (legacy) {
+            // Günlük partition'larla çakışamaz; ATTACH aralıkların ayrık olmasını zorunlu kılar
+            for (LocalDate day : expiredDays(LEGACY_PARTITION, cutoff)) {
+                days.put(day, LEGACY_PARTITION);
+            }
+        }
+        for (LocalDate day : expiredDays("tbl_rates_default", cutoff)) {
+            days.putIfAbsent(day, null);
+        }
+        int archived = 0;
+        for (Map.Entry<LocalDate, String> entry : days.entrySet()) {
+            try {
+                rateArchiveService.archiveDay(entry.getKey(), entry.getValue());
+                archived++;
+            } catch (DataAccessException | UncheckedIOException e) {
+                logger.error("{} günü arşivlenemedi, sonraki günler bir sonraki bakımda denenecek", entry.getKey(), e);
+                break;
+            }
+        }
+        if (legacy && archived == days.size()
+                && !jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM " + LEGACY_PARTITION + ")", Boolean.class)) {
+            jdbcTemplate.execute("DROP TABLE " + LEGACY_PARTITION);
+            logger.info("Tüm günleri arşivlenen {} partition'ı kaldırıldı", LEGACY_PARTITION);
+        }
+        return archived;
+    }
+
+    /**
+     * Bir partition'da günü verilen sınırdan önce olan kayıtların günlerini döndürür.
+     *
+     * @param partition Partition adı
+     * @param cutoff Saklanacak ilk gün (UTC)
+     * @return Günler (UTC)
+     */
+    private List<LocalDate> expiredDays(String partition, LocalDate cutoff) {
+        return jdbcTemplate.queryForList("SELECT DISTINCT (rate_updatetime AT TIME ZONE 'UTC')::date FROM " + partition
+                + " WHERE rate_updatetime < ?::timestamptz", LocalDate.class, cutoff + " 00:00:00+00");
+    }
+
+    private boolean isLegacyAttached() {
+        return jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM pg_inherits WHERE inhrelid = to_regclass(?) "
+                + "AND inhparent = 'tbl_rates'::regclass)", Boolean.class, LEGACY_PARTITION);
+    }
+
+    private List<String> listPartitions() {
+        return jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                        + "WHERE i.inhparent = 'tbl_rates'::regclass AND c.relname ~ '^tbl_rates_p[0-9]{8}$' ORDER BY c.relname",
+                String.class);
+    }
+}
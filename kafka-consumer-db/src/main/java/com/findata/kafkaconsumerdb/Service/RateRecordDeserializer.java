@@ -0,0 +1,48 @@
+package com.findata.kafkaconsumerdb.Service;
+
+import com.findata.kafkaconsumerdb.Entity.RateRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Kafka mesaj değerlerini ham baytlardan doğrudan {@link RateRecord} nesnesine çeviren deserializer.
+ * <p>
+ * Kafka consumer tarafından oluşturulur ve {@link RateMessageParser} ile çalışır; değer önce
+ * String'e çevrilmez. Spring'in {@code ErrorHandlingDeserializer}'ı ile sarılarak kullanılır:
+ * ayrıştırılamayan bir mesaj poll'u bozmaz, dinleyiciye değeri {@code null} olan bir kayıt
+ * olarak ulaşır ve ham baytlarıyla dead letter topic'ine gönderilir ({@link RateFailureHandler}).
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @see RateMessageParser
+ * @see KafkaRateListener
+ */
+public class RateRecordDeserializer implements Deserializer<RateRecord> {
+    private final Logger logger = LoggerFactory.getLogger(RateRecordDeserializer.class);
+
+    private final RateMessageParser rateMessageParser = new RateMessageParser();
+
+    /**
+     * Mesaj değerini ayrıştırır.
+     *
+     * @param topic Mesajın geldiği topic
+     * @param data Mesaj değerinin baytları
+     * @return Oluşturulan RateRecord nesnesi veya değer yoksa null
+     * @throws SerializationException Mesaj geçersizse
+     */
+    @Override
+    public RateRecord deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return rateMessageParser.parse(data);
+        } catch (IllegalArgumentException illegalArgumentException) {
+            logger.warn("{} topic'inden gelen mesaj ayrıştırılamadı, dead letter topic'ine gönderilecek: {}", topic, illegalArgumentException.getMessage());
+            throw new SerializationException(illegalArgumentException.getMessage(), illegalArgumentException);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.findata.kafkaconsumerdb.Service;
+
+import com.findata.kafkaconsumerdb.Entity.RateRecord;
+
+import java.util.List;
+
+/**
+ * Bir Kafka poll'undan gelen kur kayıtlarını veritabanına yazan bileşenlerin ortak arayüzü.
+ * <p>
+ * Uygulamalar kayıtların tamamını tek bir transaction içinde yazmalı ve ancak transaction
+ * commit edildikten sonra dönmelidir; {@link KafkaRateListener} offset'leri bu metot başarıyla
+ * döndükten sonra onaylar. Doğal anahtarı {@code (rate_name, rate_updatetime)} zaten bulunan
+ * kayıtlar atlanır ve dönen listede yer almaz; mumlar ve bellek penceresi yalnızca bu listeyle
+ * beslenir, böylece yeniden okunan kayıtlar iki kez sayılmaz. Hangi uygulamanın hangi topic için kullanılacağı
+ * {@code rates.writer.*} ayarlarıyla seçilir.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @see RateBatchWriter
+ * @see RateCopyWriter
+ */
+public interface RateRecordWriter {
+
+    /**
+     * Yazıcının ayarlarda kullanılan adını döndürür (örneğin "jpa", "copy").
+     *
+     * @return Yazıcı adı
+     */
+    String getName();
+
+    /**
+     * Kayıtları tek transaction içinde veritabanına yazar.
+     *
+     * @param records Yazılacak kur kayıtları
+     * @return Gerçekten eklenen kayıtlar, batch sırasıyla
+     */
+    List<RateRecord> writeBatch(List<RateRecord> records);
+}
@@ -0,0 +1,195 @@
+package com.findata.kafkaconsumerdb.Service;
+
+import com.findata.kafkaconsumerdb.Config.RateRetryProperties;
+import com.findata.kafkaconsumerdb.Entity.RateRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.listener.BatchAcknowledgingMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Yeniden deneme topic'lerindeki kur kayıtlarını bekleme süreleri dolduktan sonra yazan servis.
+ * <p>
+ * Her yeniden deneme seviyesi için, iki asıl topic'in o seviyedeki topic'lerini
+ * ({@code raw-rates-retry-n}, {@code calculated-rates-retry-n}) dinleyen ayrı bir container
+ * oluşturulur; böylece kısa bekleyen seviyeler uzun bekleyenlerin arkasında kalmaz. Her container
+ * kendi consumer group'unu ({@code <group-id>-retry-n}) kullanır; seviyeler birbirinin veya asıl
+ * listener'ın rebalance'larını tetiklemez ve offset'leri ayrı izlenir. Bir kaydın
+ * işlenme zamanı ({@link RateFailureHandler#HEADER_DUE_AT}) henüz gelmediyse önceki kayıtlar yazılır
+ * ve kalan kayıtlar {@link Acknowledgment#nack(int, Duration)} ile bekleme süresi kadar sonra
+ * yeniden alınır; consumer bu sürede duraklatılır, thread bloklanmaz.
+ * </p>
+ * <p>
+ * Kayıtlar asıl topic'in yazıcısıyla ({@link KafkaRateListener#writerFor}) doğrudan yazılır.
+ * Yazma yine başarısız olursa kayıtlar bir sonraki seviyeye, seviyeler tükendiyse dead letter
+ * topic'ine aktarılır; bu gönderim de başarısız olursa batch onaylanmadan nack ile yeniden alınır.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @see RateFailureHandler
+ * @see RateRetryProperties
+ */
+@Service
+public class RateRetryConsumer implements SmartLifecycle {
+    private final Logger logger = LoggerFactory.getLogger(RateRetryConsumer.class);
+
+    /** Bir nack'te beklenecek en uzun süre; uzun seviyelerde kayıtlar bu aralıklarla yeniden kontrol edilir */
+    private static final long MAX_NACK_SLEEP_MS = 30_000L;
+
+    @Autowired
+    private ConcurrentKafkaListenerContainerFactory<String, RateRecord> kafkaListenerContainerFactory;
+
+    @Autowired
+    private RateRetryProperties rateRetryProperties;
+
+    @Autowired
+    private RateFailureHandler rateFailureHandler;
+
+    @Autowired
+    private KafkaRateListener kafkaRateListener;
+
+    @Autowired
+    private CandleAggregator candleAggregator;
+
+    @Autowired
+    private RateWindowStore rateWindowStore;
+
+    @Autowired
+    private RateMetrics rateMetrics;
+
+    @Value("${kafka.topic.raw-rates}")
+    private String rawRatesTopic;
+
+    @Value("${kafka.topic.calculated-rates}")
+    private String calculatedRatesTopic;
+
+    @Value("${spring.kafka.consumer.group-id}")
+    private String groupId;
+
+    /** Seviye başına bir container */
+    private final List<ConcurrentMessageListenerContainer<String, RateRecord>> containers = new ArrayList<>();
+
+    private volatile boolean running;
+
+    /**
+     * Her yeniden deneme seviyesi için bir container oluşturur ve başlatır.
+     */
+    @Override
+    public synchronized void start() {
+        for (int level = 0; level < rateRetryProperties.getDelays().size(); level++) {
+            int currentLevel = level;
+            ConcurrentMessageListenerContainer<String, RateRecord> container = kafkaListenerContainerFactory.createContainer(
+                    rateRetryProperties.retryTopic(rawRatesTopic, level), rateRetryProperties.retryTopic(calculatedRatesTopic, level));
+            container.setBeanName("rates-retry-" + level);
+            container.getContainerProperties().setGroupId(groupId.trim() + "-retry-" + level);
+            container.setupMessageListener((BatchAcknowledgingMessageListener<String, RateRecord>)
+                    (records, acknowledgment) -> onRecords(currentLevel, records, acknowledgment));
+            container.start();
+            containers.add(container);
+        }
+        running = true;
+        logger.info("Yeniden deneme consumer'ları başlatıldı: {} seviye, bekleme süreleri {}",
+                containers.size(), rateRetryProperties.getDelays());
+    }
+
+    /**
+     * Container'ları durdurur.
+     */
+    @Override
+    public synchronized void stop() {
+        containers.forEach(ConcurrentMessageListenerContainer::stop);
+        containers.clear();
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Bir yeniden deneme seviyesinden gelen batch'i işler.
+     *
+     * @param level Yeniden deneme seviyesi
+     * @param records Tek poll ile alınan kayıtlar
+     * @param acknowledgment Offset onayı için kullanılan nesne
+     */
+    private void onRecords(int level, List<ConsumerRecord<String, RateRecord>> records, Acknowledgment acknowledgment) {
+        long now = System.currentTimeMillis();
+        int due = 0;
+        long wait = 0;
+        for (; due < records.size(); due++) {
+            long dueAt = RateFailureHandler.dueAt(records.get(due).headers());
+            if (dueAt > now) {
+                wait = dueAt - now;
+                break;
+            }
+        }
+
+        Map<String, List<RateRecord>> byTopic = new LinkedHashMap<>();
+        for (ConsumerRecord<String, RateRecord> consumerRecord : records.subList(0, due)) {
+            String topic = RateFailureHandler.headerValue(consumerRecord.headers(), RateFailureHandler.HEADER_ORIGINAL_TOPIC);
+            if (consumerRecord.value() == null || topic == null) {
+                logger.error("{} topic'indeki {}. offset'teki kayıt okunamadı, atlanıyor", consumerRecord.topic(), consumerRecord.offset());
+                continue;
+            }
+            byTopic.computeIfAbsent(topic, key -> new ArrayList<>()).add(consumerRecord.value());
+        }
+        try {
+            for (Map.Entry<String, List<RateRecord>> entry : byTopic.entrySet()) {
+                if (!write(level, entry.getKey(), entry.getValue())) {
+                    // Yazılanlar yeniden okunduğunda doğal anahtarla atlanır
+                    acknowledgment.nack(0, Duration.ofMillis(MAX_NACK_SLEEP_MS));
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            // Kapanış sırasında: offset'ler onaylanmaz, kayıtlar yeniden başlatmada tekrar okunur
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        if (due < records.size()) {
+            acknowledgment.nack(due, Duration.ofMillis(Math.min(wait, MAX_NACK_SLEEP_MS)));
+        } else {
+            acknowledgment.acknowledge();
+        }
+    }
+
+    /**
+     * Kayıtları yazar; yazılamazsa hata işleyicisine devreder.
+     *
+     * @return Kayıtlar yazıldıysa veya yönlendirildiyse true; yönlendirilecek kayıtlar Kafka'ya gönderilemediyse false
+     */
+    private boolean write(int level, String topic, List<RateRecord> rateRecords) throws InterruptedException {
+        RateRecordWriter writer = kafkaRateListener.writerFor(topic);
+        try {
+            long start = System.nanoTime();
+            List<RateRecord> inserted = writer.writeBatch(rateRecords);
+            rateMetrics.recordWrite(topic, writer.getName(), rateRecords, System.nanoTime() - start);
+            candleAggregator.onRecords(inserted);
+            rateWindowStore.onRecords(inserted);
+            logger.info("{} topic'inin {}. seviye yeniden deneme topic'inden {} kayıt yazıldı", topic, level, rateRecords.size());
+            return true;
+        } catch (RuntimeException writeException) {
+            RateFailureHandler.HandOff handOff = rateFailureHandler.handleWriteFailure(topic, level + 1, writer, rateRecords, writeException);
+            candleAggregator.onRecords(handOff.inserted());
+            rateWindowStore.onHandedOff(handOff.inserted(), handOff.routed());
+            return handOff.sent();
+        }
+    }
+}
@@ -0,0 +1,416 @@
+package com.findata.kafkaconsumerdb.Service;
+
+import com.findata.kafkaconsumerdb.Entity.FixedPointPrice;
+import com.findata.kafkaconsumerdb.Entity.RateRecord;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Her kurun son {@code rates.window.minutes} dakikalık tick'lerini bellekte tutan ve yakın geçmiş
+ * sorgularını veritabanına gitmeden yanıtlayan pencere deposu.
+ * <p>
+ * Kur başına bir {@link TickRingBuffer} tutulur. Tick'ler, batch veritabanına commit edildikten sonra
+ * yazma yolundan ({@link RateWriteQueue}, {@link RateRetryConsumer}) eklenir; böylece pencere her zaman
+ * veritabanının bir alt kümesidir ve id'ler ile yazılma anları da doğrudur. Sorgu aralığı bir kurun
+ * kapsama başlangıcından sonra başlıyorsa geçmiş, seyreltilmiş geçmiş ve mum sorguları pencereden
+ * yanıtlanır; aksi halde metotlar {@code null} döndürür ve çağıran veritabanına düşer.
+ * </p>
+ * <p>
+ * Toplam bellek {@code rates.window.max-memory-mb} ile sınırlıdır: tamponlar bu bütçeden pay alarak
+ * büyür, bütçe tükenince en eski tick'lerini atarlar. Pencereden çıkan tick'ler atıldıkça ve kapsama
+ * yeniden başlatıldığında tamponlar küçülüp paylarını bütçeye geri verir; yeni tick gelmeyen kurlar
+ * için bu, {@code rates.window.sweep-interval-ms} aralıklarıyla çalışan {@link #evictExpired()} ile
+ * yapılır. Uygulama başladığında ve bu örneğe daha önce
+ * sahip olmadığı bir partition atandığında (başka bir örneğin yazdığı tick'ler pencerede olmayacağından)
+ * tüm kapsamalar o andan yeniden başlatılır; kaynak saatlerinin kaymasına karşı
+ * {@value #CLOCK_SKEW_MICROS} mikrosaniyelik pay bırakılır.
+ * </p>
+ * <p>
+ * Metrikler: {@code rates.window.ticks}, {@code rates.window.bytes} ve {@code rates.window.queries}
+ * ({@code result=hit|miss}).
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @see TickRingBuffer
+ */
+@Service
+public class RateWindowStore implements ConsumerAwareRebalanceListener {
+    private final Logger logger = LoggerFactory.getLogger(RateWindowStore.class);
+
+    /** Kaynak saatlerinin sunucu saatinden ileride olabileceği süre */
+    private static final long CLOCK_SKEW_MICROS = 5_000_000L;
+
+    /** Yeni bir kurun tamponunun ilk kapasitesi (tick) */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /** Pencere uzunluğu (dakika); 0 ise pencere kapalıdır */
+    @Value("${rates.window.minutes:15}")
+    private long windowMinutes;
+
+    /** Tüm tamponların toplam bellek bütçesi (MB) */
+    @Value("${rates.window.max-memory-mb:64}")
+    private long maxMemoryMb;
+
+    @Value("${rates.candles.close-grace-ms:2000}")
+    private long closeGraceMillis;
+
+    @Value("${kafka.topic.raw-rates}")
+    private String rawRatesTopic;
+
+    @Value("${kafka.topic.calculated-rates}")
+    private String calculatedRatesTopic;
+
+    /** Kur adı -> tampon */
+    private final ConcurrentMap<String, TickRingBuffer> buffers = new ConcurrentHashMap<>();
+
+    /** Tamponlara ayrılmış toplam kapasite (tick) */
+    private final AtomicLong reservedTicks = new AtomicLong();
+
+    /** Tamponların büyürken pay aldığı, küçülürken payı geri verdiği bütçe */
+    private final TickRingBuffer.Budget budget = new TickRingBuffer.Budget() {
+        @Override
+        public boolean reserve(int ticks) {
+            return RateWindowStore.this.reserve(ticks);
+        }
+
+        @Override
+        public void release(int ticks) {
+            reservedTicks.addAndGet(-ticks);
+        }
+    };
+
+    /** Bu örneğe atanmış asıl topic partition'ları */
+    private final Set<TopicPartition> ownedPartitions = ConcurrentHashMap.newKeySet();
+
+    /** Son rebalance'ta geri alınan partition'lar; aynı rebalance'ta geri atanırlarsa kesinti sayılmaz */
+    private final Set<TopicPartition> revokedPartitions = ConcurrentHashMap.newKeySet();
+
+    private long windowMicros;
+
+    private long maxTicks;
+
+    /** Yeni tamponların kapsama başlangıcı (epoch mikrosaniye) */
+    private volatile long coverageStart;
+
+    private Counter hitCounter;
+
+    private Counter missCounter;
+
+    /**
+     * Pencere ayarlarını doğrular ve metrikleri kaydeder.
+     */
+    @PostConstruct
+    public void init() {
+        windowMicros = TimeUnit.MINUTES.toMicros(windowMinutes);
+        maxTicks = maxMemoryMb * 1024 * 1024 / TickRingBuffer.BYTES_PER_TICK;
+        coverageStart = toMicros(Instant.now()) + CLOCK_SKEW_MICROS;
+        Gauge.builder("rates.window.ticks", buffers, map -> map.values().stream().mapToLong(TickRingBuffer::size).sum())
+                .description("Bellek penceresindeki tick sayısı").register(meterRegistry);
+        Gauge.builder("rates.window.bytes", reservedTicks, reserved -> reserved.get() * (double) TickRingBuffer.BYTES_PER_TICK)
+                .baseUnit("bytes").description("Bellek penceresi tamponlarının kapladığı bellek").register(meterRegistry);
+        hitCounter = Counter.builder("rates.window.queries").tag("result", "hit")
+                .description("Bellek penceresinden yanıtlanan geçmiş sorguları").register(meterRegistry);
+        missCounter = Counter.builder("rates.window.queries").tag("result", "miss")
+                .description("Veritabanına düşen geçmiş sorguları").register(meterRegistry);
+        logger.info("Bellek penceresi: {} dakika, en fazla {} MB ({} tick)", windowMinutes, maxMemoryMb, maxTicks);
+    }
+
+    /**
+     * Veritabanına commit edilmiş kayıtları pencereye ekler ve pencereden çıkan tick'leri atar.
+     *
+     * @param records Veritabanına yazılmış kur kayıtları
+     */
+    public void onRecords(List<RateRecord> records) {
+        if (windowMinutes <= 0) {
+            return;
+        }
+        for (RateRecord rateRecord : records) {
+            TickRingBuffer buffer = buffers.computeIfAbsent(rateRecord.getRateName(), name -> newBuffer());
+            if (buffer == null) {
+                continue;
+            }
+            long time = toMicros(rateRecord.getRateUpdatetime());
+            long dbTime = rateRecord.getDbUpdatetime() != null ? toMicros(rateRecord.getDbUpdatetime()) : time;
+            long id = rateRecord.getId() != null ? rateRecord.getId() : 0L;
+            if (buffer.add(time, id, rateRecord.getBidUnits(), rateRecord.getAskUnits(), dbTime)) {
+                buffer.evictBefore(time - windowMicros);
+            }
+        }
+    }
+
+    /**
+     * Yeni tick gelmeyen kurların tamponlarından pencereden çıkmış tick'leri atar; böylece boşalan
+     * tamponlar küçülür ve bütçe aktif kurlara kalır. Tamponlar silinmez, kapsama başlangıçları korunur.
+     */
+    @Scheduled(fixedDelayString = "${rates.window.sweep-interval-ms:60000}")
+    public void evictExpired() {
+        if (windowMinutes <= 0) {
+            return;
+        }
+        long minTime = toMicros(Instant.now()) - windowMicros;
+        buffers.values().forEach(buffer -> buffer.evictBefore(minTime));
+    }
+
+    /**
+     * Hata işleyicisine devredilen bir batch'in sonucunu pencereye yansıtır: tek tek yazılabilen kayıtlar
+     * eklenir, yeniden deneme veya dead letter topic'ine gönderilen kayıtların kurlarında kapsama bu
+     * kayıtların sonrasına taşınır. Yeniden deneme topic'leri başka bir örnek tarafından tüketilebildiğinden
+     * bu kayıtların ne zaman yazılacağı bilinmez; o ana kadarki sorgular veritabanından yanıtlanır.
+     *
+     * @param inserted Batch'ten veritabanına eklenen kayıtlar
+     * @param routed Yeniden deneme veya dead letter topic'ine gönderilen kayıtlar
+     */
+    public void onHandedOff(List<RateRecord> inserted, List<RateRecord> routed) {
+        onRecords(inserted);
+        for (RateRecord rateRecord : routed) {
+            TickRingBuffer buffer = buffers.get(rateRecord.getRateName());
+            if (buffer != null) {
+                buffer.evictBefore(toMicros(rateRecord.getRateUpdatetime()) + 1);
+            }
+        }
+    }
+
+    /**
+     * Bir kurun iki an arasındaki tick'lerini pencereden döndürür.
+     *
+     * @param rateName Kur adı
+     * @param from Başlangıç (dahil)
+     * @param to Bitiş (hariç)
+     * @param limit En fazla dönecek kayıt sayısı
+     * @return Zaman sırasına göre kayıtlar; aralık pencerenin kapsamında değilse null
+     */
+    public List<RateRecord> findHistory(String rateName, Instant from, Instant to, int limit) {
+        TickRingBuffer buffer = buffers.get(rateName);
+        List<RateRecord> result = new ArrayList<>();
+        int visited = buffer == null ? -1 : buffer.visit(toMicros(from), toMicros(to), limit,
+                (time, id, bid, ask, dbTime) -> result.add(toRecord(rateName, time, id, bid, ask, dbTime)));
+        return hitOrMiss(visited, result);
+    }
+
+    /**
+     * Bir kurun zaman aralığındaki tick'lerini pencereden okuyup LTTB ile en fazla {@code points}
+     * noktaya seyreltir; kovalar {@link RateHistoryService#downsample} ile aynı şekilde hesaplanır.
+     *
+     * @param rateName Kur adı
+     * @param from Başlangıç (dahil)
+     * @param to Bitiş (hariç); {@code from}'dan sonra olmalıdır
+     * @param points İstenen nokta sayısı (3 ile {@link RateHistoryService#MAX_CHART_POINTS} arasına sıkıştırılır)
+     * @return Zaman sırasıyla seçilen tick'ler; aralık pencerenin kapsamında değilse null
+     */
+    public List<RateRecord> downsample(String rateName, Instant from, Instant to, int points) {
+        int target = Math.max(3, Math.min(points, RateHistoryService.MAX_CHART_POINTS));
+        List<RateRecord> ticks = findHistory(rateName, from, to, Integer.MAX_VALUE);
+        if (ticks == null || ticks.size() <= target) {
+            return ticks;
+        }
+        int bucketCount = target - 2;
+        double low = epochSeconds(from);
+        double width = epochSeconds(to) - low;
+        long[] counts = new long[bucketCount + 1];
+        double[] averageX = new double[bucketCount + 1];
+        double[] averageY = new double[bucketCount + 1];
+        int[] buckets = new int[ticks.size()];
+        for (int i = 0; i < ticks.size(); i++) {
+            RateRecord tick = ticks.get(i);
+            double x = epochSeconds(tick.getRateUpdatetime());
+            int bucket = Math.max(1, Math.min((int) ((x - low) / width * bucketCount) + 1, bucketCount));
+            buckets[i] = bucket;
+            counts[bucket]++;
+            averageX[bucket] += (x - averageX[bucket]) / counts[bucket];
+            averageY[bucket] += (midValue(tick) - averageY[bucket]) / counts[bucket];
+        }
+        RateRecord last = ticks.get(ticks.size() - 1);
+        LttbDownsampler downsampler = new LttbDownsampler(counts, averageX, averageY,
+                epochSeconds(last.getRateUpdatetime()), midValue(last));
+        for (int i = 0; i < ticks.size() - 1; i++) {
+            RateRecord tick = ticks.get(i);
+            downsampler.add(buckets[i], epochSeconds(tick.getRateUpdatetime()), midValue(tick), tick);
+        }
+        return downsampler.finish(last);
+    }
+
+    /**
+     * Bir kurun verilen aralıktaki mumlarını pencerenin tick'lerinden hesaplar.
+     *
+     * @param rateName Kur adı
+     * @param intervalSeconds Mum aralığı (saniye)
+     * @param from Başlangıç; bu andan önce başlayan mumlar dönmez
+     * @param to Bitiş (hariç); bu andan sonra başlayan mumlar dönmez
+     * @return Aralık başlangıcına göre sıralı mumlar; aralık pencerenin kapsamında değilse null
+     */
+    public List<Candle> findCandles(String rateName, int intervalSeconds, Instant from, Instant to) {
+        long intervalMicros = TimeUnit.SECONDS.toMicros(intervalSeconds);
+        long firstBucket = Math.floorDiv(toMicros(from) + intervalMicros - 1, intervalMicros) * intervalMicros;
+        long lastBucketEnd = Math.floorDiv(toMicros(to) + intervalMicros - 1, intervalMicros) * intervalMicros;
+        long closedBefore = toMicros(Instant.now().minusMillis(closeGraceMillis));
+
+        TickRingBuffer buffer = buffers.get(rateName);
+        List<Candle> candles = new ArrayList<>();
+        long[] state = new long[11]; // bucket, tickCount, openTime, closeTime, openBid, highBid, lowBid, closeBid, openAsk, highAsk, lowAsk
+        long[] closeAsk = {0};
+        int visited = buffer == null ? -1 : buffer.visit(firstBucket, lastBucketEnd, Integer.MAX_VALUE, (time, id, bid, ask, dbTime) -> {
+            long bucket = Math.floorDiv(time, intervalMicros) * intervalMicros;
+            if (state[1] > 0 && bucket != state[0]) {
+                candles.add(buildCandle(rateName, intervalSeconds, state, closeAsk[0], true));
+                state[1] = 0;
+            }
+            if (state[1] == 0) {
+                state[0] = bucket;
+                state[2] = time;
+                state[4] = state[5] = state[6] = bid;
+                state[8] = state[9] = state[10] = ask;
+            }
+            state[1]++;
+            state[3] = time;
+            state[5] = Math.max(state[5], bid);
+            state[6] = Math.min(state[6], bid);
+            state[7] = bid;
+            state[9] = Math.max(state[9], ask);
+            state[10] = Math.min(state[10], ask);
+            closeAsk[0] = ask;
+        });
+        if (visited > 0) {
+            candles.add(buildCandle(rateName, intervalSeconds, state, closeAsk[0], state[0] + intervalMicros <= closedBefore));
+        }
+        return hitOrMiss(visited, candles);
+    }
+
+    /**
+     * Bu örneğe yeni atanan asıl topic partition'larını izler; daha önce sahip olunmayan bir partition
+     * atanırsa tüm kapsamaları yeniden başlatır.
+     */
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        boolean newPartition = false;
+        for (TopicPartition partition : partitions) {
+            if (!isMainTopic(partition)) {
+                continue;
+            }
+            if (!ownedPartitions.contains(partition) && !revokedPartitions.contains(partition)) {
+                newPartition = true;
+            }
+            ownedPartitions.add(partition);
+            revokedPartitions.remove(partition);
+        }
+        revokedPartitions.clear();
+        if (newPartition) {
+            resetCoverage();
+        }
+    }
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        for (TopicPartition partition : partitions) {
+            if (ownedPartitions.remove(partition)) {
+                revokedPartitions.add(partition);
+            }
+        }
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        ownedPartitions.removeAll(partitions);
+    }
+
+    private void resetCoverage() {
+        coverageStart = toMicros(Instant.now()) + CLOCK_SKEW_MICROS;
+        buffers.values().forEach(buffer -> buffer.reset(coverageStart));
+        logger.info("Yeni partition atandı, bellek penceresi {} itibarıyla yeniden dolduruluyor", toInstant(coverageStart));
+    }
+
+    private boolean isMainTopic(TopicPartition partition) {
+        return partition.topic().equals(rawRatesTopic) || partition.topic().equals(calculatedRatesTopic);
+    }
+
+    /**
+     * Bütçeden ilk kapasiteyi ayırarak yeni bir tampon oluşturur.
+     *
+     * @return Tampon; bütçe yetmiyorsa null (kur pencerede tutulmaz)
+     */
+    private TickRingBuffer newBuffer() {
+        if (!reserve(INITIAL_CAPACITY)) {
+            return null;
+        }
+        return new TickRingBuffer(INITIAL_CAPACITY, coverageStart, budget);
+    }
+
+    private boolean reserve(int ticks) {
+        while (true) {
+            long reserved = reservedTicks.get();
+            if (reserved + ticks > maxTicks) {
+                return false;
+            }
+            if (reservedTicks.compareAndSet(reserved, reserved + ticks)) {
+                return true;
+            }
+        }
+    }
+
+    private <T> List<T> hitOrMiss(int visited, List<T> result) {
+        if (visited < 0) {
+            missCounter.increment();
+            return null;
+        }
+        hitCounter.increment();
+        return result;
+    }
+
+    private static Candle buildCandle(String rateName, int intervalSeconds, long[] state, long closeAsk, boolean closed) {
+        return new Candle(rateName, intervalSeconds, toInstant(state[0]),
+                FixedPointPrice.toBigDecimal(state[4]), FixedPointPrice.toBigDecimal(state[5]),
+                FixedPointPrice.toBigDecimal(state[6]), FixedPointPrice.toBigDecimal(state[7]),
+                FixedPointPrice.toBigDecimal(state[8]), FixedPointPrice.toBigDecimal(state[9]),
+                FixedPointPrice.toBigDecimal(state[10]), FixedPointPrice.toBigDecimal(closeAsk),
+                state[1], toInstant(state[2]), toInstant(state[3]), closed);
+    }
+
+    private static RateRecord toRecord(String rateName, long time, long id, long bid, long ask, long dbTime) {
+        RateRecord rateRecord = new RateRecord(rateName, bid, ask, toInstant(time), toInstant(dbTime));
+        rateRecord.setId(id);
+        return rateRecord;
+    }
+
+    /**
+     * Zaman damgasını veritabanı gibi (timestamp(6)) en yakın mikrosaniyeye yuvarlar.
+     */
+    private static long toMicros(Instant instant) {
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L), (instant.getNano() + 500) / 1000);
+    }
+
+    private static Instant toInstant(long micros) {
+        return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1000L);
+    }
+
+    private static double epochSeconds(Instant instant) {
+        return instant.getEpochSecond() + instant.getNano() / 1_000_000_000.0;
+    }
+
+    private static double midValue(RateRecord rateRecord) {
+        return (rateRecord.getBidUnits() + (double) rateRecord.getAskUnits()) / 2;
+    }
+}
@@ -0,0 +1,403 @@
+package com.findata.kafkaconsumerdb.Service;
+
+import com.findata.kafkaconsumerdb.Config.RateRetryProperties;
+import com.findata.kafkaconsumerdb.Entity.RateRecord;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Kafka poll thread'lerini veritabanı gecikmesinden ayıran sınırlı yazma kuyruğu.
+ * <p>
+ * Dinleyici her poll'da gelen kayıtları {@link #submit} ile kuyruğa bırakır ve hemen sonraki poll'a
+ * döner; kayıtları {@code writer-threads} adet yazıcı thread'i veritabanına yazar. Her consumer
+ * thread'i sabit bir yazıcı şeridine (lane) atanır; bir şerit batch'leri geliş sırasıyla yazar, bu
+ * yüzden bir consumer'ın batch'leri ve offset onayları sırasını korur. Offset'ler yalnızca batch
+ * yazıldıktan sonra onaylanır; container bu onayları bir sonraki poll'da consumer thread'inde commit eder.
+ * </p>
+ * <p>
+ * Kuyrukta bekleyen kayıt sayısı {@code high-water-mark} değerini aştığında tüm dinleyici container'ları
+ * duraklatılır ({@link MessageListenerContainer#pause()}); duraklatılan consumer'lar poll etmeye ve
+ * heartbeat göndermeye devam eder ama kayıt almaz, böylece uzun veritabanı gecikmeleri rebalance'a
+ * yol açmaz. Kuyruk {@code low-water-mark} altına indiğinde container'lar devam ettirilir. Her şeridin
+ * ayrıca {@code lane-capacity} batch'lik kesin bir sınırı vardır; duraklatma gecikirse poll thread'i
+ * burada bekler.
+ * </p>
+ * <p>
+ * Geçici bir hatayla yazılamayan batch, artan bekleme süreleriyle {@code rates.retry.inline-attempts}
+ * kez yerinde yeniden denenir; bu sürede kuyruk dolarsa consumer'lar duraklatılır. Hata sürerse veya
+ * kalıcıysa batch {@link RateFailureHandler} ile yeniden deneme topic'ine ya da dead letter topic'ine
+ * aktarılır ve offset'ler onaylanır; şerit bir sonraki batch'e geçer. Kafka'ya da ulaşılamazsa batch
+ * onaylanmadan beklenir ve yeniden denenir. Uygulama kapanırken kuyruktaki batch'ler
+ * yazılır, ancak container'lar durmuş olacağından offset'leri commit edilmeyebilir; bu kayıtlar
+ * yeniden başlatmada tekrar okunur (en az bir kez teslim).
+ * </p>
+ * <p>
+ * Metrikler: {@code rates.write.queue.records}, {@code rates.write.queue.batches},
+ * {@code rates.consumer.paused} ve {@code rates.consumer.paused.time} (saniye); batch boyutu, yazma
+ * süresi ve tazelik metrikleri {@link RateMetrics} ile kaydedilir.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @see KafkaRateListener
+ * @see RateRecordWriter
+ * @see RateFailureHandler
+ */
+@Service
+public class RateWriteQueue {
+    private final Logger logger = LoggerFactory.getLogger(RateWriteQueue.class);
+
+    @Autowired
+    private KafkaListenerEndpointRegistry listenerEndpointRegistry;
+
+    @Autowired
+    private CandleAggregator candleAggregator;
+
+    @Autowired
+    private RateWindowStore rateWindowStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private RateFailureHandler rateFailureHandler;
+
+    @Autowired
+    private RateMetrics rateMetrics;
+
+    @Autowired
+    private RateRetryProperties rateRetryProperties;
+
+    /** Yazıcı thread'i (şerit) sayısı */
+    @Value("${rates.write-queue.writer-threads:4}")
+    private int writerThreads;
+
+    /** Bir şeritte bekleyebilecek en fazla batch */
+    @Value("${rates.write-queue.lane-capacity:32}")
+    private int laneCapacity;
+
+    /** Bu kadar kayıt beklerken container'lar duraklatılır */
+    @Value("${rates.write-queue.high-water-mark:20000}")
+    private long highWaterMark;
+
+    /** Duraklatılmış container'lar bekleyen kayıt sayısı bunun altına inince devam ettirilir */
+    @Value("${rates.write-queue.low-water-mark:5000}")
+    private long lowWaterMark;
+
+    /** Başarısız yazmadan sonraki ilk bekleme süresi (ms); her denemede ikiye katlanır */
+    @Value("${rates.write-queue.retry-backoff-ms:500}")
+    private long retryBackoffMs;
+
+    /** Yeniden denemeler arasındaki en uzun bekleme süresi (ms) */
+    @Value("${rates.write-queue.max-retry-backoff-ms:30000}")
+    private long maxRetryBackoffMs;
+
+    /** Kapanırken kuyruğun boşalması için beklenen en uzun süre (ms) */
+    @Value("${rates.write-queue.shutdown-timeout-ms:30000}")
+    private long shutdownTimeoutMs;
+
+    /** Yazıcı şeritleri */
+    private final List<BlockingQueue<WriteTask>> lanes = new ArrayList<>();
+
+    /** Consumer thread adı -> şerit */
+    private final ConcurrentMap<String, Integer> laneByThread = new ConcurrentHashMap<>();
+
+    private final AtomicInteger nextLane = new AtomicInteger();
+
+    /** Kuyrukta bekleyen ve yazılmakta olan kayıt sayısı */
+    private final AtomicLong pendingRecords = new AtomicLong();
+
+    /** Kuyrukta bekleyen ve yazılmakta olan batch sayısı */
+    private final AtomicLong pendingBatches = new AtomicLong();
+
+    /** Container'lar duraklatıldıysa duraklatma anı (nanoTime), aksi halde 0 */
+    private long pausedSince;
+
+    /** Tamamlanmış duraklatmaların toplam süresi (ns) */
+    private long pausedNanos;
+
+    private ExecutorService executor;
+
+    private volatile boolean running;
+
+    /**
+     * Şeritleri ve yazıcı thread'lerini oluşturur, metrikleri kaydeder.
+     */
+    @PostConstruct
+    public void start() {
+        if (lowWaterMark >= highWaterMark) {
+            throw new IllegalStateException("rates.write-queue.low-water-mark, high-water-mark'tan küçük olmalı");
+        }
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(writerThreads,
+                runnable -> new Thread(runnable, "rate-writer-" + threadIndex.getAndIncrement()));
+        running = true;
+        for (int i = 0; i < writerThreads; i++) {
+            BlockingQueue<WriteTask> lane = new LinkedBlockingQueue<>(laneCapacity);
+            lanes.add(lane);
+            executor.execute(() -> drain(lane));
+        }
+
+        Gauge.builder("rates.write.queue.records", pendingRecords, AtomicLong::get)
+                .description("Veritabanına yazılmayı bekleyen kayıt sayısı").register(meterRegistry);
+        Gauge.builder("rates.write.queue.batches", pendingBatches, AtomicLong::get)
+                .description("Veritabanına yazılmayı bekleyen batch sayısı").register(meterRegistry);
+        Gauge.builder("rates.consumer.paused", this, queue -> queue.isPaused() ? 1 : 0)
+                .description("Kafka consumer'ları geri basınç nedeniyle duraklatıldıysa 1").register(meterRegistry);
+        FunctionCounter.builder("rates.consumer.paused.time", this, queue -> queue.getPausedNanos() / 1e9)
+                .baseUnit("seconds").description("Consumer'ların geri basınç nedeniyle duraklatıldığı toplam süre")
+                .register(meterRegistry);
+        logger.info("Yazma kuyruğu başlatıldı: {} yazıcı thread'i, yüksek/düşük su seviyesi {}/{} kayıt",
+                writerThreads, highWaterMark, lowWaterMark);
+    }
+
+    /**
+     * Bir poll'luk kaydı yazılmak üzere kuyruğa bırakır. Çağıran consumer thread'inin şeridi doluysa bekler.
+     *
+     * @param topic Kayıtların geldiği topic
+     * @param writer Topic için seçilen yazıcı
+     * @param records Yazılacak kayıtlar
+     * @param acknowledgment Kayıtlar yazıldıktan sonra onaylanacak offset'ler
+     * @throws InterruptedException Şeritte yer beklenirken kesilirse
+     */
+    public void submit(String topic, RateRecordWriter writer, List<RateRecord> records, Acknowledgment acknowledgment)
+            throws InterruptedException {
+        int lane = laneByThread.computeIfAbsent(Thread.currentThread().getName(),
+                threadName -> Math.floorMod(nextLane.getAndIncrement(), lanes.size()));
+        pendingBatches.incrementAndGet();
+        if (pendingRecords.addAndGet(records.size()) >= highWaterMark) {
+            pauseContainers();
+        }
+        lanes.get(lane).put(new WriteTask(topic, writer, records, acknowledgment));
+    }
+
+    /**
+     * Bir şeridi sırayla boşaltan yazıcı döngüsü.
+     */
+    private void drain(BlockingQueue<WriteTask> lane) {
+        while (running || !lane.isEmpty()) {
+            WriteTask task;
+            try {
+                task = lane.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (task == null) {
+                continue;
+            }
+            if (!process(task)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Batch'i yazar, offset'lerini onaylar ve kuyruk sayaçlarını düşürür.
+     * <p>
+     * {@link #write} yalnızca {@link RuntimeException}'ları ele alır; diğer hatalar ({@link Error}'lar)
+     * şerit thread'ini sonlandırıp bu şeride bağlı consumer'ın {@link #submit} çağrısını sonsuza kadar
+     * bekletmesin diye burada yakalanır. Batch onaylanmadan, artan bekleme süreleriyle yeniden yazılır;
+     * önceki denemede eklenmiş kayıtlar doğal anahtar sayesinde atlanır.
+     * </p>
+     *
+     * @return Batch işlendiyse true; bekleme sırasında thread kesildiyse false
+     */
+    private boolean process(WriteTask task) {
+        long backoff = retryBackoffMs;
+        while (true) {
+            try {
+                if (!write(task)) {
+                    return false;
+                }
+                break;
+            } catch (Throwable t) {
+                logger.error("Batch yazılırken beklenmeyen hata oluştu (topic={}, {} kayıt), {} ms sonra yeniden denenecek",
+                        task.topic(), task.records().size(), backoff, t);
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("{} topic'inden {} kayıt yazılamadan yazıcı durduruldu; offset'ler onaylanmadı",
+                        task.topic(), task.records().size());
+                return false;
+            }
+            backoff = Math.min(backoff * 2, maxRetryBackoffMs);
+        }
+        try {
+            task.acknowledgment().acknowledge();
+        } catch (Throwable t) {
+            // Kayıtlar yazıldı; onaylanamayan offset'ler yeniden okunursa tekrarlar atlanır
+            logger.error("{} topic'inden yazılan {} kaydın offset'leri onaylanamadı", task.topic(), task.records().size(), t);
+        }
+        pendingBatches.decrementAndGet();
+        if (pendingRecords.addAndGet(-task.records().size()) <= lowWaterMark) {
+            resumeContainers();
+        }
+        return true;
+    }
+
+    /**
+     * Batch'i yazar; geçici hatalarda artan bekleme süreleriyle yerinde yeniden dener, deneme hakkı
+     * biterse veya hata kalıcıysa batch'i {@link RateFailureHandler}'a devreder. İşleyici kayıtları
+     * Kafka'ya gönderemezse batch bekleme sonrası yeniden yazılır ve yine başarısız olursa yeniden devredilir.
+     *
+     * @return Batch yazıldıysa veya yeniden deneme/dead letter topic'ine aktarıldıysa true;
+     *         bekleme sırasında thread kesildiyse false
+     */
+    private boolean write(WriteTask task) {
+        if (task.records().isEmpty()) {
+            return true;
+        }
+        long backoff = retryBackoffMs;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                long start = System.nanoTime();
+                List<RateRecord> inserted = task.writer().writeBatch(task.records());
+                rateMetrics.recordWrite(task.topic(), task.writer().getName(), task.records(), System.nanoTime() - start);
+                candleAggregator.onRecords(inserted);
+                rateWindowStore.onRecords(inserted);
+                logger.debug("{} topic'inden {} kur kaydı yazıldı", task.topic(), task.records().size());
+                return true;
+            } catch (RuntimeException writeException) {
+                if (!rateFailureHandler.isTransient(writeException) || attempt >= rateRetryProperties.getInlineAttempts()) {
+                    logger.error("Veritabanına batch kayıt sırasında hata oluştu (topic={}, yazıcı={}, {} kayıt, deneme {}), batch yeniden deneme/dead letter topic'ine aktarılıyor",
+                            task.topic(), task.writer().getName(), task.records().size(), attempt, writeException);
+                    RateFailureHandler.HandOff handOff = handOff(task, writeException);
+                    if (handOff == null) {
+                        return false;
+                    }
+                    if (handOff.sent()) {
+                        return true;
+                    }
+                    // Kafka'ya da ulaşılamadı: offset onaylanmaz, batch bekleme sonrası yeniden yazılır (tekrarlar atlanır)
+                } else {
+                    logger.error("Veritabanına batch kayıt sırasında hata oluştu (topic={}, yazıcı={}, {} kayıt, deneme {}), {} ms sonra yeniden denenecek",
+                            task.topic(), task.writer().getName(), task.records().size(), attempt, backoff, writeException);
+                }
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("{} topic'inden {} kayıt yazılamadan yazıcı durduruldu; offset'ler onaylanmadı",
+                        task.topic(), task.records().size());
+                return false;
+            }
+            backoff = Math.min(backoff * 2, maxRetryBackoffMs);
+        }
+    }
+
+    /**
+     * Yazılamayan batch'i hata işleyicisine devreder; işleyicinin tek tek ekleyebildiği kayıtlar mumlara ve bellek penceresine eklenir.
+     *
+     * @return İşleyicinin sonucu; gönderim beklenirken thread kesildiyse null
+     */
+    private RateFailureHandler.HandOff handOff(WriteTask task, RuntimeException writeException) {
+        try {
+            RateFailureHandler.HandOff handOff = rateFailureHandler.handleWriteFailure(task.topic(), 0, task.writer(), task.records(), writeException);
+            candleAggregator.onRecords(handOff.inserted());
+            rateWindowStore.onHandedOff(handOff.inserted(), handOff.routed());
+            return handOff;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("{} topic'inden {} kayıt aktarılamadan yazıcı durduruldu; offset'ler onaylanmadı",
+                    task.topic(), task.records().size());
+            return null;
+        }
+    }
+
+    private synchronized void pauseContainers() {
+        if (pausedSince != 0 || pendingRecords.get() < highWaterMark) {
+            return;
+        }
+        pausedSince = System.nanoTime();
+        listenerEndpointRegistry.getListenerContainers().forEach(MessageListenerContainer::pause);
+        logger.warn("Yazma kuyruğunda {} kayıt bekliyor, Kafka consumer'ları duraklatıldı", pendingRecords.get());
+    }
+
+    private synchronized void resumeContainers() {
+        if (pausedSince == 0 || pendingRecords.get() > lowWaterMark) {
+            return;
+        }
+        long paused = System.nanoTime() - pausedSince;
+        pausedNanos += paused;
+        pausedSince = 0;
+        listenerEndpointRegistry.getListenerContainers().forEach(MessageListenerContainer::resume);
+        logger.info("Yazma kuyruğu {} kayda indi, Kafka consumer'ları {} ms sonra devam ettirildi",
+                pendingRecords.get(), TimeUnit.NANOSECONDS.toMillis(paused));
+    }
+
+    /**
+     * Container'ların geri basınç nedeniyle duraklatılıp duraklatılmadığını döndürür.
+     *
+     * @return Duraklatıldıysa true
+     */
+    public synchronized boolean isPaused() {
+        return pausedSince != 0;
+    }
+
+    /**
+     * Container'ların duraklatıldığı toplam süreyi, süren duraklatma dahil döndürür.
+     *
+     * @return Toplam duraklatma süresi (ns)
+     */
+    public synchronized long getPausedNanos() {
+        return pausedSince == 0 ? pausedNanos : pausedNanos + System.nanoTime() - pausedSince;
+    }
+
+    /**
+     * Kuyrukta bekleyen kayıt sayısını döndürür.
+     *
+     * @return Bekleyen kayıt sayısı
+     */
+    public long getPendingRecords() {
+        return pendingRecords.get();
+    }
+
+    /**
+     * Yeni batch kabul etmeyi bırakır ve kuyruktaki batch'lerin yazılmasını en fazla
+     * {@code shutdown-timeout-ms} kadar bekler.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        executor.shutdown();
+        if (!executor.awaitTermination(shutdownTimeoutMs, TimeUnit.MILLISECONDS)) {
+            logger.warn("Yazma kuyruğu {} ms içinde boşalmadı, {} kayıt yazılmadan kapatılıyor",
+                    shutdownTimeoutMs, pendingRecords.get());
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Yazılmayı bekleyen bir poll'luk kayıt.
+     */
+    private record WriteTask(String topic, RateRecordWriter writer, List<RateRecord> records,
+                             Acknowledgment acknowledgment) {
+    }
+}
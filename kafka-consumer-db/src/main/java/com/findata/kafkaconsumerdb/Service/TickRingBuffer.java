@@ -0,0 +1,315 @@
+package com.findata.kafkaconsumerdb.Service;
+
+/**
+ * Tek bir kurun son tick'lerini zaman sırasıyla ilkel dizilerde tutan halka tampon.
+ * <p>
+ * Her tick için zaman damgası (epoch mikrosaniye), alış/satış (1e-8 birim), veritabanı id'si ve
+ * yazılma anı paralel {@code long} dizilerinde saklanır; tick başına {@value #BYTES_PER_TICK} bayt
+ * yer kaplar ve nesne oluşturulmaz. Tampon dolunca, bütçe izin veriyorsa iki katına büyütülür;
+ * izin vermiyorsa en eski tick'in üzerine yazılır. Tick'ler atıldıktan sonra doluluk dörtte bire
+ * inerse veya tampon sıfırlanırsa kapasite (ilk kapasitenin altına inmeden) küçültülür ve fazlası
+ * bütçeye geri verilir.
+ * </p>
+ * <p>
+ * Tampon, {@link #getCoverageStart()} anından itibaren veritabanına yazılmış tüm tick'leri içerir;
+ * bu andan önce başlayan sorgular veritabanından yanıtlanmalıdır. Bir tick tampondan atıldığında
+ * (pencereden çıktığında veya bütçe yetmediğinde) kapsama başlangıcı atılan tick'in hemen sonrasına
+ * taşınır. Sıra dışı gelen tick'ler (örn. yeniden deneme topic'inden) doğru yere eklenir; aynı zaman
+ * damgalı ikinci tick, veritabanındaki doğal anahtarla uyumlu olarak atlanır.
+ * </p>
+ * <p>
+ * Tüm metotlar nesne üzerinde senkronizedir.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @see RateWindowStore
+ */
+public class TickRingBuffer {
+
+    /** Tick başına kullanılan bellek (5 adet long) */
+    public static final int BYTES_PER_TICK = 5 * Long.BYTES;
+
+    /**
+     * Tampondaki tick'leri okuyan geri çağrı.
+     */
+    @FunctionalInterface
+    public interface TickVisitor {
+        /**
+         * Bir tick'i işler.
+         *
+         * @param timeMicros Kaynak zaman damgası (epoch mikrosaniye)
+         * @param id Veritabanı id'si
+         * @param bid Alış (1e-8 birim)
+         * @param ask Satış (1e-8 birim)
+         * @param dbTimeMicros Veritabanına yazılma anı (epoch mikrosaniye)
+         */
+        void visit(long timeMicros, long id, long bid, long ask, long dbTimeMicros);
+    }
+
+    /**
+     * Tamponların büyürken pay aldığı ve küçülürken payı geri verdiği bellek bütçesi.
+     * Metotlar tamponun kilidi tutulurken çağrılır.
+     */
+    public interface Budget {
+        /**
+         * Ek kapasite ayırmaya çalışır.
+         *
+         * @param ticks İstenen kapasite (tick)
+         * @return Ayrıldıysa true; false dönerse tampon büyümez
+         */
+        boolean reserve(int ticks);
+
+        /**
+         * Daha önce ayrılmış kapasiteyi geri verir.
+         *
+         * @param ticks Geri verilen kapasite (tick)
+         */
+        void release(int ticks);
+    }
+
+    /** Büyüme ve küçülmede kullanılan bütçe */
+    private final Budget budget;
+
+    /** İlk kapasite; tampon bunun altına küçülmez */
+    private final int minCapacity;
+
+    private long[] times;
+    private long[] ids;
+    private long[] bids;
+    private long[] asks;
+    private long[] dbTimes;
+
+    /** En eski tick'in fiziksel indeksi */
+    private int head;
+
+    /** Tampondaki tick sayısı */
+    private int size;
+
+    /** Bu andan (dahil) sonraki tüm tick'ler tampondadır */
+    private long coverageStart;
+
+    /**
+     * Boş bir tampon oluşturur.
+     *
+     * @param initialCapacity İlk kapasite (tick); çağıran tarafından bütçeden ayrılmış olmalıdır
+     * @param coverageStart Kapsama başlangıcı (epoch mikrosaniye)
+     * @param budget Ek kapasite ayıran ve küçülmede geri alan bütçe
+     */
+    public TickRingBuffer(int initialCapacity, long coverageStart, Budget budget) {
+        this.budget = budget;
+        this.minCapacity = Math.max(1, initialCapacity);
+        this.coverageStart = coverageStart;
+        allocate(minCapacity);
+    }
+
+    /**
+     * Bir tick ekler. Kapsama başlangıcından eski veya zaten bulunan tick'ler atlanır.
+     *
+     * @param timeMicros Kaynak zaman damgası (epoch mikrosaniye)
+     * @param id Veritabanı id'si
+     * @param bid Alış (1e-8 birim)
+     * @param ask Satış (1e-8 birim)
+     * @param dbTimeMicros Veritabanına yazılma anı (epoch mikrosaniye)
+     * @return Tick eklendiyse true
+     */
+    public synchronized boolean add(long timeMicros, long id, long bid, long ask, long dbTimeMicros) {
+        if (timeMicros < coverageStart) {
+            return false;
+        }
+        int position = size == 0 || timeMicros > times[physical(size - 1)] ? size : lowerBound(timeMicros);
+        if (position < size && times[physical(position)] == timeMicros) {
+            return false; // aynı zaman damgalı tick zaten var
+        }
+        if (size == times.length && !grow()) {
+            // Bütçe yok: en eski tick atılır; yeni tick en eskisiyse kendisi atılmış sayılır
+            if (position == 0) {
+                coverageStart = timeMicros + 1;
+                return false;
+            }
+            removeHead();
+            position--;
+        }
+        for (int i = size; i > position; i--) {
+            copy(physical(i - 1), physical(i));
+        }
+        int index = physical(position);
+        times[index] = timeMicros;
+        ids[index] = id;
+        bids[index] = bid;
+        asks[index] = ask;
+        dbTimes[index] = dbTimeMicros;
+        size++;
+        return true;
+    }
+
+    /**
+     * Verilen andan eski tick'leri atar ve kapsama başlangıcını bu ana taşır. Doluluk dörtte bire
+     * inerse kapasite küçültülür.
+     *
+     * @param minTimeMicros Tutulacak en eski zaman damgası (epoch mikrosaniye)
+     */
+    public synchronized void evictBefore(long minTimeMicros) {
+        boolean removed = false;
+        while (size > 0 && times[head] < minTimeMicros) {
+            removeHead();
+            removed = true;
+        }
+        coverageStart = Math.max(coverageStart, minTimeMicros);
+        if (removed) {
+            shrink();
+        }
+    }
+
+    /**
+     * Tüm tick'leri atar, kapasiteyi ilk kapasiteye indirir ve kapsamayı verilen andan yeniden başlatır.
+     *
+     * @param coverageStartMicros Yeni kapsama başlangıcı (epoch mikrosaniye)
+     */
+    public synchronized void reset(long coverageStartMicros) {
+        head = 0;
+        size = 0;
+        coverageStart = coverageStartMicros;
+        shrink();
+    }
+
+    /**
+     * {@code [fromMicros, toMicros)} aralığındaki tick'leri zaman sırasıyla ziyaret eder.
+     *
+     * @param fromMicros Başlangıç (dahil)
+     * @param toMicros Bitiş (hariç)
+     * @param limit En fazla ziyaret edilecek tick sayısı
+     * @param visitor Tick'leri işleyen geri çağrı; kilit tutulurken çağrılır
+     * @return Ziyaret edilen tick sayısı; aralık kapsama başlangıcından önce başlıyorsa -1
+     */
+    public synchronized int visit(long fromMicros, long toMicros, int limit, TickVisitor visitor) {
+        if (fromMicros < coverageStart) {
+            return -1;
+        }
+        int visited = 0;
+        for (int i = lowerBound(fromMicros); i < size && visited < limit; i++) {
+            int index = physical(i);
+            if (times[index] >= toMicros) {
+                break;
+            }
+            visitor.visit(times[index], ids[index], bids[index], asks[index], dbTimes[index]);
+            visited++;
+        }
+        return visited;
+    }
+
+    /**
+     * Kapsama başlangıcını döndürür.
+     *
+     * @return Epoch mikrosaniye
+     */
+    public synchronized long getCoverageStart() {
+        return coverageStart;
+    }
+
+    /**
+     * Tampondaki tick sayısını döndürür.
+     *
+     * @return Tick sayısı
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Tamponun kapasitesini döndürür.
+     *
+     * @return Kapasite (tick)
+     */
+    public synchronized int capacity() {
+        return times.length;
+    }
+
+    /**
+     * Zaman damgası verilen andan küçük olmayan ilk tick'in mantıksal indeksini ikili aramayla bulur.
+     *
+     * @return Mantıksal indeks; tüm tick'ler daha eskiyse {@code size}
+     */
+    private int lowerBound(long timeMicros) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (times[physical(middle)] < timeMicros) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void removeHead() {
+        coverageStart = Math.max(coverageStart, times[head] + 1);
+        head = (head + 1) % times.length;
+        size--;
+    }
+
+    private boolean grow() {
+        int capacity = times.length;
+        if (capacity > Integer.MAX_VALUE / 2 || !budget.reserve(capacity)) {
+            return false;
+        }
+        resize(capacity * 2);
+        return true;
+    }
+
+    /**
+     * Doluluk dörtte birin altındayken kapasiteyi yarıya indirir; küçülmeden sonra tampon en fazla
+     * yarı dolu kalır, böylece büyüme ile küçülme arasında gidip gelinmez.
+     */
+    private void shrink() {
+        int capacity = times.length;
+        int target = capacity;
+        while (target / 2 >= minCapacity && size <= target / 4) {
+            target /= 2;
+        }
+        if (target < capacity) {
+            resize(target);
+            budget.release(capacity - target);
+        }
+    }
+
+    /**
+     * Tick'leri yeni dizilere sırayla kopyalar; en eski tick 0. indekse gelir.
+     */
+    private void resize(int newCapacity) {
+        int capacity = times.length;
+        long[][] old = {times, ids, bids, asks, dbTimes};
+        int oldHead = head;
+        allocate(newCapacity);
+        long[][] current = {times, ids, bids, asks, dbTimes};
+        for (int column = 0; column < old.length; column++) {
+            int firstPart = Math.min(size, capacity - oldHead);
+            System.arraycopy(old[column], oldHead, current[column], 0, firstPart);
+            System.arraycopy(old[column], 0, current[column], firstPart, size - firstPart);
+        }
+        head = 0;
+    }
+
+    private void allocate(int capacity) {
+        times = new long[capacity];
+        ids = new long[capacity];
+        bids = new long[capacity];
+        asks = new long[capacity];
+        dbTimes = new long[capacity];
+    }
+
+    private void copy(int from, int to) {
+        times[to] = times[from];
+        ids[to] = ids[from];
+        bids[to] = bids[from];
+        asks[to] = asks[from];
+        dbTimes[to] = dbTimes[from];
+    }
+
+    private int physical(int logical) {
+        int index = head + logical;
+        return index >= times.length ? index - times.length : index;
+    }
+}
@@ -0,0 +1,19 @@
+-- rates.storage.price-format=fixed: tbl_rates ve tbl_latest_rates fiyatları 1e-8 birim cinsinden bigint
+-- olarak saklanır. schema.sql'den sonra çalışır (spring.sql.init.schema-locations). Sütunlar hâlâ numeric
+-- ise bir kez dönüştürülür; dönüşüm tabloyu (tüm partition'larıyla) yeniden yazar ve süresince kilitler.
+
+DO $$
+DECLARE
+    target text;
+BEGIN
+    FOREACH target IN ARRAY ARRAY['tbl_rates', 'tbl_latest_rates'] LOOP
+        IF EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = current_schema() AND table_name = target
+                     AND column_name = 'bid' AND data_type = 'numeric') THEN
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN bid TYPE bigint USING round(bid * 100000000)::bigint, '
+                           || 'ALTER COLUMN ask TYPE bigint USING round(ask * 100000000)::bigint', target);
+        END IF;
+    END LOOP;
+END
+$$
+^;
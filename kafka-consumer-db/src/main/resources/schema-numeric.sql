@@ -0,0 +1,18 @@
+-- rates.storage.price-format=numeric (varsayılan): fiyatlar numeric(19, 8) olarak saklanır.
+-- Daha önce fixed biçimine dönüştürülmüş tablolar geri çevrilir; sütunlar zaten numeric ise bir şey yapılmaz.
+
+DO $$
+DECLARE
+    target text;
+BEGIN
+    FOREACH target IN ARRAY ARRAY['tbl_rates', 'tbl_latest_rates'] LOOP
+        IF EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = current_schema() AND table_name = target
+                     AND column_name = 'bid' AND data_type = 'bigint') THEN
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN bid TYPE numeric(19, 8) USING bid / 100000000.0, '
+                           || 'ALTER COLUMN ask TYPE numeric(19, 8) USING ask / 100000000.0', target);
+        END IF;
+    END LOOP;
+END
+$$
+^;
@@ -0,0 +1,122 @@
+-- tbl_rates şeması: rate_updatetime'a göre günlük range partition'lara bölünmüş tablo.
+-- Günlük partition'lar RatePartitionMaintenance tarafından önceden oluşturulur ve saklama süresi
+-- dolunca silinir/ayrılır. İfadeler "^;" ile ayrılır (spring.sql.init.separator), böylece DO
+-- blokları içindeki ';' karakterleri bölünmez.
+
+-- Eski sürümlerin ddl-auto ile oluşturduğu bölünmemiş tablo, yeni tabloya partition olarak eklenmek üzere yeniden adlandırılır
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace
+               WHERE c.relname = 'tbl_rates' AND n.nspname = current_schema() AND c.relkind = 'r') THEN
+        ALTER TABLE tbl_rates RENAME TO tbl_rates_legacy;
+        ALTER TABLE tbl_rates_legacy ALTER COLUMN id DROP IDENTITY IF EXISTS;
+    END IF;
+END
+$$
+^;
+
+CREATE SEQUENCE IF NOT EXISTS tbl_rates_seq START WITH 1 INCREMENT BY 50
+^;
+
+CREATE TABLE IF NOT EXISTS tbl_rates (
+    id              bigint                      NOT NULL,
+    rate_name       varchar(20)                 NOT NULL,
+    bid             numeric(19, 8)              NOT NULL,
+    ask             numeric(19, 8)              NOT NULL,
+    rate_updatetime timestamp(6) with time zone NOT NULL,
+    db_updatetime   timestamp(6) with time zone NOT NULL,
+    PRIMARY KEY (id, rate_updatetime)
+) PARTITION BY RANGE (rate_updatetime)
+^;
+
+-- Önceden oluşturulmuş partition'ların dışına düşen kayıtlar için (örn. çok eski geri doldurma verisi)
+CREATE TABLE IF NOT EXISTS tbl_rates_default PARTITION OF tbl_rates DEFAULT
+^;
+
+-- Eski tablodaki veriler, son kaydın gününün sonuna kadar uzanan tek bir partition olarak eklenir.
+-- Bu partition saklama süresi işinin isim kalıbına uymaz; drop/detach ile gerektiğinde elle silinmelidir,
+-- archive ile günleri arşivlenip satırları silinir ve boşalınca kaldırılır.
+-- Eski tablonun (id) birincil anahtarı, eklenmeden önce ana tablonunkiyle aynı (id, rate_updatetime) anahtarla değiştirilir.
+-- to_regclass kullanılır; 'tbl_rates_legacy'::regclass sabiti tablo yokken IF koşulundan önce çözümlenip hata verir.
+DO $$
+DECLARE
+    upper_bound timestamptz;
+    legacy_pkey name;
+BEGIN
+    IF to_regclass('tbl_rates_legacy') IS NOT NULL
+       AND NOT EXISTS (SELECT 1 FROM pg_inherits WHERE inhrelid = to_regclass('tbl_rates_legacy')) THEN
+        SELECT date_trunc('day', max(rate_updatetime) AT TIME ZONE 'UTC') AT TIME ZONE 'UTC' + interval '1 day'
+          INTO upper_bound FROM tbl_rates_legacy;
+        IF upper_bound IS NULL THEN
+            DROP TABLE tbl_rates_legacy;
+        ELSE
+            SELECT conname INTO legacy_pkey FROM pg_constraint
+             WHERE conrelid = to_regclass('tbl_rates_legacy') AND contype = 'p';
+            IF legacy_pkey IS NOT NULL THEN
+                EXECUTE format('ALTER TABLE tbl_rates_legacy DROP CONSTRAINT %I', legacy_pkey);
+            END IF;
+            ALTER TABLE tbl_rates_legacy ADD PRIMARY KEY (id, rate_updatetime);
+            EXECUTE format('ALTER TABLE tbl_rates ATTACH PARTITION tbl_rates_legacy FOR VALUES FROM (MINVALUE) TO (%L)', upper_bound);
+        END IF;
+    END IF;
+END
+$$
+^;
+
+-- Doğal anahtar: aynı kurun aynı zaman damgalı ikinci kaydı (yeniden okunan mesaj) ON CONFLICT DO NOTHING ile atlanır.
+-- Kur adı + zaman aralığı sorgularına da hizmet eder; partition'lı tabloda her partition'a ayrı index oluşturulur.
+-- İlk oluşturulmada mevcut tekrarlar (en küçük id'li satır kalacak şekilde) silinir ve eski benzersiz olmayan index kaldırılır.
+DO $$
+BEGIN
+    IF to_regclass('uq_tbl_rates_name_updatetime') IS NULL THEN
+        DELETE FROM tbl_rates a USING tbl_rates b
+         WHERE a.rate_name = b.rate_name AND a.rate_updatetime = b.rate_updatetime AND a.id > b.id;
+        CREATE UNIQUE INDEX uq_tbl_rates_name_updatetime ON tbl_rates (rate_name, rate_updatetime DESC);
+        DROP INDEX IF EXISTS idx_tbl_rates_name_updatetime;
+    END IF;
+END
+$$
+^;
+
+-- Kur adı başına en son değer; geçmiş kayıtlarla aynı transaction'da upsert edilir
+CREATE TABLE IF NOT EXISTS tbl_latest_rates (
+    rate_name       varchar(20)                 PRIMARY KEY,
+    bid             numeric(19, 8)              NOT NULL,
+    ask             numeric(19, 8)              NOT NULL,
+    rate_updatetime timestamp(6) with time zone NOT NULL,
+    db_updatetime   timestamp(6) with time zone NOT NULL
+)
+^;
+
+-- Tablo ilk kez oluşturulduğunda mevcut geçmişten doldurulur
+INSERT INTO tbl_latest_rates (rate_name, bid, ask, rate_updatetime, db_updatetime)
+SELECT DISTINCT ON (rate_name) rate_name, bid, ask, rate_updatetime, db_updatetime
+FROM tbl_rates
+WHERE NOT EXISTS (SELECT 1 FROM tbl_latest_rates)
+ORDER BY rate_name, rate_updatetime DESC
+^;
+
+-- Consumer'ın bellekte artımlı oluşturduğu OHLC mumları (kur, aralık ve aralık başlangıcı başına bir satır)
+CREATE TABLE IF NOT EXISTS tbl_candles (
+    rate_name        varchar(20)                 NOT NULL,
+    interval_seconds integer                     NOT NULL,
+    bucket_start     timestamp(6) with time zone NOT NULL,
+    open_bid         numeric(19, 8)              NOT NULL,
+    high_bid         numeric(19, 8)              NOT NULL,
+    low_bid          numeric(19, 8)              NOT NULL,
+    close_bid        numeric(19, 8)              NOT NULL,
+    open_ask         numeric(19, 8)              NOT NULL,
+    high_ask         numeric(19, 8)              NOT NULL,
+    low_ask          numeric(19, 8)              NOT NULL,
+    close_ask        numeric(19, 8)              NOT NULL,
+    tick_count       bigint                      NOT NULL,
+    open_time        timestamp(6) with time zone NOT NULL,
+    close_time       timestamp(6) with time zone NOT NULL,
+    PRIMARY KEY (rate_name, interval_seconds, bucket_start)
+)
+^;
+
+-- Zaman aralığı sorguları için; yalnızca eklenen (append-only) zaman serisinde BRIN, btree'nin küçük bir
+-- kesri kadar yer kaplar ve insert maliyeti neredeyse yoktur
+CREATE INDEX IF NOT EXISTS idx_tbl_rates_updatetime_brin ON tbl_rates USING brin (rate_updatetime)
+^;
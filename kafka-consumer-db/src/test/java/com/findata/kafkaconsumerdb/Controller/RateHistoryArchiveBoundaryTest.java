@@ -0,0 +1,218 @@
+package com.findata.kafkaconsumerdb.Controller;
+
+import com.findata.kafkaconsumerdb.Config.PriceStorageProperties;
+import com.findata.kafkaconsumerdb.Entity.RateRecord;
+import com.findata.kafkaconsumerdb.Repository.RateRepository;
+import com.findata.kafkaconsumerdb.Service.RateArchiveService;
+import com.findata.kafkaconsumerdb.Service.RatePartitionMaintenance;
+import com.findata.kafkaconsumerdb.Service.RateWindowStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Eski bölünmemiş tablodan gelen ({@code tbl_rates_legacy}) kayıtların arşivlenmesini ve geçmiş
+ * endpoint'inin arşiv sınırının iki yanındaki kayıtları eksiksiz döndürdüğünü gömülü bir PostgreSQL
+ * üzerinde doğrular.
+ * <p>
+ * Şema kurulmadan önce eski sürümlerdeki gibi bölünmemiş bir {@code tbl_rates} oluşturulur ve
+ * {@link #FIRST_DAY_OFFSET} gün öncesinden başlayan {@link #DAYS} günlük tick yüklenir; {@code schema.sql}
+ * bu tabloyu MINVALUE'dan itibaren partition olarak ekler. Saklama süresi günlerin bir kısmını kapsar.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class RateHistoryArchiveBoundaryTest {
+
+    private static final String RATE_NAME = "EURUSD";
+
+    /** İlk eski kaydın bugünden kaç gün önce olduğu */
+    private static final int FIRST_DAY_OFFSET = 33;
+
+    /** Eski tablodaki gün sayısı */
+    private static final int DAYS = 6;
+
+    /** Günlük tick sayısı (10 dakikada bir) */
+    private static final int TICKS_PER_DAY = 144;
+
+    private static EmbeddedPostgres postgres;
+    private static JdbcTemplate jdbcTemplate;
+    private static Path archiveDirectory;
+    private static PriceStorageProperties priceStorageProperties;
+    private static RateArchiveService archiveService;
+    private static RatePartitionMaintenance maintenance;
+    private static RateController controller;
+    private static LocalDate firstDay;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        postgres = EmbeddedPostgres.start();
+        DataSource dataSource = postgres.getPostgresDatabase();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        // Eski sürümlerin ddl-auto ile oluşturduğu bölünmemiş tablo
+        jdbcTemplate.execute("CREATE TABLE tbl_rates (id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "rate_name varchar(20) NOT NULL, bid numeric(19, 8) NOT NULL, ask numeric(19, 8) NOT NULL, "
+                + "rate_updatetime timestamp(6) with time zone NOT NULL, db_updatetime timestamp(6) with time zone NOT NULL)");
+        firstDay = LocalDate.now(ZoneOffset.UTC).minusDays(FIRST_DAY_OFFSET);
+        jdbcTemplate.update("INSERT INTO tbl_rates (rate_name, bid, ask, rate_updatetime, db_updatetime) "
+                + "SELECT ?, 1.08 + (g % 50) / 10000.0, 1.09 + (g % 50) / 10000.0, "
+                + "?::date::timestamptz + g * interval '10 minutes', now() "
+                + "FROM generate_series(0, ?) g", RATE_NAME, firstDay.toString(), DAYS * TICKS_PER_DAY - 1);
+
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource("schema.sql"));
+        populator.setSeparator("^;");
+        populator.execute(dataSource);
+
+        archiveDirectory = Files.createTempDirectory("rates-archive");
+        priceStorageProperties = new PriceStorageProperties();
+        archiveService = new RateArchiveService();
+        ReflectionTestUtils.setField(archiveService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(archiveService, "dataSource", dataSource);
+        ReflectionTestUtils.setField(archiveService, "transactionManager", new DataSourceTransactionManager(dataSource));
+        ReflectionTestUtils.setField(archiveService, "priceStorageProperties", priceStorageProperties);
+        ReflectionTestUtils.setField(archiveService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(archiveService, "directoryName", archiveDirectory.toString());
+        ReflectionTestUtils.setField(archiveService, "streamFetchSize", 100);
+        archiveService.init();
+
+        maintenance = new RatePartitionMaintenance();
+        ReflectionTestUtils.setField(maintenance, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(maintenance, "rateArchiveService", archiveService);
+        ReflectionTestUtils.setField(maintenance, "precreateDays", 1);
+        ReflectionTestUtils.setField(maintenance, "retentionDays", 30);
+        ReflectionTestUtils.setField(maintenance, "retentionAction", "archive");
+
+        // Veritabanı kısmı findHistory'nin SQL'i ile okunur
+        RateRepository repository = mock(RateRepository.class);
+        when(repository.findHistory(anyString(), any(), any(), any())).thenAnswer(invocation -> jdbcTemplate.query(
+                "SELECT id, rate_name, bid, ask, rate_updatetime, db_updatetime FROM tbl_rates "
+                        + "WHERE rate_name = ? AND rate_updatetime >= ? AND rate_updatetime < ? ORDER BY rate_updatetime LIMIT ?",
+                (resultSet, rowNum) -> {
+                    RateRecord rateRecord = new RateRecord(resultSet.getString("rate_name"),
+                            priceStorageProperties.readUnits(resultSet, "bid"), priceStorageProperties.readUnits(resultSet, "ask"),
+                            resultSet.getObject("rate_updatetime", OffsetDateTime.class).toInstant(),
+                            resultSet.getObject("db_updatetime", OffsetDateTime.class).toInstant());
+                    rateRecord.setId(resultSet.getLong("id"));
+                    return rateRecord;
+                },
+                invocation.getArgument(0), Timestamp.from(invocation.getArgument(1)), Timestamp.from(invocation.getArgument(2)),
+                invocation.getArgument(3, Limit.class).max()));
+        // Pencere aralığı kapsamadığında null döner; Mockito'nun varsayılan boş listesi "kapsıyor" anlamına gelir
+        RateWindowStore rateWindowStore = mock(RateWindowStore.class);
+        when(rateWindowStore.findHistory(anyString(), any(), any(), anyInt())).thenReturn(null);
+        controller = new RateController();
+        ReflectionTestUtils.setField(controller, "repository", repository);
+        ReflectionTestUtils.setField(controller, "rateWindowStore", rateWindowStore);
+        ReflectionTestUtils.setField(controller, "rateArchiveService", archiveService);
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Test
+    @Order(1)
+    void expiredLegacyDaysAreArchivedAndDeleted() {
+        maintenance.init();
+
+        LocalDate cutoff = LocalDate.now(ZoneOffset.UTC).minusDays(30);
+        assertThat(archiveService.getArchivedUntil()).isEqualTo(cutoff.atStartOfDay(ZoneOffset.UTC).toInstant());
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM tbl_rates_legacy WHERE rate_updatetime < ?",
+                Long.class, Timestamp.from(archiveService.getArchivedUntil()))).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM tbl_rates_legacy", Long.class))
+                .isEqualTo((long) (DAYS - (FIRST_DAY_OFFSET - 30)) * TICKS_PER_DAY);
+        assertCompleteHistory();
+    }
+
+    @Test
+    @Order(2)
+    void historyLimitIsAppliedAcrossTheArchiveBoundary() {
+        int limit = (FIRST_DAY_OFFSET - 30) * TICKS_PER_DAY + 10;
+        List<RateRecord> history = history(limit);
+
+        assertThat(history).hasSize(limit);
+        assertThat(history.get(limit - 11).getRateUpdatetime()).isBefore(archiveService.getArchivedUntil());
+        assertThat(history.get(limit - 10).getRateUpdatetime()).isEqualTo(archiveService.getArchivedUntil());
+        assertThat(times(history)).isEqualTo(expectedTimes().subList(0, limit));
+    }
+
+    @Test
+    @Order(3)
+    void emptiedLegacyPartitionIsDropped() {
+        ReflectionTestUtils.setField(maintenance, "retentionDays", FIRST_DAY_OFFSET - DAYS);
+        maintenance.maintain();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT to_regclass('tbl_rates_legacy') IS NULL", Boolean.class)).isTrue();
+        assertThat(archiveService.getArchivedUntil())
+                .isEqualTo(firstDay.plusDays(DAYS).atStartOfDay(ZoneOffset.UTC).toInstant());
+        assertCompleteHistory();
+    }
+
+    private static void assertCompleteHistory() {
+        List<RateRecord> history = history(10_000);
+        assertThat(times(history)).isEqualTo(expectedTimes());
+        assertThat(history).extracting(RateRecord::getRateName).containsOnly(RATE_NAME);
+        assertThat(history.get(0).getBid()).isEqualByComparingTo("1.08");
+        assertThat(history.get(1).getAsk()).isEqualByComparingTo("1.0901");
+    }
+
+    private static List<RateRecord> history(int limit) {
+        Instant from = firstDay.atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant to = firstDay.plusDays(DAYS).atStartOfDay(ZoneOffset.UTC).toInstant();
+        List<RateRecord> body = controller.getHistory(RATE_NAME, from, to, limit, null).getBody();
+        assertThat(body).isNotNull();
+        return body;
+    }
+
+    private static List<Instant> expectedTimes() {
+        Instant from = firstDay.atStartOfDay(ZoneOffset.UTC).toInstant();
+        List<Instant> times = new ArrayList<>();
+        for (int i = 0; i < DAYS * TICKS_PER_DAY; i++) {
+            times.add(from.plusSeconds(600L * i));
+        }
+        return times;
+    }
+
+    private static List<Instant> times(List<RateRecord> history) {
+        List<Instant> times = new ArrayList<>();
+        for (RateRecord rateRecord : history) {
+            times.add(rateRecord.getRateUpdatetime());
+        }
+        return times;
+    }
+}
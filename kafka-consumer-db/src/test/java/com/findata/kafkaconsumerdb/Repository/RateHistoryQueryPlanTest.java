@@ -0,0 +1,114 @@
+package com.findata.kafkaconsumerdb.Repository;
+
+import com.findata.kafkaconsumerdb.Service.RatePartitionMaintenance;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link RateRepository#findHistory} sorgusunun planını gömülü bir PostgreSQL üzerinde doğrular.
+ * <p>
+ * Şema uygulamadaki {@code schema.sql} ile kurulur, günlük partition'lar
+ * {@link RatePartitionMaintenance} ile oluşturulur ve iki günlük sentetik tick yüklenir.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ */
+class RateHistoryQueryPlanTest {
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    /** findHistory'nin ürettiği SQL'in eşdeğeri */
+    private static final String HISTORY_SQL = "SELECT id, rate_name, bid, ask, rate_updatetime, db_updatetime FROM tbl_rates "
+            + "WHERE rate_name = 'SYM3' AND rate_updatetime >= '%s 06:00:00+00' AND rate_updatetime < '%s 06:10:00+00' "
+            + "ORDER BY rate_updatetime";
+
+    private static EmbeddedPostgres postgres;
+    private static JdbcTemplate jdbcTemplate;
+    private static TransactionTemplate transactionTemplate;
+    private static LocalDate today;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        postgres = EmbeddedPostgres.start();
+        DataSource dataSource = postgres.getPostgresDatabase();
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource("schema.sql"));
+        populator.setSeparator("^;");
+        populator.execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        RatePartitionMaintenance maintenance = new RatePartitionMaintenance();
+        ReflectionTestUtils.setField(maintenance, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(maintenance, "precreateDays", 3);
+        ReflectionTestUtils.setField(maintenance, "retentionDays", 0);
+        ReflectionTestUtils.setField(maintenance, "retentionAction", "drop");
+        maintenance.init();
+
+        // Bugün ve yarın için 0.5 saniyede bir tick, 6 kur arasında dönüşümlü
+        today = LocalDate.now(ZoneOffset.UTC);
+        jdbcTemplate.update("INSERT INTO tbl_rates (id, rate_name, bid, ask, rate_updatetime, db_updatetime) "
+                + "SELECT g, 'SYM' || (g % 6), 34.1 + (g % 100) / 10000.0, 34.2 + (g % 100) / 10000.0, "
+                + "?::date::timestamptz + g * interval '500 milliseconds', now() "
+                + "FROM generate_series(0, 345599) g", today.toString());
+        jdbcTemplate.execute("ANALYZE tbl_rates");
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Test
+    void historyQueryPrunesPartitionsAndUsesAnIndex() {
+        LocalDate day = today.plusDays(1);
+        String plan = explain(String.format(HISTORY_SQL, day, day));
+
+        assertThat(plan).contains(partitionName(day));
+        assertThat(plan).doesNotContain(partitionName(today), "tbl_rates_default");
+        assertThat(plan).doesNotContain("Seq Scan");
+        assertThat(plan).contains("rate_name");
+    }
+
+    @Test
+    void brinIndexServesTimeRangeWithNamePredicate() {
+        LocalDate day = today.plusDays(1);
+        // Bileşik btree index'i olmadan (transaction geri alınır) zaman aralığını BRIN index'i karşılamalı
+        String plan = transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("DROP INDEX uq_tbl_rates_name_updatetime");
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            String result = explain(String.format(HISTORY_SQL, day, day));
+            status.setRollbackOnly();
+            return result;
+        });
+
+        assertThat(plan).contains("Bitmap Index Scan on " + partitionName(day) + "_rate_updatetime_idx");
+        assertThat(plan).containsPattern("Filter: .*rate_name");
+        assertThat(plan).doesNotContain(partitionName(today));
+    }
+
+    private static String explain(String sql) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+    }
+
+    private static String partitionName(LocalDate day) {
+        return "tbl_rates_p" + PARTITION_SUFFIX.format(day);
+    }
+}
@@ -0,0 +1,196 @@
+package com.findata.kafkaconsumerdb.Service;
+
+import com.findata.kafkaconsumerdb.Entity.RateRecord;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * {@link CandleAggregator}'ın tick'lerden OHLC mumlarını doğru oluşturduğunu, {@code tbl_candles} upsert'ünün
+ * aynı aralığın mumlarını birleştirdiğini ve geç gelen bir tick'in sonucunun, aralığın mumunun o sırada
+ * bellekte olup olmamasından bağımsız olduğunu gömülü bir PostgreSQL üzerinde doğrular.
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ */
+class CandleAggregatorTest {
+
+    private static final int MINUTE = 60;
+
+    /** Zamanlayıcının açık mumları hemen kapatabilmesi için geçmişte, dakika başında bir an */
+    private static final Instant BASE_TIME = Instant.now().truncatedTo(ChronoUnit.HOURS).minus(Duration.ofHours(2));
+
+    private static EmbeddedPostgres postgres;
+    private static JdbcTemplate jdbcTemplate;
+    private static DataSourceTransactionManager transactionManager;
+
+    private CandleAggregator aggregator;
+
+    @BeforeAll
+    static void setUpDatabase() throws Exception {
+        postgres = EmbeddedPostgres.start();
+        DataSource dataSource = postgres.getPostgresDatabase();
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource("schema.sql"));
+        populator.setSeparator("^;");
+        populator.execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+    }
+
+    @AfterAll
+    static void tearDownDatabase() throws Exception {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        aggregator = newAggregator();
+    }
+
+    @Test
+    void aggregatesTicksAndClosesTheCandleWhenTheNextBucketStarts() {
+        aggregator.onRecords(List.of(
+                tick("AGG", 10, 105, 106),
+                tick("AGG", 20, 110, 111),
+                tick("AGG", 30, 101, 102),
+                tick("AGG", 50, 103, 104)));
+        aggregator.onRecords(List.of(tick("AGG", MINUTE + 5, 120, 121)));
+
+        // İlk mum kapandı ama henüz yazılmadı; ikinci mum açık
+        List<Candle> candles = aggregator.findCandles("AGG", MINUTE, BASE_TIME, BASE_TIME.plusSeconds(2 * MINUTE));
+        assertThat(candles).hasSize(2);
+        assertCandle(candles.get(0), 4, 105, 110, 101, 103, 10, 50);
+        assertThat(candles.get(0).openAsk()).isEqualByComparingTo("1.06");
+        assertThat(candles.get(0).highAsk()).isEqualByComparingTo("1.11");
+        assertThat(candles.get(0).closed()).isTrue();
+        assertCandle(candles.get(1), 1, 120, 120, 120, 120, MINUTE + 5, MINUTE + 5);
+        assertThat(candles.get(1).closed()).isFalse();
+
+        aggregator.flush();
+
+        assertThat(storedCandles("AGG")).hasSize(2);
+        assertCandle(storedCandles("AGG").get(0), 4, 105, 110, 101, 103, 10, 50);
+        assertCandle(storedCandles("AGG").get(1), 1, 120, 120, 120, 120, MINUTE + 5, MINUTE + 5);
+    }
+
+    @Test
+    void lateTickIsMergedWhetherOrNotTheCandleWasAlreadyWritten() {
+        // Geç tick geldiğinde aralığın mumu henüz yazılmamış
+        aggregator.onRecords(List.of(tick("LATEA", 10, 100, 101), tick("LATEA", 20, 104, 105)));
+        aggregator.onRecords(List.of(tick("LATEA", MINUTE + 1, 102, 103)));
+        aggregator.onRecords(List.of(tick("LATEA", 30, 99, 100), tick("LATEA", 5, 107, 108)));
+        aggregator.flush();
+
+        // Geç tick geldiğinde aralığın mumu yazılmış ve bellekten çıkarılmış
+        aggregator.onRecords(List.of(tick("LATEB", 10, 100, 101), tick("LATEB", 20, 104, 105)));
+        aggregator.onRecords(List.of(tick("LATEB", MINUTE + 1, 102, 103)));
+        aggregator.flush();
+        aggregator.onRecords(List.of(tick("LATEB", 30, 99, 100)));
+        aggregator.flush();
+        aggregator.onRecords(List.of(tick("LATEB", 5, 107, 108)));
+        aggregator.flush();
+
+        for (String rateName : List.of("LATEA", "LATEB")) {
+            List<Candle> candles = storedCandles(rateName);
+            assertThat(candles).as(rateName).hasSize(2);
+            // Açılış en erken (5 sn), kapanış en geç (30 sn) tick'tir
+            assertCandle(candles.get(0), 4, 107, 107, 99, 99, 5, 30);
+            assertCandle(candles.get(1), 1, 102, 102, 102, 102, MINUTE + 1, MINUTE + 1);
+        }
+    }
+
+    @Test
+    void upsertMergesCandlesWrittenBeforeAndAfterARestart() {
+        aggregator.onRecords(List.of(tick("RESTART", 15, 100, 101), tick("RESTART", 25, 110, 111)));
+        aggregator.shutdown();
+
+        CandleAggregator restarted = newAggregator();
+        restarted.onRecords(List.of(tick("RESTART", 5, 105, 106), tick("RESTART", 40, 95, 96)));
+        restarted.shutdown();
+
+        List<Candle> candles = storedCandles("RESTART");
+        assertThat(candles).hasSize(1);
+        assertCandle(candles.get(0), 4, 105, 110, 95, 95, 5, 40);
+        assertThat(candles.get(0).lowAsk()).isEqualByComparingTo("0.96");
+    }
+
+    @Test
+    void flushKeepsCandlesOpenUntilTheirIntervalHasEnded() {
+        // Dakika sınırına denk gelen bir çalıştırmada da mum açık kalsın
+        ReflectionTestUtils.setField(aggregator, "closeGraceMillis", 60_000L);
+        Instant now = Instant.now();
+        aggregator.onRecords(List.of(new RateRecord("CURRENT", 100_000_000L, 100_010_000L, now, null)));
+
+        aggregator.flush();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM tbl_candles WHERE rate_name = 'CURRENT'", Long.class)).isZero();
+        assertThat(aggregator.findCandles("CURRENT", MINUTE, now.minusSeconds(MINUTE), now.plusSeconds(MINUTE)))
+                .singleElement().extracting(Candle::closed).isEqualTo(false);
+    }
+
+    @Test
+    void parsesIntervals() {
+        assertThat(CandleAggregator.parseInterval("1s")).isEqualTo(1);
+        assertThat(CandleAggregator.parseInterval(" 5m ")).isEqualTo(300);
+        assertThat(CandleAggregator.parseInterval("1h")).isEqualTo(3600);
+        assertThat(aggregator.isIntervalSupported(MINUTE)).isTrue();
+        assertThat(aggregator.isIntervalSupported(1)).isFalse();
+        assertThatThrownBy(() -> CandleAggregator.parseInterval("500ms")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CandleAggregator.parseInterval("2d")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static CandleAggregator newAggregator() {
+        CandleAggregator candleAggregator = new CandleAggregator();
+        ReflectionTestUtils.setField(candleAggregator, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(candleAggregator, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(candleAggregator, "intervalNames", List.of("1m"));
+        ReflectionTestUtils.setField(candleAggregator, "closeGraceMillis", 0L);
+        candleAggregator.init();
+        return candleAggregator;
+    }
+
+    /**
+     * {@link #BASE_TIME}'dan verilen saniye sonra gelen bir tick; fiyatlar yüzde birlik birimlerle verilir.
+     */
+    private static RateRecord tick(String rateName, int second, long bidCents, long askCents) {
+        return new RateRecord(rateName, bidCents * 1_000_000L, askCents * 1_000_000L, BASE_TIME.plusSeconds(second), null);
+    }
+
+    private static List<Candle> storedCandles(String rateName) {
+        return newAggregator().findCandles(rateName, MINUTE, BASE_TIME.minusSeconds(MINUTE), BASE_TIME.plusSeconds(10 * MINUTE));
+    }
+
+    private static void assertCandle(Candle candle, long tickCount, long openCents, long highCents, long lowCents,
+                                     long closeCents, int openSecond, int closeSecond) {
+        assertThat(candle.tickCount()).isEqualTo(tickCount);
+        assertThat(candle.openBid()).isEqualByComparingTo(cents(openCents));
+        assertThat(candle.highBid()).isEqualByComparingTo(cents(highCents));
+        assertThat(candle.lowBid()).isEqualByComparingTo(cents(lowCents));
+        assertThat(candle.closeBid()).isEqualByComparingTo(cents(closeCents));
+        assertThat(candle.openTime()).isEqualTo(BASE_TIME.plusSeconds(openSecond));
+        assertThat(candle.closeTime()).isEqualTo(BASE_TIME.plusSeconds(closeSecond));
+    }
+
+    private static String cents(long cents) {
+        return BigDecimal.valueOf(cents, 2).toPlainString();
+    }
+}
@@ -0,0 +1,160 @@
+package com.findata.kafkaconsumerdb.Service;
+
+import com.findata.kafkaconsumerdb.Entity.RateRecord;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link LttbDownsampler}'ın ilk ve son tick'i her zaman seçtiğini, her dolu kovadan tek tick
+ * seçtiğini, boş kovaları atladığını ve seçimlerin LTTB tanımıyla birebir aynı olduğunu doğrular.
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ */
+class LttbDownsamplerTest {
+
+    @Test
+    void keepsFirstAndLastAndPicksThePeakOfEachBucket() {
+        double[] values = {0, 1, 0, 50, 0, 0, -40, 0, 1, 0, 0, 0};
+        List<RateRecord> selected = downsample(values, 3);
+
+        assertThat(indexes(selected)).containsExactly(0, 3, 6, 8, 11);
+    }
+
+    @Test
+    void skipsEmptyBuckets() {
+        // x ekseninde boşluk: 2. kovaya tick düşmez
+        double[] xs = {0, 1, 2, 3, 9, 10, 11, 12};
+        double[] ys = {0, 5, 0, 0, 0, 0, -5, 0};
+        List<RateRecord> selected = downsample(xs, ys, 3);
+
+        assertThat(indexes(selected)).containsExactly(0, 1, 6, 7);
+    }
+
+    @Test
+    void matchesReferenceImplementation() {
+        SplittableRandom random = new SplittableRandom(17);
+        for (int round = 0; round < 200; round++) {
+            int size = 3 + random.nextInt(500);
+            double[] xs = new double[size];
+            double[] ys = new double[size];
+            double x = 0;
+            for (int i = 0; i < size; i++) {
+                x += random.nextInt(4) == 0 ? random.nextDouble(50) : random.nextDouble(1);
+                xs[i] = x;
+                ys[i] = random.nextInt(3) == 0 ? ys[Math.max(0, i - 1)] : random.nextDouble(-100, 100);
+            }
+            int bucketCount = 1 + random.nextInt(Math.max(1, size - 2));
+
+            assertThat(indexes(downsample(xs, ys, bucketCount)))
+                    .as("tur %d", round)
+                    .containsExactlyElementsOf(reference(xs, ys, bucketCount));
+        }
+    }
+
+    private static List<RateRecord> downsample(double[] values, int bucketCount) {
+        double[] xs = new double[values.length];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = i;
+        }
+        return downsample(xs, values, bucketCount);
+    }
+
+    /**
+     * Tick'leri {@link RateWindowStore#downsample} ile aynı şekilde kovalara ayırıp seyreltir.
+     */
+    private static List<RateRecord> downsample(double[] xs, double[] ys, int bucketCount) {
+        int[] buckets = buckets(xs, bucketCount);
+        long[] counts = new long[bucketCount + 1];
+        double[] averageX = new double[bucketCount + 1];
+        double[] averageY = new double[bucketCount + 1];
+        for (int i = 0; i < xs.length; i++) {
+            counts[buckets[i]]++;
+            averageX[buckets[i]] += (xs[i] - averageX[buckets[i]]) / counts[buckets[i]];
+            averageY[buckets[i]] += (ys[i] - averageY[buckets[i]]) / counts[buckets[i]];
+        }
+        int last = xs.length - 1;
+        LttbDownsampler downsampler = new LttbDownsampler(counts, averageX, averageY, xs[last], ys[last]);
+        for (int i = 0; i < last; i++) {
+            downsampler.add(buckets[i], xs[i], ys[i], tick(i));
+        }
+        return downsampler.finish(tick(last));
+    }
+
+    /**
+     * LTTB'nin doğrudan tanımı: ilk tick seçilir, her dolu kovadan önceki seçilen nokta ve bir sonraki
+     * dolu kovanın ortalamasıyla (yoksa son tick'le) en büyük üçgeni oluşturan ilk tick seçilir ve son
+     * tick eklenir.
+     */
+    private static List<Integer> reference(double[] xs, double[] ys, int bucketCount) {
+        int last = xs.length - 1;
+        int[] buckets = buckets(xs, bucketCount);
+        List<Integer> selected = new ArrayList<>();
+        selected.add(0);
+        for (int bucket = 1; bucket <= bucketCount; bucket++) {
+            double nextX = xs[last];
+            double nextY = ys[last];
+            for (int nextBucket = bucket + 1; nextBucket <= bucketCount; nextBucket++) {
+                double meanX = 0;
+                double meanY = 0;
+                int count = 0;
+                for (int i = 0; i < xs.length; i++) {
+                    if (buckets[i] == nextBucket) {
+                        count++;
+                        meanX += (xs[i] - meanX) / count;
+                        meanY += (ys[i] - meanY) / count;
+                    }
+                }
+                if (count > 0) {
+                    nextX = meanX;
+                    nextY = meanY;
+                    break;
+                }
+            }
+            int anchor = selected.get(selected.size() - 1);
+            int best = -1;
+            double bestArea = -1;
+            for (int i = 1; i < last; i++) {
+                if (buckets[i] != bucket) {
+                    continue;
+                }
+                double area = Math.abs((xs[anchor] - nextX) * (ys[i] - ys[anchor]) - (xs[anchor] - xs[i]) * (nextY - ys[anchor]));
+                if (area > bestArea) {
+                    best = i;
+                    bestArea = area;
+                }
+            }
+            if (best >= 0) {
+                selected.add(best);
+            }
+        }
+        selected.add(last);
+        return selected;
+    }
+
+    private static int[] buckets(double[] xs, int bucketCount) {
+        double low = xs[0];
+        double width = xs[xs.length - 1] - low + 1;
+        int[] buckets = new int[xs.length];
+        for (int i = 0; i < xs.length; i++) {
+            buckets[i] = Math.max(1, Math.min((int) ((xs[i] - low) / width * bucketCount) + 1, bucketCount));
+        }
+        return buckets;
+    }
+
+    private static RateRecord tick(int index) {
+        RateRecord rateRecord = new RateRecord("EURUSD", index, index, Instant.EPOCH.plusSeconds(index), null);
+        rateRecord.setId((long) index);
+        return rateRecord;
+    }
+
+    private static List<Integer> indexes(List<RateRecord> selected) {
+        return selected.stream().map(rateRecord -> rateRecord.getId().intValue()).toList();
+    }
+}
@@ -0,0 +1,185 @@
+package com.findata.kafkaconsumerdb.Service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * {@link RateArchiveFile} biçiminin yazılan her tick'i birebir geri verdiğini rastgele üretilen
+ * günler üzerinde doğrular: sabit ve tekrar eden fiyatlar, büyük zaman aralıkları, tek tick'lik
+ * günler ve XOR penceresini sürekli değiştiren, büyüklüğü ve işareti atlayan fiyatlar.
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ */
+class RateArchiveFileTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 1, 2);
+
+    private static final long DAY_START_MICROS = DAY.toEpochDay() * 86_400_000_000L;
+
+    /** Fiyat biçimini sürekli değiştiren değerler: sıfır, işaret, büyüklük ve long sınırları */
+    private static final long[] SWITCHING_PRICES = {
+            0L, 1L, -1L, 108_123_456L, -108_123_456L, 3_412_345_000_000L, 99_999_999L,
+            Long.MAX_VALUE, Long.MIN_VALUE, 0x5555_5555_5555_5555L, 1L << 40
+    };
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripsRandomDays() throws IOException {
+        SplittableRandom random = new SplittableRandom(2025);
+        for (int round = 0; round < 200; round++) {
+            List<long[]> ticks = randomDay(random, round);
+
+            assertRoundTrip(ticks, random);
+        }
+    }
+
+    @Test
+    void roundTripsSingleTickDay() throws IOException {
+        List<long[]> ticks = List.of(new long[]{DAY_START_MICROS + 123_456L, 42L, 108_000_000L, 108_010_000L, DAY_START_MICROS + 130_000L});
+        RateArchiveFile.Reader reader = write(ticks);
+
+        assertThat(reader.size()).isEqualTo(1);
+        assertThat(scan(reader, DAY_START_MICROS + 123_456L, DAY_START_MICROS + 123_457L, 10)).containsExactlyElementsOf(ticks);
+        assertThat(scan(reader, DAY_START_MICROS, DAY_START_MICROS + 123_456L, 10)).isEmpty();
+        assertThat(scan(reader, DAY_START_MICROS + 123_457L, Long.MAX_VALUE, 10)).isEmpty();
+    }
+
+    @Test
+    void roundTripsEqualPrices() throws IOException {
+        List<long[]> ticks = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            long time = DAY_START_MICROS + i * 500_000L;
+            ticks.add(new long[]{time, 1_000L + i, 108_000_000L, 108_010_000L, time + 2_000L});
+        }
+
+        assertRoundTrip(ticks, new SplittableRandom(1));
+        // Sabit aralık, sabit fiyat ve sabit gecikme sütun başına tick başına tek bit kaplar
+        assertThat(write(ticks).byteSize()).isLessThan(5_000);
+    }
+
+    @Test
+    void roundTripsExtremeTimestampGaps() throws IOException {
+        List<long[]> ticks = new ArrayList<>();
+        long[] times = {Long.MIN_VALUE / 2, -1L, 0L, 1L, 2L, 1L << 40, (1L << 40) + 1, Long.MAX_VALUE / 2, Long.MAX_VALUE - 1};
+        for (int i = 0; i < times.length; i++) {
+            ticks.add(new long[]{times[i], i % 2 == 0 ? i : -i * 1_000_000_000_000L, SWITCHING_PRICES[i], -SWITCHING_PRICES[i],
+                    times[i] + (i % 3 == 0 ? 0 : 86_400_000_000L * i)});
+        }
+
+        assertRoundTrip(ticks, new SplittableRandom(2));
+    }
+
+    @Test
+    void rejectsOutOfOrderTicks() {
+        RateArchiveFile.Writer writer = new RateArchiveFile.Writer("EURUSD", DAY);
+        writer.add(DAY_START_MICROS + 10, 1, 1, 1, DAY_START_MICROS + 10);
+
+        assertThatThrownBy(() -> writer.add(DAY_START_MICROS + 10, 2, 1, 1, DAY_START_MICROS + 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> writer.add(DAY_START_MICROS + 9, 2, 1, 1, DAY_START_MICROS + 9))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsTruncatedFile() throws IOException {
+        List<long[]> ticks = randomDay(new SplittableRandom(3), 0);
+        write(ticks);
+        Path path = directory.resolve("EURUSD" + RateArchiveFile.EXTENSION);
+        byte[] content = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(content, content.length - 1));
+
+        assertThatThrownBy(() -> RateArchiveFile.Reader.open(path)).isInstanceOf(IOException.class);
+    }
+
+    /**
+     * Rastgele bir gün üretir; tur numarasına göre farklı zaman, id ve fiyat desenleri karıştırılır.
+     */
+    private static List<long[]> randomDay(SplittableRandom random, int round) {
+        int size = round % 10 == 0 ? 1 : 1 + random.nextInt(round % 3 == 0 ? 5_000 : 300);
+        List<long[]> ticks = new ArrayList<>(size);
+        long time = DAY_START_MICROS + random.nextLong(86_400_000_000L);
+        long id = random.nextLong(1L << 40);
+        long bid = random.nextLong(-10_000_000_000L, 10_000_000_000L);
+        for (int i = 0; i < size; i++) {
+            time += switch (random.nextInt(6)) {
+                case 0 -> 1L;
+                case 1 -> 500_000L;
+                case 2 -> 500_000L + random.nextInt(-1_000, 1_000);
+                case 3 -> random.nextLong(1L, 3_600_000_000L);
+                case 4 -> random.nextLong(1L, 1L << 45);
+                default -> random.nextLong(1L, 1_000L);
+            };
+            id += switch (random.nextInt(3)) {
+                case 0 -> 1L;
+                case 1 -> random.nextLong(1L, 1_000_000L);
+                default -> random.nextLong(-1L << 50, 1L << 50);
+            };
+            bid = switch (round % 4 == 1 ? 3 : random.nextInt(4)) {
+                case 0 -> bid;
+                case 1 -> bid + random.nextInt(-500, 500);
+                case 2 -> random.nextLong();
+                default -> SWITCHING_PRICES[random.nextInt(SWITCHING_PRICES.length)];
+            };
+            long ask = random.nextInt(5) == 0 ? bid : bid + random.nextInt(0, 100_000);
+            long dbTime = time + (random.nextInt(10) == 0 ? random.nextLong(-1L << 40, 1L << 40) : random.nextInt(0, 50_000));
+            ticks.add(new long[]{time, id, bid, ask, dbTime});
+        }
+        return ticks;
+    }
+
+    private void assertRoundTrip(List<long[]> ticks, SplittableRandom random) throws IOException {
+        RateArchiveFile.Reader reader = write(ticks);
+        assertThat(reader.getRateName()).isEqualTo("EURUSD");
+        assertThat(reader.getDay()).isEqualTo(DAY);
+        assertThat(reader.size()).isEqualTo(ticks.size());
+        assertThat(scan(reader, Long.MIN_VALUE, Long.MAX_VALUE, Integer.MAX_VALUE)).containsExactlyElementsOf(ticks);
+
+        // Rastgele alt aralıklar ve limitler, beklenen listenin süzülmüş haliyle karşılaştırılır
+        for (int i = 0; i < 5; i++) {
+            long from = ticks.get(random.nextInt(ticks.size()))[0] - random.nextInt(2);
+            long span = random.nextBoolean() ? random.nextLong(1, 600_000_000L) : random.nextLong(1, Long.MAX_VALUE / 4);
+            long to = from > Long.MAX_VALUE - span ? Long.MAX_VALUE : from + span;
+            int limit = random.nextInt(1, ticks.size() + 2);
+            List<long[]> expected = new ArrayList<>();
+            for (long[] tick : ticks) {
+                if (tick[0] >= from && tick[0] < to && expected.size() < limit) {
+                    expected.add(tick);
+                }
+            }
+            assertThat(scan(reader, from, to, limit)).containsExactlyElementsOf(expected);
+        }
+    }
+
+    private RateArchiveFile.Reader write(List<long[]> ticks) throws IOException {
+        RateArchiveFile.Writer writer = new RateArchiveFile.Writer("EURUSD", DAY);
+        for (long[] tick : ticks) {
+            writer.add(tick[0], tick[1], tick[2], tick[3], tick[4]);
+        }
+        Path path = directory.resolve("EURUSD" + RateArchiveFile.EXTENSION);
+        long written = writer.writeTo(path);
+        assertThat(Files.size(path)).isEqualTo(written);
+        return RateArchiveFile.Reader.open(path);
+    }
+
+    private static List<long[]> scan(RateArchiveFile.Reader reader, long from, long to, int limit) {
+        List<long[]> ticks = new ArrayList<>();
+        int visited = reader.scan(from, to, limit, (time, id, bid, ask, dbTime) -> ticks.add(new long[]{time, id, bid, ask, dbTime}));
+        assertThat(visited).isEqualTo(ticks.size());
+        return ticks;
+    }
+}
@@ -0,0 +1,180 @@
+package com.findata.kafkaconsumerdb.Service;
+
+import com.findata.kafkaconsumerdb.Entity.FixedPointPrice;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link RateCopyEncoder}'ın fiyatları PostgreSQL {@code numeric} ikili formatında doğru kodladığını
+ * doğrular: sıfır, negatif, 1'den küçük, büyük ve {@code long} sınırındaki değerler önce formatın
+ * tanımına göre çözülür, ardından gömülü bir PostgreSQL'e COPY ile yazılıp geri okunur.
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ */
+class RateCopyEncoderTest {
+
+    private static final long[] EDGE_UNITS = {
+            0L, 1L, -1L, 9_999L, 10_000L, 99_999_999L, -50_000_000L, 100_000_000L, -100_000_000L,
+            108_123_456L, 1_000_000_000_000L, 10_000_000_000_000_000L, 123_456_789_012_345_678L,
+            Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE + 1
+    };
+
+    private static final Instant TIME = Instant.parse("2025-01-02T10:00:00.123456Z");
+
+    @Test
+    void numericEncodingDecodesToTheSameValue() throws IOException {
+        List<Long> values = values();
+        List<long[]> decoded = decodeRows(encode(values, false), false);
+
+        assertThat(decoded).hasSize(values.size());
+        for (int i = 0; i < values.size(); i++) {
+            assertThat(decoded.get(i)[0]).as("bid %d", values.get(i)).isEqualTo(values.get(i));
+            assertThat(decoded.get(i)[1]).as("ask %d", -values.get(i)).isEqualTo(-values.get(i));
+        }
+    }
+
+    @Test
+    void fixedPointEncodingWritesUnitsAsInt8() throws IOException {
+        List<Long> values = values();
+        List<long[]> decoded = decodeRows(encode(values, true), true);
+
+        for (int i = 0; i < values.size(); i++) {
+            assertThat(decoded.get(i)).containsExactly(values.get(i), -values.get(i));
+        }
+    }
+
+    @Test
+    void numericEncodingRoundTripsThroughPostgres() throws Exception {
+        List<Long> values = values();
+        byte[] copyData = encode(values, false);
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.start();
+             Connection connection = postgres.getPostgresDatabase().getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE copy_check (id bigint PRIMARY KEY, rate_name varchar(20) NOT NULL, "
+                        + "bid numeric(19, 8) NOT NULL, ask numeric(19, 8) NOT NULL, "
+                        + "rate_updatetime timestamptz NOT NULL, db_updatetime timestamptz NOT NULL)");
+            }
+            connection.unwrap(PGConnection.class).getCopyAPI().copyIn(
+                    RateCopyEncoder.COPY_SQL.replace("tbl_rates", "copy_check"), new ByteArrayInputStream(copyData));
+
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT id, bid, ask, rate_updatetime FROM copy_check ORDER BY id")) {
+                int i = 0;
+                while (resultSet.next()) {
+                    long units = values.get(i);
+                    assertThat(resultSet.getLong("id")).isEqualTo(i);
+                    assertThat(resultSet.getBigDecimal("bid")).isEqualByComparingTo(FixedPointPrice.toBigDecimal(units));
+                    assertThat(resultSet.getBigDecimal("ask")).isEqualByComparingTo(FixedPointPrice.toBigDecimal(-units));
+                    assertThat(resultSet.getTimestamp("rate_updatetime").toInstant()).isEqualTo(TIME);
+                    i++;
+                }
+                assertThat(i).isEqualTo(values.size());
+            }
+        }
+    }
+
+    /**
+     * Uç değerler ve rastgele değerler; ask sütununa değerin negatifi yazılır
+     * ({@code Long.MIN_VALUE}'nun negatifi kendisidir).
+     */
+    private static List<Long> values() {
+        List<Long> values = new ArrayList<>();
+        for (long units : EDGE_UNITS) {
+            values.add(units);
+        }
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < 500; i++) {
+            values.add(random.nextBoolean() ? random.nextLong() : random.nextLong(-1_000_000_000_000L, 1_000_000_000_000L));
+        }
+        return values;
+    }
+
+    private static byte[] encode(List<Long> values, boolean fixedPoint) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RateCopyEncoder encoder = new RateCopyEncoder(out, fixedPoint);
+        for (int i = 0; i < values.size(); i++) {
+            encoder.writeRow(i, "EURUSD", values.get(i), -values.get(i), TIME, TIME);
+        }
+        encoder.finish();
+        return out.toByteArray();
+    }
+
+    /**
+     * Binary COPY akışını çözer ve satır başına {bid, ask} değerlerini 1e-8 birim cinsinden döndürür.
+     */
+    private static List<long[]> decodeRows(byte[] copyData, boolean fixedPoint) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(copyData));
+        assertThat(in.readNBytes(11)).containsExactly('P', 'G', 'C', 'O', 'P', 'Y', '\n', 0xFF, '\r', '\n', 0);
+        assertThat(in.readInt()).isZero();
+        assertThat(in.readInt()).isZero();
+        List<long[]> rows = new ArrayList<>();
+        for (short fieldCount = in.readShort(); fieldCount != -1; fieldCount = in.readShort()) {
+            assertThat(fieldCount).isEqualTo((short) 6);
+            assertThat(in.readInt()).isEqualTo(8);
+            in.readLong();
+            in.skipNBytes(in.readInt());
+            long bid = fixedPoint ? readInt8(in) : readNumeric(in);
+            long ask = fixedPoint ? readInt8(in) : readNumeric(in);
+            assertThat(in.readInt()).isEqualTo(8);
+            in.readLong();
+            assertThat(in.readInt()).isEqualTo(8);
+            in.readLong();
+            rows.add(new long[]{bid, ask});
+        }
+        assertThat(in.read()).isEqualTo(-1);
+        return rows;
+    }
+
+    private static long readInt8(DataInputStream in) throws IOException {
+        assertThat(in.readInt()).isEqualTo(8);
+        return in.readLong();
+    }
+
+    /**
+     * numeric ikili formatını çözer: basamak sayısı, ilk basamağın ağırlığı, işaret, ölçek ve 10000
+     * tabanındaki basamaklar. Kodlamanın kanonik olduğu (baştaki ve sondaki sıfır basamakların
+     * atıldığı) da doğrulanır.
+     */
+    private static long readNumeric(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        short ndigits = in.readShort();
+        short weight = in.readShort();
+        short sign = in.readShort();
+        short scale = in.readShort();
+        assertThat(length).isEqualTo(8 + ndigits * 2);
+        assertThat(sign).isIn((short) 0x0000, (short) 0x4000);
+        assertThat(scale).isEqualTo((short) FixedPointPrice.SCALE);
+        BigDecimal value = BigDecimal.ZERO;
+        for (int i = 0; i < ndigits; i++) {
+            short digit = in.readShort();
+            assertThat(digit).isBetween((short) 0, (short) 9_999);
+            if (i == 0 || i == ndigits - 1) {
+                assertThat(digit).isNotZero();
+            }
+            value = value.add(new BigDecimal(BigInteger.valueOf(digit), -4 * (weight - i)));
+        }
+        if (ndigits == 0) {
+            assertThat(weight).isZero();
+            assertThat(sign).isZero();
+        }
+        return FixedPointPrice.toUnits(sign == 0x4000 ? value.negate() : value);
+    }
+}
@@ -0,0 +1,116 @@
+package com.findata.kafkaconsumerdb.Service;
+
+import com.findata.kafkaconsumerdb.Config.RateRetryProperties;
+import com.findata.kafkaconsumerdb.Entity.RateRecord;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * {@link RateFailureHandler}'ın hata sınıflandırmasını ve Kafka'ya ulaşılamadığında gönderimin
+ * süreyle sınırlandığını doğrular.
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ */
+class RateFailureHandlerTest {
+
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+    private RateFailureHandler handler;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        kafkaTemplate = mock(KafkaTemplate.class);
+        RateRetryProperties properties = new RateRetryProperties();
+        properties.setMaxSendTime(Duration.ofMillis(300));
+        handler = new RateFailureHandler();
+        ReflectionTestUtils.setField(handler, "kafkaTemplate", kafkaTemplate);
+        ReflectionTestUtils.setField(handler, "rateRetryProperties", properties);
+        ReflectionTestUtils.setField(handler, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(handler, "retryBackoffMs", 20L);
+        ReflectionTestUtils.setField(handler, "maxRetryBackoffMs", 50L);
+        handler.registerMetrics();
+    }
+
+    @Test
+    void springTransientExceptionsAreTransient() {
+        assertThat(handler.isTransient(new CannotAcquireLockException("kilit"))).isTrue();
+        assertThat(handler.isTransient(new DataAccessResourceFailureException("bağlantı"))).isTrue();
+        assertThat(handler.isTransient(new IllegalStateException("bilinmeyen"))).isFalse();
+    }
+
+    @Test
+    void sqlStateDecidesWhenPresent() {
+        assertThat(handler.isTransient(new DataAccessResourceFailureException("COPY",
+                new SQLException("deadlock", "40P01")))).isTrue();
+        assertThat(handler.isTransient(new DataAccessResourceFailureException("COPY",
+                new SQLException("bağlantı koptu", "08006")))).isTrue();
+        assertThat(handler.isTransient(new DataAccessResourceFailureException("COPY",
+                new SQLException("çok fazla bağlantı", "53300")))).isTrue();
+        // COPY yazıcısı her SQL hatasını DataAccessResourceFailureException ile sarar; kısıt ihlali yine kalıcıdır
+        assertThat(handler.isTransient(new DataAccessResourceFailureException("COPY",
+                new SQLException("null değer", "23502")))).isFalse();
+        assertThat(handler.isTransient(new DataIntegrityViolationException("kısıt",
+                new SQLException("kısıt", "23514")))).isFalse();
+    }
+
+    @Test
+    void jdbcAndKafkaTransientTypesInTheCauseChainAreTransient() {
+        assertThat(handler.isTransient(new IllegalStateException("sarılı",
+                new SQLTransientConnectionException("havuz dolu")))).isTrue();
+        assertThat(handler.isTransient(new KafkaException("gönderim",
+                new org.apache.kafka.common.errors.TimeoutException("metadata")))).isTrue();
+        assertThat(handler.isTransient(new KafkaException("gönderim",
+                new org.apache.kafka.common.errors.RecordTooLargeException("büyük")))).isFalse();
+    }
+
+    @Test
+    void sendAllGivesUpAfterMaxSendTime() {
+        doReturn(CompletableFuture.failedFuture(new org.apache.kafka.common.errors.TimeoutException("broker yok")))
+                .when(kafkaTemplate).send(any(ProducerRecord.class));
+        long start = System.nanoTime();
+
+        assertThatThrownBy(() -> handler.sendAll(List.of(new ProducerRecord<>("raw-rates-retry-0", "EURUSD", new byte[0]))))
+                .isInstanceOf(KafkaException.class);
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+        verify(kafkaTemplate, atLeast(2)).send(any(ProducerRecord.class));
+    }
+
+    @Test
+    void handOffReportsUnsentRecordsInsteadOfBlocking() throws InterruptedException {
+        doReturn(CompletableFuture.failedFuture(new org.apache.kafka.common.errors.TimeoutException("broker yok")))
+                .when(kafkaTemplate).send(any(ProducerRecord.class));
+        RateRecord rateRecord = new RateRecord("EURUSD", 108_000_000L, 108_010_000L, Instant.parse("2025-01-02T10:00:00Z"), null);
+
+        RateFailureHandler.HandOff handOff = handler.handleWriteFailure("raw-rates", 0, mock(RateRecordWriter.class),
+                List.of(rateRecord), new DataAccessResourceFailureException("bağlantı"));
+
+        assertThat(handOff.sent()).isFalse();
+        assertThat(handOff.routed()).isEmpty();
+        assertThat(handOff.inserted()).isEmpty();
+    }
+}
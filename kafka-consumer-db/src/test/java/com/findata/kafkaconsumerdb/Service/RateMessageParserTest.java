@@ -0,0 +1,218 @@
+package com.findata.kafkaconsumerdb.Service;
+
+import com.findata.kafkaconsumerdb.Entity.FixedPointPrice;
+import com.findata.kafkaconsumerdb.Entity.RateRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * {@link RateMessageParser}'ın pipe ve JSON mesajlarını, hızlı yoldan ve JDK'ya düşülen yoldan
+ * okunan fiyat ve zaman damgalarını, geçersiz mesajların reddedilmesini ve
+ * {@link RateMessageParser#toPipeFormat} ile gidiş-dönüşü doğrular.
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ */
+class RateMessageParserTest {
+
+    private final RateMessageParser parser = new RateMessageParser();
+
+    @Test
+    void parsesPipeMessage() {
+        RateRecord rateRecord = parse("PF1_USDTRY|34.12345|34.22345|2025-04-25T10:15:30.123Z");
+
+        assertThat(rateRecord.getRateName()).isEqualTo("PF1_USDTRY");
+        assertThat(rateRecord.getBidUnits()).isEqualTo(3_412_345_000L);
+        assertThat(rateRecord.getAskUnits()).isEqualTo(3_422_345_000L);
+        assertThat(rateRecord.getRateUpdatetime()).isEqualTo(Instant.parse("2025-04-25T10:15:30.123Z"));
+    }
+
+    @Test
+    void parsesPipeMessageWithNegativeAndExponentPricesAndTrailingNewline() {
+        RateRecord rateRecord = parse("SPREAD|-0.5|1e-8|2025-04-25T10:15:30Z\r\n");
+
+        assertThat(rateRecord.getBidUnits()).isEqualTo(-50_000_000L);
+        assertThat(rateRecord.getAskUnits()).isEqualTo(1L);
+        assertThat(rateRecord.getRateUpdatetime()).isEqualTo(Instant.parse("2025-04-25T10:15:30Z"));
+    }
+
+    @Test
+    void parsesJsonMessage() {
+        RateRecord rateRecord = parse("{\"name\":\"USDTRY\",\"bid\":34.1,\"ask\":34.2,\"timestamp\":\"2025-04-25T10:15:30Z\"}");
+
+        assertThat(rateRecord.getRateName()).isEqualTo("USDTRY");
+        assertThat(rateRecord.getBidUnits()).isEqualTo(3_410_000_000L);
+        assertThat(rateRecord.getAskUnits()).isEqualTo(3_420_000_000L);
+        assertThat(rateRecord.getRateUpdatetime()).isEqualTo(Instant.parse("2025-04-25T10:15:30Z"));
+    }
+
+    @Test
+    void parsesJsonMessageWithWhitespaceUnknownFieldsQuotedPricesAndNoTimestamp() {
+        RateRecord rateRecord = parse(" {\n  \"rateName\" : \"EURUSD\",\n  \"source\" : \"PF2\", \"seq\": 17, \"live\": true, \"note\": null,\n"
+                + "  \"bid\" : \"-1.5\",\n  \"ask\" : 3.41e1\n}\n");
+
+        assertThat(rateRecord.getRateName()).isEqualTo("EURUSD");
+        assertThat(rateRecord.getBidUnits()).isEqualTo(-150_000_000L);
+        assertThat(rateRecord.getAskUnits()).isEqualTo(3_410_000_000L);
+        assertThat(rateRecord.getRateUpdatetime()).isNull();
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "34.12345, 3412345000",
+            "0, 0",
+            "-0, 0",
+            "+1, 100000000",
+            ".5, 50000000",
+            "5., 500000000",
+            "-12.00000001, -1200000001",
+            "92233720368.54775807, 9223372036854775807",
+            // Üslü yazım, 18'den fazla basamak ve 8'den fazla ondalık basamak BigDecimal'e düşer
+            "1.5e2, 15000000000",
+            "1E-8, 1",
+            "-2.5E-3, -250000",
+            "1.123456785, 112345679",
+            "-1.123456785, -112345679",
+            "1.000000004, 100000000",
+            "0000000000000000001.5, 150000000",
+            "-92233720368.54775808, -9223372036854775808"
+    })
+    void parsesPrices(String text, long expectedUnits) {
+        assertThat(parseUnits(text)).isEqualTo(expectedUnits);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "-", ".", "abc", "1.2.3", "1,5", "0x10", "100000000000.0", "92233720368.54775808", "1e12"})
+    void rejectsInvalidOrOutOfRangePrices(String text) {
+        assertThatThrownBy(() -> parseUnits(text)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void fastPriceParsingMatchesBigDecimal() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < 10_000; i++) {
+            long units = random.nextInt(4) == 0 ? random.nextLong() : random.nextLong(-10_000_000_000L, 10_000_000_000L);
+            String plain = FixedPointPrice.toBigDecimal(units).toPlainString();
+            String stripped = FixedPointPrice.toBigDecimal(units).stripTrailingZeros().toPlainString();
+
+            assertThat(parseUnits(plain)).as(plain).isEqualTo(units);
+            assertThat(parseUnits(stripped)).as(stripped).isEqualTo(units);
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "2025-04-25T10:15:30Z, 2025-04-25T10:15:30Z",
+            "2025-04-25T10:15:30.1Z, 2025-04-25T10:15:30.100Z",
+            "2025-04-25T10:15:30.000001Z, 2025-04-25T10:15:30.000001Z",
+            "2025-04-25T10:15:30.123456789Z, 2025-04-25T10:15:30.123456789Z",
+            "2024-02-29T23:59:59.999Z, 2024-02-29T23:59:59.999Z",
+            // Ofsetli yazımlar Instant.parse'a düşer
+            "2025-04-25T13:15:30+03:00, 2025-04-25T10:15:30Z",
+            "2025-04-25T13:15:30.5+03:00, 2025-04-25T10:15:30.500Z",
+            "2025-04-25T07:45:30-02:30, 2025-04-25T10:15:30Z"
+    })
+    void parsesTimestamps(String text, String expected) {
+        assertThat(parseInstant(text)).isEqualTo(Instant.parse(expected));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "yesterday", "2025-04-25T10:15:30", "2025-04-25 10:15:30Z", "2025-02-30T10:00:00Z",
+            "2025-13-01T00:00:00Z", "2025-04-25T25:00:00Z", "2025-04-25T10:15:60Z", "2025-04-25T10:15:30.1234567891Z"})
+    void rejectsInvalidTimestamps(String text) {
+        assertThatThrownBy(() -> parseInstant(text)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void fastTimestampParsingMatchesInstantToString() {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 10_000; i++) {
+            long nanos = switch (random.nextInt(4)) {
+                case 0 -> 0;
+                case 1 -> random.nextInt(1_000) * 1_000_000L;
+                case 2 -> random.nextInt(1_000_000) * 1_000L;
+                default -> random.nextInt(1_000_000_000);
+            };
+            Instant instant = Instant.ofEpochSecond(random.nextLong(0, 4_102_444_800L), nanos);
+
+            assertThat(parseInstant(instant.toString())).isEqualTo(instant);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "   ",
+            "EURUSD|1|2",
+            "|1|2|2025-04-25T10:15:30Z",
+            "EURUSD|1|2|3|2025-04-25T10:15:30Z",
+            "EURUSD||2|2025-04-25T10:15:30Z",
+            "EURUSD|1|abc|2025-04-25T10:15:30Z",
+            "EURUSD|1|2|",
+            "{\"name\":\"A\",\"bid\":1}",
+            "{\"bid\":1,\"ask\":2}",
+            "{\"name\":\"A\",\"bid\":1,\"ask\":2",
+            "{\"name\":\"A\",\"meta\":{},\"bid\":1,\"ask\":2}",
+            "{\"name\":\"A\",\"tags\":[1],\"bid\":1,\"ask\":2}",
+            "{\"name\":\"A\\\"B\",\"bid\":1,\"ask\":2}",
+            "{\"name\" \"A\",\"bid\":1,\"ask\":2}",
+            "{\"name\":\"A\" \"bid\":1,\"ask\":2}",
+            "{\"name\":\"A\",\"bid\":1,\"ask\":2,\"timestamp\":\"yesterday\"}"
+    })
+    void rejectsMalformedMessages(String message) {
+        assertThatThrownBy(() -> parse(message)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsNullAndEmptyMessages() {
+        assertThatThrownBy(() -> parser.parse(null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> parser.parse(new byte[0])).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void pipeFormatRoundTrips() {
+        RateRecord original = new RateRecord("PF1_EURUSD", 108_000_000L, -1L,
+                Instant.parse("2025-01-02T10:00:00.123456789Z"), null);
+        byte[] message = RateMessageParser.toPipeFormat(original);
+
+        assertThat(new String(message, StandardCharsets.UTF_8))
+                .isEqualTo("PF1_EURUSD|1.08000000|-0.00000001|2025-01-02T10:00:00.123456789Z");
+        assertSameRate(parser.parse(message), original);
+
+        SplittableRandom random = new SplittableRandom(11);
+        for (int i = 0; i < 1_000; i++) {
+            RateRecord rateRecord = new RateRecord("R" + i, random.nextLong(), random.nextLong(-1_000_000_000L, 1_000_000_000L),
+                    Instant.ofEpochSecond(random.nextLong(0, 4_102_444_800L), random.nextInt(1_000_000_000)), null);
+            assertSameRate(parser.parse(RateMessageParser.toPipeFormat(rateRecord)), rateRecord);
+        }
+    }
+
+    private RateRecord parse(String message) {
+        return parser.parse(message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long parseUnits(String text) {
+        byte[] data = text.getBytes(StandardCharsets.UTF_8);
+        return RateMessageParser.parseUnits(data, 0, data.length);
+    }
+
+    private static Instant parseInstant(String text) {
+        byte[] data = text.getBytes(StandardCharsets.UTF_8);
+        return RateMessageParser.parseInstant(data, 0, data.length);
+    }
+
+    private static void assertSameRate(RateRecord actual, RateRecord expected) {
+        assertThat(actual.getRateName()).isEqualTo(expected.getRateName());
+        assertThat(actual.getBidUnits()).isEqualTo(expected.getBidUnits());
+        assertThat(actual.getAskUnits()).isEqualTo(expected.getAskUnits());
+        assertThat(actual.getRateUpdatetime()).isEqualTo(expected.getRateUpdatetime());
+    }
+}
@@ -0,0 +1,158 @@
+package com.findata.kafkaconsumerdb.Service;
+
+import com.findata.kafkaconsumerdb.Config.PriceStorageProperties;
+import com.findata.kafkaconsumerdb.Entity.RateRecord;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link RateBatchWriter} ve {@link RateCopyWriter}'ın tüm sütunları doğru yazdığını, doğal anahtarı
+ * tekrar eden kayıtları atladığını ve yalnızca gerçekten eklenen kayıtları döndürdüğünü gömülü bir
+ * PostgreSQL üzerinde doğrular.
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ */
+class RateRecordWriterPersistenceTest {
+
+    private static final Instant BASE_TIME = Instant.now().truncatedTo(ChronoUnit.DAYS).plusSeconds(3600);
+
+    private static EmbeddedPostgres postgres;
+    private static JdbcTemplate jdbcTemplate;
+    private static TransactionTemplate transactionTemplate;
+    private static PriceStorageProperties priceStorageProperties;
+    private static RateBatchWriter batchWriter;
+    private static RateCopyWriter copyWriter;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        postgres = EmbeddedPostgres.start();
+        DataSource dataSource = postgres.getPostgresDatabase();
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource("schema.sql"));
+        populator.setSeparator("^;");
+        populator.execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        RatePartitionMaintenance maintenance = new RatePartitionMaintenance();
+        ReflectionTestUtils.setField(maintenance, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(maintenance, "precreateDays", 1);
+        ReflectionTestUtils.setField(maintenance, "retentionDays", 0);
+        ReflectionTestUtils.setField(maintenance, "retentionAction", "drop");
+        maintenance.init();
+
+        priceStorageProperties = new PriceStorageProperties();
+        LatestRateUpdater latestRateUpdater = new LatestRateUpdater();
+        ReflectionTestUtils.setField(latestRateUpdater, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(latestRateUpdater, "latestRateCache", new LatestRateCache());
+        ReflectionTestUtils.setField(latestRateUpdater, "priceStorageProperties", priceStorageProperties);
+
+        batchWriter = new RateBatchWriter();
+        ReflectionTestUtils.setField(batchWriter, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(batchWriter, "latestRateUpdater", latestRateUpdater);
+        ReflectionTestUtils.setField(batchWriter, "priceStorageProperties", priceStorageProperties);
+
+        copyWriter = new RateCopyWriter();
+        ReflectionTestUtils.setField(copyWriter, "dataSource", dataSource);
+        ReflectionTestUtils.setField(copyWriter, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(copyWriter, "latestRateUpdater", latestRateUpdater);
+        ReflectionTestUtils.setField(copyWriter, "priceStorageProperties", priceStorageProperties);
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Test
+    void batchWriterRoundTripsEveryColumnAndSkipsDuplicates() {
+        assertRoundTripAndDedup(batchWriter, "JPA");
+    }
+
+    @Test
+    void copyWriterRoundTripsEveryColumnAndSkipsDuplicates() {
+        assertRoundTripAndDedup(copyWriter, "COPY");
+    }
+
+    @Test
+    void batchWriterSplitsLargeBatchesIntoSeveralStatements() {
+        List<RateRecord> records = new ArrayList<>();
+        for (int i = 0; i < RateBatchWriter.ROWS_PER_STATEMENT * 2 + 7; i++) {
+            records.add(new RateRecord("BULK" + (i % 3), 100_000_000L + i, 100_010_000L + i, BASE_TIME.plusMillis(i), null));
+        }
+        List<RateRecord> inserted = write(batchWriter, records);
+
+        assertThat(inserted).hasSameSizeAs(records);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM tbl_rates WHERE rate_name LIKE 'BULK%'", Long.class))
+                .isEqualTo(records.size());
+        assertThat(jdbcTemplate.queryForObject("SELECT count(DISTINCT id) FROM tbl_rates WHERE rate_name LIKE 'BULK%'", Long.class))
+                .isEqualTo(records.size());
+    }
+
+    private static void assertRoundTripAndDedup(RateRecordWriter writer, String prefix) {
+        RateRecord first = new RateRecord(prefix + "A", 12_345_678_901_234L, 12_345_678_901_235L,
+                BASE_TIME.plusNanos(123_456_000L), null);
+        RateRecord second = new RateRecord(prefix + "B", -1L, 99_999_999L, BASE_TIME.plusSeconds(1), null);
+        List<RateRecord> firstBatch = List.of(first, second);
+
+        List<RateRecord> inserted = write(writer, firstBatch);
+
+        assertThat(inserted).containsExactly(first, second);
+        assertStored(first);
+        assertStored(second);
+
+        // Aynı anahtarla farklı fiyatlı bir kayıt, yeni bir kayıt ve batch içinde tekrar eden bir kayıt
+        RateRecord replayed = new RateRecord(prefix + "A", 1L, 2L, first.getRateUpdatetime(), null);
+        RateRecord third = new RateRecord(prefix + "A", 300_000_000L, 300_000_001L, BASE_TIME.plusSeconds(2), null);
+        RateRecord thirdAgain = new RateRecord(prefix + "A", 400_000_000L, 400_000_001L, BASE_TIME.plusSeconds(2), null);
+
+        inserted = write(writer, List.of(replayed, third, thirdAgain));
+
+        assertThat(inserted).hasSize(1);
+        assertStored(inserted.get(0));
+        assertStored(first);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM tbl_rates WHERE rate_name LIKE ?", Long.class, prefix + "%"))
+                .isEqualTo(3L);
+        assertThat(jdbcTemplate.queryForObject("SELECT rate_updatetime FROM tbl_latest_rates WHERE rate_name = ?",
+                OffsetDateTime.class, prefix + "A").toInstant()).isEqualTo(third.getRateUpdatetime());
+    }
+
+    private static List<RateRecord> write(RateRecordWriter writer, List<RateRecord> records) {
+        return transactionTemplate.execute(status -> writer.writeBatch(records));
+    }
+
+    private static void assertStored(RateRecord rateRecord) {
+        assertThat(rateRecord.getId()).isNotNull();
+        assertThat(rateRecord.getDbUpdatetime()).isNotNull();
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT id, rate_name, bid, ask, rate_updatetime, db_updatetime FROM tbl_rates WHERE id = ?", rateRecord.getId());
+        assertThat(row.get("rate_name")).isEqualTo(rateRecord.getRateName());
+        List<long[]> prices = jdbcTemplate.query("SELECT bid, ask FROM tbl_rates WHERE id = ?", (resultSet, rowNum) -> new long[]{
+                priceStorageProperties.readUnits(resultSet, "bid"), priceStorageProperties.readUnits(resultSet, "ask")}, rateRecord.getId());
+        assertThat(prices.get(0)).containsExactly(rateRecord.getBidUnits(), rateRecord.getAskUnits());
+        assertThat(jdbcTemplate.queryForObject("SELECT rate_updatetime FROM tbl_rates WHERE id = ?", OffsetDateTime.class,
+                rateRecord.getId()).toInstant()).isEqualTo(rateRecord.getRateUpdatetime());
+        assertThat(jdbcTemplate.queryForObject("SELECT db_updatetime FROM tbl_rates WHERE id = ?", OffsetDateTime.class,
+                rateRecord.getId()).toInstant()).isEqualTo(rateRecord.getDbUpdatetime());
+    }
+}
@@ -0,0 +1,189 @@
+package com.findata.kafkaconsumerdb.Service;
+
+import com.findata.kafkaconsumerdb.Entity.RateRecord;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link RateWindowStore}'un pencereden çıkan tick'leri attığını, kapsama sınırından önce başlayan
+ * sorgular için {@code null} döndürerek veritabanına düşürdüğünü, seyreltmede uç durumları doğru
+ * işlediğini ve atılan veya sıfırlanan tamponların bellek bütçesini geri verdiğini doğrular.
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ */
+class RateWindowStoreTest {
+
+    /** Tampon başına ayrılan ilk kapasitenin kapladığı bellek */
+    private static final double INITIAL_BYTES = 1024.0 * TickRingBuffer.BYTES_PER_TICK;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private RateWindowStore store;
+
+    /** Testteki tick'lerin başlangıcı; pencere kapsaması bu andan başlatılır */
+    private Instant start;
+
+    @BeforeEach
+    void setUp() {
+        store = new RateWindowStore();
+        ReflectionTestUtils.setField(store, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(store, "windowMinutes", 1L);
+        ReflectionTestUtils.setField(store, "maxMemoryMb", 64L);
+        ReflectionTestUtils.setField(store, "closeGraceMillis", 2_000L);
+        ReflectionTestUtils.setField(store, "rawRatesTopic", "raw-rates");
+        ReflectionTestUtils.setField(store, "calculatedRatesTopic", "calculated-rates");
+        store.init();
+        start = Instant.now().truncatedTo(ChronoUnit.MINUTES).minus(10, ChronoUnit.MINUTES);
+        ReflectionTestUtils.setField(store, "coverageStart", toMicros(start));
+    }
+
+    @Test
+    void answersQueriesInsideCoverageAndFallsBackBeforeIt() {
+        store.onRecords(ticks("EURUSD", start, 10, 1_000_000));
+
+        assertThat(store.findHistory("EURUSD", start, start.plusSeconds(60), 100)).hasSize(10);
+        assertThat(store.findHistory("EURUSD", start.plusSeconds(3), start.plusSeconds(5), 100))
+                .extracting(RateRecord::getRateUpdatetime).containsExactly(start.plusSeconds(3), start.plusSeconds(4));
+        assertThat(store.findHistory("EURUSD", start.minusNanos(1_000), start.plusSeconds(60), 100)).isNull();
+        assertThat(store.findHistory("GBPUSD", start, start.plusSeconds(60), 100)).isNull();
+        // Mumlar aralıkta başlayan ilk mumdan itibaren hesaplanır; bir önceki dakikadan başlayan aralık kapsamda değildir
+        assertThat(store.findCandles("EURUSD", 60, start.minusSeconds(90), start.plusSeconds(60))).isNull();
+        assertThat(meterRegistry.get("rates.window.queries").tag("result", "hit").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("rates.window.queries").tag("result", "miss").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void returnsStoredColumnsAndCandles() {
+        List<RateRecord> records = ticks("EURUSD", start, 3, 20_000);
+        store.onRecords(records);
+
+        List<RateRecord> history = store.findHistory("EURUSD", start, start.plusSeconds(60), 100);
+        assertThat(history).hasSize(3);
+        for (int i = 0; i < 3; i++) {
+            assertThat(history.get(i).getId()).isEqualTo(records.get(i).getId());
+            assertThat(history.get(i).getBidUnits()).isEqualTo(records.get(i).getBidUnits());
+            assertThat(history.get(i).getAskUnits()).isEqualTo(records.get(i).getAskUnits());
+            assertThat(history.get(i).getRateUpdatetime()).isEqualTo(records.get(i).getRateUpdatetime());
+            assertThat(history.get(i).getDbUpdatetime()).isEqualTo(records.get(i).getDbUpdatetime());
+        }
+
+        List<Candle> candles = store.findCandles("EURUSD", 60, start, start.plusSeconds(60));
+        assertThat(candles).hasSize(1);
+        assertThat(candles.get(0).bucketStart()).isEqualTo(start);
+        assertThat(candles.get(0).tickCount()).isEqualTo(3);
+    }
+
+    @Test
+    void evictsTicksThatLeaveTheWindowAndMovesCoverage() {
+        store.onRecords(ticks("EURUSD", start, 10, 1_000_000));
+        Instant later = start.plusSeconds(125);
+        store.onRecords(ticks("EURUSD", later, 1, 1_000));
+
+        // Pencere 1 dakika: son tick'ten 60 saniye öncesine kadar olanlar atılır
+        assertThat(store.findHistory("EURUSD", start, later.plusSeconds(1), 100)).isNull();
+        assertThat(store.findHistory("EURUSD", later.minusSeconds(60), later.plusSeconds(1), 100))
+                .extracting(RateRecord::getRateUpdatetime).containsExactly(later);
+        assertThat(gauge("rates.window.ticks")).isEqualTo(1);
+    }
+
+    @Test
+    void routedRecordsMoveCoveragePastThem() {
+        store.onRecords(ticks("EURUSD", start, 5, 1_000_000));
+        RateRecord routed = new RateRecord("EURUSD", 1L, 2L, start.plusSeconds(2), null);
+
+        store.onHandedOff(List.of(), List.of(routed));
+
+        assertThat(store.findHistory("EURUSD", start, start.plusSeconds(60), 100)).isNull();
+        assertThat(store.findHistory("EURUSD", start.plusSeconds(2).plusNanos(1_000), start.plusSeconds(60), 100))
+                .extracting(RateRecord::getRateUpdatetime).containsExactly(start.plusSeconds(3), start.plusSeconds(4));
+    }
+
+    @Test
+    void downsampleClampsPointsAndReturnsAllTicksWhenThereAreFewEnough() {
+        store.onRecords(ticks("EURUSD", start, 10, 1_000_000));
+        Instant to = start.plusSeconds(10);
+
+        // 3'ten az nokta istenirse 3'e sıkıştırılır: ilk tick, tek kovanın seçimi ve son tick
+        List<RateRecord> clamped = store.downsample("EURUSD", start, to, 1);
+        assertThat(clamped).hasSize(3);
+        assertThat(clamped.get(0).getRateUpdatetime()).isEqualTo(start);
+        assertThat(clamped.get(2).getRateUpdatetime()).isEqualTo(start.plusSeconds(9));
+        assertThat(store.downsample("EURUSD", start, to, -5)).hasSize(3);
+
+        // Tick sayısı hedefe eşit veya azsa tümü döner
+        assertThat(store.downsample("EURUSD", start, to, 10)).hasSize(10);
+        assertThat(store.downsample("EURUSD", start, to, 500)).hasSize(10);
+        assertThat(store.downsample("EURUSD", start, start.plusSeconds(2), 3)).hasSize(2);
+        assertThat(store.downsample("EURUSD", start, to, 5)).hasSize(5)
+                .extracting(RateRecord::getRateUpdatetime).isSorted();
+        assertThat(store.downsample("EURUSD", start.minusSeconds(1), to, 5)).isNull();
+    }
+
+    @Test
+    void evictionAndResetReleaseTheMemoryBudget() {
+        store.onRecords(ticks("EURUSD", start, 5_000, 10_000));
+        store.onRecords(ticks("GBPUSD", start, 10, 10_000));
+        assertThat(gauge("rates.window.bytes")).isEqualTo(8192 * (double) TickRingBuffer.BYTES_PER_TICK + INITIAL_BYTES);
+
+        // Süresi dolan tick'ler atılınca tampon ilk kapasitesine küçülür
+        Instant later = start.plusSeconds(200);
+        store.onRecords(ticks("EURUSD", later, 1, 1_000));
+        assertThat(gauge("rates.window.bytes")).isEqualTo(2 * INITIAL_BYTES);
+
+        // Tamponlar yeniden büyür, yeni partition atanınca sıfırlanır ve bütçeyi geri verir
+        store.onRecords(ticks("GBPUSD", later, 3_000, 10_000));
+        assertThat(gauge("rates.window.bytes")).isEqualTo(INITIAL_BYTES + 4096 * (double) TickRingBuffer.BYTES_PER_TICK);
+
+        store.onPartitionsAssigned(null, List.of(new TopicPartition("raw-rates", 0)));
+
+        assertThat(gauge("rates.window.bytes")).isEqualTo(2 * INITIAL_BYTES);
+        assertThat(gauge("rates.window.ticks")).isZero();
+    }
+
+    @Test
+    void sweepEvictsIdleRatesAndReleasesTheBudget() {
+        store.onRecords(ticks("EURUSD", start, 5_000, 10_000));
+        assertThat(gauge("rates.window.bytes")).isEqualTo(8192 * (double) TickRingBuffer.BYTES_PER_TICK);
+
+        store.evictExpired();
+
+        assertThat(gauge("rates.window.bytes")).isEqualTo(INITIAL_BYTES);
+        assertThat(gauge("rates.window.ticks")).isZero();
+        assertThat(store.findHistory("EURUSD", start, Instant.now(), 100)).isNull();
+        assertThat(store.findHistory("EURUSD", Instant.now().minusSeconds(30), Instant.now(), 100)).isEmpty();
+    }
+
+    /**
+     * Bir kur için {@code from} anından başlayıp {@code stepMicros} aralıklı, veritabanına yazılmış gibi
+     * id ve yazılma anı atanmış tick'ler üretir.
+     */
+    private static List<RateRecord> ticks(String rateName, Instant from, int count, long stepMicros) {
+        List<RateRecord> records = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Instant time = from.plus(i * stepMicros, ChronoUnit.MICROS);
+            RateRecord rateRecord = new RateRecord(rateName, 108_000_000L + i, 108_010_000L + i, time, time.plusMillis(3));
+            rateRecord.setId(1_000L + i);
+            records.add(rateRecord);
+        }
+        return records;
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+
+    private static long toMicros(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000L + instant.getNano() / 1_000;
+    }
+}
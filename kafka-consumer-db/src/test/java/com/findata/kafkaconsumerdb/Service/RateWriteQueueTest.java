@@ -0,0 +1,293 @@
+package com.findata.kafkaconsumerdb.Service;
+
+import com.findata.kafkaconsumerdb.Config.RateRetryProperties;
+import com.findata.kafkaconsumerdb.Entity.RateRecord;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link RateWriteQueue}'nun yüksek su seviyesinde consumer'ları duraklatıp düşük su seviyesinde devam
+ * ettirdiğini, offset'leri yalnızca yazmadan sonra ve her şeritte geliş sırasıyla onayladığını, kapanırken
+ * kuyruktaki batch'leri yazdığını ve beklenmeyen hatalarda şeridin durmadığını doğrular.
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ */
+class RateWriteQueueTest {
+
+    private static final String TOPIC = "raw-rates";
+
+    private static final long HIGH_WATER_MARK = 10;
+
+    private static final long LOW_WATER_MARK = 4;
+
+    /** Yazma ve onay olayları, gerçekleştikleri sırayla */
+    private final List<String> events = Collections.synchronizedList(new ArrayList<>());
+
+    private MessageListenerContainer container;
+    private RateFailureHandler rateFailureHandler;
+    private StubWriter writer;
+    private RateWriteQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        container = mock(MessageListenerContainer.class);
+        KafkaListenerEndpointRegistry registry = mock(KafkaListenerEndpointRegistry.class);
+        when(registry.getListenerContainers()).thenReturn(List.of(container));
+        rateFailureHandler = mock(RateFailureHandler.class);
+        writer = new StubWriter();
+
+        queue = new RateWriteQueue();
+        ReflectionTestUtils.setField(queue, "listenerEndpointRegistry", registry);
+        ReflectionTestUtils.setField(queue, "candleAggregator", mock(CandleAggregator.class));
+        ReflectionTestUtils.setField(queue, "rateWindowStore", mock(RateWindowStore.class));
+        ReflectionTestUtils.setField(queue, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(queue, "rateFailureHandler", rateFailureHandler);
+        ReflectionTestUtils.setField(queue, "rateMetrics", mock(RateMetrics.class));
+        ReflectionTestUtils.setField(queue, "rateRetryProperties", new RateRetryProperties());
+        ReflectionTestUtils.setField(queue, "writerThreads", 2);
+        ReflectionTestUtils.setField(queue, "laneCapacity", 16);
+        ReflectionTestUtils.setField(queue, "highWaterMark", HIGH_WATER_MARK);
+        ReflectionTestUtils.setField(queue, "lowWaterMark", LOW_WATER_MARK);
+        ReflectionTestUtils.setField(queue, "retryBackoffMs", 10L);
+        ReflectionTestUtils.setField(queue, "maxRetryBackoffMs", 20L);
+        ReflectionTestUtils.setField(queue, "shutdownTimeoutMs", 5_000L);
+        queue.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writer.open();
+        queue.shutdown();
+    }
+
+    @Test
+    void pausesAtTheHighWaterMarkAndResumesAtTheLowWaterMark() throws InterruptedException {
+        writer.close();
+        for (int i = 0; i < 3; i++) {
+            queue.submit(TOPIC, writer, batch("A" + i, 3), acknowledgment("A" + i));
+        }
+        assertThat(queue.isPaused()).isFalse();
+
+        queue.submit(TOPIC, writer, batch("A3", 3), acknowledgment("A3"));
+
+        assertThat(queue.getPendingRecords()).isEqualTo(12);
+        assertThat(queue.isPaused()).isTrue();
+        verify(container).pause();
+
+        // 12 -> 9 -> 6: hâlâ düşük su seviyesinin üstünde
+        writer.allow(2);
+        await(() -> queue.getPendingRecords() == 6);
+        assertThat(queue.isPaused()).isTrue();
+        verify(container, never()).resume();
+
+        writer.allow(1);
+        await(() -> queue.getPendingRecords() == 3);
+        await(() -> !queue.isPaused());
+        verify(container, times(1)).pause();
+        verify(container, times(1)).resume();
+        assertThat(queue.getPausedNanos()).isPositive();
+    }
+
+    @Test
+    void acknowledgesEachLaneInSubmitOrderAfterTheWrite() throws InterruptedException {
+        int batches = 50;
+        List<Thread> consumers = new ArrayList<>();
+        for (String consumer : List.of("C", "D")) {
+            consumers.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < batches; i++) {
+                        queue.submit(TOPIC, writer, batch(consumer + i, 1), acknowledgment(consumer + i));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "consumer-" + consumer));
+        }
+        consumers.forEach(Thread::start);
+        for (Thread consumer : consumers) {
+            consumer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        await(() -> queue.getPendingRecords() == 0);
+
+        for (String consumer : List.of("C", "D")) {
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < batches; i++) {
+                expected.add("write:" + consumer + i);
+                expected.add("ack:" + consumer + i);
+            }
+            assertThat(eventsOf(consumer)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void shutdownWritesAndAcknowledgesQueuedBatches() throws InterruptedException {
+        writer.close();
+        for (int i = 0; i < 5; i++) {
+            queue.submit(TOPIC, writer, batch("E" + i, 2), acknowledgment("E" + i));
+        }
+        Thread shutdown = new Thread(() -> {
+            try {
+                queue.shutdown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        shutdown.start();
+        Thread.sleep(50);
+        assertThat(shutdown.isAlive()).isTrue();
+
+        writer.open();
+        shutdown.join(TimeUnit.SECONDS.toMillis(5));
+
+        assertThat(shutdown.isAlive()).isFalse();
+        assertThat(queue.getPendingRecords()).isZero();
+        assertThat(eventsOf("E")).containsExactly("write:E0", "ack:E0", "write:E1", "ack:E1", "write:E2", "ack:E2",
+                "write:E3", "ack:E3", "write:E4", "ack:E4");
+    }
+
+    @Test
+    void errorsDuringTheWriteAreRetriedWithoutStoppingTheLane() throws InterruptedException {
+        writer.failNext(new OutOfMemoryError("test"));
+
+        queue.submit(TOPIC, writer, batch("F0", 1), acknowledgment("F0"));
+        queue.submit(TOPIC, writer, batch("F1", 1), acknowledgment("F1"));
+        await(() -> queue.getPendingRecords() == 0);
+
+        // Başarısız deneme onaylanmaz; aynı batch yeniden yazılır ve sonraki batch'ler işlenmeye devam eder
+        assertThat(eventsOf("F")).containsExactly("write:F0", "write:F0", "ack:F0", "write:F1", "ack:F1");
+        verify(rateFailureHandler, never()).handleWriteFailure(anyString(), anyInt(), any(), anyList(), any());
+    }
+
+    @Test
+    void failedAcknowledgmentsDoNotStopTheLane() throws InterruptedException {
+        queue.submit(TOPIC, writer, batch("G0", 2), () -> {
+            events.add("ack:G0");
+            throw new IllegalStateException("container durdu");
+        });
+        queue.submit(TOPIC, writer, batch("G1", 2), acknowledgment("G1"));
+        await(() -> queue.getPendingRecords() == 0);
+
+        assertThat(eventsOf("G")).containsExactly("write:G0", "ack:G0", "write:G1", "ack:G1");
+    }
+
+    @Test
+    void permanentFailuresAreHandedOffAndAcknowledged() throws Exception {
+        IllegalStateException failure = new IllegalStateException("kısıt ihlali");
+        List<RateRecord> records = batch("H0", 2);
+        writer.failNext(failure);
+        when(rateFailureHandler.isTransient(failure)).thenReturn(false);
+        when(rateFailureHandler.handleWriteFailure(TOPIC, 0, writer, records, failure))
+                .thenReturn(new RateFailureHandler.HandOff(List.of(), records, true));
+
+        queue.submit(TOPIC, writer, records, acknowledgment("H0"));
+        await(() -> queue.getPendingRecords() == 0);
+
+        assertThat(eventsOf("H")).containsExactly("write:H0", "ack:H0");
+        verify(rateFailureHandler).handleWriteFailure(TOPIC, 0, writer, records, failure);
+    }
+
+    private Acknowledgment acknowledgment(String batchName) {
+        return () -> events.add("ack:" + batchName);
+    }
+
+    private List<String> eventsOf(String consumer) {
+        synchronized (events) {
+            return events.stream().filter(event -> event.substring(event.indexOf(':') + 1).startsWith(consumer)).toList();
+        }
+    }
+
+    /**
+     * Adı batch adıyla başlayan kayıtlardan oluşan bir batch üretir.
+     */
+    private static List<RateRecord> batch(String batchName, int size) {
+        List<RateRecord> records = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            records.add(new RateRecord(batchName, 100_000_000L, 100_010_000L, Instant.now(), null));
+        }
+        return records;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("koşul 5 saniye içinde sağlanmadı").isLessThan(deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    /**
+     * Yazmaları olay listesine kaydeden, kapıyla durdurulabilen ve istenen hatayı bir kez fırlatabilen yazıcı.
+     */
+    private final class StubWriter implements RateRecordWriter {
+
+        private static final int OPEN = Integer.MAX_VALUE / 2;
+
+        private final Semaphore permits = new Semaphore(OPEN);
+
+        private volatile Throwable nextFailure;
+
+        /** Yeni yazmaları {@link #allow} veya {@link #open} çağrılana kadar bekletir */
+        void close() {
+            permits.drainPermits();
+        }
+
+        void allow(int writes) {
+            permits.release(writes);
+        }
+
+        void open() {
+            permits.drainPermits();
+            permits.release(OPEN);
+        }
+
+        void failNext(Throwable failure) {
+            nextFailure = failure;
+        }
+
+        @Override
+        public String getName() {
+            return "stub";
+        }
+
+        @Override
+        public List<RateRecord> writeBatch(List<RateRecord> records) {
+            permits.acquireUninterruptibly();
+            events.add("write:" + records.get(0).getRateName());
+            Throwable failure = nextFailure;
+            if (failure != null) {
+                nextFailure = null;
+                if (failure instanceof Error error) {
+                    throw error;
+                }
+                throw (RuntimeException) failure;
+            }
+            return records;
+        }
+    }
+}
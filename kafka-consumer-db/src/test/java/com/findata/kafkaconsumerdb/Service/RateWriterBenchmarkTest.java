@@ -0,0 +1,215 @@
+package com.findata.kafkaconsumerdb.Service;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+
+import java.io.BufferedOutputStream;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Binary COPY ile JDBC batch insert'in farklı batch boyutlarındaki yazma hızını, {@code numeric(19,8)}
+ * ve {@code bigint} (sabit noktalı, 1e-8 birim) fiyat sütunları için karşılaştıran benchmark.
+ * Her biçim için tablonun {@link #TOTAL_ROWS} satırdaki disk boyutu da raporlanır.
+ * <p>
+ * Gerçek bir PostgreSQL gerektirdiği için yalnızca {@code benchmark.jdbc.url} verildiğinde çalışır:
+ * </p>
+ * <pre>
+ * mvn test -Dtest=RateWriterBenchmarkTest -Dbenchmark.jdbc.url=jdbc:postgresql://localhost:5432/ratesdb \
+ *     -Dbenchmark.jdbc.user=rateuser -Dbenchmark.jdbc.password=ratepass
+ * </pre>
+ * <p>
+ * {@code -Dbenchmark.jdbc.url=embedded} verilirse sunucu yerine gömülü bir PostgreSQL başlatılır.
+ * </p>
+ * <p>
+ * Tüm yollar {@code tbl_rates} ile aynı sütunlara sahip geçici tablolara yazar; uygulama
+ * tablosuna dokunulmaz. Insert yolu, uygulamadaki gibi {@code reWriteBatchedInserts=true} ile çalışır.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ */
+@EnabledIfSystemProperty(named = "benchmark.jdbc.url", matches = ".+")
+class RateWriterBenchmarkTest {
+
+    private static final int TOTAL_ROWS = 200_000;
+    private static final int[] BATCH_SIZES = {100, 500, 2_000, 10_000};
+    private static final String[] SYMBOLS = {"PF1_USDTRY", "PF1_EURUSD", "PF1_GBPUSD", "PF2_USDTRY", "PF2_EURUSD", "PF2_GBPUSD"};
+
+    /** Fiyat sütun tipleri: numeric biçimi ve fixed (bigint) biçimi */
+    private static final String[] PRICE_TYPES = {"numeric(19,8)", "bigint"};
+
+    private static final String CREATE_SQL = "CREATE TEMP TABLE %s (id bigint PRIMARY KEY, rate_name varchar(20) NOT NULL, "
+            + "bid %s NOT NULL, ask %s NOT NULL, "
+            + "rate_updatetime timestamptz NOT NULL, db_updatetime timestamptz NOT NULL)";
+    private static final String INSERT_SQL = "INSERT INTO %s (id, rate_name, bid, ask, rate_updatetime, db_updatetime) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static EmbeddedPostgres postgres;
+    private static Connection connection;
+    private static long nextId;
+
+    @BeforeAll
+    static void connect() throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty("user", System.getProperty("benchmark.jdbc.user", "rateuser"));
+        properties.setProperty("password", System.getProperty("benchmark.jdbc.password", "ratepass"));
+        properties.setProperty("reWriteBatchedInserts", "true");
+        String url = System.getProperty("benchmark.jdbc.url");
+        if ("embedded".equals(url)) {
+            postgres = EmbeddedPostgres.start();
+            url = postgres.getJdbcUrl("postgres", "postgres");
+            properties.setProperty("user", "postgres");
+            properties.remove("password");
+        }
+        connection = DriverManager.getConnection(url, properties);
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            for (String priceType : PRICE_TYPES) {
+                statement.execute(String.format(CREATE_SQL, table(priceType), priceType, priceType));
+            }
+        }
+        connection.commit();
+    }
+
+    @AfterAll
+    static void disconnect() throws Exception {
+        if (connection != null) {
+            connection.close();
+        }
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Test
+    void copyVersusBatchedInsert() throws Exception {
+        for (String priceType : PRICE_TYPES) {
+            String table = table(priceType);
+            boolean fixedPoint = "bigint".equals(priceType);
+            // Isınma: JIT ve sunucu önbellekleri için her iki yoldan da bir tur
+            insertRows(table, fixedPoint, 500, 20_000);
+            copyRows(table, fixedPoint, 500, 20_000);
+
+            System.out.printf("%nprice column: %s%n", priceType);
+            System.out.printf("%-10s %15s %15s %8s%n", "batch", "insert rows/s", "copy rows/s", "ratio");
+            for (int batchSize : BATCH_SIZES) {
+                double insertRate = insertRows(table, fixedPoint, batchSize, TOTAL_ROWS);
+                double copyRate = copyRows(table, fixedPoint, batchSize, TOTAL_ROWS);
+                System.out.printf("%-10d %15.0f %15.0f %7.1fx%n", batchSize, insertRate, copyRate, copyRate / insertRate);
+            }
+            System.out.printf("table size for %d rows: %d bytes (heap %d bytes)%n", TOTAL_ROWS,
+                    relationSize(table, "pg_total_relation_size"), relationSize(table, "pg_relation_size"));
+        }
+    }
+
+    /**
+     * Satırları JDBC batch insert ile yazar; her batch ayrı bir transaction'dır.
+     *
+     * @return Saniyedeki satır sayısı
+     */
+    private double insertRows(String table, boolean fixedPoint, int batchSize, int rows) throws Exception {
+        truncate(table);
+        long start = System.nanoTime();
+        try (PreparedStatement statement = connection.prepareStatement(String.format(INSERT_SQL, table))) {
+            for (int written = 0; written < rows; written += batchSize) {
+                int count = Math.min(batchSize, rows - written);
+                Timestamp now = Timestamp.from(Instant.now());
+                for (int i = 0; i < count; i++) {
+                    statement.setLong(1, nextId++);
+                    statement.setString(2, SYMBOLS[i % SYMBOLS.length]);
+                    if (fixedPoint) {
+                        statement.setLong(3, price(i, 0));
+                        statement.setLong(4, price(i, 5));
+                    } else {
+                        statement.setBigDecimal(3, BigDecimal.valueOf(price(i, 0), 8));
+                        statement.setBigDecimal(4, BigDecimal.valueOf(price(i, 5), 8));
+                    }
+                    statement.setTimestamp(5, now);
+                    statement.setTimestamp(6, now);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                connection.commit();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        assertEquals(rows, countRows(table));
+        return rows * 1e9 / elapsed;
+    }
+
+    /**
+     * Satırları binary COPY ile yazar; her batch ayrı bir COPY komutu ve transaction'dır.
+     *
+     * @return Saniyedeki satır sayısı
+     */
+    private double copyRows(String table, boolean fixedPoint, int batchSize, int rows) throws Exception {
+        truncate(table);
+        String copySql = RateCopyEncoder.COPY_SQL.replace("tbl_rates", table);
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        long start = System.nanoTime();
+        for (int written = 0; written < rows; written += batchSize) {
+            int count = Math.min(batchSize, rows - written);
+            Instant now = Instant.now();
+            try (PGCopyOutputStream copyStream = new PGCopyOutputStream(pgConnection, copySql, 64 * 1024)) {
+                RateCopyEncoder encoder = new RateCopyEncoder(new BufferedOutputStream(copyStream, 64 * 1024), fixedPoint);
+                for (int i = 0; i < count; i++) {
+                    encoder.writeRow(nextId++, SYMBOLS[i % SYMBOLS.length], price(i, 0), price(i, 5), now, now);
+                }
+                encoder.finish();
+            }
+            connection.commit();
+        }
+        long elapsed = System.nanoTime() - start;
+        assertEquals(rows, countRows(table));
+        return rows * 1e9 / elapsed;
+    }
+
+    /**
+     * 1e-8 birim cinsinden fiyat.
+     */
+    private static long price(int i, int spread) {
+        return 3_412_345_678L + (i % 10_000) + spread;
+    }
+
+    private static String table(String priceType) {
+        return "bench_rates_" + priceType.replaceAll("\\(.*", "").toLowerCase(Locale.ROOT);
+    }
+
+    private static void truncate(String table) throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("TRUNCATE " + table);
+        }
+        connection.commit();
+    }
+
+    private static long countRows(String table) throws Exception {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT count(*) FROM " + table)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private static long relationSize(String table, String function) throws Exception {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT " + function + "('" + table + "')")) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.findata.kafkaconsumerdb.Service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link TickRingBuffer}'ın halka üzerinde sarmalanan tick'leri sırayla verdiğini, sıra dışı ve tekrar
+ * eden tick'leri doğru işlediğini, bütçe tükenince en eskisini attığını, kapsama başlangıcını doğru
+ * taşıdığını ve atılan veya sıfırlanan kapasiteyi bütçeye geri verdiğini doğrular.
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ */
+class TickRingBufferTest {
+
+    @Test
+    void visitsTicksInOrderAfterWrappingAround() {
+        TickRingBuffer buffer = new TickRingBuffer(8, 0, new TestBudget(0));
+        for (long time = 1; time <= 8; time++) {
+            buffer.add(time, time, time * 10, time * 20, time);
+        }
+        buffer.evictBefore(6);
+        for (long time = 9; time <= 13; time++) {
+            buffer.add(time, time, time * 10, time * 20, time);
+        }
+
+        // head 5. fiziksel indekste; tick'ler dizinin sonundan başına sarmalanır
+        assertThat(buffer.capacity()).isEqualTo(8);
+        assertThat(visit(buffer, 6, Long.MAX_VALUE, Integer.MAX_VALUE)).containsExactly(6L, 7L, 8L, 9L, 10L, 11L, 12L, 13L);
+        assertThat(visit(buffer, 8, 12, Integer.MAX_VALUE)).containsExactly(8L, 9L, 10L, 11L);
+        assertThat(visit(buffer, 7, Long.MAX_VALUE, 3)).containsExactly(7L, 8L, 9L);
+        assertThat(visitTick(buffer, 12)).containsExactly(12L, 12L, 120L, 240L, 12L);
+    }
+
+    @Test
+    void insertsOutOfOrderTicksAndSkipsDuplicateTimestamps() {
+        TickRingBuffer buffer = new TickRingBuffer(4, 0, new TestBudget(Long.MAX_VALUE));
+        SplittableRandom random = new SplittableRandom(5);
+        TreeMap<Long, Long> expected = new TreeMap<>();
+        for (int i = 0; i < 5_000; i++) {
+            long time = 1 + random.nextLong(3_000);
+            boolean added = buffer.add(time, i, i, i, time);
+
+            assertThat(added).isEqualTo(!expected.containsKey(time));
+            expected.putIfAbsent(time, (long) i);
+        }
+
+        assertThat(buffer.size()).isEqualTo(expected.size());
+        assertThat(visit(buffer, 0, Long.MAX_VALUE, Integer.MAX_VALUE)).containsExactlyElementsOf(expected.keySet());
+        for (long time : new long[]{expected.firstKey(), expected.lastKey(), expected.ceilingKey(1_500L)}) {
+            assertThat(visitTick(buffer, time)[1]).isEqualTo(expected.get(time));
+        }
+    }
+
+    @Test
+    void growsWithinBudgetThenOverwritesTheOldestTick() {
+        TestBudget budget = new TestBudget(12);
+        TickRingBuffer buffer = new TickRingBuffer(4, 0, budget);
+        for (long time = 10; time <= 200; time += 10) {
+            buffer.add(time, time, 0, 0, time);
+        }
+
+        // 4 -> 8 (4 ayrıldı) -> 16 (8 ayrıldı); 32'ye büyümek için 16 gerekir, bütçede 0 kaldı
+        assertThat(buffer.capacity()).isEqualTo(16);
+        assertThat(budget.reserved).isEqualTo(12);
+        assertThat(buffer.size()).isEqualTo(16);
+        assertThat(buffer.getCoverageStart()).isEqualTo(41);
+        assertThat(visit(buffer, 41, Long.MAX_VALUE, Integer.MAX_VALUE)).hasSize(16).startsWith(50L).endsWith(200L);
+        assertThat(buffer.visit(40, Long.MAX_VALUE, Integer.MAX_VALUE, (time, id, bid, ask, dbTime) -> { })).isEqualTo(-1);
+
+        // Dolu tamponda en eskiden de eski bir tick kendisi atılmış sayılır ve kapsama onun sonrasına taşınır
+        assertThat(buffer.add(45, 0, 0, 0, 45)).isFalse();
+        assertThat(buffer.getCoverageStart()).isEqualTo(46);
+        assertThat(buffer.size()).isEqualTo(16);
+
+        // Aradaki bir tick en eskisini atar
+        assertThat(buffer.add(55, 0, 0, 0, 55)).isTrue();
+        assertThat(buffer.getCoverageStart()).isEqualTo(51);
+        assertThat(visit(buffer, 51, 70, Integer.MAX_VALUE)).containsExactly(55L, 60L);
+    }
+
+    @Test
+    void rejectsTicksBeforeCoverageAndAnswersOnlyQueriesInsideIt() {
+        TickRingBuffer buffer = new TickRingBuffer(4, 100, new TestBudget(Long.MAX_VALUE));
+
+        assertThat(buffer.add(99, 1, 0, 0, 99)).isFalse();
+        assertThat(buffer.add(100, 1, 0, 0, 100)).isTrue();
+        assertThat(buffer.visit(99, 200, 10, (time, id, bid, ask, dbTime) -> { })).isEqualTo(-1);
+        assertThat(buffer.visit(100, 200, 10, (time, id, bid, ask, dbTime) -> { })).isEqualTo(1);
+
+        buffer.add(150, 2, 0, 0, 150);
+        buffer.evictBefore(120);
+
+        assertThat(buffer.getCoverageStart()).isEqualTo(120);
+        assertThat(buffer.visit(119, 200, 10, (time, id, bid, ask, dbTime) -> { })).isEqualTo(-1);
+        assertThat(visit(buffer, 120, 200, 10)).containsExactly(150L);
+        assertThat(buffer.add(110, 3, 0, 0, 110)).isFalse();
+    }
+
+    @Test
+    void evictionShrinksTheBufferAndReleasesTheBudget() {
+        TestBudget budget = new TestBudget(Long.MAX_VALUE);
+        TickRingBuffer buffer = new TickRingBuffer(4, 0, budget);
+        for (long time = 1; time <= 64; time++) {
+            buffer.add(time, time, 0, 0, time);
+        }
+        assertThat(buffer.capacity()).isEqualTo(64);
+        assertThat(budget.reserved).isEqualTo(60);
+
+        // 64 -> 17 tick: dörtte birin üstünde, küçülmez
+        buffer.evictBefore(48);
+        assertThat(buffer.capacity()).isEqualTo(64);
+
+        // 64 -> 16 tick: bir kez yarıya iner ve tampon yarı dolu kalır
+        buffer.evictBefore(49);
+        assertThat(buffer.capacity()).isEqualTo(32);
+        assertThat(budget.reserved).isEqualTo(28);
+        assertThat(visit(buffer, 49, Long.MAX_VALUE, Integer.MAX_VALUE)).hasSize(16).startsWith(49L).endsWith(64L);
+
+        // Tek tick kalınca ilk kapasitenin altına inmeden küçülür
+        buffer.evictBefore(64);
+        assertThat(buffer.capacity()).isEqualTo(4);
+        assertThat(budget.reserved).isZero();
+        assertThat(visit(buffer, 64, Long.MAX_VALUE, Integer.MAX_VALUE)).containsExactly(64L);
+
+        // Küçülen tampon yeniden büyüyebilir
+        for (long time = 65; time <= 80; time++) {
+            buffer.add(time, time, 0, 0, time);
+        }
+        assertThat(buffer.capacity()).isEqualTo(32);
+        assertThat(budget.reserved).isEqualTo(28);
+    }
+
+    @Test
+    void resetShrinksToTheInitialCapacityAndReleasesTheBudget() {
+        TestBudget budget = new TestBudget(Long.MAX_VALUE);
+        TickRingBuffer buffer = new TickRingBuffer(4, 0, budget);
+        for (long time = 1; time <= 30; time++) {
+            buffer.add(time, time, 0, 0, time);
+        }
+        assertThat(budget.reserved).isEqualTo(28);
+
+        buffer.reset(1_000);
+
+        assertThat(buffer.size()).isZero();
+        assertThat(buffer.capacity()).isEqualTo(4);
+        assertThat(budget.reserved).isZero();
+        assertThat(buffer.getCoverageStart()).isEqualTo(1_000);
+        assertThat(buffer.add(30, 30, 0, 0, 30)).isFalse();
+        assertThat(buffer.add(1_000, 1, 0, 0, 1_000)).isTrue();
+    }
+
+    private static List<Long> visit(TickRingBuffer buffer, long from, long to, int limit) {
+        List<Long> times = new ArrayList<>();
+        int visited = buffer.visit(from, to, limit, (time, id, bid, ask, dbTime) -> times.add(time));
+        assertThat(visited).isEqualTo(times.size());
+        return times;
+    }
+
+    private static long[] visitTick(TickRingBuffer buffer, long time) {
+        long[][] tick = new long[1][];
+        buffer.visit(time, time + 1, 1, (t, id, bid, ask, dbTime) -> tick[0] = new long[]{t, id, bid, ask, dbTime});
+        return tick[0];
+    }
+
+    /**
+     * Ayrılan ve geri verilen kapasiteyi sayan bütçe.
+     */
+    private static final class TestBudget implements TickRingBuffer.Budget {
+
+        private final long limit;
+
+        private long reserved;
+
+        private TestBudget(long limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public boolean reserve(int ticks) {
+            if (reserved + ticks > limit) {
+                return false;
+            }
+            reserved += ticks;
+            return true;
+        }
+
+        @Override
+        public void release(int ticks) {
+            reserved -= ticks;
+            assertThat(reserved).isNotNegative();
+        }
+    }
+}
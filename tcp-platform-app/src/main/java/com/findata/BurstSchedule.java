@@ -0,0 +1,122 @@
+package com.findata;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tick hızlarının zamana bağlı çarpanını hesaplayan burst takvimi.
+ * <p>
+ * {@link GeneratorConfig.Burst} pencerelerinden oluşturulur. Bir an birden fazla pencereye
+ * denk gelirse en büyük çarpan geçerlidir; hiçbir pencere aktif değilse çarpan 1'dir.
+ * {@link RateBroadcaster}, her yayından sonra bir sonraki aralığı bu çarpana bölerek
+ * hesaplar; böylece burst başladığında tüm semboller hızlanır, bittiğinde eski hızlarına döner.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @since 2025-04-25
+ */
+public class BurstSchedule {
+
+    /** Hiç burst içermeyen takvim */
+    private static final BurstSchedule NONE = new BurstSchedule(new long[0], new long[0], new long[0], new double[0], 0L);
+
+    /** Pencere başlangıçları (başlangıç zamanına göre nanosaniye) */
+    private final long[] starts;
+
+    /** Pencere süreleri (nanosaniye) */
+    private final long[] durations;
+
+    /** Tekrarlama aralıkları (nanosaniye); 0 ise tek seferlik */
+    private final long[] repeats;
+
+    /** Pencere çarpanları */
+    private final double[] multipliers;
+
+    /** Takvimin sıfır noktası (System.nanoTime) */
+    private final long originNanos;
+
+    private BurstSchedule(long[] starts, long[] durations, long[] repeats, double[] multipliers, long originNanos) {
+        this.starts = starts;
+        this.durations = durations;
+        this.repeats = repeats;
+        this.multipliers = multipliers;
+        this.originNanos = originNanos;
+    }
+
+    /**
+     * Hiç burst içermeyen takvimi döndürür.
+     *
+     * @return Çarpanı her zaman 1 olan takvim
+     */
+    public static BurstSchedule none() {
+        return NONE;
+    }
+
+    /**
+     * Yapılandırmadaki pencerelerden, şu andan başlayan bir takvim oluşturur.
+     *
+     * @param bursts Burst pencereleri (null veya boş olabilir)
+     * @return Burst takvimi
+     */
+    public static BurstSchedule from(List<GeneratorConfig.Burst> bursts) {
+        if (bursts == null || bursts.isEmpty()) {
+            return NONE;
+        }
+        int size = bursts.size();
+        long[] starts = new long[size];
+        long[] durations = new long[size];
+        long[] repeats = new long[size];
+        double[] multipliers = new double[size];
+        for (int i = 0; i < size; i++) {
+            GeneratorConfig.Burst burst = bursts.get(i);
+            if (burst.getMultiplier() <= 0) {
+                throw new IllegalArgumentException("burst multiplier must be positive: " + burst.getMultiplier());
+            }
+            starts[i] = secondsToNanos(burst.getStartSeconds());
+            durations[i] = secondsToNanos(burst.getDurationSeconds());
+            repeats[i] = secondsToNanos(burst.getRepeatEverySeconds());
+            multipliers[i] = burst.getMultiplier();
+        }
+        return new BurstSchedule(starts, durations, repeats, multipliers, System.nanoTime());
+    }
+
+    /**
+     * Verilen andaki tick hızı çarpanını döndürür.
+     *
+     * @param nowNanos Şimdiki zaman (System.nanoTime)
+     * @return Aktif pencerelerin en büyük çarpanı veya 1
+     */
+    public double multiplierAt(long nowNanos) {
+        double multiplier = 1.0d;
+        long elapsed = nowNanos - originNanos;
+        for (int i = 0; i < starts.length; i++) {
+            long sinceStart = elapsed - starts[i];
+            if (sinceStart < 0) {
+                continue;
+            }
+            long phase = repeats[i] > 0 ? sinceStart % repeats[i] : sinceStart;
+            if (phase < durations[i] && multipliers[i] > multiplier) {
+                multiplier = multipliers[i];
+            }
+        }
+        return multiplier;
+    }
+
+    /**
+     * Temel yayın aralığını şu anki çarpana göre ölçekler.
+     *
+     * @param baseIntervalNanos Temel yayın aralığı (nanosaniye)
+     * @return Ölçeklenmiş yayın aralığı (nanosaniye, en az 1)
+     */
+    public long scale(long baseIntervalNanos) {
+        if (starts.length == 0) {
+            return baseIntervalNanos;
+        }
+        return Math.max(1L, (long) (baseIntervalNanos / multiplierAt(System.nanoTime())));
+    }
+
+    private static long secondsToNanos(double seconds) {
+        return (long) (seconds * TimeUnit.SECONDS.toNanos(1));
+    }
+}
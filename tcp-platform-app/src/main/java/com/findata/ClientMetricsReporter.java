@@ -0,0 +1,108 @@
+package com.findata;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bağlı istemcilerin giden kuyruk metriklerini periyodik olarak loglayan sınıf.
+ * <p>
+ * Her istemci bağlantısı kendi {@link OutboundQueue}'sunu kaydeder ve bağlantı kapanınca
+ * kaydını siler. Raporlama ayrı bir thread'de yapılır; yayın zamanlayıcısı loglama
+ * nedeniyle gecikmez. Bir istemcide mesaj atıldıysa veya birleştirildiyse satır WARN
+ * seviyesinde loglanır.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @since 2025-04-25
+ */
+public class ClientMetricsReporter {
+
+    /** Loglama için kullanılan Logger nesnesi */
+    private static final Logger log = LoggerFactory.getLogger(ClientMetricsReporter.class);
+
+    /** Kayıtlı istemci kuyrukları */
+    private final Set<OutboundQueue> queues = ConcurrentHashMap.newKeySet();
+
+    /** Raporlama thread'i, raporlama kapalıysa null */
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Bir istemci kuyruğunu raporlamaya ekler.
+     *
+     * @param queue İstemcinin giden kuyruğu
+     */
+    public void register(OutboundQueue queue) {
+        queues.add(queue);
+    }
+
+    /**
+     * Bir istemci kuyruğunu raporlamadan çıkarır ve son metriklerini loglar.
+     *
+     * @param queue İstemcinin giden kuyruğu
+     */
+    public void unregister(OutboundQueue queue) {
+        if (queues.remove(queue)) {
+            report(queue);
+        }
+    }
+
+    /**
+     * Periyodik raporlamayı başlatır.
+     *
+     * @param intervalSeconds Raporlama aralığı (saniye); 0 veya negatifse raporlama yapılmaz
+     */
+    public synchronized void start(int intervalSeconds) {
+        if (intervalSeconds <= 0 || scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "client-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::reportAll, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Periyodik raporlamayı durdurur.
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Tüm kayıtlı istemcilerin metriklerini loglar.
+     */
+    void reportAll() {
+        if (queues.isEmpty()) {
+            return;
+        }
+        log.info("Client outbound metrics for {} client(s):", queues.size());
+        for (OutboundQueue queue : queues) {
+            report(queue);
+        }
+    }
+
+    private void report(OutboundQueue queue) {
+        long dropped = queue.getDropped();
+        long conflated = queue.getConflated();
+        String format = "Client {}: queueDepth={}, maxQueueDepth={}, sentMessages={}, sentBytes={}, dropped={}, conflated={}, policy={}";
+        Object[] args = {queue.getLabel(), queue.getDepth(), queue.getMaxDepth(), queue.getSentMessages(),
+                queue.getSentBytes(), dropped, conflated, queue.getPolicy()};
+        if (dropped > 0 || conflated > 0) {
+            log.warn(format, args);
+        } else {
+            log.info(format, args);
+        }
+    }
+}
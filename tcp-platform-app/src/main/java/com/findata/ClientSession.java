@@ -0,0 +1,257 @@
+package com.findata;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tek bir istemcinin protokol durumunu ve kur aboneliklerini yöneten sınıf.
+ * <p>
+ * Bu sınıf, istemciden gelen subscribe/unsubscribe komutlarını işler ve istemciyi
+ * {@link RateBroadcaster} üzerinden ilgili kurların yayınına ekler. Yayın merkezinden gelen
+ * güncellemeler bir {@link MessageSink} üzerinden istemciye gönderilir.
+ * Soket türünden bağımsızdır; hem bloklayıcı {@link ClientHandler} hem de
+ * {@link NioTcpServer} aynı oturum mantığını kullanır, böylece iki sunucu modu
+ * birebir aynı metin protokolünü konuşur.
+ * </p>
+ * <p>
+ * Yayınlar çıkış kanalında biriktirilir ve {@link RateBroadcaster} tarafından döngü sonunda
+ * {@link #flush()} ile gönderilir; komut yanıtları ise istek işlendikten hemen sonra gönderilir.
+ * </p>
+ * <p>
+ * Kur verileri şu formatta gönderilir: SEMBOL|bid:DEĞER|ask:DEĞER|timestamp:DEĞER
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @since 2025-04-25
+ */
+public class ClientSession {
+
+    /** Loglama için kullanılan Logger nesnesi */
+    private static final Logger log = LoggerFactory.getLogger(ClientSession.class);
+
+    /** Loglarda kullanılan istemci adresi */
+    private final InetAddress clientAddress;
+
+    /** İstemciye mesaj göndermek için kullanılan çıkış kanalı */
+    private final MessageSink out;
+
+    /** Kur güncellemelerini dağıtan yayın merkezi */
+    private final RateBroadcaster broadcaster;
+
+    /** İstemcinin abone olduğu kur sembolleri */
+    private final Set<String> subscriptions = ConcurrentHashMap.newKeySet();
+
+    /** Döngü sonunda gönderilmeyi bekleyen yayın olup olmadığı; yalnızca yayın thread'i (zamanlayıcı veya oynatıcı) kullanır */
+    private boolean flushPending;
+
+    /**
+     * Yeni bir istemci oturumu oluşturur.
+     *
+     * @param clientAddress İstemcinin adresi (loglama için)
+     * @param out İstemciye mesaj göndermek için kullanılan çıkış kanalı
+     * @param broadcaster Kur güncellemelerini dağıtan yayın merkezi
+     */
+    public ClientSession(InetAddress clientAddress, MessageSink out, RateBroadcaster broadcaster) {
+        this.clientAddress = clientAddress;
+        this.out = out;
+        this.broadcaster = broadcaster;
+    }
+
+    /**
+     * İstemciden gelen istekleri işler.
+     * <p>
+     * İstek formatı: "command|parameter" şeklindedir.
+     * Desteklenen komutlar:
+     * <ul>
+     *   <li>subscribe|SYMBOL - Belirtilen sembole abone olma</li>
+     *   <li>unsubscribe|SYMBOL - Belirtilen sembolden aboneliği iptal etme</li>
+     *   <li>unsubscribe|all - Tüm abonelikleri iptal etme</li>
+     * </ul>
+     * </p>
+     *
+     * @param request İstemciden gelen istek
+     */
+    public void handleRequest(String request) {
+        try {
+            if (request.startsWith("subscribe|")) {
+                String rateName = request.substring(request.indexOf('|') + 1);
+                subscribe(rateName);
+            } else if (request.startsWith("unsubscribe|")) {
+                String rateName = request.substring(request.indexOf('|') + 1);
+                unsubscribe(rateName);
+            } else {
+                log.warn("Invalid request format from {}: {}", clientAddress, request);
+                reply("ERROR|Invalid request format");
+            }
+        } catch (Exception e) {
+            log.error("Error processing request '{}' from {}: {}", request, clientAddress, e.getMessage());
+            reply("ERROR|Internal server error");
+        }
+        // Yanıtlar döngü sonunu beklemeden gönderilir
+        try {
+            out.flush();
+        } catch (IOException e) {
+            log.debug("Could not send reply to client {}: {}", clientAddress, e.getMessage());
+        }
+    }
+
+    /**
+     * Belirtilen kura abone olur ve düzenli güncelleme almaya başlar.
+     * <p>
+     * İstemci ilk güncellemeyi beklemeden kurun mevcut değerini hemen alır; sonraki
+     * güncellemeler sembolün yayın aralığında gelir.
+     * </p>
+     *
+     * @param rateName Abone olunacak kur sembolü
+     */
+    private void subscribe(String rateName) {
+        if (!broadcaster.hasRate(rateName)) {
+            log.warn("Rate not found for subscription request: {}", rateName);
+            reply("ERROR|Rate data not found for " + rateName);
+            return;
+        }
+
+        subscriptions.add(rateName);
+        broadcaster.subscribe(rateName, this);
+        log.info("Client {} subscribed to {}", clientAddress, rateName);
+        reply("Subscribed to " + rateName);
+
+        String snapshot = broadcaster.snapshot(rateName);
+        if (snapshot != null) {
+            deliver(rateName, snapshot);
+        }
+    }
+
+    /**
+     * Belirtilen kurdan aboneliği iptal eder.
+     * <p>
+     * Özel olarak "all" parametresi ile tüm abonelikler iptal edilebilir.
+     * </p>
+     *
+     * @param rateName Aboneliği iptal edilecek kur sembolü veya "all"
+     */
+    private void unsubscribe(String rateName) {
+        if ("all".equalsIgnoreCase(rateName)) {
+            stopAllBroadcasts();
+            log.info("Client {} unsubscribed from all rates", clientAddress);
+            reply("Unsubscribed from all rates.");
+        } else {
+            boolean stopped = stopBroadcast(rateName);
+            if (stopped) {
+                log.info("Client {} unsubscribed from {}", clientAddress, rateName);
+                reply("Unsubscribed from " + rateName);
+            } else {
+                log.warn("Client {} tried to unsubscribe from non-subscribed rate {}", clientAddress, rateName);
+                reply("ERROR|Not subscribed to " + rateName);
+            }
+        }
+    }
+
+    /**
+     * İstemciye bir komut yanıtı gönderir.
+     * <p>
+     * Yanıt gönderilemezse bağlantı zaten kopmuştur; okuma döngüsü bunu ayrıca
+     * fark edeceği için hata sadece loglanır.
+     * </p>
+     *
+     * @param message Gönderilecek yanıt
+     */
+    private void reply(String message) {
+        try {
+            out.send(message);
+        } catch (IOException e) {
+            log.debug("Could not send reply to client {}: {}", clientAddress, e.getMessage());
+        }
+    }
+
+    /**
+     * Yayın merkezinden gelen bir kur güncellemesini istemciye gönderir.
+     * <p>
+     * Gönderim başarısız olursa ilgili sembolün yayını bu istemci için durdurulur.
+     * </p>
+     *
+     * @param rateName Güncellemenin ait olduğu kur sembolü
+     * @param message Formatlanmış kur mesajı
+     */
+    void deliver(String rateName, String message) {
+        try {
+            out.sendUpdate(rateName, message);
+        } catch (IOException e) {
+            log.error("Error during broadcast for rate {} to client {}: {}", rateName, clientAddress, e.getMessage());
+            stopBroadcast(rateName);
+        }
+    }
+
+    /**
+     * Oturumu döngü sonunda gönderilecekler arasına işaretler. Sadece yayın thread'i çağırır.
+     *
+     * @return Oturum bu döngüde ilk kez işaretlendiyse true
+     */
+    boolean markFlushPending() {
+        if (flushPending) {
+            return false;
+        }
+        flushPending = true;
+        return true;
+    }
+
+    /**
+     * Biriken yayınları istemciye gönderir. Sadece yayın thread'i çağırır.
+     * <p>
+     * Gönderim başarısız olursa bağlantı kopmuş kabul edilir ve tüm yayınlar durdurulur.
+     * </p>
+     */
+    void flush() {
+        flushPending = false;
+        try {
+            out.flush();
+        } catch (IOException e) {
+            log.error("Error flushing broadcasts to client {}: {}", clientAddress, e.getMessage());
+            stopAllBroadcasts();
+        }
+    }
+
+    /**
+     * Belirli bir kur için yapılan yayını durdurur.
+     *
+     * @param rateName Yayını durdurulacak kur sembolü
+     * @return Yayın durduruldu ise true, sembol bulunamadı ise false
+     */
+    private boolean stopBroadcast(String rateName) {
+        if (subscriptions.remove(rateName)) {
+            broadcaster.unsubscribe(rateName, this);
+            log.debug("Stopped broadcast for rate {} for client {}", rateName, clientAddress);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Bu istemci için tüm kur yayınlarını durdurur.
+     */
+    private void stopAllBroadcasts() {
+        if (!subscriptions.isEmpty()) {
+            log.info("Stopping all ({}) broadcasts for client {}", subscriptions.size(), clientAddress);
+            for (String rateName : subscriptions) {
+                stopBroadcast(rateName);
+            }
+        }
+    }
+
+    /**
+     * Oturuma ait tüm yayınları durdurur.
+     * <p>
+     * Bağlantı koptuğunda veya istemci ayrıldığında çağrılır. Soketin kapatılması
+     * çağıran sunucu bileşeninin sorumluluğundadır.
+     * </p>
+     */
+    public void shutdown() {
+        stopAllBroadcasts();
+    }
+}
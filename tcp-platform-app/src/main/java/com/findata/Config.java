@@ -25,6 +25,48 @@ public class Config {
     /** Kur güncellemelerinin yayınlanma aralığı (milisaniye cinsinden) */
     private int broadcastIntervalMs;
 
+    /** Sunucu modu: "blocking" (istemci başına thread) veya "nio" (selector tabanlı) */
+    private String serverMode = "blocking";
+
+    /** NIO modunda bağlantıları paylaşan selector thread sayısı */
+    private int selectorThreads = 2;
+
+    /** Yayınları süren timing wheel'in tick süresi (mikrosaniye) */
+    private int timerTickMicros = 100;
+
+    /** Timing wheel'deki kova sayısı (2'nin kuvvetine yuvarlanır) */
+    private int timerWheelSize = 512;
+
+    /** Sentetik sembol üreten yük üretici profili (opsiyonel) */
+    private GeneratorConfig generator;
+
+    /** İstemci başına biriktirilen en fazla bayt; aşılınca döngü sonu beklenmeden gönderilir */
+    private int flushMaxBytes = 8192;
+
+    /** Biriken mesajların gönderilmesi için beklenecek en az süre (mikrosaniye); 0 ise her döngü sonunda */
+    private int flushIntervalUs;
+
+    /** İstemci başına giden kuyruğun mesaj kapasitesi */
+    private int outboundQueueCapacity = 10_000;
+
+    /** Kuyruk dolduğunda uygulanan politika: "conflate", "drop" veya "disconnect" */
+    private String slowConsumerPolicy = "conflate";
+
+    /** İstemci kuyruk metriklerinin loglanma aralığı (saniye); 0 ise kapalı */
+    private int clientMetricsIntervalSeconds = 30;
+
+    /** Yayınlanan tick'lerin kaydedileceği dosya (opsiyonel) */
+    private String recordFile;
+
+    /** Rastgele yürüyüş yerine yeniden oynatılacak kayıt dosyası (opsiyonel) */
+    private String replayFile;
+
+    /** Oynatma hızı çarpanı: 1 gerçek zamanlı, N kat hızlı, 0 en yüksek hız */
+    private double replaySpeed = 1.0d;
+
+    /** Kayıt dosyası bittiğinde başa dönülüp dönülmeyeceği */
+    private boolean replayLoop;
+
     /**
      * TCP sunucusunun dinleyeceği port numarasını döndürür.
      * @return Port numarası
@@ -60,4 +102,172 @@ public class Config {
      * @param broadcastIntervalMs Yayın aralığı (milisaniye cinsinden)
      */
     public void setBroadcastIntervalMs(int broadcastIntervalMs) { this.broadcastIntervalMs = broadcastIntervalMs; }
-}
\ No newline at end of file
+
+    /**
+     * Sunucu modunu döndürür.
+     * @return "blocking" veya "nio"
+     */
+    public String getServerMode() { return serverMode; }
+
+    /**
+     * Sunucu modunu ayarlar.
+     * @param serverMode "blocking" veya "nio"
+     */
+    public void setServerMode(String serverMode) { this.serverMode = serverMode; }
+
+    /**
+     * NIO modunda kullanılacak selector thread sayısını döndürür.
+     * @return Selector thread sayısı
+     */
+    public int getSelectorThreads() { return selectorThreads; }
+
+    /**
+     * NIO modunda kullanılacak selector thread sayısını ayarlar.
+     * @param selectorThreads Selector thread sayısı
+     */
+    public void setSelectorThreads(int selectorThreads) { this.selectorThreads = selectorThreads; }
+
+    /**
+     * Timing wheel tick süresini döndürür.
+     * @return Tick süresi (mikrosaniye cinsinden)
+     */
+    public int getTimerTickMicros() { return timerTickMicros; }
+
+    /**
+     * Timing wheel tick süresini ayarlar.
+     * @param timerTickMicros Tick süresi (mikrosaniye cinsinden)
+     */
+    public void setTimerTickMicros(int timerTickMicros) { this.timerTickMicros = timerTickMicros; }
+
+    /**
+     * Timing wheel kova sayısını döndürür.
+     * @return Kova sayısı
+     */
+    public int getTimerWheelSize() { return timerWheelSize; }
+
+    /**
+     * Timing wheel kova sayısını ayarlar.
+     * @param timerWheelSize Kova sayısı
+     */
+    public void setTimerWheelSize(int timerWheelSize) { this.timerWheelSize = timerWheelSize; }
+
+    /**
+     * Yük üretici profilini döndürür.
+     * @return Üretici profil veya tanımlı değilse null
+     */
+    public GeneratorConfig getGenerator() { return generator; }
+
+    /**
+     * Yük üretici profilini ayarlar.
+     * @param generator Üretici profil
+     */
+    public void setGenerator(GeneratorConfig generator) { this.generator = generator; }
+
+    /**
+     * İstemci başına biriktirilen en fazla bayt sayısını döndürür.
+     * @return Bayt sayısı
+     */
+    public int getFlushMaxBytes() { return flushMaxBytes; }
+
+    /**
+     * İstemci başına biriktirilen en fazla bayt sayısını ayarlar.
+     * @param flushMaxBytes Bayt sayısı
+     */
+    public void setFlushMaxBytes(int flushMaxBytes) { this.flushMaxBytes = flushMaxBytes; }
+
+    /**
+     * Biriken mesajların gönderim aralığını döndürür.
+     * @return Aralık (mikrosaniye); 0 ise her döngü sonunda gönderilir
+     */
+    public int getFlushIntervalUs() { return flushIntervalUs; }
+
+    /**
+     * Biriken mesajların gönderim aralığını ayarlar.
+     * @param flushIntervalUs Aralık (mikrosaniye); 0 ise her döngü sonunda gönderilir
+     */
+    public void setFlushIntervalUs(int flushIntervalUs) { this.flushIntervalUs = flushIntervalUs; }
+
+    /**
+     * İstemci başına giden kuyruğun kapasitesini döndürür.
+     * @return Mesaj sayısı
+     */
+    public int getOutboundQueueCapacity() { return outboundQueueCapacity; }
+
+    /**
+     * İstemci başına giden kuyruğun kapasitesini ayarlar.
+     * @param outboundQueueCapacity Mesaj sayısı
+     */
+    public void setOutboundQueueCapacity(int outboundQueueCapacity) { this.outboundQueueCapacity = outboundQueueCapacity; }
+
+    /**
+     * Yavaş istemci politikasını döndürür.
+     * @return "conflate", "drop" veya "disconnect"
+     */
+    public String getSlowConsumerPolicy() { return slowConsumerPolicy; }
+
+    /**
+     * Yavaş istemci politikasını ayarlar.
+     * @param slowConsumerPolicy "conflate", "drop" veya "disconnect"
+     */
+    public void setSlowConsumerPolicy(String slowConsumerPolicy) { this.slowConsumerPolicy = slowConsumerPolicy; }
+
+    /**
+     * İstemci metriklerinin loglanma aralığını döndürür.
+     * @return Aralık (saniye); 0 ise kapalı
+     */
+    public int getClientMetricsIntervalSeconds() { return clientMetricsIntervalSeconds; }
+
+    /**
+     * İstemci metriklerinin loglanma aralığını ayarlar.
+     * @param clientMetricsIntervalSeconds Aralık (saniye); 0 ise kapalı
+     */
+    public void setClientMetricsIntervalSeconds(int clientMetricsIntervalSeconds) { this.clientMetricsIntervalSeconds = clientMetricsIntervalSeconds; }
+
+    /**
+     * Tick kayıt dosyasının yolunu döndürür.
+     * @return Dosya yolu veya kayıt kapalıysa null
+     */
+    public String getRecordFile() { return recordFile; }
+
+    /**
+     * Tick kayıt dosyasının yolunu ayarlar.
+     * @param recordFile Dosya yolu
+     */
+    public void setRecordFile(String recordFile) { this.recordFile = recordFile; }
+
+    /**
+     * Yeniden oynatılacak kayıt dosyasının yolunu döndürür.
+     * @return Dosya yolu veya oynatma kapalıysa null
+     */
+    public String getReplayFile() { return replayFile; }
+
+    /**
+     * Yeniden oynatılacak kayıt dosyasının yolunu ayarlar.
+     * @param replayFile Dosya yolu
+     */
+    public void setReplayFile(String replayFile) { this.replayFile = replayFile; }
+
+    /**
+     * Oynatma hızı çarpanını döndürür.
+     * @return Hız çarpanı (0 ise en yüksek hız)
+     */
+    public double getReplaySpeed() { return replaySpeed; }
+
+    /**
+     * Oynatma hızı çarpanını ayarlar.
+     * @param replaySpeed Hız çarpanı (0 ise en yüksek hız)
+     */
+    public void setReplaySpeed(double replaySpeed) { this.replaySpeed = replaySpeed; }
+
+    /**
+     * Kayıt dosyası bittiğinde başa dönülüp dönülmeyeceğini döndürür.
+     * @return Döngüsel oynatmada true
+     */
+    public boolean isReplayLoop() { return replayLoop; }
+
+    /**
+     * Kayıt dosyası bittiğinde başa dönülüp dönülmeyeceğini ayarlar.
+     * @param replayLoop Döngüsel oynatmada true
+     */
+    public void setReplayLoop(boolean replayLoop) { this.replayLoop = replayLoop; }
+}
\ No newline at end of file
@@ -6,6 +6,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -16,6 +19,11 @@ import java.util.concurrent.ConcurrentHashMap;
  * JSON verilerini {@link Config} nesnesine dönüştürür ve
  * yapılandırılmış {@link Rate} nesnelerini bir Map içinde toplar.
  * </p>
+ * <p>
+ * {@code rates.config} sistem özelliği ile farklı bir dosya seçilebilir; değer bir dosya yolu
+ * veya {@code classpath:/load-profile.json} gibi bir classpath kaynağı olabilir. Yapılandırmada
+ * etkin bir {@code generator} bölümü varsa {@link LoadGenerator} ile sentetik semboller de eklenir.
+ * </p>
  *
  * @author Finans Veri Projesi Team
  * @version 1.0
@@ -26,6 +34,12 @@ public class ConfigLoader {
     /** Yapılandırma dosyasının classpath üzerindeki konumu */
     private static final String CONFIG_FILE = "/rates-config.json";
 
+    /** Farklı bir yapılandırma dosyası seçmek için kullanılan sistem özelliği */
+    private static final String CONFIG_PROPERTY = "rates.config";
+
+    /** Sistem özelliğinde classpath kaynağını belirten önek */
+    private static final String CLASSPATH_PREFIX = "classpath:";
+
     /**
      * Yapılandırma dosyasını yükler ve verilen haritayı {@link Rate} nesneleriyle doldurur.
      * <p>
@@ -41,27 +55,53 @@ public class ConfigLoader {
      */
     public static Config loadConfig(Map<String, Rate> rateMap) throws IOException {
         Gson gson = new Gson();
-        InputStream inputStream = ConfigLoader.class.getResourceAsStream(CONFIG_FILE);
-
-        if (inputStream == null) {
-            throw new FileNotFoundException("Configuration file '" + CONFIG_FILE + "' not found in resources!");
-        }
+        InputStream inputStream = openConfig(System.getProperty(CONFIG_PROPERTY, CLASSPATH_PREFIX + CONFIG_FILE));
 
         try (InputStreamReader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
             Config config = gson.fromJson(reader, Config.class);
 
             // rateMap'i doldur
             rateMap.clear(); // Önceki verileri temizle (varsa)
-            for (Map<String, Object> rateConfig : config.getRates()) {
+            List<Map<String, Object>> rateConfigs = config.getRates() != null ? config.getRates() : List.of();
+            for (Map<String, Object> rateConfig : rateConfigs) {
                 String name = (String) rateConfig.get("name");
                 double initialBid = ((Number) rateConfig.get("initialBid")).doubleValue();
                 double initialAsk = ((Number) rateConfig.get("initialAsk")).doubleValue();
                 double volatility = ((Number) rateConfig.getOrDefault("volatility", 0.01)).doubleValue(); // Volatilite ekledik
-                rateMap.put(name, new Rate(name, initialBid, initialAsk, volatility));
+                // Sembole özel tick hızı (saniyedeki yayın sayısı); yoksa genel broadcastIntervalMs geçerli
+                double ticksPerSecond = ((Number) rateConfig.getOrDefault("ticksPerSecond", 0)).doubleValue();
+                long intervalNanos = ticksPerSecond > 0 ? Math.max(1L, Math.round(1_000_000_000d / ticksPerSecond)) : 0L;
+                rateMap.put(name, new Rate(name, initialBid, initialAsk, volatility, intervalNanos));
+            }
+            // Yük üretici profili etkinse sentetik sembolleri ekle
+            if (config.getGenerator() != null && config.getGenerator().isEnabled()) {
+                LoadGenerator.generate(config.getGenerator(), rateMap);
             }
             // config.rates artık gerekli değil, temizlenebilir veya Config sınıfı düzenlenebilir.
             config.setRates(null);
             return config;
         }
     }
+
+    /**
+     * Yapılandırma kaynağını açar.
+     *
+     * @param location Dosya yolu veya "classpath:" önekli kaynak adı
+     * @return Yapılandırma içeriğini okuyan akış
+     * @throws IOException Kaynak bulunamadığında veya açılamadığında
+     */
+    private static InputStream openConfig(String location) throws IOException {
+        if (location.startsWith(CLASSPATH_PREFIX)) {
+            String resource = location.substring(CLASSPATH_PREFIX.length());
+            InputStream inputStream = ConfigLoader.class.getResourceAsStream(resource.startsWith("/") ? resource : "/" + resource);
+            if (inputStream == null) {
+                throw new FileNotFoundException("Configuration file '" + resource + "' not found in resources!");
+            }
+            return inputStream;
+        }
+        if (!Files.isRegularFile(Paths.get(location))) {
+            throw new FileNotFoundException("Configuration file '" + location + "' not found!");
+        }
+        return Files.newInputStream(Paths.get(location));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,268 @@
+package com.findata;
+
+import java.util.List;
+
+/**
+ * Yük üretici (load generator) profilinin yapılandırmasını temsil eden model sınıfı.
+ * <p>
+ * {@code rates-config.json} içindeki {@code generator} bölümünden yüklenir. Etkin olduğunda
+ * {@link LoadGenerator}, tohum (seed) değerine bağlı olarak deterministik biçimde binlerce
+ * sembol üretir. Sembollerin tick hızları Zipf dağılımına göre belirlenir: az sayıda sembol
+ * yayın trafiğinin büyük kısmını oluştururken uzun kuyruktaki semboller seyrek güncellenir.
+ * İsteğe bağlı burst pencereleri, piyasa açılışı gibi anlarda tüm tick hızlarını geçici olarak artırır.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @since 2025-04-25
+ */
+public class GeneratorConfig {
+    /** Üretici modun etkin olup olmadığı */
+    private boolean enabled;
+
+    /** Üretilecek sembol sayısı */
+    private int symbolCount = 1000;
+
+    /** Üretilen sembol isimlerinin öneki (örn: PF1_GEN00001) */
+    private String symbolPrefix = "PF1_GEN";
+
+    /** Fiyatlar, tick hızları ve rastgele yürüyüş için kullanılan tohum değeri */
+    private long seed = 42L;
+
+    /** Tüm semboller için toplam hedef tick hızı (saniyedeki yayın sayısı) */
+    private double totalTicksPerSecond = 10_000d;
+
+    /** Zipf dağılımının üssü; büyüdükçe trafik en popüler sembollerde yoğunlaşır */
+    private double zipfExponent = 1.0d;
+
+    /** Bir sembol için alt tick hızı sınırı */
+    private double minTicksPerSecond = 0.1d;
+
+    /** Üretilen başlangıç orta fiyatının alt sınırı */
+    private double priceMin = 1.0d;
+
+    /** Üretilen başlangıç orta fiyatının üst sınırı */
+    private double priceMax = 100.0d;
+
+    /** Başlangıç alım-satım farkı (baz puan) */
+    private double spreadBps = 5.0d;
+
+    /** Her güncellemedeki dalgalanma miktarı (orta fiyatın baz puanı cinsinden) */
+    private double volatilityBps = 2.0d;
+
+    /** Tick hızlarını geçici olarak artıran burst pencereleri */
+    private List<Burst> bursts;
+
+    /**
+     * Üretici modun etkin olup olmadığını döndürür.
+     * @return Etkinse true
+     */
+    public boolean isEnabled() { return enabled; }
+
+    /**
+     * Üretici modu etkinleştirir veya devre dışı bırakır.
+     * @param enabled Etkinse true
+     */
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    /**
+     * Üretilecek sembol sayısını döndürür.
+     * @return Sembol sayısı
+     */
+    public int getSymbolCount() { return symbolCount; }
+
+    /**
+     * Üretilecek sembol sayısını ayarlar.
+     * @param symbolCount Sembol sayısı
+     */
+    public void setSymbolCount(int symbolCount) { this.symbolCount = symbolCount; }
+
+    /**
+     * Sembol isim önekini döndürür.
+     * @return İsim öneki
+     */
+    public String getSymbolPrefix() { return symbolPrefix; }
+
+    /**
+     * Sembol isim önekini ayarlar.
+     * @param symbolPrefix İsim öneki
+     */
+    public void setSymbolPrefix(String symbolPrefix) { this.symbolPrefix = symbolPrefix; }
+
+    /**
+     * Tohum değerini döndürür.
+     * @return Tohum değeri
+     */
+    public long getSeed() { return seed; }
+
+    /**
+     * Tohum değerini ayarlar.
+     * @param seed Tohum değeri
+     */
+    public void setSeed(long seed) { this.seed = seed; }
+
+    /**
+     * Toplam hedef tick hızını döndürür.
+     * @return Saniyedeki toplam yayın sayısı
+     */
+    public double getTotalTicksPerSecond() { return totalTicksPerSecond; }
+
+    /**
+     * Toplam hedef tick hızını ayarlar.
+     * @param totalTicksPerSecond Saniyedeki toplam yayın sayısı
+     */
+    public void setTotalTicksPerSecond(double totalTicksPerSecond) { this.totalTicksPerSecond = totalTicksPerSecond; }
+
+    /**
+     * Zipf üssünü döndürür.
+     * @return Zipf üssü
+     */
+    public double getZipfExponent() { return zipfExponent; }
+
+    /**
+     * Zipf üssünü ayarlar.
+     * @param zipfExponent Zipf üssü
+     */
+    public void setZipfExponent(double zipfExponent) { this.zipfExponent = zipfExponent; }
+
+    /**
+     * Sembol başına alt tick hızı sınırını döndürür.
+     * @return Saniyedeki en düşük yayın sayısı
+     */
+    public double getMinTicksPerSecond() { return minTicksPerSecond; }
+
+    /**
+     * Sembol başına alt tick hızı sınırını ayarlar.
+     * @param minTicksPerSecond Saniyedeki en düşük yayın sayısı
+     */
+    public void setMinTicksPerSecond(double minTicksPerSecond) { this.minTicksPerSecond = minTicksPerSecond; }
+
+    /**
+     * Başlangıç fiyatının alt sınırını döndürür.
+     * @return Alt sınır
+     */
+    public double getPriceMin() { return priceMin; }
+
+    /**
+     * Başlangıç fiyatının alt sınırını ayarlar.
+     * @param priceMin Alt sınır
+     */
+    public void setPriceMin(double priceMin) { this.priceMin = priceMin; }
+
+    /**
+     * Başlangıç fiyatının üst sınırını döndürür.
+     * @return Üst sınır
+     */
+    public double getPriceMax() { return priceMax; }
+
+    /**
+     * Başlangıç fiyatının üst sınırını ayarlar.
+     * @param priceMax Üst sınır
+     */
+    public void setPriceMax(double priceMax) { this.priceMax = priceMax; }
+
+    /**
+     * Başlangıç alım-satım farkını döndürür.
+     * @return Fark (baz puan)
+     */
+    public double getSpreadBps() { return spreadBps; }
+
+    /**
+     * Başlangıç alım-satım farkını ayarlar.
+     * @param spreadBps Fark (baz puan)
+     */
+    public void setSpreadBps(double spreadBps) { this.spreadBps = spreadBps; }
+
+    /**
+     * Dalgalanma miktarını döndürür.
+     * @return Volatilite (baz puan)
+     */
+    public double getVolatilityBps() { return volatilityBps; }
+
+    /**
+     * Dalgalanma miktarını ayarlar.
+     * @param volatilityBps Volatilite (baz puan)
+     */
+    public void setVolatilityBps(double volatilityBps) { this.volatilityBps = volatilityBps; }
+
+    /**
+     * Burst pencerelerini döndürür.
+     * @return Burst pencereleri veya tanımlı değilse null
+     */
+    public List<Burst> getBursts() { return bursts; }
+
+    /**
+     * Burst pencerelerini ayarlar.
+     * @param bursts Burst pencereleri
+     */
+    public void setBursts(List<Burst> bursts) { this.bursts = bursts; }
+
+    /**
+     * Tüm tick hızlarının belirli bir süre boyunca bir çarpanla artırıldığı zaman penceresi.
+     * <p>
+     * Zamanlar simülatörün başlangıcına göre saniye cinsindendir. {@code repeatEverySeconds}
+     * sıfırdan büyükse pencere bu aralıkla tekrarlanır (örneğin her "seans açılışı").
+     * </p>
+     */
+    public static class Burst {
+        /** Pencerenin başlangıcı (simülatör başlangıcından itibaren saniye) */
+        private double startSeconds;
+
+        /** Pencerenin süresi (saniye) */
+        private double durationSeconds;
+
+        /** Pencere boyunca tick hızlarına uygulanan çarpan */
+        private double multiplier = 1.0d;
+
+        /** Tekrarlama aralığı (saniye); 0 ise pencere bir kez uygulanır */
+        private double repeatEverySeconds;
+
+        /**
+         * Pencerenin başlangıcını döndürür.
+         * @return Başlangıç (saniye)
+         */
+        public double getStartSeconds() { return startSeconds; }
+
+        /**
+         * Pencerenin başlangıcını ayarlar.
+         * @param startSeconds Başlangıç (saniye)
+         */
+        public void setStartSeconds(double startSeconds) { this.startSeconds = startSeconds; }
+
+        /**
+         * Pencerenin süresini döndürür.
+         * @return Süre (saniye)
+         */
+        public double getDurationSeconds() { return durationSeconds; }
+
+        /**
+         * Pencerenin süresini ayarlar.
+         * @param durationSeconds Süre (saniye)
+         */
+        public void setDurationSeconds(double durationSeconds) { this.durationSeconds = durationSeconds; }
+
+        /**
+         * Tick hızı çarpanını döndürür.
+         * @return Çarpan
+         */
+        public double getMultiplier() { return multiplier; }
+
+        /**
+         * Tick hızı çarpanını ayarlar.
+         * @param multiplier Çarpan
+         */
+        public void setMultiplier(double multiplier) { this.multiplier = multiplier; }
+
+        /**
+         * Tekrarlama aralığını döndürür.
+         * @return Aralık (saniye); 0 ise tekrarlanmaz
+         */
+        public double getRepeatEverySeconds() { return repeatEverySeconds; }
+
+        /**
+         * Tekrarlama aralığını ayarlar.
+         * @param repeatEverySeconds Aralık (saniye); 0 ise tekrarlanmaz
+         */
+        public void setRepeatEverySeconds(double repeatEverySeconds) { this.repeatEverySeconds = repeatEverySeconds; }
+    }
+}
@@ -0,0 +1,92 @@
+package com.findata;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Yük testi için çok sayıda sentetik sembol üreten yardımcı sınıf.
+ * <p>
+ * {@link GeneratorConfig} ile tanımlanan profile göre N adet {@link Rate} oluşturur.
+ * Sembollerin popülerlik sırası tohum değeriyle karıştırılır ve her sembolün tick hızı
+ * Zipf dağılımına göre toplam hedef hızdan pay alır: {@code r}. sıradaki sembolün payı
+ * {@code r^-s / H(N, s)} kadardır. Başlangıç fiyatları logaritmik olarak eşit dağılır;
+ * her sembolün rastgele yürüyüşü kendi tohumuyla ilerler. Aynı profil ve tohum her
+ * çalıştırmada birebir aynı sembol evrenini üretir.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @since 2025-04-25
+ */
+public final class LoadGenerator {
+
+    /** Loglama için kullanılan Logger nesnesi */
+    private static final Logger log = LoggerFactory.getLogger(LoadGenerator.class);
+
+    private LoadGenerator() {
+    }
+
+    /**
+     * Profildeki sembolleri üretir ve verilen haritaya ekler.
+     *
+     * @param generator Üretici profil yapılandırması
+     * @param rateMap Üretilen Rate nesnelerinin ekleneceği harita
+     * @return Üretilen sembollerin toplam hedef tick hızı (saniyedeki yayın sayısı)
+     */
+    public static double generate(GeneratorConfig generator, Map<String, Rate> rateMap) {
+        int count = generator.getSymbolCount();
+        if (count <= 0) {
+            throw new IllegalArgumentException("generator.symbolCount must be positive: " + count);
+        }
+        if (generator.getPriceMin() <= 0 || generator.getPriceMax() < generator.getPriceMin()) {
+            throw new IllegalArgumentException("generator price range is invalid: "
+                    + generator.getPriceMin() + " - " + generator.getPriceMax());
+        }
+        Random random = new Random(generator.getSeed());
+
+        // Zipf ağırlıkları: sıra r için r^-s, normalizasyon için harmonik toplam
+        double exponent = generator.getZipfExponent();
+        double harmonic = 0d;
+        for (int rank = 1; rank <= count; rank++) {
+            harmonic += Math.pow(rank, -exponent);
+        }
+
+        // Popülerlik sırası sembol indeksinden bağımsız olsun diye karıştırılır
+        List<Integer> ranks = new ArrayList<>(count);
+        for (int rank = 1; rank <= count; rank++) {
+            ranks.add(rank);
+        }
+        Collections.shuffle(ranks, random);
+
+        int width = Math.max(5, String.valueOf(count).length());
+        double logMin = Math.log(generator.getPriceMin());
+        double logMax = Math.log(generator.getPriceMax());
+        double totalTicksPerSecond = 0d;
+
+        for (int i = 0; i < count; i++) {
+            String name = generator.getSymbolPrefix() + String.format(Locale.US, "%0" + width + "d", i + 1);
+            int rank = ranks.get(i);
+            double ticksPerSecond = Math.max(generator.getMinTicksPerSecond(),
+                    generator.getTotalTicksPerSecond() * Math.pow(rank, -exponent) / harmonic);
+            long intervalNanos = Math.max(1L, Math.round(1_000_000_000d / ticksPerSecond));
+
+            double mid = Math.exp(logMin + random.nextDouble() * (logMax - logMin));
+            double halfSpread = mid * generator.getSpreadBps() / 20_000d;
+            double volatility = mid * generator.getVolatilityBps() / 10_000d;
+
+            rateMap.put(name, new Rate(name, mid - halfSpread, mid + halfSpread, volatility, intervalNanos, random.nextLong()));
+            totalTicksPerSecond += 1_000_000_000d / intervalNanos;
+        }
+
+        log.info("Load generator created {} symbols (prefix={}, seed={}, zipfExponent={}), target {} ticks/s",
+                count, generator.getSymbolPrefix(), generator.getSeed(), exponent, Math.round(totalTicksPerSecond));
+        return totalTicksPerSecond;
+    }
+}
@@ -0,0 +1,54 @@
+package com.findata;
+
+import java.io.IOException;
+
+/**
+ * Bir istemciye metin satırı gönderebilen çıkış kanalını temsil eden arayüz.
+ * <p>
+ * {@link ClientSession}, protokol mantığını soketin türünden bağımsız yürütebilmek için
+ * bu arayüzü kullanır. Bloklayıcı sunucuda bir {@link QueuedSocketSink},
+ * NIO sunucusunda ise bağlantıya ait giden {@link java.nio.ByteBuffer} kuyruğu
+ * bu arayüzün arkasında yer alır.
+ * </p>
+ * <p>
+ * Uygulamalar mesajları hemen göndermek yerine biriktirebilir; biriken mesajlar
+ * {@link #flush()} çağrıldığında tek seferde gönderilir.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @since 2025-04-25
+ */
+public interface MessageSink {
+
+    /**
+     * Verilen mesajı satır sonu ekleyerek istemciye gönderir.
+     *
+     * @param message Gönderilecek mesaj (satır sonu olmadan)
+     * @throws IOException Bağlantı kapanmışsa veya yazma hatası oluşmuşsa
+     */
+    void send(String message) throws IOException;
+
+    /**
+     * Bir kur güncellemesini istemciye gönderir.
+     * <p>
+     * Varsayılan olarak {@link #send(String)} ile aynıdır; sınırlı kuyruk kullanan uygulamalar
+     * sembol bilgisini yavaş istemci politikası (örneğin sembol başına birleştirme) için kullanır.
+     * </p>
+     *
+     * @param rateName Güncellemenin ait olduğu kur sembolü
+     * @param message Formatlanmış kur mesajı
+     * @throws IOException Bağlantı kapanmışsa veya yazma hatası oluşmuşsa
+     */
+    default void sendUpdate(String rateName, String message) throws IOException {
+        send(message);
+    }
+
+    /**
+     * Biriktirilmiş mesajları istemciye gönderir.
+     *
+     * @throws IOException Bağlantı kapanmışsa veya yazma hatası oluşmuşsa
+     */
+    default void flush() throws IOException {
+    }
+}
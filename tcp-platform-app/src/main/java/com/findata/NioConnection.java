@@ -0,0 +1,355 @@
+package com.findata;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * NIO sunucusundaki tek bir istemci bağlantısının durumunu tutan sınıf.
+ * <p>
+ * Bağlantı, atandığı {@link NioTcpServer.SelectorLoop} thread'i tarafından okunur ve yazılır.
+ * Gelen baytlar satırlara ayrılarak {@link ClientSession}'a iletilir; giden mesajlar ise
+ * herhangi bir thread'den {@link #send(String)} ile bağlantıya ait sınırlı {@link OutboundQueue}'ya
+ * eklenir ve {@link #flush()} çağrıldığında (yayın döngüsünün sonunda veya kuyrukta
+ * {@code flushMaxBytes} kadar veri biriktiğinde) selector thread'i tarafından toplu (gathering)
+ * yazma ile gönderilir. Kuyruk dolarsa yapılandırılan yavaş istemci politikası uygulanır.
+ * </p>
+ * <p>
+ * Satır ayrıştırma {@link java.io.BufferedReader#readLine()} ile aynı kuralları izler
+ * ('\n', '\r' veya "\r\n"), giden satırlar ise {@link java.io.PrintWriter#println(String)}
+ * gibi platformun satır sonu ile bitirilir; böylece protokol bloklayıcı modla birebir aynıdır.
+ * Satır sonu göndermeden {@link #MAX_REQUEST_LINE_BYTES} bayttan uzun istek gönderen istemcinin
+ * bağlantısı kesilir; aksi halde tamamlanmamış satır bellekte sınırsız büyürdü.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @since 2025-04-25
+ */
+public class NioConnection implements MessageSink {
+
+    /** Loglama için kullanılan Logger nesnesi */
+    private static final Logger log = LoggerFactory.getLogger(NioConnection.class);
+
+    /** Bloklayıcı moddaki InputStreamReader/PrintWriter ile aynı karakter seti */
+    private static final Charset CHARSET = Charset.defaultCharset();
+
+    /** PrintWriter.println ile aynı satır sonu */
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    /** Tek bir gathering write çağrısında gönderilecek en fazla mesaj (buffer) sayısı */
+    private static final int MAX_GATHER = 64;
+
+    /** Okuma için kullanılan buffer boyutu */
+    private static final int READ_BUFFER_SIZE = 1024;
+
+    /** Bir istek satırının satır sonu olmadan en fazla uzunluğu (bayt) */
+    static final int MAX_REQUEST_LINE_BYTES = 4096;
+
+    /** İstemci soket kanalı */
+    private final SocketChannel channel;
+
+    /** Bu bağlantıyı yöneten selector döngüsü */
+    private final NioTcpServer.SelectorLoop loop;
+
+    /** Loglarda kullanılan istemci adresi */
+    private final InetAddress clientAddress;
+
+    /** İstemcinin protokol oturumu */
+    private final ClientSession session;
+
+    /** Herhangi bir thread'in ekleyebildiği sınırlı giden mesaj kuyruğu */
+    private final OutboundQueue outbound;
+
+    /** İstemci kuyruk metriklerini raporlayan bileşen */
+    private final ClientMetricsReporter metrics;
+
+    /** Selector thread'inin kuyruktan aldığı mesajlar için yeniden kullanılan liste */
+    private final List<String> batch = new ArrayList<>(MAX_GATHER);
+
+    /** Selector thread'ine ait, yazımı süren buffer'lar (kısmi yazılar dahil) */
+    private final ArrayDeque<ByteBuffer> inFlight = new ArrayDeque<>(MAX_GATHER);
+
+    /** Gathering write için yeniden kullanılan dizi */
+    private final ByteBuffer[] gather = new ByteBuffer[MAX_GATHER];
+
+    /** Bağlantı için selector'a yazma isteği iletilip iletilmediği */
+    private final AtomicBoolean writeRequested = new AtomicBoolean(false);
+
+    /** Son flush'tan beri kuyruğa eklenen bayt sayısı */
+    private final AtomicInteger unflushedBytes = new AtomicInteger();
+
+    /** Kuyrukta biriktirilecek en fazla bayt; aşılınca döngü sonu beklenmeden yazma istenir */
+    private final int flushMaxBytes;
+
+    /** Kuyruk dolduğu için bağlantının kesilmesi istendiyse true */
+    private volatile boolean disconnectRequested;
+
+    /** Soketten okunan baytlar için buffer */
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+
+    /** Henüz tamamlanmamış satırın baytları */
+    private final ByteArrayOutputStream lineBuffer = new ByteArrayOutputStream(128);
+
+    /** Bir önceki satır '\r' ile bittiyse, ardından gelen '\n' atlanır */
+    private boolean skipLineFeed;
+
+    /** Kanalın selector kaydı */
+    private SelectionKey key;
+
+    /** Bağlantının kapatılıp kapatılmadığı */
+    private volatile boolean closed;
+
+    /**
+     * Yeni bir NIO bağlantısı oluşturur.
+     *
+     * @param channel Kabul edilen, bloklayıcı olmayan soket kanalı
+     * @param loop Bağlantıyı yönetecek selector döngüsü
+     * @param broadcaster Kur güncellemelerini dağıtan yayın merkezi
+     * @param config Sunucu yapılandırması (kuyruk kapasitesi, politika ve flush eşiği)
+     * @param metrics İstemci kuyruk metriklerini raporlayan bileşen
+     */
+    public NioConnection(SocketChannel channel, NioTcpServer.SelectorLoop loop, RateBroadcaster broadcaster,
+                         Config config, ClientMetricsReporter metrics) {
+        this.channel = channel;
+        this.loop = loop;
+        this.flushMaxBytes = config.getFlushMaxBytes();
+        this.metrics = metrics;
+        this.clientAddress = channel.socket().getInetAddress();
+        this.outbound = new OutboundQueue(String.valueOf(channel.socket().getRemoteSocketAddress()),
+                config.getOutboundQueueCapacity(), OutboundQueue.Policy.from(config.getSlowConsumerPolicy()));
+        this.session = new ClientSession(clientAddress, this, broadcaster);
+    }
+
+    /**
+     * Bir komut yanıtını giden kuyruğa ekler. Kuyrukta {@code flushMaxBytes} kadar veri
+     * biriktiyse selector thread'inden hemen yazma ister; aksi halde yazma {@link #flush()} ile istenir.
+     * <p>
+     * Bu metod bloklamaz; çağıran thread soketin yazılabilir olmasını beklemez.
+     * </p>
+     *
+     * @param message Gönderilecek mesaj (satır sonu olmadan)
+     * @throws IOException Bağlantı kapatılmışsa
+     */
+    @Override
+    public void send(String message) throws IOException {
+        if (closed) {
+            throw new IOException("Connection closed.");
+        }
+        outbound.offerReply(message);
+        added(message);
+    }
+
+    /**
+     * Bir fiyat mesajını giden kuyruğa ekler; kuyruk doluysa yavaş istemci politikası uygulanır.
+     *
+     * @param rateName Mesajın ait olduğu kur sembolü
+     * @param message Formatlanmış kur mesajı
+     * @throws IOException Bağlantı kapatılmışsa veya politika gereği bağlantı kesildiyse
+     */
+    @Override
+    public void sendUpdate(String rateName, String message) throws IOException {
+        if (closed || disconnectRequested) {
+            throw new IOException("Connection closed.");
+        }
+        if (!outbound.offerUpdate(rateName, message)) {
+            log.warn("Client {} is not keeping up (outbound queue full), disconnecting.", outbound.getLabel());
+            // Kanal selector thread'inde kapatılır
+            disconnectRequested = true;
+            loop.requestWrite(this);
+            throw new IOException("Slow consumer disconnected.");
+        }
+        added(message);
+    }
+
+    private void added(String message) throws IOException {
+        if (unflushedBytes.addAndGet(message.length() + LINE_SEPARATOR.length()) >= flushMaxBytes) {
+            flush();
+        }
+    }
+
+    /**
+     * Kuyrukta biriken mesajlar için selector thread'inden yazma ister.
+     *
+     * @throws IOException Bağlantı kapatılmışsa
+     */
+    @Override
+    public void flush() throws IOException {
+        if (closed) {
+            throw new IOException("Connection closed.");
+        }
+        if (unflushedBytes.getAndSet(0) > 0 && writeRequested.compareAndSet(false, true)) {
+            loop.requestWrite(this);
+        }
+    }
+
+    /**
+     * Kanalın selector'a kaydedildiğini bildirir. Sadece selector thread'i çağırır.
+     *
+     * @param key Kanalın selection key'i
+     */
+    void registered(SelectionKey key) {
+        this.key = key;
+        metrics.register(outbound);
+        log.info("Client connected: {}", clientAddress);
+    }
+
+    /**
+     * Kanal okunabilir olduğunda selector thread'i tarafından çağrılır.
+     * Okunan baytları satırlara ayırır ve tamamlanan her satırı oturuma iletir. Tamamlanmamış satır
+     * {@link #MAX_REQUEST_LINE_BYTES} sınırını aşarsa bağlantı kapatılır.
+     *
+     * @throws IOException Okuma hatası oluşursa
+     */
+    void onReadable() throws IOException {
+        int read = channel.read(readBuffer);
+        if (read < 0) {
+            close();
+            return;
+        }
+        readBuffer.flip();
+        while (readBuffer.hasRemaining()) {
+            byte b = readBuffer.get();
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (b == '\n') {
+                    continue;
+                }
+            }
+            if (b == '\n' || b == '\r') {
+                String request = lineBuffer.toString(CHARSET);
+                lineBuffer.reset();
+                skipLineFeed = (b == '\r');
+                session.handleRequest(request.trim());
+            } else {
+                if (lineBuffer.size() >= MAX_REQUEST_LINE_BYTES) {
+                    log.warn("Client {} sent a request line longer than {} bytes, disconnecting.",
+                            clientAddress, MAX_REQUEST_LINE_BYTES);
+                    close();
+                    return;
+                }
+                lineBuffer.write(b);
+            }
+        }
+        readBuffer.clear();
+    }
+
+    /**
+     * Kuyruktaki mesajları gathering write ile sokete yazar. Sadece selector thread'i çağırır.
+     * <p>
+     * Soket tamponu dolduğunda kalan veri için OP_WRITE ilgisi açılır; bu sırada yeni mesajlar
+     * sınırlı kuyrukta bekler ve kuyruk dolarsa yavaş istemci politikası devreye girer. Tüm
+     * kuyruk boşaldığında ilgi tekrar sadece okumaya döner.
+     * </p>
+     *
+     * @throws IOException Yazma hatası oluşursa
+     */
+    void flushOutbound() throws IOException {
+        if (closed || key == null) {
+            return;
+        }
+        if (disconnectRequested) {
+            close();
+            return;
+        }
+        while (true) {
+            if (inFlight.isEmpty() && !fillInFlight()) {
+                key.interestOps(SelectionKey.OP_READ);
+                writeRequested.set(false);
+                // Bayrak temizlenirken eklenen mesajlar kaybolmasın
+                if (outbound.isEmpty() || !writeRequested.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+
+            int count = 0;
+            for (ByteBuffer buffer : inFlight) {
+                gather[count++] = buffer;
+            }
+            long written = channel.write(gather, 0, count);
+            Arrays.fill(gather, 0, count, null);
+            outbound.recordSent(0, written);
+
+            while (!inFlight.isEmpty() && !inFlight.peekFirst().hasRemaining()) {
+                inFlight.pollFirst();
+            }
+            if (!inFlight.isEmpty()) {
+                // Soket tamponu dolu, yazılabilir olunca devam edilecek
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Kuyruktan en fazla {@link #MAX_GATHER} mesaj alıp her birini satır sonuyla birlikte
+     * gathering write için ayrı bir buffer'a kodlar.
+     *
+     * @return Mesaj alındıysa true, kuyruk boşsa false
+     */
+    private boolean fillInFlight() {
+        int drained = outbound.drainTo(batch, MAX_GATHER);
+        if (drained == 0) {
+            return false;
+        }
+        for (int i = 0; i < drained; i++) {
+            inFlight.add(ByteBuffer.wrap((batch.get(i) + LINE_SEPARATOR).getBytes(CHARSET)));
+        }
+        batch.clear();
+        outbound.recordSent(drained, 0);
+        return true;
+    }
+
+    /**
+     * Bağlantıyı kapatır ve oturumun tüm yayınlarını durdurur.
+     */
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        session.shutdown();
+        metrics.unregister(outbound);
+        if (key != null) {
+            key.cancel();
+        }
+        try {
+            channel.close();
+            log.info("Closed connection for client: {}", clientAddress);
+        } catch (IOException e) {
+            log.error("Error closing client channel {}: {}", clientAddress, e.getMessage());
+        }
+    }
+
+    /**
+     * Bağlantının soket kanalını döndürür.
+     *
+     * @return Soket kanalı
+     */
+    SocketChannel channel() {
+        return channel;
+    }
+
+    /**
+     * Loglarda kullanılan istemci adresini döndürür.
+     *
+     * @return İstemci adresi
+     */
+    InetAddress getClientAddress() {
+        return clientAddress;
+    }
+}
@@ -0,0 +1,275 @@
+package com.findata;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Selector tabanlı (NIO) TCP sunucusu.
+ * <p>
+ * {@link TcpServer}'dan farklı olarak her bağlantı için ayrı bir thread açmaz. Tek bir
+ * kabul (acceptor) döngüsü gelen bağlantıları kabul eder ve sırayla küçük bir
+ * {@link SelectorLoop} havuzuna dağıtır. Her selector thread'i kendisine atanan
+ * bağlantıların tüm okuma ve yazma işlemlerini bloklamadan yürütür; böylece yüzlerce
+ * bağlantı sabit sayıda thread ile taşınabilir.
+ * </p>
+ * <p>
+ * Protokol mantığı {@link ClientSession} tarafından yürütüldüğü için istemciler
+ * bloklayıcı modla birebir aynı mesajları alır.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @since 2025-04-25
+ */
+public class NioTcpServer implements RateServer {
+
+    /** Loglama için kullanılan Logger nesnesi */
+    private static final Logger log = LoggerFactory.getLogger(NioTcpServer.class);
+
+    /** Sunucu yapılandırma bilgisi */
+    private final Config config;
+
+    /** Kur güncellemelerini dağıtan yayın merkezi */
+    private final RateBroadcaster broadcaster;
+
+    /** İstemci kuyruk metriklerini raporlayan bileşen */
+    private final ClientMetricsReporter metrics;
+
+    /** Bağlantıları taşıyan selector döngüleri */
+    private final SelectorLoop[] loops;
+
+    /** Sunucunun çalışma durumunu kontrol eden bayrak */
+    private volatile boolean running = true;
+
+    /** Dinleyen sunucu kanalı, durdurulurken kapatılır */
+    private volatile ServerSocketChannel serverChannel;
+
+    /**
+     * Yapılandırma ve paylaşılan kaynaklarla yeni bir NIO TCP sunucusu oluşturur.
+     *
+     * @param config Sunucu yapılandırması
+     * @param broadcaster Kur güncellemelerini dağıtan yayın merkezi
+     * @param metrics İstemci kuyruk metriklerini raporlayan bileşen
+     */
+    public NioTcpServer(Config config, RateBroadcaster broadcaster, ClientMetricsReporter metrics) {
+        this.config = config;
+        this.broadcaster = broadcaster;
+        this.metrics = metrics;
+        this.loops = new SelectorLoop[Math.max(1, config.getSelectorThreads())];
+    }
+
+    /**
+     * Selector thread'lerini başlatır ve bağlantı kabul döngüsünü çalıştırır.
+     * <p>
+     * Bu metod, sunucu durdurulana kadar bloklayıcıdır. Kabul edilen her bağlantı
+     * round-robin ile bir selector thread'ine atanır.
+     * </p>
+     */
+    @Override
+    public void start() {
+        try (ServerSocketChannel channel = ServerSocketChannel.open()) {
+            serverChannel = channel;
+            channel.bind(new InetSocketAddress(config.getPort()));
+            for (int i = 0; i < loops.length; i++) {
+                loops[i] = new SelectorLoop(Selector.open());
+                Thread thread = new Thread(loops[i], "nio-selector-" + i);
+                thread.setDaemon(true);
+                thread.start();
+            }
+            InetAddress ip = InetAddress.getLocalHost();
+            log.info("NIO TCP Server starting on {}:{} with {} selector thread(s)",
+                    ip.getHostAddress(), config.getPort(), loops.length);
+
+            int next = 0;
+            while (running) {
+                try {
+                    SocketChannel client = channel.accept();
+                    client.configureBlocking(false);
+                    log.debug("New client connection accepted from {}", client.socket().getInetAddress());
+                    SelectorLoop loop = loops[next];
+                    next = (next + 1) % loops.length;
+                    loop.register(new NioConnection(client, loop, broadcaster, config, metrics));
+                } catch (ClosedChannelException e) {
+                    log.info("Server channel closed, shutting down accept loop.");
+                    break;
+                } catch (IOException e) {
+                    if (!running) {
+                        log.info("Server channel closed, shutting down accept loop.");
+                        break;
+                    }
+                    log.error("Error accepting client connection: {}", e.getMessage(), e);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Could not start NIO server on port {}: {}", config.getPort(), e.getMessage(), e);
+        } finally {
+            for (SelectorLoop loop : loops) {
+                if (loop != null) {
+                    loop.stop();
+                }
+            }
+            log.info("NIO TCP Server stopped.");
+        }
+    }
+
+    /**
+     * Sunucuyu durdurur.
+     * <p>
+     * Dinleyen kanal kapatılarak bloklayan accept çağrısı sonlandırılır; selector
+     * döngüleri de bağlantılarını kapatarak durur.
+     * </p>
+     */
+    @Override
+    public void stop() {
+        running = false;
+        log.info("Stop signal received, server will shut down.");
+        ServerSocketChannel channel = serverChannel;
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Error closing server channel: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Bir grup bağlantının okuma/yazma olaylarını tek thread'de işleyen selector döngüsü.
+     * <p>
+     * Diğer thread'ler selector'a doğrudan dokunmaz; yeni kayıtlar ve yazma istekleri
+     * kuyruklara eklenir ve selector uyandırılır. Gereksiz wakeup sistem çağrılarını
+     * önlemek için, döngü uyanana kadar yalnızca ilk istek wakeup yapar.
+     * </p>
+     */
+    static final class SelectorLoop implements Runnable {
+
+        /** Bu döngünün selector'ı */
+        private final Selector selector;
+
+        /** Kaydedilmeyi bekleyen yeni bağlantılar */
+        private final Queue<NioConnection> pendingRegistrations = new ConcurrentLinkedQueue<>();
+
+        /** Giden verisi olan bağlantılar */
+        private final Queue<NioConnection> pendingWrites = new ConcurrentLinkedQueue<>();
+
+        /** Döngü uyanmadan önce bir wakeup çağrısı yapılıp yapılmadığı */
+        private final AtomicBoolean wakeupPending = new AtomicBoolean(false);
+
+        /** Döngünün çalışma durumu */
+        private volatile boolean running = true;
+
+        SelectorLoop(Selector selector) {
+            this.selector = selector;
+        }
+
+        /**
+         * Yeni bir bağlantıyı bu döngüye kaydettirir.
+         *
+         * @param connection Kaydedilecek bağlantı
+         */
+        void register(NioConnection connection) {
+            pendingRegistrations.offer(connection);
+            wakeup();
+        }
+
+        /**
+         * Bağlantının giden kuyruğunun boşaltılmasını ister.
+         *
+         * @param connection Giden verisi olan bağlantı
+         */
+        void requestWrite(NioConnection connection) {
+            pendingWrites.offer(connection);
+            wakeup();
+        }
+
+        private void wakeup() {
+            if (wakeupPending.compareAndSet(false, true)) {
+                selector.wakeup();
+            }
+        }
+
+        void stop() {
+            running = false;
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select();
+                    wakeupPending.set(false);
+                    registerPending();
+                    flushPending();
+
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        NioConnection connection = (NioConnection) key.attachment();
+                        try {
+                            if (key.isValid() && key.isReadable()) {
+                                connection.onReadable();
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                connection.flushOutbound();
+                            }
+                        } catch (IOException e) {
+                            log.info("Client disconnected abruptly: {}", connection.getClientAddress());
+                            connection.close();
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                log.error("Selector loop {} failed: {}", Thread.currentThread().getName(), e.getMessage(), e);
+            } finally {
+                for (SelectionKey key : selector.keys()) {
+                    ((NioConnection) key.attachment()).close();
+                }
+                try {
+                    selector.close();
+                } catch (IOException e) {
+                    log.warn("Error closing selector: {}", e.getMessage());
+                }
+            }
+        }
+
+        private void registerPending() {
+            NioConnection connection;
+            while ((connection = pendingRegistrations.poll()) != null) {
+                try {
+                    SelectionKey key = connection.channel().register(selector, SelectionKey.OP_READ, connection);
+                    connection.registered(key);
+                } catch (IOException e) {
+                    log.error("Could not register client {}: {}", connection.getClientAddress(), e.getMessage());
+                    connection.close();
+                }
+            }
+        }
+
+        private void flushPending() {
+            NioConnection connection;
+            while ((connection = pendingWrites.poll()) != null) {
+                try {
+                    connection.flushOutbound();
+                } catch (IOException e) {
+                    log.info("Client disconnected abruptly: {}", connection.getClientAddress());
+                    connection.close();
+                }
+            }
+        }
+    }
+}
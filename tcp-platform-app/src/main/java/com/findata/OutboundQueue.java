@@ -0,0 +1,266 @@
+package com.findata;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Tek bir istemciye gidecek mesajları tutan sınırlı kapasiteli kuyruk.
+ * <p>
+ * Yayın thread'i mesajları kuyruğa ekler, istemcinin yazıcısı (bloklayıcı modda yazıcı thread'i,
+ * NIO modunda selector thread'i) kuyruğu boşaltıp sokete yazar. Böylece okumayı bırakan bir
+ * istemci yayın thread'ini hiçbir zaman bloklamaz. Kuyruk {@code capacity} mesaja ulaştığında
+ * yapılandırılan politika uygulanır:
+ * </p>
+ * <ul>
+ *   <li>{@code conflate} - yeni fiyatlar sembol başına tek bir "son fiyat" girdisinde birleştirilir;
+ *       istemci yetiştiğinde her sembolün yalnızca en güncel fiyatını alır</li>
+ *   <li>{@code drop} - kuyruk boşalana kadar yeni fiyatlar atılır</li>
+ *   <li>{@code disconnect} - istemcinin bağlantısı kesilir</li>
+ * </ul>
+ * <p>
+ * Komut yanıtları politikadan etkilenmez ve her zaman kuyruğa eklenir. Birleştirme modundayken
+ * bir sembolün fiyatları sıralarını korur: birleştirilmiş girdiler boşalana kadar yeni fiyatlar
+ * FIFO kuyruğuna değil birleştirme tablosuna yazılır.
+ * </p>
+ * <p>
+ * Kuyruk, istemci başına metrikleri (derinlik, gönderilen mesaj/bayt, atılan ve birleştirilen
+ * mesaj sayısı) da tutar; bunlar {@link ClientMetricsReporter} tarafından periyodik olarak loglanır.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @since 2025-04-25
+ */
+public class OutboundQueue {
+
+    /**
+     * Kuyruk dolduğunda uygulanan politika.
+     */
+    public enum Policy {
+        /** Sembol başına son fiyatı tut */
+        CONFLATE,
+        /** Yeni fiyatları at */
+        DROP,
+        /** İstemcinin bağlantısını kes */
+        DISCONNECT;
+
+        /**
+         * Yapılandırmadaki politika adını çözümler.
+         *
+         * @param name Politika adı ("conflate", "drop" veya "disconnect")
+         * @return Politika
+         * @throws IllegalArgumentException Ad tanınmazsa
+         */
+        public static Policy from(String name) {
+            return Policy.valueOf(name.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    /** Metrik loglarında kullanılan istemci etiketi */
+    private final String label;
+
+    /** FIFO kuyruğunun mesaj kapasitesi */
+    private final int capacity;
+
+    /** Kuyruk dolduğunda uygulanan politika */
+    private final Policy policy;
+
+    /** Sırayla gönderilecek mesajlar (yanıtlar ve kuyruk dolmadan gelen fiyatlar) */
+    private final ArrayDeque<String> fifo = new ArrayDeque<>();
+
+    /** Birleştirme modunda sembol başına son fiyat, ekleme sırasıyla */
+    private final Map<String, String> latest = new LinkedHashMap<>();
+
+    /** Kuyruğun ulaştığı en yüksek derinlik */
+    private int maxDepth;
+
+    /** Politika nedeniyle atılan mesaj sayısı */
+    private long dropped;
+
+    /** Daha yeni bir fiyatla değiştirilen (birleştirilen) mesaj sayısı */
+    private long conflated;
+
+    /** Sokete yazılan mesaj sayısı; yalnızca yazıcı günceller */
+    private volatile long sentMessages;
+
+    /** Sokete yazılan bayt sayısı; yalnızca yazıcı günceller */
+    private volatile long sentBytes;
+
+    /**
+     * Yeni bir giden mesaj kuyruğu oluşturur.
+     *
+     * @param label Metrik loglarında kullanılan istemci etiketi
+     * @param capacity FIFO kuyruğunun mesaj kapasitesi
+     * @param policy Kuyruk dolduğunda uygulanan politika
+     */
+    public OutboundQueue(String label, int capacity, Policy policy) {
+        this.label = label;
+        this.capacity = Math.max(1, capacity);
+        this.policy = policy;
+    }
+
+    /**
+     * Bir komut yanıtını kuyruğa ekler. Yanıtlar politikadan etkilenmez.
+     *
+     * @param message Gönderilecek yanıt
+     */
+    public synchronized void offerReply(String message) {
+        fifo.add(message);
+        updateMaxDepth();
+    }
+
+    /**
+     * Bir fiyat mesajını kuyruğa ekler; kuyruk doluysa politika uygulanır.
+     *
+     * @param rateName Mesajın ait olduğu kur sembolü
+     * @param message Formatlanmış kur mesajı
+     * @return Mesaj kabul edildiyse (veya politika gereği atıldıysa/birleştirildiyse) true;
+     *         politika {@code disconnect} ise ve kuyruk doluysa false
+     */
+    public synchronized boolean offerUpdate(String rateName, String message) {
+        if (latest.isEmpty() && fifo.size() < capacity) {
+            fifo.add(message);
+            updateMaxDepth();
+            return true;
+        }
+        switch (policy) {
+            case CONFLATE:
+                if (latest.put(rateName, message) != null) {
+                    conflated++;
+                }
+                updateMaxDepth();
+                return true;
+            case DROP:
+                dropped++;
+                return true;
+            default:
+                dropped++;
+                return false;
+        }
+    }
+
+    /**
+     * Bekleyen mesajları, gönderim sırasıyla verilen listeye aktarır. Sadece yazıcı çağırır.
+     *
+     * @param into Mesajların ekleneceği liste
+     * @param maxMessages Aktarılacak en fazla mesaj sayısı
+     * @return Aktarılan mesaj sayısı
+     */
+    public synchronized int drainTo(List<String> into, int maxMessages) {
+        int drained = 0;
+        while (drained < maxMessages && !fifo.isEmpty()) {
+            into.add(fifo.poll());
+            drained++;
+        }
+        Iterator<String> iterator = latest.values().iterator();
+        while (drained < maxMessages && iterator.hasNext()) {
+            into.add(iterator.next());
+            iterator.remove();
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * Kuyrukta bekleyen mesaj olup olmadığını döndürür.
+     *
+     * @return Kuyruk boşsa true
+     */
+    public synchronized boolean isEmpty() {
+        return fifo.isEmpty() && latest.isEmpty();
+    }
+
+    /**
+     * Yazılan mesaj ve baytları metriklere ekler. Sadece yazıcı çağırır.
+     *
+     * @param messages Yazılan mesaj sayısı
+     * @param bytes Yazılan bayt sayısı
+     */
+    public void recordSent(int messages, long bytes) {
+        sentMessages += messages;
+        sentBytes += bytes;
+    }
+
+    private void updateMaxDepth() {
+        int depth = fifo.size() + latest.size();
+        if (depth > maxDepth) {
+            maxDepth = depth;
+        }
+    }
+
+    /**
+     * Metrik loglarında kullanılan istemci etiketini döndürür.
+     *
+     * @return İstemci etiketi
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Kuyruk dolduğunda uygulanan politikayı döndürür.
+     *
+     * @return Politika
+     */
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Kuyruğun mevcut derinliğini döndürür.
+     *
+     * @return Bekleyen mesaj sayısı
+     */
+    public synchronized int getDepth() {
+        return fifo.size() + latest.size();
+    }
+
+    /**
+     * Kuyruğun ulaştığı en yüksek derinliği döndürür.
+     *
+     * @return En yüksek derinlik
+     */
+    public synchronized int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Politika nedeniyle atılan mesaj sayısını döndürür.
+     *
+     * @return Atılan mesaj sayısı
+     */
+    public synchronized long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Birleştirilen mesaj sayısını döndürür.
+     *
+     * @return Birleştirilen mesaj sayısı
+     */
+    public synchronized long getConflated() {
+        return conflated;
+    }
+
+    /**
+     * Sokete yazılan mesaj sayısını döndürür.
+     *
+     * @return Gönderilen mesaj sayısı
+     */
+    public long getSentMessages() {
+        return sentMessages;
+    }
+
+    /**
+     * Sokete yazılan bayt sayısını döndürür.
+     *
+     * @return Gönderilen bayt sayısı
+     */
+    public long getSentBytes() {
+        return sentBytes;
+    }
+}
@@ -4,21 +4,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.file.Paths;
 // import java.net.InetAddress; // Artık burada kullanılmıyor
 // import java.net.ServerSocket; // Artık burada kullanılmıyor
 // import java.net.Socket; // Artık burada kullanılmıyor
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
  * TCP platformunun ana sınıfı ve uygulamanın giriş noktası.
  * <p>
  * Bu sınıf, simüle edilmiş finans verisi sağlayan bir TCP sunucusunu başlatır.
- * JSON yapılandırma dosyasından ayarları okur, paylaşılan kaynakları (kurlar, zamanlayıcı)
- * oluşturur ve TcpServer ile tüm bağlantı işlemlerini yönetir.
+ * JSON yapılandırma dosyasından ayarları okur, paylaşılan kaynakları (kurlar, timing wheel, yayın merkezi)
+ * oluşturur ve {@link RateServer} ile tüm bağlantı işlemlerini yönetir.
  * </p>
  * <p>
  * Uygulama, kabul edilebilir şekilde kapatılmasını sağlamak için bir shutdown hook
@@ -36,9 +35,6 @@ public class Platform1Simulator {
 
     /** Tüm kurların saklandığı thread-safe harita */
     private static final Map<String, Rate> rates = new ConcurrentHashMap<>();
-    
-    /** Zamanlı görevleri yürütmek için kullanılan thread havuzu */
-    private static final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(10);
 
     /**
      * Uygulamanın giriş noktası.
@@ -46,7 +42,8 @@ public class Platform1Simulator {
      * Bu metod şu işlemleri gerçekleştirir:
      * <ol>
      *   <li>Yapılandırma dosyasını yükler</li>
-     *   <li>TcpServer nesnesini oluşturur</li>
+     *   <li>Yayınları süren timing wheel'i ve yayın merkezini başlatır</li>
+     *   <li>Yapılandırmadaki moda göre TcpServer veya NioTcpServer nesnesini oluşturur</li>
      *   <li>Düzgün kapatma (graceful shutdown) için hook ekler</li>
      *   <li>TCP sunucusunu başlatır</li>
      * </ol>
@@ -60,46 +57,98 @@ public class Platform1Simulator {
         try {
             config = ConfigLoader.loadConfig(rates);
             log.info("Configuration loaded successfully. Port: {}, Interval: {}ms", config.getPort(), config.getBroadcastIntervalMs());
-            log.info("Initial rates loaded: {}", rates.keySet());
+            if (rates.size() <= 20) {
+                log.info("Initial rates loaded: {}", rates.keySet());
+            } else {
+                log.info("Initial rates loaded: {} symbols", rates.size());
+            }
         } catch (IOException e) {
             log.error("Failed to load configuration: {}", e.getMessage(), e);
             System.exit(1); // Config olmadan başlatılamaz
         }
 
-        // 2. TcpServer Nesnesini Oluştur
-        TcpServer server = new TcpServer(config, rates, scheduler);
+        // 2. Tüm yayınları tek thread'den süren zamanlayıcıyı ve yayın merkezini oluştur
+        TimingWheel wheel = new TimingWheel(config.getTimerTickMicros(), config.getTimerWheelSize());
+        BurstSchedule bursts = config.getGenerator() != null && config.getGenerator().isEnabled()
+                ? BurstSchedule.from(config.getGenerator().getBursts())
+                : BurstSchedule.none();
+        RateBroadcaster broadcaster = new RateBroadcaster(rates, wheel, config, bursts);
+
+        // Opsiyonel tick kaydı ve kayıttan yeniden oynatma
+        TickRecorder recorder = null;
+        TickReplayer replayer = null;
+        try {
+            if (config.getRecordFile() != null) {
+                recorder = new TickRecorder(Paths.get(config.getRecordFile()));
+                broadcaster.setRecorder(recorder);
+            }
+            if (config.getReplayFile() != null) {
+                replayer = new TickReplayer(Paths.get(config.getReplayFile()), config.getReplaySpeed(),
+                        config.isReplayLoop(), broadcaster, rates);
+            }
+        } catch (IOException e) {
+            log.error("Failed to open tick recording: {}", e.getMessage(), e);
+            System.exit(1);
+        }
+        if (replayer != null) {
+            // Oynatmada yayınları yalnızca oynatıcı thread'i sürer; zamanlayıcı başlatılmaz
+            replayer.start();
+        } else {
+            wheel.start();
+        }
+        final TickRecorder tickRecorder = recorder;
+        final TickReplayer tickReplayer = replayer;
 
-        // 3. Graceful Shutdown Hook'u Ayarla
+        // 3. Sunucu Nesnesini Oluştur (yapılandırmadaki moda göre)
+        OutboundQueue.Policy policy = OutboundQueue.Policy.from(config.getSlowConsumerPolicy());
+        log.info("Outbound queue capacity per client: {} messages, slow consumer policy: {}",
+                config.getOutboundQueueCapacity(), policy);
+        ClientMetricsReporter metrics = new ClientMetricsReporter();
+        metrics.start(config.getClientMetricsIntervalSeconds());
+        RateServer server;
+        if ("nio".equalsIgnoreCase(config.getServerMode())) {
+            log.info("Using NIO server mode with {} selector thread(s)", config.getSelectorThreads());
+            server = new NioTcpServer(config, broadcaster, metrics);
+        } else {
+            server = new TcpServer(config, broadcaster, metrics);
+        }
+
+        // 4. Graceful Shutdown Hook'u Ayarla
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             log.info("Shutdown hook initiated...");
             // Sunucuya durma sinyali gönder
             server.stop();
+            metrics.stop();
 
-            // Scheduler'ı düzgünce kapat
-            scheduler.shutdown();
+            // Zamanlayıcıyı ve oynatıcıyı düzgünce kapat
             try {
-                if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                    log.warn("Scheduler did not terminate in time, forcing shutdown...");
-                    scheduler.shutdownNow();
+                if (tickReplayer != null && !tickReplayer.stop(5, TimeUnit.SECONDS)) {
+                    log.warn("Tick replayer did not terminate in time.");
+                }
+                if (!wheel.stop(5, TimeUnit.SECONDS)) {
+                    log.warn("Timing wheel did not terminate in time.");
                 }
             } catch (InterruptedException ex) {
-                scheduler.shutdownNow();
                 Thread.currentThread().interrupt();
             }
+
+            // Kayıt dosyasını kullanılan boyuta kırp ve kapat
+            if (tickRecorder != null) {
+                try {
+                    tickRecorder.close();
+                } catch (IOException ex) {
+                    log.warn("Error closing tick recording: {}", ex.getMessage());
+                }
+            }
             log.info("Shutdown hook finished.");
         }));
 
-        // 4. Sunucuyu Başlat
+        // 5. Sunucuyu Başlat
         try {
             server.start();
         } catch (Exception e) {
             log.error("An unexpected error occurred during server execution: {}", e.getMessage(), e);
         } finally {
-            // Sunucu durduğunda scheduler'ı kapatmayı garanti edelim
-            if (!scheduler.isShutdown()) {
-                log.warn("Scheduler was not shut down by hook, shutting down now.");
-                scheduler.shutdownNow();
-            }
             log.info("Platform1Simulator main method finished.");
         }
     }
@@ -0,0 +1,202 @@
+package com.findata;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bloklayıcı soket için mesajları sınırlı bir {@link OutboundQueue}'da biriktiren ve ayrı bir
+ * yazıcı thread'i ile gönderen çıkış kanalı.
+ * <p>
+ * Yayın zamanlayıcısı mesajları yalnızca kuyruğa ekler ve hiçbir zaman sokete yazmaz; bu sayede
+ * okumayı bırakan bir istemci diğer istemcilerin yayınlarını geciktiremez. {@link #flush()}
+ * (her yayın döngüsünün sonunda veya bir komut yanıtından sonra) yazıcı thread'ini uyandırır;
+ * yazıcı kuyrukta biriken tüm mesajları tek bir write ile gönderir. Kuyrukta
+ * {@code flushMaxBytes} kadar veri biriktiğinde döngü sonu beklenmez.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @since 2025-04-25
+ */
+public class QueuedSocketSink implements MessageSink, Runnable {
+
+    /** Loglama için kullanılan Logger nesnesi */
+    private static final Logger log = LoggerFactory.getLogger(QueuedSocketSink.class);
+
+    /** Bloklayıcı moddaki InputStreamReader ile aynı karakter seti */
+    private static final Charset CHARSET = Charset.defaultCharset();
+
+    /** PrintWriter.println ile aynı satır sonu */
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(CHARSET);
+
+    /** Yazıcının tek seferde kuyruktan aldığı en fazla mesaj sayısı */
+    private static final int MAX_BATCH = 256;
+
+    /** İstemci soketi; yazma hatasında veya bağlantı kesme politikasında kapatılır */
+    private final Socket socket;
+
+    /** Soketin çıkış akışı */
+    private final OutputStream out;
+
+    /** İstemcinin sınırlı giden kuyruğu */
+    private final OutboundQueue queue;
+
+    /** Döngü sonu beklenmeden yazıcının uyandırılacağı bayt eşiği */
+    private final int flushMaxBytes;
+
+    /** Yazıcı thread'inin beklediği kilit */
+    private final Object lock = new Object();
+
+    /** Son uyandırmadan beri kuyruğa eklenen yaklaşık bayt sayısı */
+    private int unflushedBytes;
+
+    /** Yazıcının uyandırılmasının istenip istenmediği */
+    private boolean flushRequested;
+
+    /** Kanalın kapatılıp kapatılmadığı */
+    private volatile boolean closed;
+
+    /**
+     * Yeni bir kuyruklu çıkış kanalı oluşturur. Yazıcı thread'i {@link #run()} ile çalıştırılmalıdır.
+     *
+     * @param socket İstemci soketi
+     * @param queue İstemcinin sınırlı giden kuyruğu
+     * @param flushMaxBytes Döngü sonu beklenmeden gönderim yapılacak bayt eşiği
+     * @throws IOException Soketin çıkış akışı alınamazsa
+     */
+    public QueuedSocketSink(Socket socket, OutboundQueue queue, int flushMaxBytes) throws IOException {
+        this.socket = socket;
+        this.out = socket.getOutputStream();
+        this.queue = queue;
+        this.flushMaxBytes = flushMaxBytes;
+    }
+
+    /**
+     * Bir komut yanıtını kuyruğa ekler.
+     *
+     * @param message Gönderilecek mesaj (satır sonu olmadan)
+     * @throws IOException Kanal kapatılmışsa
+     */
+    @Override
+    public void send(String message) throws IOException {
+        ensureOpen();
+        queue.offerReply(message);
+        added(message);
+    }
+
+    /**
+     * Bir fiyat mesajını kuyruğa ekler; kuyruk doluysa kuyruğun politikası uygulanır.
+     *
+     * @param rateName Mesajın ait olduğu kur sembolü
+     * @param message Formatlanmış kur mesajı
+     * @throws IOException Kanal kapatılmışsa veya politika gereği bağlantı kesildiyse
+     */
+    @Override
+    public void sendUpdate(String rateName, String message) throws IOException {
+        ensureOpen();
+        if (!queue.offerUpdate(rateName, message)) {
+            log.warn("Client {} is not keeping up (outbound queue full), disconnecting.", queue.getLabel());
+            close();
+            throw new IOException("Slow consumer disconnected.");
+        }
+        added(message);
+    }
+
+    /**
+     * Yazıcı thread'ini kuyrukta biriken mesajları göndermesi için uyandırır.
+     *
+     * @throws IOException Kanal kapatılmışsa
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        synchronized (lock) {
+            unflushedBytes = 0;
+            flushRequested = true;
+            lock.notify();
+        }
+    }
+
+    /**
+     * Yazıcı döngüsü: uyandırıldıkça kuyruğu boşaltır ve biriken mesajları tek write ile gönderir.
+     */
+    @Override
+    public void run() {
+        List<String> batch = new ArrayList<>(MAX_BATCH);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(256, flushMaxBytes));
+        try {
+            while (!closed) {
+                synchronized (lock) {
+                    while (!flushRequested && !closed) {
+                        lock.wait();
+                    }
+                    flushRequested = false;
+                }
+                int drained;
+                while ((drained = queue.drainTo(batch, MAX_BATCH)) > 0) {
+                    for (int i = 0; i < drained; i++) {
+                        buffer.write(batch.get(i).getBytes(CHARSET));
+                        buffer.write(LINE_SEPARATOR);
+                    }
+                    batch.clear();
+                    int size = buffer.size();
+                    buffer.writeTo(out);
+                    buffer.reset();
+                    queue.recordSent(drained, size);
+                }
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                log.info("Error writing to client {}: {}", queue.getLabel(), e.getMessage());
+            }
+            close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+        }
+    }
+
+    /**
+     * Kanalı kapatır ve yazıcı thread'ini sonlandırır. Soket de kapatılır; böylece istemcinin
+     * okuma döngüsü bağlantının bittiğini fark eder.
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        synchronized (lock) {
+            lock.notify();
+        }
+        try {
+            socket.close();
+        } catch (IOException e) {
+            log.debug("Error closing socket for client {}: {}", queue.getLabel(), e.getMessage());
+        }
+    }
+
+    private void added(String message) {
+        synchronized (lock) {
+            unflushedBytes += message.length() + LINE_SEPARATOR.length;
+            if (unflushedBytes >= flushMaxBytes) {
+                unflushedBytes = 0;
+                flushRequested = true;
+                lock.notify();
+            }
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Connection closed.");
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.findata;
 
-import java.util.concurrent.atomic.AtomicReference;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.SplittableRandom;
 
 /**
  * Döviz kuru bilgilerini ve thread-safe güncellemeleri yöneten sınıf.
@@ -10,20 +12,63 @@ import java.util.concurrent.atomic.AtomicReference;
  * Thread-safe olarak tasarlanmıştır, yani birden fazla thread tarafından
  * eşzamanlı olarak kullanılabilir.
  * </p>
+ * <p>
+ * Fiyatlar ilkel {@code double} alanlarda tutulur ve bir seqlock ile korunur: yazıcı, sürüm
+ * sayacını tek sayıya çekip alanları yazar ve sayacı tekrar çift sayıya ilerletir; okuyucu ise
+ * okuma öncesi ve sonrası aynı çift sürümü gördüğünde tutarlı bir bid/ask çifti elde etmiş olur.
+ * Her kurun kendi {@link SplittableRandom} üreteci vardır. Böylece {@link #update()} ve
+ * {@link #read(double[])} hiç nesne oluşturmaz ve kurlar arasında paylaşılan bir kilit yoktur.
+ * </p>
  * 
  * @author Finans Veri Projesi Team
  * @version 1.0
  * @since 2025-04-25
  */
 public class Rate {
+
+    /** Tohum verilmeyen kurların üreteçlerinin türetildiği kök üreteç */
+    private static final SplittableRandom SEED_SOURCE = new SplittableRandom();
+
+    /** Sürüm sayacına atomik erişim */
+    private static final VarHandle VERSION;
+
+    /** Bid alanına atomik erişim */
+    private static final VarHandle BID;
+
+    /** Ask alanına atomik erişim */
+    private static final VarHandle ASK;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            VERSION = lookup.findVarHandle(Rate.class, "version", long.class);
+            BID = lookup.findVarHandle(Rate.class, "bid", double.class);
+            ASK = lookup.findVarHandle(Rate.class, "ask", double.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     /** Kur ismi (örn: "USDTRY", "EURUSD") */
     private final String name;
     
     /** Kurun dalgalanma miktarını belirleyen volatilite değeri */
     private final double volatility;
-    
-    /** Alım (bid) ve satım (ask) değerlerini atomik olarak tutan referans */
-    private final AtomicReference<Double[]> currentValues;
+
+    /** Bu kura özel yayın aralığı (nanosaniye); 0 ise genel aralık kullanılır */
+    private final long broadcastIntervalNanos;
+
+    /** Rastgele yürüyüş için kura ait rastgele sayı üreteci; yalnızca yazma kilidi altında kullanılır */
+    private final SplittableRandom random;
+
+    /** Seqlock sürüm sayacı: tek sayı ise yazma sürmektedir */
+    private volatile long version;
+
+    /** Alım (bid) fiyatı; seqlock ile korunur */
+    private double bid;
+
+    /** Satım (ask) fiyatı; seqlock ile korunur */
+    private double ask;
 
     /**
      * Belirtilen başlangıç değerleri ve volatilite ile yeni bir Rate nesnesi oluşturur.
@@ -34,9 +79,55 @@ public class Rate {
      * @param volatility Dalgalanma miktarını belirleyen volatilite değeri
      */
     public Rate(String name, double initialBid, double initialAsk, double volatility) {
+        this(name, initialBid, initialAsk, volatility, 0L);
+    }
+
+    /**
+     * Kura özel bir yayın aralığıyla yeni bir Rate nesnesi oluşturur.
+     *
+     * @param name Kur ismi (örn: "USDTRY")
+     * @param initialBid Başlangıç alım fiyatı
+     * @param initialAsk Başlangıç satım fiyatı
+     * @param volatility Dalgalanma miktarını belirleyen volatilite değeri
+     * @param broadcastIntervalNanos Yayın aralığı (nanosaniye); 0 ise genel aralık kullanılır
+     */
+    public Rate(String name, double initialBid, double initialAsk, double volatility, long broadcastIntervalNanos) {
+        this(name, initialBid, initialAsk, volatility, broadcastIntervalNanos, splitSeedSource());
+    }
+
+    /**
+     * Tohum değeri verilen, deterministik rastgele yürüyüşe sahip yeni bir Rate nesnesi oluşturur.
+     * Aynı tohumla oluşturulan kurlar aynı güncelleme dizisini üretir.
+     *
+     * @param name Kur ismi (örn: "USDTRY")
+     * @param initialBid Başlangıç alım fiyatı
+     * @param initialAsk Başlangıç satım fiyatı
+     * @param volatility Dalgalanma miktarını belirleyen volatilite değeri
+     * @param broadcastIntervalNanos Yayın aralığı (nanosaniye); 0 ise genel aralık kullanılır
+     * @param seed Rastgele yürüyüşün tohum değeri
+     */
+    public Rate(String name, double initialBid, double initialAsk, double volatility, long broadcastIntervalNanos, long seed) {
+        this(name, initialBid, initialAsk, volatility, broadcastIntervalNanos, new SplittableRandom(seed));
+    }
+
+    private Rate(String name, double initialBid, double initialAsk, double volatility, long broadcastIntervalNanos, SplittableRandom random) {
         this.name = name;
         this.volatility = volatility;
-        this.currentValues = new AtomicReference<>(new Double[]{initialBid, initialAsk});
+        this.broadcastIntervalNanos = broadcastIntervalNanos;
+        this.random = random;
+        this.bid = initialBid;
+        this.ask = initialAsk;
+    }
+
+    /**
+     * Kök üreteçten yeni, bağımsız bir üreteç türetir.
+     *
+     * @return Kura ait rastgele sayı üreteci
+     */
+    private static SplittableRandom splitSeedSource() {
+        synchronized (SEED_SOURCE) {
+            return SEED_SOURCE.split();
+        }
     }
 
     /**
@@ -48,17 +139,70 @@ public class Rate {
         return name;
     }
 
+    /**
+     * Bu kura özel yayın aralığını döndürür.
+     *
+     * @return Yayın aralığı (nanosaniye); 0 ise genel aralık kullanılır
+     */
+    public long getBroadcastIntervalNanos() {
+        return broadcastIntervalNanos;
+    }
+
+    /**
+     * Mevcut alım (bid) ve satım (ask) değerlerini, nesne oluşturmadan verilen diziye okur.
+     * <p>
+     * Okuma sırasında bir güncelleme olursa okuma tekrarlanır; dönen çift her zaman
+     * aynı güncellemeye aittir.
+     * </p>
+     *
+     * @param into En az iki elemanlı dizi; index 0'a bid, index 1'e ask yazılır
+     */
+    public void read(double[] into) {
+        while (true) {
+            long before = version;
+            if ((before & 1L) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            double currentBid = (double) BID.getOpaque(this);
+            double currentAsk = (double) ASK.getOpaque(this);
+            VarHandle.loadLoadFence();
+            if (before == (long) VERSION.getVolatile(this)) {
+                into[0] = currentBid;
+                into[1] = currentAsk;
+                return;
+            }
+        }
+    }
+
     /**
      * Mevcut alım (bid) ve satım (ask) değerlerini içeren diziyi döndürür.
      * <p>
      * Dönen dizinin ilk elemanı (index 0) alım fiyatını (bid),
      * ikinci elemanı (index 1) satım fiyatını (ask) temsil eder.
+     * Her çağrıda yeni bir dizi oluşturur; sık çağrılan yollarda {@link #read(double[])} tercih edilmelidir.
      * </p>
      *
      * @return [bid, ask] değerlerini içeren Double dizisi
      */
     public Double[] getCurrentValues() {
-        return currentValues.get();
+        double[] values = new double[2];
+        read(values);
+        return new Double[]{values[0], values[1]};
+    }
+
+    /**
+     * Kur değerlerini dışarıdan verilen fiyatlarla değiştirir.
+     * Kayıt dosyasından yeniden oynatma sırasında kullanılır.
+     *
+     * @param bid Yeni alım fiyatı
+     * @param ask Yeni satım fiyatı
+     */
+    public void set(double bid, double ask) {
+        long current = beginWrite();
+        BID.setOpaque(this, bid);
+        ASK.setOpaque(this, ask);
+        endWrite(current);
     }
 
     /**
@@ -70,15 +214,43 @@ public class Rate {
      * </p>
      */
     public void update() {
-        currentValues.updateAndGet(current -> {
-            // Negatif değerleri önlemek için basit kontrol
-            double newBid = Math.max(0.0, current[0] + (Math.random() - 0.5) * volatility);
-            double newAsk = Math.max(0.0, current[1] + (Math.random() - 0.5) * volatility);
-            // Genellikle Ask > Bid olmalı, basit bir ayarlama yapılabilir (opsiyonel)
-            if (newAsk <= newBid) {
-                newAsk = newBid + Math.abs((Math.random() - 0.5) * volatility * 0.1); // Küçük bir fark ekle
+        long current = beginWrite();
+        // Negatif değerleri önlemek için basit kontrol
+        double newBid = Math.max(0.0, bid + (random.nextDouble() - 0.5) * volatility);
+        double newAsk = Math.max(0.0, ask + (random.nextDouble() - 0.5) * volatility);
+        // Genellikle Ask > Bid olmalı, basit bir ayarlama yapılabilir (opsiyonel)
+        if (newAsk <= newBid) {
+            newAsk = newBid + Math.abs((random.nextDouble() - 0.5) * volatility * 0.1); // Küçük bir fark ekle
+        }
+        BID.setOpaque(this, newBid);
+        ASK.setOpaque(this, newAsk);
+        endWrite(current);
+    }
+
+    /**
+     * Yazma kilidini alır: sürümü çift sayıdan tek sayıya ilerletir.
+     * Aynı kura eşzamanlı yazan başka bir thread varsa onun bitmesini bekler.
+     *
+     * @return Kilit alınmadan önceki (çift) sürüm
+     */
+    private long beginWrite() {
+        while (true) {
+            long current = version;
+            if ((current & 1L) == 0 && VERSION.compareAndSet(this, current, current + 1)) {
+                // Alan yazımları sürüm artışından önceye taşınamaz
+                VarHandle.storeStoreFence();
+                return current;
             }
-            return new Double[]{newBid, newAsk};
-        });
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Yazma kilidini bırakır: sürümü bir sonraki çift sayıya ilerletir.
+     *
+     * @param current {@link #beginWrite()} tarafından döndürülen sürüm
+     */
+    private void endWrite(long current) {
+        version = current + 2;
     }
-}
\ No newline at end of file
+}
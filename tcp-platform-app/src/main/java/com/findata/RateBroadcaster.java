@@ -0,0 +1,308 @@
+package com.findata;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kur güncellemelerini abone istemcilere dağıtan yayın merkezi.
+ * <p>
+ * Her sembol için, en az bir abonesi olduğu sürece {@link TimingWheel} üzerinde tek bir
+ * periyodik görev çalışır. Görev her tick'te kuru bir kez günceller, mesajı bir kez
+ * formatlar ve sembolün tüm abonelerine dağıtır. Böylece tüm yayınlar tek bir zamanlayıcı
+ * thread'inden sürülür ve istemci sayısı arttıkça görev sayısı artmaz.
+ * </p>
+ * <p>
+ * Yayın aralığı sembol bazında {@link Rate#getBroadcastIntervalNanos()} ile belirlenir;
+ * tanımlı değilse yapılandırmadaki {@code broadcastIntervalMs} kullanılır. Aralık, her yayından
+ * sonra {@link BurstSchedule} çarpanına göre yeniden ölçeklenir.
+ * </p>
+ * <p>
+ * Yapılandırmada {@code replayFile} tanımlıysa zamanlayıcı görevleri başlatılmaz ve
+ * zamanlayıcının tick dinleyicisi kaydedilmez; tick'ler {@link TickReplayer} tarafından
+ * {@link #publish} ile verilir. Her iki modda da yayın, flush ve döngü sonu çağrıları tek bir
+ * yayın thread'inden (zamanlayıcı veya oynatıcı) yapılır. Bir {@link TickRecorder}
+ * atanmışsa yayınlanan her tick ayrıca kayıt dosyasına eklenir.
+ * </p>
+ * <p>
+ * Mesajlar istemcilerin çıkış kanallarında biriktirilir. Bir döngüde (zamanlayıcı tick'i)
+ * mesaj alan her oturum döngü sonunda bir kez flush edilir; böylece aynı döngüde bir istemciye
+ * giden tüm mesajlar tek bir write ile gönderilir. {@code flushIntervalUs} tanımlıysa flush
+ * en az bu aralıkta bir yapılır ve mesajlar birden fazla döngü boyunca biriktirilir.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @since 2025-04-25
+ */
+public class RateBroadcaster {
+
+    /** ISO 8601 formatında, milisaniyelerle ve UTC ('Z') olarak zaman damgası formatı */
+    private static final DateTimeFormatter ISO_TIMESTAMP_FORMATTER =
+            DateTimeFormatter.ISO_INSTANT.withZone(ZoneId.of("UTC"));
+
+    /** Tüm kurların paylaşılan haritası */
+    private final Map<String, Rate> rates;
+
+    /** Yayın görevlerini süren zamanlayıcı */
+    private final TimingWheel wheel;
+
+    /** Sembol için ayrı bir aralık tanımlı değilse kullanılan yayın aralığı (nanosaniye) */
+    private final long defaultIntervalNanos;
+
+    /** Tick hızlarını geçici olarak artıran burst takvimi */
+    private final BurstSchedule bursts;
+
+    /** Tick'lerin zamanlayıcı yerine kayıt dosyasından oynatılıp oynatılmadığı */
+    private final boolean replay;
+
+    /** Sembol bazında yayın durumları */
+    private final Map<String, SymbolFeed> feeds = new ConcurrentHashMap<>();
+
+    /** Yayınlanan tick'lerin kaydedildiği dosya, kayıt kapalıysa null */
+    private volatile TickRecorder recorder;
+
+    /** Biriken mesajların gönderimi için beklenecek en az süre (nanosaniye); 0 ise her döngü sonu */
+    private final long flushIntervalNanos;
+
+    /** Bu döngüde mesaj alan, flush bekleyen oturumlar; yalnızca yayın thread'i (zamanlayıcı veya oynatıcı) kullanır */
+    private final List<ClientSession> pendingFlush = new ArrayList<>();
+
+    /** İlk flush bekleyen mesajın zamanı (System.nanoTime) */
+    private long pendingSinceNanos;
+
+    /**
+     * Yeni bir yayın merkezi oluşturur.
+     *
+     * @param rates Tüm kurların saklandığı harita
+     * @param wheel Yayın görevlerini süren zamanlayıcı
+     * @param config Sunucu yapılandırması
+     * @param bursts Tick hızlarını geçici olarak artıran burst takvimi
+     */
+    public RateBroadcaster(Map<String, Rate> rates, TimingWheel wheel, Config config, BurstSchedule bursts) {
+        this.rates = rates;
+        this.wheel = wheel;
+        this.defaultIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, config.getBroadcastIntervalMs()));
+        this.bursts = bursts;
+        this.replay = config.getReplayFile() != null;
+        this.flushIntervalNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(0, config.getFlushIntervalUs()));
+        if (!replay) {
+            // Oynatmada döngüyü oynatıcı thread'i sürer; zamanlayıcı aynı listeye dokunmamalı
+            wheel.setTickListener(this::endCycle);
+        }
+    }
+
+    /**
+     * Yayınlanan tick'lerin ekleneceği kaydediciyi atar.
+     *
+     * @param recorder Tick kaydedicisi veya kaydı kapatmak için null
+     */
+    public void setRecorder(TickRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Verilen isimde bir kur olup olmadığını kontrol eder.
+     *
+     * @param rateName Kur sembolü
+     * @return Kur tanımlıysa true
+     */
+    public boolean hasRate(String rateName) {
+        return rates.containsKey(rateName);
+    }
+
+    /**
+     * Oturumu bir sembolün yayınına ekler. Sembolün ilk abonesiyse yayın görevi başlatılır.
+     *
+     * @param rateName Kur sembolü
+     * @param session Abone olacak istemci oturumu
+     * @return Kur bulunamadıysa false
+     */
+    public boolean subscribe(String rateName, ClientSession session) {
+        Rate rate = rates.get(rateName);
+        if (rate == null) {
+            return false;
+        }
+        feeds.computeIfAbsent(rateName, name -> new SymbolFeed(rate)).add(session);
+        return true;
+    }
+
+    /**
+     * Oturumu bir sembolün yayınından çıkarır. Son abone ayrıldığında yayın görevi iptal edilir.
+     *
+     * @param rateName Kur sembolü
+     * @param session Aboneliği sonlandırılacak istemci oturumu
+     */
+    public void unsubscribe(String rateName, ClientSession session) {
+        SymbolFeed feed = feeds.get(rateName);
+        if (feed != null) {
+            feed.remove(session);
+        }
+    }
+
+    /**
+     * Dışarıdan gelen bir tick'i kura uygular ve sembolün abonelerine yayınlar.
+     * Kayıt dosyasından yeniden oynatma sırasında, yalnızca oynatıcı thread'inden çağrılır.
+     *
+     * @param rateName Kur sembolü
+     * @param bid Alım fiyatı
+     * @param ask Satım fiyatı
+     * @param timestamp Tick'in zaman damgası
+     */
+    public void publish(String rateName, double bid, double ask, Instant timestamp) {
+        Rate rate = rates.get(rateName);
+        if (rate == null) {
+            return;
+        }
+        rate.set(bid, ask);
+        SymbolFeed feed = feeds.get(rateName);
+        if (feed != null) {
+            feed.broadcast(bid, ask, timestamp);
+        }
+    }
+
+    /**
+     * Yayın döngüsünü tamamlar: flush aralığı dolduysa mesaj alan oturumları flush eder.
+     * Zamanlayıcının her tick'inin sonunda, oynatmada ise oynatıcı thread'inden çağrılır.
+     */
+    public void endCycle() {
+        if (pendingFlush.isEmpty()) {
+            return;
+        }
+        if (flushIntervalNanos > 0 && System.nanoTime() - pendingSinceNanos < flushIntervalNanos) {
+            return;
+        }
+        flush();
+    }
+
+    /**
+     * Flush aralığını beklemeden, mesaj alan tüm oturumları flush eder.
+     * Yayın thread'i uzun süre beklemeye geçmeden önce çağrılır.
+     */
+    public void flush() {
+        for (int i = 0; i < pendingFlush.size(); i++) {
+            pendingFlush.get(i).flush();
+        }
+        pendingFlush.clear();
+    }
+
+    /**
+     * Kurun mevcut değerini, güncelleme yapmadan, yayın formatında döndürür.
+     * Yeni abonelere ilk değeri beklemeden göndermek için kullanılır.
+     *
+     * @param rateName Kur sembolü
+     * @return Formatlanmış mesaj veya kur bulunamazsa null
+     */
+    public String snapshot(String rateName) {
+        Rate rate = rates.get(rateName);
+        if (rate == null) {
+            return null;
+        }
+        double[] values = new double[2];
+        rate.read(values);
+        return formatMessage(rateName, values[0], values[1], Instant.now());
+    }
+
+    /**
+     * Kur verisini protokol formatına dönüştürür: SEMBOL|bid:DEĞER|ask:DEĞER|timestamp:DEĞER
+     *
+     * @param rateName Kur sembolü
+     * @param bid Alım fiyatı
+     * @param ask Satım fiyatı
+     * @param timestamp Mesajın zaman damgası
+     * @return Formatlanmış mesaj
+     */
+    static String formatMessage(String rateName, double bid, double ask, Instant timestamp) {
+        return String.format(Locale.US,
+                "%s|bid:%.5f|ask:%.5f|timestamp:%s",
+                rateName, bid, ask, ISO_TIMESTAMP_FORMATTER.format(timestamp)
+        );
+    }
+
+    /**
+     * Tek bir sembolün abone listesini ve zamanlayıcı görevini tutan sınıf.
+     */
+    private final class SymbolFeed implements Runnable {
+
+        /** Yayını yapılan kur */
+        private final Rate rate;
+
+        /** Abone oturumlar; zamanlayıcı thread'i kilitsiz gezebilsin diye copy-on-write */
+        private final List<ClientSession> subscribers = new CopyOnWriteArrayList<>();
+
+        /** Zamanlayıcı thread'inin fiyatları okuduğu, yeniden kullanılan dizi */
+        private final double[] values = new double[2];
+
+        /** Sembolün zamanlayıcı görevi, abone yokken null */
+        private TimingWheel.Timeout task;
+
+        SymbolFeed(Rate rate) {
+            this.rate = rate;
+        }
+
+        synchronized void add(ClientSession session) {
+            if (!subscribers.contains(session)) {
+                subscribers.add(session);
+            }
+            if (task == null && !replay) {
+                long interval = rate.getBroadcastIntervalNanos() > 0 ? rate.getBroadcastIntervalNanos() : defaultIntervalNanos;
+                task = wheel.scheduleAtFixedRate(this, 0, () -> bursts.scale(interval));
+            }
+        }
+
+        synchronized void remove(ClientSession session) {
+            subscribers.remove(session);
+            if (subscribers.isEmpty() && task != null) {
+                task.cancel();
+                task = null;
+            }
+        }
+
+        /**
+         * Zamanlayıcı thread'inde çalışır: kuru günceller ve tüm abonelere gönderir.
+         */
+        @Override
+        public void run() {
+            if (subscribers.isEmpty()) {
+                return;
+            }
+            rate.update();
+            rate.read(values);
+            broadcast(values[0], values[1], Instant.now());
+        }
+
+        /**
+         * Tick'i kaydeder (kayıt açıksa) ve sembolün tüm abonelerine gönderir.
+         *
+         * @param bid Alım fiyatı
+         * @param ask Satım fiyatı
+         * @param timestamp Tick'in zaman damgası
+         */
+        void broadcast(double bid, double ask, Instant timestamp) {
+            if (subscribers.isEmpty()) {
+                return;
+            }
+            TickRecorder current = recorder;
+            if (current != null) {
+                current.record(rate.getName(), bid, ask, timestamp);
+            }
+            String message = formatMessage(rate.getName(), bid, ask, timestamp);
+            for (ClientSession session : subscribers) {
+                session.deliver(rate.getName(), message);
+                if (session.markFlushPending()) {
+                    if (pendingFlush.isEmpty()) {
+                        pendingSinceNanos = System.nanoTime();
+                    }
+                    pendingFlush.add(session);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.findata;
+
+/**
+ * Kur yayını yapan sunucuların ortak arayüzü.
+ * <p>
+ * {@link Platform1Simulator}, yapılandırmadaki sunucu moduna göre bloklayıcı
+ * {@link TcpServer} veya selector tabanlı {@link NioTcpServer} örneğini bu arayüz
+ * üzerinden başlatır ve durdurur.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @since 2025-04-25
+ */
+public interface RateServer {
+
+    /**
+     * Sunucuyu başlatır. Sunucu durdurulana kadar bloklayıcıdır.
+     */
+    void start();
+
+    /**
+     * Sunucuya durma sinyali gönderir.
+     */
+    void stop();
+}
@@ -7,8 +7,6 @@ import java.io.IOException;
 import java.net.InetAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
-import java.util.Map;
-import java.util.concurrent.ScheduledExecutorService;
 
 /**
  * TCP Sunucusu ana sınıfı.
@@ -27,7 +25,7 @@ import java.util.concurrent.ScheduledExecutorService;
  * @version 1.0
  * @since 2025-04-25
  */
-public class TcpServer {
+public class TcpServer implements RateServer {
 
     /** Loglama için kullanılan Logger nesnesi */
     private static final Logger log = LoggerFactory.getLogger(TcpServer.class);
@@ -35,11 +33,11 @@ public class TcpServer {
     /** Sunucu yapılandırma bilgisi */
     private final Config config;
     
-    /** Tüm kurların paylaşılan haritası */
-    private final Map<String, Rate> rates;
-    
-    /** Zamanlı görevleri yürütmek için kullanılan thread havuzu */
-    private final ScheduledExecutorService scheduler;
+    /** Kur güncellemelerini dağıtan yayın merkezi */
+    private final RateBroadcaster broadcaster;
+
+    /** İstemci kuyruk metriklerini raporlayan bileşen */
+    private final ClientMetricsReporter metrics;
     
     /** Sunucunun çalışma durumunu kontrol eden bayrak */
     private volatile boolean running = true;
@@ -48,13 +46,13 @@ public class TcpServer {
      * Yapılandırma ve paylaşılan kaynaklarla yeni bir TCP sunucusu oluşturur.
      *
      * @param config Sunucu yapılandırması
-     * @param rates Tüm kurların saklandığı harita
-     * @param scheduler Zamanlı görevleri yürütmek için kullanılan thread havuzu
+     * @param broadcaster Kur güncellemelerini dağıtan yayın merkezi
+     * @param metrics İstemci kuyruk metriklerini raporlayan bileşen
      */
-    public TcpServer(Config config, Map<String, Rate> rates, ScheduledExecutorService scheduler) {
+    public TcpServer(Config config, RateBroadcaster broadcaster, ClientMetricsReporter metrics) {
         this.config = config;
-        this.rates = rates;
-        this.scheduler = scheduler;
+        this.broadcaster = broadcaster;
+        this.metrics = metrics;
     }
 
     /**
@@ -64,6 +62,7 @@ public class TcpServer {
      * için ayrı bir {@link ClientHandler} thread'i oluşturur.
      * </p>
      */
+    @Override
     public void start() {
         try (ServerSocket serverSocket = new ServerSocket(config.getPort())) {
             InetAddress ip = InetAddress.getLocalHost();
@@ -73,7 +72,7 @@ public class TcpServer {
                 try {
                     Socket clientSocket = serverSocket.accept();
                     log.debug("New client connection accepted from {}", clientSocket.getInetAddress());
-                    new Thread(new ClientHandler(clientSocket, rates, config, scheduler)).start();
+                    new Thread(new ClientHandler(clientSocket, broadcaster, config, metrics)).start();
                 } catch (IOException e) {
                     if (!running) {
                         log.info("Server socket closed, shutting down accept loop.");
@@ -101,6 +100,7 @@ public class TcpServer {
      * tarafından çağrılır.
      * </p>
      */
+    @Override
     public void stop() {
         running = false;
         log.info("Stop signal received, server will shut down.");
@@ -0,0 +1,199 @@
+package com.findata;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Yayınlanan her tick'i bellek eşlemeli (memory-mapped), sabit uzunluklu kayıtlardan oluşan
+ * ikili bir dosyaya ekleyen kaydedici.
+ * <p>
+ * Dosya {@link #HEADER_SIZE} baytlık bir başlık ve ardından {@link #RECORD_SIZE} baytlık
+ * kayıtlardan oluşur. Tüm sayılar little-endian yazılır.
+ * </p>
+ * <pre>
+ * Başlık:  magic (int "PF1T") | version (int) | recordSize (int) | reserved (int) | count (long) | reserved (long)
+ * Kayıt:   epochNanos (long) | bid (double) | ask (double) | symbol (24 bayt US-ASCII, sıfırla doldurulmuş)
+ * </pre>
+ * <p>
+ * Dosya {@link #CHUNK_SIZE} baytlık bölgeler halinde eşlenir ve doldukça büyütülür; her kayıttan
+ * sonra başlıktaki sayaç güncellenir. Böylece süreç beklenmedik şekilde sonlansa bile sayaca kadar
+ * olan kayıtlar okunabilir. Kapatılırken dosya, kullanılan boyuta kırpılır.
+ * </p>
+ * <p>
+ * Sınıf tek yazıcı (single writer) için tasarlanmıştır; {@link #record} yalnızca yayın
+ * zamanlayıcısının thread'inden çağrılmalı, {@link #close()} ise zamanlayıcı durduktan sonra çağrılmalıdır.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @since 2025-04-25
+ */
+public class TickRecorder implements Closeable {
+
+    /** Loglama için kullanılan Logger nesnesi */
+    private static final Logger log = LoggerFactory.getLogger(TickRecorder.class);
+
+    /** Dosya imzası ("PF1T") */
+    static final int MAGIC = 0x50463154;
+
+    /** Dosya formatı sürümü */
+    static final int VERSION = 1;
+
+    /** Başlık boyutu (bayt) */
+    static final int HEADER_SIZE = 32;
+
+    /** Kayıt boyutu (bayt) */
+    static final int RECORD_SIZE = 48;
+
+    /** Kayıttaki sembol alanının boyutu (bayt) */
+    static final int SYMBOL_SIZE = 24;
+
+    /** Başlıktaki kayıt sayacının konumu */
+    static final int COUNT_OFFSET = 16;
+
+    /** Tek seferde eşlenen dosya bölgesinin boyutu (kayıt boyutunun katı) */
+    private static final int CHUNK_SIZE = RECORD_SIZE * 1_398_101; // ~64 MB
+
+    /** Kayıt dosyasının kanalı */
+    private final FileChannel channel;
+
+    /** Başlığın eşlendiği bölge */
+    private final MappedByteBuffer header;
+
+    /** Yazılan sembol isimlerinin önbelleği; her tick'te yeniden kodlanmasın diye */
+    private final Map<String, byte[]> symbolBytes = new HashMap<>();
+
+    /** Kayıtların yazıldığı mevcut bölge */
+    private MappedByteBuffer chunk;
+
+    /** Mevcut bölgenin dosyadaki başlangıç konumu */
+    private long chunkStart;
+
+    /** Yazılan kayıt sayısı */
+    private long count;
+
+    /** Kaydedicinin kapatılıp kapatılmadığı */
+    private volatile boolean closed;
+
+    /**
+     * Verilen dosyayı sıfırdan oluşturur (varsa üzerine yazar) ve kayda hazırlar.
+     *
+     * @param file Kayıt dosyasının yolu
+     * @throws IOException Dosya açılamaz veya eşlenemezse
+     */
+    public TickRecorder(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(0, MAGIC);
+        header.putInt(4, VERSION);
+        header.putInt(8, RECORD_SIZE);
+        header.putLong(COUNT_OFFSET, 0L);
+        mapChunk(HEADER_SIZE);
+        log.info("Recording broadcast ticks to {}", file.toAbsolutePath());
+    }
+
+    /**
+     * Bir tick'i dosyaya ekler.
+     *
+     * @param rateName Kur sembolü (en fazla {@link #SYMBOL_SIZE} bayt US-ASCII)
+     * @param bid Alım fiyatı
+     * @param ask Satım fiyatı
+     * @param timestamp Tick'in zaman damgası
+     */
+    public void record(String rateName, double bid, double ask, Instant timestamp) {
+        if (closed) {
+            return;
+        }
+        byte[] symbol = symbolBytes.computeIfAbsent(rateName, TickRecorder::encodeSymbol);
+        if (symbol.length == 0) {
+            return;
+        }
+        try {
+            if (!chunk.hasRemaining()) {
+                mapChunk(chunkStart + chunk.capacity());
+            }
+        } catch (IOException e) {
+            log.error("Could not extend tick recording file, recording stopped: {}", e.getMessage(), e);
+            closed = true;
+            return;
+        }
+        chunk.putLong(timestamp.getEpochSecond() * 1_000_000_000L + timestamp.getNano());
+        chunk.putDouble(bid);
+        chunk.putDouble(ask);
+        chunk.put(symbol);
+        header.putLong(COUNT_OFFSET, ++count);
+    }
+
+    /**
+     * Yazılan kayıt sayısını döndürür.
+     *
+     * @return Kayıt sayısı
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Eşlenmiş bölgeleri diske yazar, dosyayı kullanılan boyuta kırpar ve kapatır.
+     *
+     * @throws IOException Dosya kapatılamazsa
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed && !channel.isOpen()) {
+            return;
+        }
+        closed = true;
+        chunk.force();
+        header.force();
+        channel.truncate(HEADER_SIZE + count * RECORD_SIZE);
+        channel.close();
+        log.info("Tick recording closed, {} ticks written.", count);
+    }
+
+    /**
+     * Verilen konumdan başlayan yeni bir dosya bölgesini eşler.
+     *
+     * @param position Bölgenin dosyadaki başlangıç konumu
+     * @throws IOException Bölge eşlenemezse
+     */
+    private void mapChunk(long position) throws IOException {
+        if (chunk != null) {
+            chunk.force();
+        }
+        chunk = channel.map(FileChannel.MapMode.READ_WRITE, position, CHUNK_SIZE);
+        chunk.order(ByteOrder.LITTLE_ENDIAN);
+        chunkStart = position;
+    }
+
+    /**
+     * Sembol ismini sabit uzunluklu alana kodlar.
+     *
+     * @param rateName Kur sembolü
+     * @return Sıfırla doldurulmuş bayt dizisi veya isim sığmıyorsa boş dizi
+     */
+    private static byte[] encodeSymbol(String rateName) {
+        byte[] encoded = rateName.getBytes(StandardCharsets.US_ASCII);
+        if (encoded.length > SYMBOL_SIZE) {
+            log.warn("Symbol {} is longer than {} bytes and will not be recorded.", rateName, SYMBOL_SIZE);
+            return new byte[0];
+        }
+        byte[] padded = new byte[SYMBOL_SIZE];
+        System.arraycopy(encoded, 0, padded, 0, encoded.length);
+        return padded;
+    }
+}
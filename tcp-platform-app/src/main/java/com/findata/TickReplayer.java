@@ -0,0 +1,258 @@
+package com.findata;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link TickRecorder} ile kaydedilmiş bir dosyayı abone istemcilere yeniden yayınlayan sınıf.
+ * <p>
+ * Dosya salt okunur olarak belleğe eşlenir ve kayıtlar sırayla {@link RateBroadcaster#publish}
+ * ile dağıtılır. Kayıtlar arasındaki süreler {@code speed} değerine bölünerek korunur:
+ * 1 gerçek zamanlı, N ise N kat hızlı oynatır; 0 verilirse hiç beklenmeden en yüksek hızda
+ * oynatılır. Mesajlardaki zaman damgaları oynatmanın başlangıç anına göre yeniden hesaplanır,
+ * böylece alt sistemler her oynatmada güncel ve artan zaman damgaları görür.
+ * </p>
+ * <p>
+ * Oluşturulurken dosyadaki tüm semboller, ilk kayıtlarındaki fiyatlarla kur haritasına eklenir;
+ * istemciler bu sembollere normal şekilde abone olabilir.
+ * </p>
+ * <p>
+ * Zamanlayıcı döngüsü olmadığından, biriken mesajlar oynatıcı beklemeye geçmeden önce veya
+ * en yüksek hızda her {@link #MAX_SPEED_BATCH} tick'te bir gönderilir.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @since 2025-04-25
+ */
+public class TickReplayer implements Runnable {
+
+    /** Loglama için kullanılan Logger nesnesi */
+    private static final Logger log = LoggerFactory.getLogger(TickReplayer.class);
+
+    /** Tek seferde eşlenen dosya bölgesinin en büyük boyutu (kayıt boyutunun katı) */
+    private static final long MAX_CHUNK_SIZE = (long) TickRecorder.RECORD_SIZE * 22_369_621L; // ~1 GB
+
+    /** Beklemeden oynatılan tick'ler için döngü sonu sayılan tick sayısı (2'nin kuvveti) */
+    private static final int MAX_SPEED_BATCH = 256;
+
+    /** Dosyanın salt okunur eşlenmiş bölgeleri */
+    private final List<MappedByteBuffer> chunks = new ArrayList<>();
+
+    /** Dosyadaki kayıt sayısı */
+    private final long count;
+
+    /** Oynatma hızı çarpanı; 0 ise en yüksek hız */
+    private final double speed;
+
+    /** Dosya bittiğinde başa dönülüp dönülmeyeceği */
+    private final boolean loop;
+
+    /** Tick'leri dağıtan yayın merkezi */
+    private final RateBroadcaster broadcaster;
+
+    /** Oynatıcının çalışma durumu */
+    private volatile boolean running = true;
+
+    /** Oynatıcı thread'i */
+    private Thread thread;
+
+    /**
+     * Kayıt dosyasını açar, doğrular ve içindeki sembolleri kur haritasına ekler.
+     *
+     * @param file Kayıt dosyasının yolu
+     * @param speed Oynatma hızı çarpanı; 0 ise en yüksek hız
+     * @param loop Dosya bittiğinde başa dönülüp dönülmeyeceği
+     * @param broadcaster Tick'leri dağıtan yayın merkezi
+     * @param rates Sembollerin ekleneceği kur haritası
+     * @throws IOException Dosya okunamaz veya formatı geçersizse
+     */
+    public TickReplayer(Path file, double speed, boolean loop, RateBroadcaster broadcaster, Map<String, Rate> rates) throws IOException {
+        if (speed < 0) {
+            throw new IllegalArgumentException("replaySpeed must not be negative: " + speed);
+        }
+        this.speed = speed;
+        this.loop = loop;
+        this.broadcaster = broadcaster;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < TickRecorder.HEADER_SIZE) {
+                throw new IOException("Replay file " + file + " is too short.");
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, TickRecorder.HEADER_SIZE);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != TickRecorder.MAGIC || header.getInt(4) != TickRecorder.VERSION
+                    || header.getInt(8) != TickRecorder.RECORD_SIZE) {
+                throw new IOException("Replay file " + file + " is not a tick recording.");
+            }
+            // Süreç kayıt sırasında sonlandıysa dosya sayacın gösterdiğinden kısa olabilir
+            long available = (channel.size() - TickRecorder.HEADER_SIZE) / TickRecorder.RECORD_SIZE;
+            this.count = Math.min(header.getLong(TickRecorder.COUNT_OFFSET), available);
+
+            long position = TickRecorder.HEADER_SIZE;
+            long end = TickRecorder.HEADER_SIZE + count * TickRecorder.RECORD_SIZE;
+            while (position < end) {
+                long size = Math.min(MAX_CHUNK_SIZE, end - position);
+                MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+                chunk.order(ByteOrder.LITTLE_ENDIAN);
+                chunks.add(chunk);
+                position += size;
+            }
+        }
+
+        registerSymbols(rates);
+        log.info("Loaded tick recording {} with {} ticks (speed={}, loop={})",
+                file.toAbsolutePath(), count, speed == 0 ? "max" : speed, loop);
+    }
+
+    /**
+     * Oynatıcı thread'ini başlatır.
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        thread = new Thread(this, "tick-replayer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Oynatmayı durdurur ve thread'in bitmesini en fazla verilen süre kadar bekler.
+     *
+     * @param timeout Bekleme süresi
+     * @param unit Bekleme süresinin birimi
+     * @return Thread süre içinde bittiyse true
+     * @throws InterruptedException Bekleme sırasında kesilirse
+     */
+    public boolean stop(long timeout, TimeUnit unit) throws InterruptedException {
+        running = false;
+        Thread current;
+        synchronized (this) {
+            current = thread;
+        }
+        if (current == null) {
+            return true;
+        }
+        LockSupport.unpark(current);
+        current.join(unit.toMillis(timeout));
+        return !current.isAlive();
+    }
+
+    /**
+     * Oynatma döngüsü: kayıtları hız çarpanına göre bekleyerek yayın merkezine iletir.
+     */
+    @Override
+    public void run() {
+        long passes = 0;
+        do {
+            long played = replayOnce();
+            passes++;
+            log.info("Replay pass {} finished, {} ticks published.", passes, played);
+        } while (loop && running && count > 0);
+        log.info("Tick replay stopped.");
+    }
+
+    /**
+     * Dosyayı baştan sona bir kez oynatır.
+     *
+     * @return Yayınlanan tick sayısı
+     */
+    private long replayOnce() {
+        byte[] symbol = new byte[TickRecorder.SYMBOL_SIZE];
+        long startNanos = System.nanoTime();
+        Instant startTime = Instant.now();
+        long firstEpochNanos = 0L;
+        long played = 0;
+
+        for (MappedByteBuffer chunk : chunks) {
+            chunk.position(0);
+            while (chunk.hasRemaining() && running) {
+                long epochNanos = chunk.getLong();
+                double bid = chunk.getDouble();
+                double ask = chunk.getDouble();
+                chunk.get(symbol);
+                if (played == 0) {
+                    firstEpochNanos = epochNanos;
+                }
+
+                Instant timestamp;
+                if (speed > 0) {
+                    long offsetNanos = (long) ((epochNanos - firstEpochNanos) / speed);
+                    long remaining = startNanos + offsetNanos - System.nanoTime();
+                    if (remaining > 0) {
+                        // Beklemeden önce biriken mesajlar gönderilir
+                        broadcaster.flush();
+                    }
+                    while (remaining > 0 && running) {
+                        LockSupport.parkNanos(remaining);
+                        remaining = startNanos + offsetNanos - System.nanoTime();
+                    }
+                    timestamp = startTime.plusNanos(offsetNanos);
+                } else {
+                    timestamp = Instant.now();
+                }
+                broadcaster.publish(decodeSymbol(symbol), bid, ask, timestamp);
+                played++;
+                if ((played & (MAX_SPEED_BATCH - 1)) == 0) {
+                    broadcaster.endCycle();
+                }
+            }
+        }
+        broadcaster.flush();
+        return played;
+    }
+
+    /**
+     * Dosyadaki sembolleri, ilk görüldükleri kayıttaki fiyatlarla kur haritasına ekler.
+     *
+     * @param rates Kur haritası
+     */
+    private void registerSymbols(Map<String, Rate> rates) {
+        byte[] symbol = new byte[TickRecorder.SYMBOL_SIZE];
+        int added = 0;
+        for (MappedByteBuffer chunk : chunks) {
+            chunk.position(0);
+            while (chunk.hasRemaining()) {
+                chunk.getLong();
+                double bid = chunk.getDouble();
+                double ask = chunk.getDouble();
+                chunk.get(symbol);
+                String name = decodeSymbol(symbol);
+                if (!rates.containsKey(name)) {
+                    rates.put(name, new Rate(name, bid, ask, 0.0));
+                    added++;
+                }
+            }
+        }
+        log.info("Replay file contains {} symbol(s) not present in the configuration.", added);
+    }
+
+    /**
+     * Sıfırla doldurulmuş sembol alanını String'e çevirir.
+     *
+     * @param symbol Sembol alanı
+     * @return Kur sembolü
+     */
+    private static String decodeSymbol(byte[] symbol) {
+        int length = 0;
+        while (length < symbol.length && symbol[length] != 0) {
+            length++;
+        }
+        return new String(symbol, 0, length, StandardCharsets.US_ASCII);
+    }
+}
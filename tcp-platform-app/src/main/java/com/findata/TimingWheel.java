@@ -0,0 +1,372 @@
+package com.findata;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Periyodik görevleri tek bir thread üzerinde çalıştıran hashed timing wheel zamanlayıcısı.
+ * <p>
+ * Zaman, sabit uzunlukta tick'lere bölünür ve görevler deadline'larına göre
+ * {@code wheelSize} adet kovaya (bucket) dağıtılır. Her tick'te yalnızca o tick'e ait
+ * kova gezilir; bu sayede görev ekleme/iptal O(1)'dir ve binlerce periyodik görev
+ * tek thread ile sürülebilir. Tick süresi milisaniyenin altına indirilebildiği için
+ * mikrosaniye mertebesindeki yayın aralıkları desteklenir.
+ * </p>
+ * <p>
+ * Periyodik görevler sabit hızda (fixed-rate) çalışır: bir sonraki deadline bir önceki
+ * deadline'a periyot eklenerek bulunur. Periyot tick süresinden kısaysa veya thread
+ * geç uyanırsa, görev aynı tick içinde birden fazla kez çalıştırılarak hedef hız korunur.
+ * </p>
+ * <p>
+ * Görev ekleme ve iptal işlemleri her thread'den yapılabilir; kovalar yalnızca zamanlayıcı
+ * thread'i tarafından değiştirilir.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @since 2025-04-25
+ */
+public class TimingWheel implements Runnable {
+
+    /** Loglama için kullanılan Logger nesnesi */
+    private static final Logger log = LoggerFactory.getLogger(TimingWheel.class);
+
+    /** Geride kalan bir görevin tek tick içinde en fazla kaç kez çalıştırılacağı */
+    private static final int MAX_CATCH_UP = 1024;
+
+    /** Bir tick'in süresi (nanosaniye) */
+    private final long tickNanos;
+
+    /** Kova indeksini hesaplamak için maske (wheelSize - 1) */
+    private final int mask;
+
+    /** Kovalar; her biri çift yönlü bağlı bir görev listesinin başıdır */
+    private final Timeout[] buckets;
+
+    /** Diğer thread'lerden eklenen, henüz kovaya yerleştirilmemiş görevler */
+    private final Queue<Timeout> pendingAdds = new ConcurrentLinkedQueue<>();
+
+    /** Diğer thread'lerden iptal edilen, kovadan çıkarılacak görevler */
+    private final Queue<Timeout> pendingCancels = new ConcurrentLinkedQueue<>();
+
+    /** Bir tick'te çalıştırılıp yeniden yerleştirilecek görevler */
+    private final List<Timeout> rescheduled = new ArrayList<>();
+
+    /** Her tick'in sonunda çalıştırılan dinleyici (opsiyonel) */
+    private volatile Runnable tickListener;
+
+    /** Zamanlayıcının çalışma durumu */
+    private volatile boolean running = true;
+
+    /** Zamanlayıcının başlangıç zamanı (System.nanoTime) */
+    private volatile long startNanos;
+
+    /** İşlenmiş tick sayısı; yalnızca zamanlayıcı thread'i değiştirir */
+    private long tick;
+
+    /** Zamanlayıcı thread'i */
+    private Thread thread;
+
+    /**
+     * Yeni bir timing wheel oluşturur.
+     *
+     * @param tickMicros Bir tick'in süresi (mikrosaniye)
+     * @param wheelSize Kova sayısı; en yakın 2'nin kuvvetine yukarı yuvarlanır
+     */
+    public TimingWheel(long tickMicros, int wheelSize) {
+        if (tickMicros <= 0) {
+            throw new IllegalArgumentException("tickMicros must be positive: " + tickMicros);
+        }
+        if (wheelSize <= 0 || wheelSize > (1 << 30)) {
+            throw new IllegalArgumentException("wheelSize out of range: " + wheelSize);
+        }
+        int size = Integer.highestOneBit(wheelSize);
+        if (size < wheelSize) {
+            size <<= 1;
+        }
+        this.tickNanos = TimeUnit.MICROSECONDS.toNanos(tickMicros);
+        this.mask = size - 1;
+        this.buckets = new Timeout[size];
+    }
+
+    /**
+     * Zamanlayıcı thread'ini başlatır.
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        startNanos = System.nanoTime();
+        thread = new Thread(this, "timing-wheel");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Timing wheel started: tick={}us, buckets={}", TimeUnit.NANOSECONDS.toMicros(tickNanos), buckets.length);
+    }
+
+    /**
+     * Zamanlayıcıyı durdurur ve thread'in bitmesini en fazla verilen süre kadar bekler.
+     *
+     * @param timeout Bekleme süresi
+     * @param unit Bekleme süresinin birimi
+     * @return Thread süre içinde bittiyse true
+     * @throws InterruptedException Bekleme sırasında kesilirse
+     */
+    public boolean stop(long timeout, TimeUnit unit) throws InterruptedException {
+        running = false;
+        Thread current;
+        synchronized (this) {
+            current = thread;
+        }
+        if (current == null) {
+            return true;
+        }
+        LockSupport.unpark(current);
+        current.join(unit.toMillis(timeout));
+        return !current.isAlive();
+    }
+
+    /**
+     * Her tick'in görevleri çalıştırıldıktan sonra çağrılacak dinleyiciyi atar.
+     * <p>
+     * Dinleyici zamanlayıcı thread'inde çalışır; örneğin aynı tick'te birikmiş mesajları
+     * tek seferde göndermek için kullanılır.
+     * </p>
+     *
+     * @param tickListener Tick sonu dinleyicisi veya kaldırmak için null
+     */
+    public void setTickListener(Runnable tickListener) {
+        this.tickListener = tickListener;
+    }
+
+    /**
+     * Sabit hızda tekrarlanan bir görev ekler.
+     *
+     * @param task Çalıştırılacak görev
+     * @param initialDelayNanos İlk çalıştırmaya kadar geçecek süre (nanosaniye)
+     * @param periodNanos Çalıştırmalar arasındaki süre (nanosaniye)
+     * @return Görevi iptal etmek için kullanılan tutamaç
+     */
+    public Timeout scheduleAtFixedRate(Runnable task, long initialDelayNanos, long periodNanos) {
+        if (periodNanos <= 0) {
+            throw new IllegalArgumentException("periodNanos must be positive: " + periodNanos);
+        }
+        return scheduleAtFixedRate(task, initialDelayNanos, () -> periodNanos);
+    }
+
+    /**
+     * Periyodu her çalıştırmadan sonra yeniden hesaplanan bir görev ekler.
+     * <p>
+     * Tedarikçi, zamanlayıcı thread'inde her çalıştırmadan sonra çağrılır; örneğin burst
+     * pencerelerinde yayın aralığını kısaltmak için kullanılır.
+     * </p>
+     *
+     * @param task Çalıştırılacak görev
+     * @param initialDelayNanos İlk çalıştırmaya kadar geçecek süre (nanosaniye)
+     * @param periodNanos Bir sonraki çalıştırmaya kadar geçecek süreyi veren tedarikçi (nanosaniye)
+     * @return Görevi iptal etmek için kullanılan tutamaç
+     */
+    public Timeout scheduleAtFixedRate(Runnable task, long initialDelayNanos, LongSupplier periodNanos) {
+        Timeout timeout = new Timeout(this, task, System.nanoTime() + Math.max(0, initialDelayNanos), periodNanos);
+        pendingAdds.offer(timeout);
+        return timeout;
+    }
+
+    /**
+     * Zamanlayıcı döngüsü: her tick sonunda ilgili kovadaki süresi dolan görevleri çalıştırır.
+     */
+    @Override
+    public void run() {
+        while (running) {
+            long tickDeadline = startNanos + (tick + 1) * tickNanos;
+            long remaining;
+            while ((remaining = tickDeadline - System.nanoTime()) > 0 && running) {
+                LockSupport.parkNanos(remaining);
+            }
+            if (!running) {
+                break;
+            }
+            processCancels();
+            processAdds();
+            expire(tickDeadline);
+            tick++;
+            // Çalışan görevler bir sonraki tick'ten itibaren yeniden yerleştirilir
+            for (int i = 0; i < rescheduled.size(); i++) {
+                place(rescheduled.get(i));
+            }
+            rescheduled.clear();
+
+            Runnable listener = tickListener;
+            if (listener != null) {
+                try {
+                    listener.run();
+                } catch (Throwable t) {
+                    log.error("Timing wheel tick listener failed: {}", t.getMessage(), t);
+                }
+            }
+        }
+        log.info("Timing wheel stopped after {} ticks.", tick);
+    }
+
+    /**
+     * İptal edilen görevleri kovalarından çıkarır.
+     */
+    private void processCancels() {
+        Timeout timeout;
+        while ((timeout = pendingCancels.poll()) != null) {
+            unlink(timeout);
+        }
+    }
+
+    /**
+     * Yeni eklenen görevleri deadline'larına göre kovalara yerleştirir.
+     */
+    private void processAdds() {
+        Timeout timeout;
+        while ((timeout = pendingAdds.poll()) != null) {
+            if (!timeout.cancelled) {
+                place(timeout);
+            }
+        }
+    }
+
+    /**
+     * Görevi deadline'ına karşılık gelen kovaya ekler.
+     *
+     * @param timeout Yerleştirilecek görev
+     */
+    private void place(Timeout timeout) {
+        long calculated = Math.max(0, (timeout.deadline - startNanos) / tickNanos);
+        timeout.remainingRounds = Math.max(0, (calculated - tick) / buckets.length);
+        int index = (int) (Math.max(calculated, tick) & mask);
+        Timeout head = buckets[index];
+        timeout.bucket = index;
+        timeout.prev = null;
+        timeout.next = head;
+        if (head != null) {
+            head.prev = timeout;
+        }
+        buckets[index] = timeout;
+    }
+
+    /**
+     * Görevi bulunduğu kovadan çıkarır.
+     *
+     * @param timeout Çıkarılacak görev
+     */
+    private void unlink(Timeout timeout) {
+        if (timeout.bucket < 0) {
+            return;
+        }
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            buckets[timeout.bucket] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.bucket = -1;
+    }
+
+    /**
+     * Mevcut tick'in kovasındaki süresi dolmuş görevleri çalıştırır.
+     *
+     * @param tickDeadline Mevcut tick'in bitiş zamanı (System.nanoTime)
+     */
+    private void expire(long tickDeadline) {
+        Timeout timeout = buckets[(int) (tick & mask)];
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+            } else if (timeout.deadline <= tickDeadline) {
+                unlink(timeout);
+                fire(timeout, tickDeadline);
+                if (!timeout.cancelled) {
+                    rescheduled.add(timeout);
+                }
+            }
+            timeout = next;
+        }
+    }
+
+    /**
+     * Görevi çalıştırır; geride kaldıysa hedef hıza yetişmek için aynı tick içinde tekrarlar.
+     *
+     * @param timeout Çalıştırılacak görev
+     * @param tickDeadline Mevcut tick'in bitiş zamanı (System.nanoTime)
+     */
+    private void fire(Timeout timeout, long tickDeadline) {
+        int runs = 0;
+        long period;
+        do {
+            try {
+                timeout.task.run();
+            } catch (Throwable t) {
+                log.error("Timing wheel task failed: {}", t.getMessage(), t);
+            }
+            period = Math.max(1L, timeout.periodNanos.getAsLong());
+            timeout.deadline += period;
+            runs++;
+        } while (timeout.deadline <= tickDeadline && runs < MAX_CATCH_UP && !timeout.cancelled);
+
+        if (timeout.deadline <= tickDeadline) {
+            // Hedef hıza yetişilemiyor; birikmiş çalıştırmalar atlanır
+            log.debug("Timing wheel task is {} runs behind schedule, skipping missed runs.",
+                    (tickDeadline - timeout.deadline) / period + 1);
+            timeout.deadline = tickDeadline + period;
+        }
+    }
+
+    /**
+     * Zamanlayıcıya eklenmiş periyodik bir görevin tutamacı.
+     */
+    public static final class Timeout {
+
+        private final TimingWheel wheel;
+        private final Runnable task;
+        private final LongSupplier periodNanos;
+        private long deadline;
+        private long remainingRounds;
+        private int bucket = -1;
+        private Timeout prev;
+        private Timeout next;
+        private volatile boolean cancelled;
+
+        private Timeout(TimingWheel wheel, Runnable task, long deadline, LongSupplier periodNanos) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadline = deadline;
+            this.periodNanos = periodNanos;
+        }
+
+        /**
+         * Görevi iptal eder. Görev o anda çalışıyorsa mevcut çalıştırma tamamlanır.
+         */
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                wheel.pendingCancels.offer(this);
+            }
+        }
+
+        /**
+         * Görevin iptal edilip edilmediğini döndürür.
+         *
+         * @return İptal edildiyse true
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.findata;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link LoadGenerator}'ın sembollere Zipf dağılımına göre tick hızı dağıttığını, fiyatları
+ * yapılandırılan aralıkta ürettiğini ve aynı tohumla aynı sembol evrenini oluşturduğunu doğrular.
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @since 2025-04-25
+ */
+class LoadGeneratorTest {
+
+    @Test
+    void distributesTheTargetRateByZipfRank() {
+        GeneratorConfig generator = generator(500, 1.0);
+        Map<String, Rate> rates = new HashMap<>();
+
+        double total = LoadGenerator.generate(generator, rates);
+
+        assertEquals(500, rates.size());
+        assertEquals(generator.getTotalTicksPerSecond(), total, generator.getTotalTicksPerSecond() * 0.01);
+
+        // Sıralanmış hızlar r. sıra için toplam * r^-s / H(N, s) olmalıdır
+        List<Double> ticksPerSecond = new ArrayList<>();
+        for (Rate rate : rates.values()) {
+            ticksPerSecond.add(1_000_000_000d / rate.getBroadcastIntervalNanos());
+        }
+        ticksPerSecond.sort((a, b) -> Double.compare(b, a));
+        double harmonic = 0d;
+        for (int rank = 1; rank <= 500; rank++) {
+            harmonic += 1d / rank;
+        }
+        for (int rank : new int[]{1, 2, 10, 100, 500}) {
+            double expected = generator.getTotalTicksPerSecond() / rank / harmonic;
+            assertEquals(expected, ticksPerSecond.get(rank - 1), expected * 0.01, "sıra " + rank);
+        }
+    }
+
+    @Test
+    void appliesTheMinimumRateAndExponent() {
+        GeneratorConfig generator = generator(1_000, 2.0);
+        generator.setMinTicksPerSecond(1.0);
+        Map<String, Rate> rates = new HashMap<>();
+
+        LoadGenerator.generate(generator, rates);
+
+        long slowest = rates.values().stream().mapToLong(Rate::getBroadcastIntervalNanos).max().orElseThrow();
+        long fastest = rates.values().stream().mapToLong(Rate::getBroadcastIntervalNanos).min().orElseThrow();
+        assertEquals(1_000_000_000L, slowest);
+        // s = 2 için en popüler sembolün payı 1 / H(1000, 2) ≈ %60,8
+        assertEquals(generator.getTotalTicksPerSecond() * 0.608, 1_000_000_000d / fastest, generator.getTotalTicksPerSecond() * 0.005);
+    }
+
+    @Test
+    void generatesPricesInRangeWithTheConfiguredSpread() {
+        GeneratorConfig generator = generator(300, 1.0);
+        Map<String, Rate> rates = new HashMap<>();
+
+        LoadGenerator.generate(generator, rates);
+
+        double[] values = new double[2];
+        for (Map.Entry<String, Rate> entry : rates.entrySet()) {
+            assertTrue(entry.getKey().matches("LOAD\\d{5}"), entry.getKey());
+            entry.getValue().read(values);
+            double mid = (values[0] + values[1]) / 2;
+            assertTrue(mid >= generator.getPriceMin() && mid <= generator.getPriceMax(), entry.getKey() + " " + mid);
+            assertEquals(mid * generator.getSpreadBps() / 10_000d, values[1] - values[0], mid * 1e-9);
+        }
+        assertTrue(rates.containsKey("LOAD00001") && rates.containsKey("LOAD00300"));
+    }
+
+    @Test
+    void sameSeedProducesTheSameUniverse() {
+        Map<String, Rate> first = new HashMap<>();
+        Map<String, Rate> second = new HashMap<>();
+        Map<String, Rate> other = new HashMap<>();
+        LoadGenerator.generate(generator(200, 1.2), first);
+        LoadGenerator.generate(generator(200, 1.2), second);
+        GeneratorConfig otherSeed = generator(200, 1.2);
+        otherSeed.setSeed(7L);
+        LoadGenerator.generate(otherSeed, other);
+
+        double[] a = new double[2];
+        double[] b = new double[2];
+        boolean differs = false;
+        for (String name : first.keySet()) {
+            Rate rate = first.get(name);
+            assertEquals(rate.getBroadcastIntervalNanos(), second.get(name).getBroadcastIntervalNanos());
+            rate.update();
+            second.get(name).update();
+            rate.read(a);
+            second.get(name).read(b);
+            assertArrayEquals(a, b);
+            other.get(name).read(b);
+            differs |= a[0] != b[0];
+        }
+        assertTrue(differs);
+    }
+
+    @Test
+    void rejectsInvalidProfiles() {
+        GeneratorConfig noSymbols = generator(0, 1.0);
+        GeneratorConfig badRange = generator(10, 1.0);
+        badRange.setPriceMin(10);
+        badRange.setPriceMax(5);
+
+        assertThrows(IllegalArgumentException.class, () -> LoadGenerator.generate(noSymbols, new HashMap<>()));
+        assertThrows(IllegalArgumentException.class, () -> LoadGenerator.generate(badRange, new HashMap<>()));
+    }
+
+    private static GeneratorConfig generator(int symbolCount, double zipfExponent) {
+        GeneratorConfig generator = new GeneratorConfig();
+        generator.setSymbolCount(symbolCount);
+        generator.setSymbolPrefix("LOAD");
+        generator.setSeed(42L);
+        generator.setTotalTicksPerSecond(10_000d);
+        generator.setZipfExponent(zipfExponent);
+        generator.setMinTicksPerSecond(0.001d);
+        generator.setPriceMin(0.5d);
+        generator.setPriceMax(200d);
+        generator.setSpreadBps(5d);
+        generator.setVolatilityBps(2d);
+        return generator;
+    }
+}
@@ -0,0 +1,143 @@
+package com.findata;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link NioTcpServer}'ın abonelere biriken mesajları toplu yazmayla eksiksiz ve sırasıyla ilettiğini
+ * ve {@link NioConnection#MAX_REQUEST_LINE_BYTES} sınırını aşan istek satırı gönderen istemcinin
+ * bağlantısını kapattığını gerçek bir soket üzerinden doğrular.
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @since 2025-04-25
+ */
+class NioTcpServerTest {
+
+    private static final String RATE_NAME = "PF1_USDTRY";
+
+    private RateBroadcaster broadcaster;
+    private NioTcpServer server;
+    private Thread serverThread;
+    private int port;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        try (ServerSocket probe = new ServerSocket(0)) {
+            port = probe.getLocalPort();
+        }
+        Config config = new Config();
+        config.setPort(port);
+        config.setServerMode("nio");
+        config.setSelectorThreads(1);
+        // Oynatma modunda yayın döngüsünü zamanlayıcı değil test thread'i sürer
+        config.setReplayFile("ticks.bin");
+
+        Map<String, Rate> rates = new HashMap<>();
+        rates.put(RATE_NAME, new Rate(RATE_NAME, 34.0, 34.1, 0.0));
+        broadcaster = new RateBroadcaster(rates, new TimingWheel(1_000, 8), config, BurstSchedule.none());
+        server = new NioTcpServer(config, broadcaster, new ClientMetricsReporter());
+        serverThread = new Thread(server::start, "nio-server-test");
+        serverThread.setDaemon(true);
+        serverThread.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        server.stop();
+        serverThread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    @Test
+    void deliversQueuedMessagesInOrderWithGatheredWrites() throws Exception {
+        try (Socket socket = connect()) {
+            BufferedReader reader = reader(socket);
+            send(socket, "subscribe|" + RATE_NAME + "\n");
+            assertEquals("Subscribed to " + RATE_NAME, reader.readLine());
+            assertTrue(reader.readLine().startsWith(RATE_NAME + "|bid:34.00000|"));
+
+            // Tek flush'ta toplu yazma dizisinden (64) fazla mesaj birikir
+            int ticks = 500;
+            Instant timestamp = Instant.parse("2025-04-25T10:00:00Z");
+            for (int i = 1; i <= ticks; i++) {
+                broadcaster.publish(RATE_NAME, 34.0 + i / 1000d, 34.1 + i / 1000d, timestamp);
+            }
+            broadcaster.flush();
+
+            for (int i = 1; i <= ticks; i++) {
+                assertEquals(RateBroadcaster.formatMessage(RATE_NAME, 34.0 + i / 1000d, 34.1 + i / 1000d, timestamp),
+                        reader.readLine(), "mesaj " + i);
+            }
+        }
+    }
+
+    @Test
+    void closesConnectionsThatSendOverlongRequestLines() throws Exception {
+        try (Socket socket = connect()) {
+            BufferedReader reader = reader(socket);
+            send(socket, "subscribe|" + "X".repeat(NioConnection.MAX_REQUEST_LINE_BYTES));
+
+            // Satır sonu hiç gelmese de sunucu bağlantıyı kapatır
+            assertNull(reader.readLine());
+        }
+    }
+
+    @Test
+    void acceptsRequestLinesUpToTheLimit() throws Exception {
+        try (Socket socket = connect()) {
+            BufferedReader reader = reader(socket);
+            String request = "subscribe|" + "X".repeat(NioConnection.MAX_REQUEST_LINE_BYTES - "subscribe|".length());
+            send(socket, request + "\n");
+
+            assertEquals("ERROR|Rate data not found for " + request.substring("subscribe|".length()), reader.readLine());
+        }
+    }
+
+    private Socket connect() throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (true) {
+            Socket socket = new Socket();
+            try {
+                socket.connect(new InetSocketAddress("localhost", port), 1_000);
+                socket.setSoTimeout(5_000);
+                return socket;
+            } catch (ConnectException e) {
+                socket.close();
+                // Sunucu thread'i henüz dinlemeye başlamamış olabilir
+                if (System.nanoTime() > deadline) {
+                    throw e;
+                }
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    private static BufferedReader reader(Socket socket) throws IOException {
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    private static void send(Socket socket, String data) throws IOException {
+        OutputStream out = socket.getOutputStream();
+        out.write(data.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+}
@@ -0,0 +1,150 @@
+package com.findata;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link OutboundQueue}'nun kuyruk dolduğunda drop, conflate ve disconnect politikalarını
+ * doğru uyguladığını, komut yanıtlarının politikadan etkilenmediğini ve metrikleri doğru
+ * tuttuğunu doğrular.
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @since 2025-04-25
+ */
+class OutboundQueueTest {
+
+    @Test
+    void acceptsUpdatesInOrderUntilCapacity() {
+        OutboundQueue queue = new OutboundQueue("test", 3, OutboundQueue.Policy.DISCONNECT);
+
+        assertTrue(queue.offerUpdate("EURUSD", "e1"));
+        assertTrue(queue.offerUpdate("USDTRY", "u1"));
+        assertTrue(queue.offerUpdate("EURUSD", "e2"));
+
+        assertEquals(List.of("e1", "u1", "e2"), drain(queue, Integer.MAX_VALUE));
+        assertTrue(queue.isEmpty());
+        assertEquals(3, queue.getMaxDepth());
+        assertEquals(0, queue.getDropped());
+    }
+
+    @Test
+    void dropPolicyDiscardsNewUpdatesUntilTheQueueDrains() {
+        OutboundQueue queue = new OutboundQueue("test", 2, OutboundQueue.Policy.DROP);
+        queue.offerUpdate("EURUSD", "e1");
+        queue.offerUpdate("EURUSD", "e2");
+
+        assertTrue(queue.offerUpdate("EURUSD", "e3"));
+        assertTrue(queue.offerUpdate("USDTRY", "u1"));
+        assertEquals(2, queue.getDropped());
+        assertEquals(2, queue.getDepth());
+
+        assertEquals(List.of("e1"), drain(queue, 1));
+        assertTrue(queue.offerUpdate("EURUSD", "e4"));
+        assertEquals(List.of("e2", "e4"), drain(queue, Integer.MAX_VALUE));
+        assertEquals(2, queue.getMaxDepth());
+    }
+
+    @Test
+    void disconnectPolicyRejectsUpdatesWhenFull() {
+        OutboundQueue queue = new OutboundQueue("test", 1, OutboundQueue.Policy.DISCONNECT);
+
+        assertTrue(queue.offerUpdate("EURUSD", "e1"));
+        assertFalse(queue.offerUpdate("EURUSD", "e2"));
+        assertEquals(1, queue.getDropped());
+        assertEquals(List.of("e1"), drain(queue, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void conflatePolicyKeepsTheLatestUpdatePerSymbol() {
+        OutboundQueue queue = new OutboundQueue("test", 2, OutboundQueue.Policy.CONFLATE);
+        queue.offerUpdate("EURUSD", "e1");
+        queue.offerUpdate("USDTRY", "u1");
+
+        assertTrue(queue.offerUpdate("USDTRY", "u2"));
+        assertTrue(queue.offerUpdate("EURUSD", "e2"));
+        assertTrue(queue.offerUpdate("USDTRY", "u3"));
+        assertTrue(queue.offerUpdate("GBPUSD", "g1"));
+
+        assertEquals(1, queue.getConflated());
+        assertEquals(0, queue.getDropped());
+        assertEquals(5, queue.getDepth());
+        assertEquals(5, queue.getMaxDepth());
+        // FIFO önce boşaltılır; birleştirilmiş girdiler sembolün ilk birleştirildiği sırayla gelir
+        assertEquals(List.of("e1", "u1", "u3", "e2", "g1"), drain(queue, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void conflatedSymbolsStayOrderedUntilTheTableDrains() {
+        OutboundQueue queue = new OutboundQueue("test", 2, OutboundQueue.Policy.CONFLATE);
+        queue.offerUpdate("EURUSD", "e1");
+        queue.offerUpdate("EURUSD", "e2");
+        queue.offerUpdate("EURUSD", "e3");
+
+        // FIFO'da yer açılsa da birleştirme tablosu boşalana kadar yeni fiyatlar tabloya yazılır
+        assertEquals(List.of("e1"), drain(queue, 1));
+        queue.offerUpdate("EURUSD", "e4");
+        assertEquals(List.of("e2", "e4"), drain(queue, Integer.MAX_VALUE));
+
+        queue.offerUpdate("EURUSD", "e5");
+        assertEquals(List.of("e5"), drain(queue, Integer.MAX_VALUE));
+        assertEquals(1, queue.getConflated());
+    }
+
+    @Test
+    void repliesBypassThePolicy() {
+        OutboundQueue queue = new OutboundQueue("test", 1, OutboundQueue.Policy.DISCONNECT);
+        queue.offerUpdate("EURUSD", "e1");
+
+        queue.offerReply("Subscribed to USDTRY");
+        queue.offerReply("ERROR|Invalid request format");
+
+        assertEquals(3, queue.getDepth());
+        assertEquals(0, queue.getDropped());
+        assertEquals(List.of("e1", "Subscribed to USDTRY", "ERROR|Invalid request format"), drain(queue, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void drainRespectsTheMessageLimitAcrossFifoAndConflatedEntries() {
+        OutboundQueue queue = new OutboundQueue("test", 2, OutboundQueue.Policy.CONFLATE);
+        queue.offerUpdate("A", "a1");
+        queue.offerUpdate("B", "b1");
+        queue.offerUpdate("C", "c1");
+        queue.offerUpdate("D", "d1");
+
+        assertEquals(List.of("a1", "b1", "c1"), drain(queue, 3));
+        assertFalse(queue.isEmpty());
+        assertEquals(List.of("d1"), drain(queue, 3));
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void recordsSentMetricsAndParsesPolicyNames() {
+        OutboundQueue queue = new OutboundQueue("test", 0, OutboundQueue.Policy.from(" Conflate "));
+        queue.recordSent(2, 100);
+        queue.recordSent(1, 50);
+
+        assertEquals(OutboundQueue.Policy.CONFLATE, queue.getPolicy());
+        assertEquals(3, queue.getSentMessages());
+        assertEquals(150, queue.getSentBytes());
+        assertEquals(OutboundQueue.Policy.DROP, OutboundQueue.Policy.from("drop"));
+        assertThrows(IllegalArgumentException.class, () -> OutboundQueue.Policy.from("block"));
+        // Kapasite en az 1'dir
+        assertTrue(queue.offerUpdate("EURUSD", "e1"));
+        assertEquals(0, queue.getConflated());
+    }
+
+    private static List<String> drain(OutboundQueue queue, int maxMessages) {
+        List<String> messages = new ArrayList<>();
+        int drained = queue.drainTo(messages, maxMessages);
+        assertEquals(messages.size(), drained);
+        return messages;
+    }
+}
@@ -0,0 +1,114 @@
+package com.findata;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link Rate}'in seqlock'unun eşzamanlı yazıcılar altında okuyuculara her zaman aynı güncellemeye
+ * ait bid/ask çiftini verdiğini ve tohumlu kurların deterministik ilerlediğini doğrular.
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @since 2025-04-25
+ */
+class RateTest {
+
+    @Test
+    void readersNeverSeeATornBidAskPair() throws InterruptedException {
+        Rate rate = new Rate("PF1_USDTRY", 0.0, 0.0, 0.0);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<String> failure = new AtomicReference<>();
+        AtomicLong reads = new AtomicLong();
+        CountDownLatch ready = new CountDownLatch(4);
+        List<Thread> threads = new ArrayList<>();
+
+        // Her yazıcı ask = -bid olan çiftler yazar; yırtık bir okuma bu eşitliği bozar
+        for (int writer = 0; writer < 2; writer++) {
+            long offset = writer * (1L << 40);
+            threads.add(new Thread(() -> {
+                ready.countDown();
+                for (long i = 1; running.get(); i++) {
+                    double value = offset + i;
+                    rate.set(value, -value);
+                }
+            }));
+        }
+        for (int reader = 0; reader < 2; reader++) {
+            threads.add(new Thread(() -> {
+                double[] values = new double[2];
+                ready.countDown();
+                while (running.get()) {
+                    rate.read(values);
+                    if (values[1] != -values[0]) {
+                        failure.compareAndSet(null, values[0] + " / " + values[1]);
+                    }
+                    reads.incrementAndGet();
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        assertTrue(ready.await(5, TimeUnit.SECONDS));
+        Thread.sleep(300);
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+
+        assertNull(failure.get());
+        assertTrue(reads.get() > 0);
+    }
+
+    @Test
+    void concurrentUpdatesKeepAskAboveBid() throws InterruptedException {
+        Rate rate = new Rate("PF1_EURUSD", 1.08, 1.09, 0.01, 0L, 7L);
+        List<Thread> writers = new ArrayList<>();
+        for (int writer = 0; writer < 4; writer++) {
+            writers.add(new Thread(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    rate.update();
+                }
+            }));
+        }
+        writers.forEach(Thread::start);
+        double[] values = new double[2];
+        for (int i = 0; i < 20_000; i++) {
+            rate.read(values);
+            assertTrue(values[1] >= values[0], values[0] + " > " + values[1]);
+        }
+        for (Thread writer : writers) {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        rate.read(values);
+        assertTrue(values[0] >= 0 && values[1] >= values[0]);
+    }
+
+    @Test
+    void seededRatesProduceTheSameWalk() {
+        Rate first = new Rate("PF1_GBPUSD", 1.25, 1.26, 0.005, 1_000L, 42L);
+        Rate second = new Rate("PF1_GBPUSD", 1.25, 1.26, 0.005, 1_000L, 42L);
+        double[] a = new double[2];
+        double[] b = new double[2];
+
+        for (int i = 0; i < 1_000; i++) {
+            first.update();
+            second.update();
+            first.read(a);
+            second.read(b);
+            assertArrayEquals(a, b);
+        }
+        assertEquals(1_000L, first.getBroadcastIntervalNanos());
+        assertArrayEquals(new Double[]{a[0], a[1]}, first.getCurrentValues());
+    }
+}
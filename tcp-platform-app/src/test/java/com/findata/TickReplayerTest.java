@@ -0,0 +1,226 @@
+package com.findata;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link TickRecorder} ile yazılan bir dosyanın {@link TickReplayer} tarafından aynı sırada ve aynı
+ * fiyatlarla yeniden yayınlandığını, aradaki sürelerin hız çarpanına göre korunduğunu, yarım kalmış
+ * kayıtların okunabildiğini ve geçersiz dosyaların reddedildiğini doğrular.
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @since 2025-04-25
+ */
+class TickReplayerTest {
+
+    private static final String[] SYMBOLS = {"PF1_USDTRY", "PF1_EURUSD", "PF1_GBPUSD"};
+
+    private static final Instant START = Instant.parse("2025-04-25T10:15:30.123456789Z");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysRecordedTicksInOrderWithTheSamePrices() throws IOException {
+        Path file = directory.resolve("ticks.bin");
+        List<Tick> recorded = record(file, 1_000);
+        Map<String, Rate> rates = new HashMap<>();
+        CapturingBroadcaster broadcaster = new CapturingBroadcaster(rates);
+
+        TickReplayer replayer = new TickReplayer(file, 0, false, broadcaster, rates);
+
+        // Semboller ilk kayıtlarındaki fiyatlarla kur haritasına eklenir
+        assertEquals(SYMBOLS.length, rates.size());
+        for (String symbol : SYMBOLS) {
+            Tick first = recorded.stream().filter(tick -> tick.symbol.equals(symbol)).findFirst().orElseThrow();
+            double[] values = new double[2];
+            rates.get(symbol).read(values);
+            assertArrayEquals(new double[]{first.bid, first.ask}, values);
+        }
+
+        replayer.run();
+
+        assertEquals(recorded.size(), broadcaster.published.size());
+        for (int i = 0; i < recorded.size(); i++) {
+            Tick expected = recorded.get(i);
+            Tick actual = broadcaster.published.get(i);
+            assertEquals(expected.symbol, actual.symbol);
+            assertEquals(expected.bid, actual.bid);
+            assertEquals(expected.ask, actual.ask);
+        }
+        assertTrue(broadcaster.flushes > 0);
+    }
+
+    @Test
+    void preservesTickSpacingScaledBySpeed() throws IOException {
+        Path file = directory.resolve("ticks.bin");
+        List<Tick> recorded = record(file, 200);
+        Map<String, Rate> rates = new HashMap<>();
+        CapturingBroadcaster broadcaster = new CapturingBroadcaster(rates);
+        double speed = 1_000;
+
+        new TickReplayer(file, speed, false, broadcaster, rates).run();
+
+        List<Tick> published = broadcaster.published;
+        assertEquals(recorded.size(), published.size());
+        long firstNanos = epochNanos(recorded.get(0).timestamp);
+        Instant replayStart = published.get(0).timestamp;
+        for (int i = 0; i < recorded.size(); i++) {
+            long offsetNanos = (long) ((epochNanos(recorded.get(i).timestamp) - firstNanos) / speed);
+            assertEquals(replayStart.plusNanos(offsetNanos), published.get(i).timestamp);
+        }
+    }
+
+    @Test
+    void loopsUntilStopped() throws Exception {
+        Path file = directory.resolve("ticks.bin");
+        List<Tick> recorded = record(file, 50);
+        Map<String, Rate> rates = new HashMap<>();
+        CapturingBroadcaster broadcaster = new CapturingBroadcaster(rates);
+        TickReplayer replayer = new TickReplayer(file, 0, true, broadcaster, rates);
+
+        replayer.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (broadcaster.published.size() < recorded.size() * 3 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue(replayer.stop(5, TimeUnit.SECONDS));
+
+        List<Tick> published = new ArrayList<>(broadcaster.published);
+        assertTrue(published.size() >= recorded.size() * 3);
+        for (int i = 0; i < published.size(); i++) {
+            assertEquals(recorded.get(i % recorded.size()).symbol, published.get(i).symbol);
+            assertEquals(recorded.get(i % recorded.size()).bid, published.get(i).bid);
+        }
+    }
+
+    @Test
+    void readsTheCompleteRecordsOfAnInterruptedRecording() throws IOException {
+        Path file = directory.resolve("ticks.bin");
+        List<Tick> recorded = record(file, 20);
+        // Süreç kayıt sırasında sonlanmış gibi: sayaç 20 gösterirken dosyada 10,5 kayıt kalır
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(TickRecorder.HEADER_SIZE + 10L * TickRecorder.RECORD_SIZE + TickRecorder.RECORD_SIZE / 2);
+        }
+        Map<String, Rate> rates = new HashMap<>();
+        CapturingBroadcaster broadcaster = new CapturingBroadcaster(rates);
+
+        new TickReplayer(file, 0, false, broadcaster, rates).run();
+
+        assertEquals(10, broadcaster.published.size());
+        assertEquals(recorded.get(9).bid, broadcaster.published.get(9).bid);
+    }
+
+    @Test
+    void skipsSymbolsThatDoNotFitTheRecord() throws IOException {
+        Path file = directory.resolve("ticks.bin");
+        try (TickRecorder recorder = new TickRecorder(file)) {
+            recorder.record("PF1_USDTRY", 34.1, 34.2, START);
+            recorder.record("X".repeat(TickRecorder.SYMBOL_SIZE + 1), 1.0, 2.0, START.plusMillis(1));
+            recorder.record("Y".repeat(TickRecorder.SYMBOL_SIZE), 3.0, 4.0, START.plusMillis(2));
+            assertEquals(2, recorder.getCount());
+        }
+        assertEquals(TickRecorder.HEADER_SIZE + 2L * TickRecorder.RECORD_SIZE, Files.size(file));
+        Map<String, Rate> rates = new HashMap<>();
+        CapturingBroadcaster broadcaster = new CapturingBroadcaster(rates);
+
+        new TickReplayer(file, 0, false, broadcaster, rates).run();
+
+        assertEquals(List.of("PF1_USDTRY", "Y".repeat(TickRecorder.SYMBOL_SIZE)),
+                broadcaster.published.stream().map(tick -> tick.symbol).toList());
+    }
+
+    @Test
+    void rejectsFilesThatAreNotRecordings() throws IOException {
+        Map<String, Rate> rates = new HashMap<>();
+        CapturingBroadcaster broadcaster = new CapturingBroadcaster(rates);
+        Path shortFile = Files.write(directory.resolve("short.bin"), new byte[TickRecorder.HEADER_SIZE - 1]);
+        Path foreignFile = Files.write(directory.resolve("foreign.bin"), new byte[TickRecorder.HEADER_SIZE + TickRecorder.RECORD_SIZE]);
+
+        assertThrows(IOException.class, () -> new TickReplayer(shortFile, 0, false, broadcaster, rates));
+        assertThrows(IOException.class, () -> new TickReplayer(foreignFile, 0, false, broadcaster, rates));
+        assertThrows(IllegalArgumentException.class, () -> new TickReplayer(foreignFile, -1, false, broadcaster, rates));
+    }
+
+    /**
+     * Rastgele fiyat ve aralıklarla tick'ler kaydeder; aralıklar mikrosaniyenin katıdır ki hız
+     * çarpanına bölündüğünde yuvarlama olmasın.
+     */
+    private static List<Tick> record(Path file, int count) throws IOException {
+        SplittableRandom random = new SplittableRandom(count);
+        List<Tick> ticks = new ArrayList<>(count);
+        Instant timestamp = START;
+        try (TickRecorder recorder = new TickRecorder(file)) {
+            for (int i = 0; i < count; i++) {
+                String symbol = SYMBOLS[random.nextInt(SYMBOLS.length)];
+                double bid = random.nextDouble(0.5, 50);
+                double ask = bid + random.nextDouble(0.0001, 0.01);
+                recorder.record(symbol, bid, ask, timestamp);
+                ticks.add(new Tick(symbol, bid, ask, timestamp));
+                timestamp = timestamp.plusNanos(1_000L * random.nextInt(1, 5_000));
+            }
+            assertEquals(count, recorder.getCount());
+        }
+        assertEquals(TickRecorder.HEADER_SIZE + (long) count * TickRecorder.RECORD_SIZE, Files.size(file));
+        return ticks;
+    }
+
+    private static long epochNanos(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+
+    private record Tick(String symbol, double bid, double ask, Instant timestamp) {
+    }
+
+    /**
+     * Oynatıcının yayınladığı tick'leri biriktiren yayın merkezi.
+     */
+    private static final class CapturingBroadcaster extends RateBroadcaster {
+
+        private final List<Tick> published = Collections.synchronizedList(new ArrayList<>());
+
+        private int flushes;
+
+        private CapturingBroadcaster(Map<String, Rate> rates) {
+            super(rates, new TimingWheel(1_000, 8), replayConfig(), BurstSchedule.none());
+        }
+
+        @Override
+        public void publish(String rateName, double bid, double ask, Instant timestamp) {
+            super.publish(rateName, bid, ask, timestamp);
+            published.add(new Tick(rateName, bid, ask, timestamp));
+        }
+
+        @Override
+        public void flush() {
+            super.flush();
+            flushes++;
+        }
+
+        private static Config replayConfig() {
+            Config config = new Config();
+            config.setReplayFile("ticks.bin");
+            return config;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.findata;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link TimingWheel}'in görevleri deadline'larından önce çalıştırmadığını, tekerlek turundan uzun
+ * gecikmeleri doğru beklediğini, tick süresinden kısa periyotlarda hedef hızı koruduğunu ve iptal
+ * edilen görevleri bir daha çalıştırmadığını doğrular.
+ * <p>
+ * Zamanlamaya bağlı testlerde yalnızca zamanlayıcının garanti ettiği sınırlar (erken çalışmama,
+ * hedef hızı aşmama) sıkı tutulur; alt sınırlar yüklü makinelerde de geçecek kadar geniştir.
+ * </p>
+ *
+ * @author Finans Veri Projesi Team
+ * @version 1.0
+ * @since 2025-04-25
+ */
+class TimingWheelTest {
+
+    private TimingWheel wheel;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (wheel != null) {
+            assertTrue(wheel.stop(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel(0, 8));
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel(100, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel(100, (1 << 30) + 1));
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel(100, 8).scheduleAtFixedRate(() -> { }, 0, 0));
+    }
+
+    @Test
+    void neverRunsATaskBeforeItsDeadlineEvenAfterSeveralRotations() throws InterruptedException {
+        // 4 kova x 1 ms: 30 ms'lik gecikme tekerleği yedi turdan fazla döndürür
+        wheel = new TimingWheel(1_000, 4);
+        wheel.start();
+        long delayNanos = TimeUnit.MILLISECONDS.toNanos(30);
+        long periodNanos = TimeUnit.MILLISECONDS.toNanos(25);
+        long[] runTimes = new long[3];
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(runTimes.length);
+
+        long scheduledAt = System.nanoTime();
+        wheel.scheduleAtFixedRate(() -> {
+            int run = runs.getAndIncrement();
+            if (run < runTimes.length) {
+                runTimes[run] = System.nanoTime();
+                done.countDown();
+            }
+        }, delayNanos, periodNanos);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        for (int run = 0; run < runTimes.length; run++) {
+            long deadline = scheduledAt + delayNanos + run * periodNanos;
+            assertTrue(runTimes[run] >= deadline, "çalıştırma " + run + " deadline'dan önce");
+        }
+    }
+
+    @Test
+    void keepsTheTargetRateWhenThePeriodIsShorterThanATick() throws InterruptedException {
+        wheel = new TimingWheel(1_000, 64);
+        wheel.start();
+        long periodNanos = TimeUnit.MICROSECONDS.toNanos(100);
+        AtomicLong runs = new AtomicLong();
+
+        long scheduledAt = System.nanoTime();
+        TimingWheel.Timeout timeout = wheel.scheduleAtFixedRate(runs::incrementAndGet, 0, periodNanos);
+        Thread.sleep(300);
+        timeout.cancel();
+        long elapsed = System.nanoTime() - scheduledAt;
+        Thread.sleep(20);
+
+        long expected = elapsed / periodNanos;
+        // Sabit hızda bir görev hedeften fazla çalışamaz; tek tick içinde yetişerek hedefe yaklaşır
+        assertTrue(runs.get() <= expected + 2, runs.get() + " > " + expected);
+        assertTrue(runs.get() >= expected / 2, runs.get() + " < " + expected / 2);
+    }
+
+    @Test
+    void cancelledTasksStopRunning() throws InterruptedException {
+        wheel = new TimingWheel(500, 16);
+        wheel.start();
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(5);
+        TimingWheel.Timeout timeout = wheel.scheduleAtFixedRate(() -> {
+            runs.incrementAndGet();
+            started.countDown();
+        }, 0, TimeUnit.MILLISECONDS.toNanos(1));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        timeout.cancel();
+        assertTrue(timeout.isCancelled());
+        Thread.sleep(20);
+        int afterCancel = runs.get();
+        Thread.sleep(50);
+
+        assertEquals(afterCancel, runs.get());
+    }
+
+    @Test
+    void tasksCancelledBeforeTheirFirstRunNeverRun() throws InterruptedException {
+        wheel = new TimingWheel(500, 16);
+        AtomicInteger cancelledRuns = new AtomicInteger();
+        CountDownLatch otherRuns = new CountDownLatch(20);
+
+        // Tekerlek başlamadan planlanıp iptal edilir; yük altında ilk çalıştırmanın iptalden önce gelmesi mümkün olmaz
+        TimingWheel.Timeout cancelled = wheel.scheduleAtFixedRate(cancelledRuns::incrementAndGet,
+                0, TimeUnit.MILLISECONDS.toNanos(1));
+        wheel.scheduleAtFixedRate(otherRuns::countDown, 0, TimeUnit.MILLISECONDS.toNanos(1));
+        cancelled.cancel();
+        wheel.start();
+
+        assertTrue(otherRuns.await(5, TimeUnit.SECONDS));
+        assertEquals(0, cancelledRuns.get());
+    }
+
+    @Test
+    void failingTasksAndListenersDoNotStopTheWheel() throws InterruptedException {
+        wheel = new TimingWheel(500, 16);
+        CountDownLatch ticks = new CountDownLatch(10);
+        CountDownLatch healthyRuns = new CountDownLatch(10);
+        wheel.setTickListener(() -> {
+            ticks.countDown();
+            throw new IllegalStateException("dinleyici hatası");
+        });
+        wheel.start();
+
+        wheel.scheduleAtFixedRate(() -> {
+            throw new IllegalStateException("görev hatası");
+        }, 0, TimeUnit.MILLISECONDS.toNanos(1));
+        wheel.scheduleAtFixedRate(healthyRuns::countDown, 0, TimeUnit.MILLISECONDS.toNanos(1));
+
+        assertTrue(ticks.await(5, TimeUnit.SECONDS));
+        assertTrue(healthyRuns.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void periodSupplierIsConsultedAfterEveryRun() throws InterruptedException {
+        wheel = new TimingWheel(500, 16);
+        wheel.start();
+        AtomicInteger periods = new AtomicInteger();
+        CountDownLatch runs = new CountDownLatch(5);
+
+        wheel.scheduleAtFixedRate(runs::countDown, 0, () -> {
+            periods.incrementAndGet();
+            return TimeUnit.MILLISECONDS.toNanos(1);
+        });
+
+        assertTrue(runs.await(5, TimeUnit.SECONDS));
+        assertTrue(periods.get() >= 4);
+    }
+}